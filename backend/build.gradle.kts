@@ -8,6 +8,7 @@ plugins {
 	id("org.openapi.generator") version "7.8.0"
 	id("com.diffplug.spotless") version "6.25.0"
 	id("jacoco")
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.universal.qbank"
@@ -41,7 +42,13 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-mail")
 	implementation("org.flywaydb:flyway-core")
+	// Hibernate second-level cache (Caffeine via JCache) and its Micrometer statistics binder
+	implementation("org.hibernate.orm:hibernate-jcache")
+	implementation("org.hibernate.orm:hibernate-micrometer")
+	implementation("com.github.ben-manes.caffeine:jcache")
 	implementation("net.logstash.logback:logstash-logback-encoder:7.4")
+	// Compressed bitmaps for the in-memory question facet index
+	implementation("org.roaringbitmap:RoaringBitmap:1.0.6")
 
 	annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
 
@@ -50,6 +57,7 @@ dependencies {
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	runtimeOnly("com.h2database:h2")
 	runtimeOnly("org.postgresql:postgresql")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testRuntimeOnly("com.h2database:h2")
 
 	implementation("org.openapitools:jackson-databind-nullable:0.2.6")
@@ -154,6 +162,136 @@ tasks.named("check") {
 	dependsOn("jacocoTestCoverageVerification")
 }
 
+// JMH micro-benchmarks live in src/jmh/java. Results are written as JSON so that runs from
+// different commits can be compared with jmhCompare.
+//   ./gradlew jmh -Pjmh.includes=ObjectiveGrading
+//   ./gradlew jmhArchive
+//   ./gradlew jmhCompare -Pjmh.baseline=benchmarks/<commit>.json
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+jmh {
+	jmhVersion.set("1.37")
+	resultFormat.set("JSON")
+	resultsFile.set(jmhResults)
+	fork.set(1)
+	warmupIterations.set(3)
+	iterations.set(5)
+	timeOnIteration.set("2s")
+	warmup.set("2s")
+	findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+}
+
+val gitCommit =
+	providers
+		.exec {
+			commandLine("git", "rev-parse", "--short", "HEAD")
+			isIgnoreExitValue = true
+		}
+		.standardOutput
+		.asText
+		.map { it.trim().ifEmpty { "local" } }
+
+tasks.register<Copy>("jmhArchive") {
+	group = "benchmark"
+	description = "Copy the latest JMH results to benchmarks/<commit>.json"
+	from(jmhResults)
+	into(layout.projectDirectory.dir("benchmarks"))
+	rename { "${gitCommit.get()}.json" }
+}
+
+tasks.register("jmhCompare") {
+	group = "benchmark"
+	description = "Compare the latest JMH results with a baseline (-Pjmh.baseline=<file>)"
+	doLast {
+		val baselinePath =
+			findProperty("jmh.baseline")?.toString()
+				?: throw GradleException("Set -Pjmh.baseline=<results.json>")
+		val threshold = (findProperty("jmh.threshold")?.toString() ?: "0.10").toDouble()
+		fun load(file: File): Map<String, Pair<Double, String>> {
+			@Suppress("UNCHECKED_CAST")
+			val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+			return runs.associate { run ->
+				@Suppress("UNCHECKED_CAST")
+				val params = (run["params"] as Map<String, Any?>?)?.entries?.joinToString(",") ?: ""
+				@Suppress("UNCHECKED_CAST")
+				val metric = run["primaryMetric"] as Map<String, Any?>
+				"${run["benchmark"]}($params)" to
+					Pair((metric["score"] as Number).toDouble(), metric["scoreUnit"].toString())
+			}
+		}
+		val baseline = load(file(baselinePath))
+		val current = load(jmhResults.get().asFile)
+		val regressions = mutableListOf<String>()
+		current.toSortedMap().forEach { (name, value) ->
+			val before = baseline[name] ?: return@forEach
+			val (score, unit) = value
+			// Throughput units (ops/...) regress when the score drops, time units when it grows.
+			val higherIsBetter = unit.startsWith("ops/")
+			val change = (score - before.first) / before.first
+			val worse = if (higherIsBetter) -change else change
+			val line =
+				"%-90s %12.3f -> %12.3f %-8s %+7.1f%%"
+					.format(name, before.first, score, unit, change * 100)
+			println(line)
+			if (worse > threshold) {
+				regressions.add(line)
+			}
+		}
+		if (regressions.isNotEmpty()) {
+			throw GradleException(
+				"JMH regressions above ${threshold * 100}%:\n" + regressions.joinToString("\n")
+			)
+		}
+	}
+}
+
+// In-process exam wave load test: boots the application on an embedded H2 database, seeds an
+// exam plan and drives start -> autosave -> submit -> grade over HTTP.
+//   ./gradlew loadTest -Pstudents=2000 -Pconcurrency=200 -Pquestions=30 -Pautosaves=3
+// Extra Spring properties can be passed with -PspringArgs="--app.exam.answer-storage=SHEET".
+val loadTestSourceSet =
+	sourceSets.create("loadTest") {
+		compileClasspath += sourceSets["main"].output
+		runtimeClasspath += sourceSets["main"].output
+	}
+
+configurations["loadTestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadTestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Run the in-process exam wave load test and write build/reports/load-test"
+	classpath = loadTestSourceSet.runtimeClasspath
+	mainClass.set("com.universal.qbank.loadtest.ExamWaveLoadTest")
+	maxHeapSize = findProperty("loadTestHeap")?.toString() ?: "1g"
+	listOf("students", "concurrency", "questions", "autosaves").forEach { name ->
+		findProperty(name)?.let { systemProperty("loadtest.$name", it.toString()) }
+	}
+	systemProperty(
+		"loadtest.report",
+		layout.buildDirectory.file("reports/load-test/exam-wave.json").get().asFile.path
+	)
+	findProperty("springArgs")?.let { args(it.toString().split(" ").filter(String::isNotBlank)) }
+}
+
+// Platform vs virtual thread comparison under an AI-heavy workload (stub Ollama with fixed delay):
+//   ./gradlew loadTestAi -PaiClients=300 -PlightClients=20 -PaiDelayMs=2000 -PdurationSeconds=30
+tasks.register<JavaExec>("loadTestAi") {
+	group = "verification"
+	description = "Compare platform and virtual threads under AI-heavy load, write build/reports/load-test"
+	classpath = loadTestSourceSet.runtimeClasspath
+	mainClass.set("com.universal.qbank.loadtest.AiWorkloadLoadTest")
+	maxHeapSize = findProperty("loadTestHeap")?.toString() ?: "1g"
+	listOf("aiClients", "lightClients", "aiDelayMs", "durationSeconds", "modes").forEach { name ->
+		findProperty(name)?.let { systemProperty("loadtest.$name", it.toString()) }
+	}
+	systemProperty(
+		"loadtest.report",
+		layout.buildDirectory.file("reports/load-test/ai-workload.json").get().asFile.path
+	)
+	findProperty("springArgs")?.let { args(it.toString().split(" ").filter(String::isNotBlank)) }
+}
+
 tasks.withType<org.springframework.boot.gradle.tasks.run.BootRun> {
 	val envFile = file("../.env")
 	if (envFile.exists()) {
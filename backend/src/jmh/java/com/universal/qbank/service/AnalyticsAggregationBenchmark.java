@@ -0,0 +1,71 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.api.generated.model.ExamAnalyticsResponse;
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** 试卷分析的内存聚合耗时（成绩分布、知识点掌握度、错误率），数据已加载 */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnalyticsAggregationBenchmark {
+
+  private static final int QUESTIONS = 50;
+
+  @Param({"100", "2000"})
+  public int exams;
+
+  private List<ExamEntity> examList;
+
+  private List<QuestionEntity> questions;
+
+  private Map<Long, List<ExamRecordEntity>> recordsByExam;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(7);
+    questions = new ArrayList<>(QUESTIONS);
+    for (int i = 0; i < QUESTIONS; i++) {
+      QuestionEntity q = new QuestionEntity();
+      q.setId("q-" + i);
+      q.setKnowledgePointIds(List.of("kp-" + (i % 10), "kp-" + (i % 7 + 10)));
+      questions.add(q);
+    }
+    examList = new ArrayList<>(exams);
+    recordsByExam = new HashMap<>();
+    for (long e = 0; e < exams; e++) {
+      ExamEntity exam = new ExamEntity();
+      exam.setId(e);
+      exam.setScore(random.nextInt(101));
+      examList.add(exam);
+      List<ExamRecordEntity> records = new ArrayList<>(QUESTIONS);
+      for (QuestionEntity q : questions) {
+        ExamRecordEntity record = new ExamRecordEntity();
+        record.setQuestionId(q.getId());
+        record.setIsCorrect(random.nextInt(100) < 65);
+        records.add(record);
+      }
+      recordsByExam.put(e, records);
+    }
+  }
+
+  @Benchmark
+  public ExamAnalyticsResponse aggregate() {
+    return AnalyticsService.aggregate(1L, examList, questions, recordsByExam);
+  }
+}
@@ -0,0 +1,39 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** 交卷时客观题判分（解析选项 JSON 并与作答比较）的单题耗时 */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectiveGradingBenchmark {
+
+  private static final String SINGLE_OPTIONS =
+      "[{\"text\":\"北京\",\"isCorrect\":true},{\"text\":\"上海\",\"isCorrect\":false},"
+          + "{\"text\":\"广州\",\"isCorrect\":false},{\"text\":\"深圳\",\"isCorrect\":false}]";
+
+  private static final String MULTI_OPTIONS =
+      "[{\"text\":\"TCP\",\"isCorrect\":true},{\"text\":\"UDP\",\"isCorrect\":true},"
+          + "{\"text\":\"HTTP\",\"isCorrect\":false},{\"text\":\"IP\",\"isCorrect\":true}]";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Benchmark
+  public boolean singleChoice() {
+    return ExamService.isObjectiveAnswerCorrect(
+        objectMapper, "SINGLE_CHOICE", SINGLE_OPTIONS, " 北京 ");
+  }
+
+  @Benchmark
+  public boolean multipleChoice() {
+    return ExamService.isObjectiveAnswerCorrect(
+        objectMapper, "MULTIPLE_CHOICE", MULTI_OPTIONS, "IP, TCP,UDP");
+  }
+}
@@ -0,0 +1,47 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.api.generated.model.QuestionOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** optionsJson 三种历史格式的解析耗时，后两种需先经历解析失败再回退 */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OptionParsingBenchmark {
+
+  @Param({"OPTIONS", "STRINGS", "GENERIC"})
+  public String format;
+
+  private String json;
+
+  @Setup
+  public void setUp() {
+    json =
+        switch (format) {
+          case "STRINGS" -> "[\"<p>选项 A</p>\",\"选项&nbsp;B\",\"选项 C\",\"选项 D\"]";
+          case "GENERIC" ->
+              "[{\"content\":\"<b>选项 A</b>\",\"key\":\"A\",\"isCorrect\":\"true\"},"
+                  + "{\"content\":\"选项 B\",\"key\":\"B\"},{\"value\":\"选项 C\",\"key\":\"C\"},"
+                  + "{\"label\":\"选项 D\",\"key\":\"D\",\"extra\":1}]";
+          default ->
+              "[{\"key\":\"A\",\"text\":\"<p>选项 A</p>\",\"isCorrect\":true},"
+                  + "{\"key\":\"B\",\"text\":\"选项 B\",\"isCorrect\":false},"
+                  + "{\"key\":\"C\",\"text\":\"选项 C\",\"isCorrect\":false},"
+                  + "{\"key\":\"D\",\"text\":\"选项 D\",\"isCorrect\":false}]";
+        };
+  }
+
+  @Benchmark
+  public List<QuestionOption> parseOptions() {
+    return ExamPaperPayloadCache.parseOptions(json);
+  }
+}
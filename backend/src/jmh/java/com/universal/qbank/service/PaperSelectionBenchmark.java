@@ -0,0 +1,67 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.QuestionEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** 随机组卷选题在合成题目池上的耗时（不含数据库查询） */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaperSelectionBenchmark {
+
+  private static final String[] TYPES = {
+    "SINGLE_CHOICE", "MULTIPLE_CHOICE", "TRUE_FALSE", "SHORT_ANSWER"
+  };
+
+  private static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD"};
+
+  @Param({"1000", "10000"})
+  public int poolSize;
+
+  @Param({"50", "200"})
+  public int total;
+
+  private List<QuestionEntity> pool;
+
+  private Map<String, Integer> typeCounts;
+
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    pool = new ArrayList<>(poolSize);
+    for (int i = 0; i < poolSize; i++) {
+      QuestionEntity q = new QuestionEntity();
+      q.setId("q-" + i);
+      q.setType(TYPES[i % TYPES.length]);
+      q.setDifficulty(DIFFICULTIES[i % DIFFICULTIES.length]);
+      pool.add(q);
+    }
+    typeCounts = Map.of("SINGLE_CHOICE", total / 2, "MULTIPLE_CHOICE", total / 4);
+    random = new Random(42);
+  }
+
+  @Benchmark
+  public List<String> fillOnly() {
+    // 选题会打乱传入列表，每次传入副本
+    return PaperService.selectQuestionIds(new ArrayList<>(pool), total, null, null, random);
+  }
+
+  @Benchmark
+  public List<String> typeQuotasWithDifficulty() {
+    return PaperService.selectQuestionIds(
+        new ArrayList<>(pool), total, typeCounts, "MEDIUM", random);
+  }
+}
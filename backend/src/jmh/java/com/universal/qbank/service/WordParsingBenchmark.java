@@ -0,0 +1,80 @@
+package com.universal.qbank.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Word 导入的正则匹配与整份文档解析耗时；文档在内存中构造，不含文件读取 */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordParsingBenchmark {
+
+  @Param({"100", "1000"})
+  public int questions;
+
+  private final WordQuestionParser parser = new WordQuestionParser();
+
+  private XWPFDocument document;
+
+  private List<String> lines;
+
+  @Setup
+  public void setUp() {
+    lines = new ArrayList<>();
+    for (int i = 1; i <= questions; i++) {
+      lines.add(i + ". 下列关于第 " + i + " 个知识点的说法，正确的是（  ）");
+      if (i % 2 == 0) {
+        lines.add("A. 选项一 B. 选项二 C. 选项三 D. 选项四");
+      } else {
+        lines.add("(A) 较长的选项内容，包含中文标点，以及 English words");
+        lines.add("(B) 第二个选项");
+        lines.add("C、第三个选项");
+        lines.add("D．第四个选项");
+      }
+      lines.add("答案：" + (i % 3 == 0 ? "AC" : "B"));
+      lines.add("解析：题目解析文字");
+    }
+    document = new XWPFDocument();
+    for (String line : lines) {
+      document.createParagraph().createRun().setText(line);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    document.close();
+  }
+
+  @Benchmark
+  public void matchPatterns(Blackhole bh) {
+    for (String line : lines) {
+      if (WordQuestionParser.QUESTION_START_PATTERN.matcher(line).find()) {
+        bh.consume(true);
+        continue;
+      }
+      Matcher option = WordQuestionParser.OPTION_PATTERN.matcher(line);
+      while (option.find()) {
+        bh.consume(option.group(3));
+      }
+    }
+  }
+
+  @Benchmark
+  public int parseDocument(Blackhole bh) {
+    return parser.parse(document, bh::consume);
+  }
+}
@@ -0,0 +1,225 @@
+package com.universal.qbank.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.net.httpserver.HttpServer;
+import com.universal.qbank.ExamPlatformApplication;
+import com.universal.qbank.entity.UserEntity;
+import com.universal.qbank.repository.UserRepository;
+import com.universal.qbank.service.SystemConfigService;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * AI 密集负载下平台线程与虚拟线程两种模式的对比压测。
+ *
+ * <p>启动一个固定延迟响应的模拟 Ollama 服务，分别以两种线程模式启动应用：大量客户端持续调用学生 AI 问答（每次阻塞
+ * aiDelayMs），同时少量客户端持续请求轻量的题目列表，比较两类接口的吞吐与 p50/p99。平台线程模式下慢 AI 请求占满 Tomcat
+ * 线程池后，轻量接口的延迟会明显上升。通过 {@code ./gradlew loadTestAi} 运行。
+ */
+public final class AiWorkloadLoadTest {
+
+  private static final String AI_ASK = "POST /api/ai/student/ask";
+  private static final String QUESTIONS = "GET /api/questions";
+
+  private final int aiClients = Integer.getInteger("loadtest.aiClients", 300);
+  private final int lightClients = Integer.getInteger("loadtest.lightClients", 20);
+  private final int aiDelayMs = Integer.getInteger("loadtest.aiDelayMs", 2000);
+  private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+  private final List<String> modes =
+      List.of(System.getProperty("loadtest.modes", "platform,virtual").split(","));
+  private final Path reportPath =
+      Path.of(System.getProperty("loadtest.report", "build/reports/load-test/ai-workload.json"));
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+
+  private AiWorkloadLoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    new AiWorkloadLoadTest().run(args);
+  }
+
+  private void run(String[] extraArgs) throws Exception {
+    HttpServer ollama = startFakeOllama();
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("aiClients", aiClients);
+    report.put("lightClients", lightClients);
+    report.put("aiDelayMs", aiDelayMs);
+    report.put("durationSeconds", durationSeconds);
+    try {
+      for (String mode : modes) {
+        report.put(mode.trim(), runMode(mode.trim(), ollama.getAddress().getPort(), extraArgs));
+      }
+    } finally {
+      ollama.stop(0);
+    }
+    Path parent = reportPath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    objectMapper.writeValue(reportPath.toFile(), report);
+    System.out.println("Report written to " + reportPath.toAbsolutePath());
+  }
+
+  /** 模拟 Ollama /api/chat：固定延迟后返回一段回答与 token 计数 */
+  private HttpServer startFakeOllama() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    server.setExecutor(Executors.newCachedThreadPool());
+    byte[] body =
+        ("{\"message\":{\"role\":\"assistant\",\"content\":\"这是模拟回答\"},"
+                + "\"prompt_eval_count\":120,\"eval_count\":40}")
+            .getBytes(StandardCharsets.UTF_8);
+    server.createContext(
+        "/api/chat",
+        exchange -> {
+          try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(aiDelayMs);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+              out.write(body);
+            }
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    server.start();
+    return server;
+  }
+
+  private Map<String, Object> runMode(String mode, int ollamaPort, String[] extraArgs)
+      throws Exception {
+    boolean virtual = "virtual".equals(mode);
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:ai-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.flyway.enabled=false",
+                "--spring.sql.init.mode=never",
+                "--ai.ollama.enabled=true",
+                "--ai.ollama.base-url=http://localhost:" + ollamaPort,
+                "--ai.ollama.max-concurrent-requests=" + aiClients,
+                "--logging.level.root=WARN",
+                "--logging.level.com.universal.qbank=WARN"));
+    args.addAll(List.of(extraArgs));
+
+    try (ConfigurableApplicationContext context =
+        SpringApplication.run(ExamPlatformApplication.class, args.toArray(String[]::new))) {
+      String baseUrl =
+          "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      context.getBean(SystemConfigService.class).setConfig(SystemConfigService.AI_ENABLED, "true");
+      UserEntity student = new UserEntity();
+      student.setUsername("ai-loadtest-" + mode);
+      student.setPassword("unused");
+      student.setRole("STUDENT");
+      student = context.getBean(UserRepository.class).save(student);
+      String token = "Bearer dummy-jwt-token-" + student.getId();
+
+      EndpointStats ai = new EndpointStats(AI_ASK);
+      EndpointStats light = new EndpointStats(QUESTIONS);
+      HttpRequest aiRequest =
+          HttpRequest.newBuilder()
+              .uri(URI.create(baseUrl + "/api/ai/student/ask"))
+              .header("Content-Type", "application/json")
+              .header("Authorization", token)
+              .timeout(Duration.ofSeconds(120))
+              .POST(
+                  HttpRequest.BodyPublishers.ofString(
+                      "{\"question\":\"什么是二分查找？\"}", StandardCharsets.UTF_8))
+              .build();
+      HttpRequest lightRequest =
+          HttpRequest.newBuilder()
+              .uri(URI.create(baseUrl + "/api/questions?size=5"))
+              .timeout(Duration.ofSeconds(120))
+              .GET()
+              .build();
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+      ExecutorService clients = Executors.newFixedThreadPool(aiClients + lightClients);
+      for (int i = 0; i < aiClients; i++) {
+        clients.submit(() -> loop(aiRequest, ai, deadline));
+      }
+      for (int i = 0; i < lightClients; i++) {
+        clients.submit(() -> loop(lightRequest, light, deadline));
+      }
+      long startedAt = System.nanoTime();
+      clients.shutdown();
+      clients.awaitTermination(durationSeconds + 300L, TimeUnit.SECONDS);
+      long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+      List<Map<String, Object>> rows =
+          List.of(ai.summarize(wallMillis), light.summarize(wallMillis));
+      print(mode, rows);
+      return Map.of("wallMillis", wallMillis, "endpoints", rows);
+    }
+  }
+
+  private void loop(HttpRequest request, EndpointStats stats, long deadline) {
+    while (System.nanoTime() < deadline) {
+      long startedAt = System.nanoTime();
+      boolean success = false;
+      try {
+        HttpResponse<Void> response =
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        success = response.statusCode() >= 200 && response.statusCode() < 300;
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception ex) {
+        // 计为失败
+      } finally {
+        stats.record(System.nanoTime() - startedAt, success);
+      }
+    }
+  }
+
+  private static void print(String mode, List<Map<String, Object>> rows) {
+    System.out.printf("%n[%s threads]%n", mode);
+    System.out.printf(
+        "%-28s %9s %7s %9s %10s %10s %10s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+    for (Map<String, Object> row : rows) {
+      System.out.printf(
+          "%-28s %9s %7s %9s %10s %10s %10s%n",
+          row.get("endpoint"),
+          row.get("requests"),
+          row.get("errors"),
+          row.get("throughputPerSec"),
+          row.get("p50Ms"),
+          row.get("p99Ms"),
+          row.get("maxMs"));
+    }
+  }
+}
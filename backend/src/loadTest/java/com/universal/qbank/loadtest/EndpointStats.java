@@ -0,0 +1,61 @@
+package com.universal.qbank.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** 单个接口的调用统计：延迟样本（纳秒）与失败次数 */
+class EndpointStats {
+
+  private final String name;
+
+  private final List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+
+  private final AtomicLong errors = new AtomicLong();
+
+  EndpointStats(String name) {
+    this.name = name;
+  }
+
+  void record(long nanos, boolean success) {
+    latenciesNanos.add(nanos);
+    if (!success) {
+      errors.incrementAndGet();
+    }
+  }
+
+  /** 汇总为报告行，wallMillis 为整轮压测的墙钟时间，用于计算吞吐 */
+  Map<String, Object> summarize(long wallMillis) {
+    List<Long> sorted;
+    synchronized (latenciesNanos) {
+      sorted = new ArrayList<>(latenciesNanos);
+    }
+    Collections.sort(sorted);
+    int count = sorted.size();
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("endpoint", name);
+    row.put("requests", count);
+    row.put("errors", errors.get());
+    row.put("errorRate", count == 0 ? 0.0 : round((double) errors.get() / count));
+    row.put("throughputPerSec", wallMillis == 0 ? 0.0 : round(count * 1000.0 / wallMillis));
+    row.put("p50Ms", percentileMillis(sorted, 0.50));
+    row.put("p99Ms", percentileMillis(sorted, 0.99));
+    row.put("maxMs", count == 0 ? 0.0 : round(sorted.get(count - 1) / 1_000_000.0));
+    return row;
+  }
+
+  private static double percentileMillis(List<Long> sorted, double percentile) {
+    if (sorted.isEmpty()) {
+      return 0.0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+    return round(sorted.get(Math.max(0, index)) / 1_000_000.0);
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 1000) / 1000.0;
+  }
+}
@@ -0,0 +1,323 @@
+package com.universal.qbank.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.universal.qbank.ExamPlatformApplication;
+import com.universal.qbank.entity.ExamEnrollmentEntity;
+import com.universal.qbank.entity.ExamPlanEntity;
+import com.universal.qbank.entity.PaperEntity;
+import com.universal.qbank.entity.PaperItemEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.ExamEnrollmentRepository;
+import com.universal.qbank.repository.ExamPlanRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.service.PaperService;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 单节点考试洪峰压测。
+ *
+ * <p>以内嵌 H2 启动完整应用，创建一场 N 名学生报名的考试计划，按给定并发同时执行 开考 → 自动保存 → 交卷，随后并发阅卷，
+ * 按接口输出吞吐、p50/p99 延迟与错误率。通过 {@code ./gradlew loadTest} 运行，参数见 build.gradle.kts。
+ */
+public final class ExamWaveLoadTest {
+
+  private static final String START = "POST /api/exams/start";
+  private static final String AUTOSAVE = "PUT /api/exams/{id}/autosave";
+  private static final String SUBMIT = "POST /api/exams/{id}/submit";
+  private static final String GRADE = "POST /api/exams/{id}/grade";
+
+  private static final String H2_URL =
+      "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+  private final int students = Integer.getInteger("loadtest.students", 500);
+  private final int concurrency = Integer.getInteger("loadtest.concurrency", 100);
+  private final int questionCount = Math.max(2, Integer.getInteger("loadtest.questions", 20));
+  private final int autosaves = Integer.getInteger("loadtest.autosaves", 3);
+  private final Path reportPath =
+      Path.of(System.getProperty("loadtest.report", "build/reports/load-test/exam-wave.json"));
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+
+  private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+  private String baseUrl;
+
+  private Long paperId;
+
+  private String planId;
+
+  private List<String> objectiveIds;
+
+  private String subjectiveId;
+
+  private ExamWaveLoadTest() {
+    for (String endpoint : List.of(START, AUTOSAVE, SUBMIT, GRADE)) {
+      stats.put(endpoint, new EndpointStats(endpoint));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new ExamWaveLoadTest().run(args);
+  }
+
+  private void run(String[] extraArgs) throws Exception {
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + H2_URL,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.flyway.enabled=false",
+                "--spring.sql.init.mode=never",
+                "--ai.ollama.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.universal.qbank=WARN"));
+    // 额外参数覆盖默认值，例如 --app.exam.answer-storage=SHEET
+    args.addAll(List.of(extraArgs));
+
+    try (ConfigurableApplicationContext context =
+        SpringApplication.run(ExamPlatformApplication.class, args.toArray(String[]::new))) {
+      baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      seed(context);
+      System.out.printf(
+          "Exam wave: %d students, concurrency %d, %d questions, %d autosaves each%n",
+          students, concurrency, questionCount, autosaves);
+
+      Queue<Long> submittedExamIds = new ConcurrentLinkedQueue<>();
+      long examMillis = runPhase(i -> takeExam(i, submittedExamIds), students);
+      List<Long> toGrade = new ArrayList<>(submittedExamIds);
+      long gradeMillis = runPhase(i -> gradeExam(toGrade.get(i)), toGrade.size());
+
+      report(examMillis, gradeMillis);
+    }
+  }
+
+  private void seed(ConfigurableApplicationContext context) {
+    QuestionRepository questionRepository = context.getBean(QuestionRepository.class);
+    List<QuestionEntity> questions = new ArrayList<>();
+    for (int i = 0; i < questionCount; i++) {
+      QuestionEntity q = new QuestionEntity();
+      q.setSubjectId("loadtest");
+      q.setDifficulty("MEDIUM");
+      q.setStatus("APPROVED");
+      if (i == questionCount - 1) {
+        q.setType("SHORT_ANSWER");
+        q.setStem("简述第 " + i + " 题");
+      } else {
+        q.setType("SINGLE_CHOICE");
+        q.setStem("压测单选题 " + i);
+        q.setOptionsJson(
+            "[{\"text\":\"A\",\"isCorrect\":true},{\"text\":\"B\",\"isCorrect\":false},"
+                + "{\"text\":\"C\",\"isCorrect\":false},{\"text\":\"D\",\"isCorrect\":false}]");
+      }
+      questions.add(q);
+    }
+    questions = questionRepository.saveAll(questions);
+    objectiveIds =
+        questions.subList(0, questionCount - 1).stream().map(QuestionEntity::getId).toList();
+    subjectiveId = questions.get(questionCount - 1).getId();
+
+    List<PaperItemEntity> items = new ArrayList<>();
+    for (QuestionEntity q : questions) {
+      PaperItemEntity item = new PaperItemEntity();
+      item.setItemType("QUESTION");
+      item.setQuestionId(q.getId());
+      item.setScore(5.0);
+      items.add(item);
+    }
+    PaperEntity paper =
+        context.getBean(PaperService.class).createComplexPaper("Load test paper", items);
+    paperId = paper.getId();
+
+    ExamPlanEntity plan = new ExamPlanEntity();
+    plan.setName("Load test wave");
+    plan.setPaperId(paperId);
+    plan.setStatus("ONGOING");
+    plan.setMaxAttempts(1);
+    planId = context.getBean(ExamPlanRepository.class).save(plan).getId();
+
+    List<ExamEnrollmentEntity> enrollments = new ArrayList<>(students);
+    for (int i = 0; i < students; i++) {
+      ExamEnrollmentEntity enrollment = new ExamEnrollmentEntity();
+      enrollment.setExamPlanId(planId);
+      enrollment.setStudentId(studentId(i));
+      enrollments.add(enrollment);
+    }
+    context.getBean(ExamEnrollmentRepository.class).saveAll(enrollments);
+  }
+
+  private interface Task {
+    void run(int index) throws Exception;
+  }
+
+  /** 所有任务就绪后同时放行，模拟整点开考；返回本阶段墙钟耗时 */
+  private long runPhase(Task task, int count) throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    CountDownLatch gate = new CountDownLatch(1);
+    for (int i = 0; i < count; i++) {
+      int index = i;
+      pool.submit(
+          () -> {
+            gate.await();
+            try {
+              task.run(index);
+            } catch (Exception ex) {
+              // 失败已计入对应接口的错误数，单个学生失败不中断整轮
+            }
+            return null;
+          });
+    }
+    long startedAt = System.nanoTime();
+    gate.countDown();
+    pool.shutdown();
+    pool.awaitTermination(1, TimeUnit.HOURS);
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+  }
+
+  private void takeExam(int index, Queue<Long> submittedExamIds) throws Exception {
+    String userId = studentId(index);
+    JsonNode exam =
+        call(
+            START,
+            "POST",
+            "/api/exams/start",
+            Map.of("paperId", paperId, "userId", userId, "type", "EXAM", "planId", planId));
+    long examId = exam.path("id").asLong();
+
+    Map<String, String> answers = new LinkedHashMap<>();
+    for (int round = 1; round <= autosaves; round++) {
+      int upTo = objectiveIds.size() * round / Math.max(1, autosaves);
+      for (int q = answers.size(); q < upTo; q++) {
+        answers.put(objectiveIds.get(q), q % 3 == 0 ? "B" : "A");
+      }
+      call(
+          AUTOSAVE,
+          "PUT",
+          "/api/exams/" + examId + "/autosave",
+          Map.of("userId", userId, "answers", answers, "flaggedQuestions", List.of()));
+    }
+
+    for (int q = 0; q < objectiveIds.size(); q++) {
+      answers.putIfAbsent(objectiveIds.get(q), "A");
+    }
+    answers.put(subjectiveId, "学生 " + index + " 的作答");
+    call(
+        SUBMIT,
+        "POST",
+        "/api/exams/" + examId + "/submit",
+        Map.of("answers", answers, "flaggedQuestions", List.of()));
+    submittedExamIds.add(examId);
+  }
+
+  private void gradeExam(long examId) throws Exception {
+    call(
+        GRADE,
+        "POST",
+        "/api/exams/" + examId + "/grade",
+        Map.of(
+            "grades",
+            List.of(Map.of("questionId", subjectiveId, "score", 3.0, "notes", "load test"))));
+  }
+
+  private JsonNode call(String endpoint, String method, String path, Object body)
+      throws Exception {
+    HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(60))
+            .method(
+                method,
+                HttpRequest.BodyPublishers.ofString(
+                    objectMapper.writeValueAsString(body), StandardCharsets.UTF_8))
+            .build();
+    long startedAt = System.nanoTime();
+    boolean success = false;
+    try {
+      HttpResponse<String> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+      success = response.statusCode() >= 200 && response.statusCode() < 300;
+      if (!success) {
+        throw new IllegalStateException(endpoint + " returned " + response.statusCode());
+      }
+      return objectMapper.readTree(response.body());
+    } finally {
+      stats.get(endpoint).record(System.nanoTime() - startedAt, success);
+    }
+  }
+
+  private void report(long examMillis, long gradeMillis) throws Exception {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (EndpointStats endpointStats : stats.values()) {
+      boolean grading = endpointStats == stats.get(GRADE);
+      rows.add(endpointStats.summarize(grading ? gradeMillis : examMillis));
+    }
+
+    System.out.printf("%nExam phase %d ms, grading phase %d ms%n", examMillis, gradeMillis);
+    System.out.printf(
+        "%-32s %9s %7s %9s %10s %10s %10s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+    for (Map<String, Object> row : rows) {
+      System.out.printf(
+          "%-32s %9s %7s %9s %10s %10s %10s%n",
+          row.get("endpoint"),
+          row.get("requests"),
+          row.get("errors"),
+          row.get("throughputPerSec"),
+          row.get("p50Ms"),
+          row.get("p99Ms"),
+          row.get("maxMs"));
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("students", students);
+    report.put("concurrency", concurrency);
+    report.put("questions", questionCount);
+    report.put("autosaves", autosaves);
+    report.put("examPhaseMillis", examMillis);
+    report.put("gradingPhaseMillis", gradeMillis);
+    report.put("endpoints", rows);
+    Path parent = reportPath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    objectMapper.writeValue(reportPath.toFile(), report);
+    System.out.println("Report written to " + reportPath.toAbsolutePath());
+  }
+
+  private static String studentId(int index) {
+    return "loadtest-student-" + index;
+  }
+}
@@ -0,0 +1,160 @@
+package com.universal.qbank.common.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 带排名的跳表（order-statistic skip list）。
+ *
+ * <p>每层指针额外记录跨度，插入、删除、按值求排名、按排名取区间均为 O(log n)。比较器必须给出全序（相等即同一元素），
+ * 非线程安全，由调用方加锁。
+ */
+public final class RankedSkipList<T> {
+
+  private static final int MAX_LEVEL = 32;
+
+  private final Comparator<? super T> comparator;
+  private final Node<T> head = new Node<>(null, MAX_LEVEL);
+  private int level = 1;
+  private int size = 0;
+
+  private static final class Node<T> {
+    final T value;
+    final Node<T>[] next;
+    final int[] span;
+
+    @SuppressWarnings("unchecked")
+    Node(T value, int level) {
+      this.value = value;
+      this.next = (Node<T>[]) new Node[level];
+      this.span = new int[level];
+    }
+  }
+
+  public RankedSkipList(Comparator<? super T> comparator) {
+    this.comparator = comparator;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** 插入元素；调用方保证同一元素不会重复插入 */
+  @SuppressWarnings("unchecked")
+  public void insert(T value) {
+    Node<T>[] update = (Node<T>[]) new Node[MAX_LEVEL];
+    int[] rank = new int[MAX_LEVEL];
+    Node<T> x = head;
+    for (int i = level - 1; i >= 0; i--) {
+      rank[i] = i == level - 1 ? 0 : rank[i + 1];
+      while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+        rank[i] += x.span[i];
+        x = x.next[i];
+      }
+      update[i] = x;
+    }
+
+    int newLevel = randomLevel();
+    if (newLevel > level) {
+      for (int i = level; i < newLevel; i++) {
+        rank[i] = 0;
+        update[i] = head;
+        head.span[i] = size;
+      }
+      level = newLevel;
+    }
+
+    Node<T> node = new Node<>(value, newLevel);
+    for (int i = 0; i < newLevel; i++) {
+      node.next[i] = update[i].next[i];
+      update[i].next[i] = node;
+      node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+      update[i].span[i] = (rank[0] - rank[i]) + 1;
+    }
+    for (int i = newLevel; i < level; i++) {
+      update[i].span[i]++;
+    }
+    size++;
+  }
+
+  /** 删除与 value 比较相等的元素，返回是否存在 */
+  @SuppressWarnings("unchecked")
+  public boolean remove(T value) {
+    Node<T>[] update = (Node<T>[]) new Node[MAX_LEVEL];
+    Node<T> x = head;
+    for (int i = level - 1; i >= 0; i--) {
+      while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+        x = x.next[i];
+      }
+      update[i] = x;
+    }
+    x = x.next[0];
+    if (x == null || comparator.compare(x.value, value) != 0) {
+      return false;
+    }
+    for (int i = 0; i < level; i++) {
+      if (update[i].next[i] == x) {
+        update[i].span[i] += x.span[i] - 1;
+        update[i].next[i] = x.next[i];
+      } else {
+        update[i].span[i]--;
+      }
+    }
+    while (level > 1 && head.next[level - 1] == null) {
+      level--;
+    }
+    size--;
+    return true;
+  }
+
+  /** 返回元素的排名（从 1 开始），不存在返回 0 */
+  public int rank(T value) {
+    int rank = 0;
+    Node<T> x = head;
+    for (int i = level - 1; i >= 0; i--) {
+      while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+        rank += x.span[i];
+        x = x.next[i];
+      }
+      if (x != head && comparator.compare(x.value, value) == 0) {
+        return rank;
+      }
+    }
+    return 0;
+  }
+
+  /** 按排名顺序返回从 offset（从 0 开始）起最多 limit 个元素 */
+  public List<T> range(int offset, int limit) {
+    List<T> result = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+    if (offset < 0 || offset >= size || limit <= 0) {
+      return result;
+    }
+    Node<T> x = head;
+    int traversed = 0;
+    int target = offset + 1;
+    for (int i = level - 1; i >= 0; i--) {
+      while (x.next[i] != null && traversed + x.span[i] <= target) {
+        traversed += x.span[i];
+        x = x.next[i];
+      }
+      if (traversed == target) {
+        break;
+      }
+    }
+    while (x != null && result.size() < limit) {
+      result.add(x.value);
+      x = x.next[0];
+    }
+    return result;
+  }
+
+  private static int randomLevel() {
+    int level = 1;
+    while (level < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+      level++;
+    }
+    return level;
+  }
+}
@@ -0,0 +1,48 @@
+package com.universal.qbank.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 基于种子的确定性乱序工具。
+ *
+ * <p>{@link #permutation(int, Random)} 的交换序列与 {@link java.util.Collections#shuffle(List,
+ * Random)} 完全一致，因此对同一个随机源，按下标乱序与直接打乱列表得到的顺序相同。
+ */
+public final class SeededShuffle {
+
+  private SeededShuffle() {}
+
+  /** 生成 [0, size) 的乱序下标，并推进 rng 的状态。 */
+  public static int[] permutation(int size, Random rng) {
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    for (int i = size; i > 1; i--) {
+      int j = rng.nextInt(i);
+      int tmp = order[i - 1];
+      order[i - 1] = order[j];
+      order[j] = tmp;
+    }
+    return order;
+  }
+
+  /** 按乱序下标重新排列列表，返回新列表。 */
+  public static <T> List<T> apply(List<T> source, int[] order) {
+    List<T> result = new ArrayList<>(order.length);
+    for (int index : order) {
+      result.add(source.get(index));
+    }
+    return result;
+  }
+
+  /** 由作用域（如考试计划ID）与学生ID派生稳定的种子，跨进程、跨重启保持一致。 */
+  public static long seedFor(String scope, String studentId) {
+    String raw = (scope == null ? "" : scope) + ":" + (studentId == null ? "" : studentId);
+    return UUID.nameUUIDFromBytes(raw.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+  }
+}
@@ -0,0 +1,79 @@
+package com.universal.qbank.common.util;
+
+import java.text.Normalizer;
+
+/**
+ * 64 位 SimHash 指纹。
+ *
+ * <p>以归一化文本的字符 2-gram 作为特征，措辞上的小改动只会翻转少量比特，因此可用汉明距离衡量文本相似度。中文题干普遍较短，
+ * 2-gram 比 3-gram 对个别字词改动更不敏感。
+ */
+public final class SimHash {
+
+  private static final int SHINGLE = 2;
+
+  private SimHash() {}
+
+  /** 归一化：NFKC（全角转半角）、小写、去除空白与标点。 */
+  public static String normalize(String text) {
+    if (text == null || text.isEmpty()) {
+      return "";
+    }
+    String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+    StringBuilder sb = new StringBuilder(folded.length());
+    for (int i = 0; i < folded.length(); i++) {
+      char c = folded.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /** 计算已归一化文本的指纹；空文本返回 0。 */
+  public static long fingerprint(String normalized) {
+    if (normalized == null || normalized.isEmpty()) {
+      return 0L;
+    }
+    int[] weights = new int[64];
+    if (normalized.length() <= SHINGLE) {
+      accumulate(weights, hash(normalized, 0, normalized.length()));
+    } else {
+      for (int i = 0; i + SHINGLE <= normalized.length(); i++) {
+        accumulate(weights, hash(normalized, i, i + SHINGLE));
+      }
+    }
+    long result = 0L;
+    for (int bit = 0; bit < 64; bit++) {
+      if (weights[bit] > 0) {
+        result |= 1L << bit;
+      }
+    }
+    return result;
+  }
+
+  public static int distance(long a, long b) {
+    return Long.bitCount(a ^ b);
+  }
+
+  private static void accumulate(int[] weights, long hash) {
+    for (int bit = 0; bit < 64; bit++) {
+      weights[bit] += ((hash >>> bit) & 1L) == 1L ? 1 : -1;
+    }
+  }
+
+  /** FNV-1a 后接 murmur3 finalizer，使相近的 gram 也能充分扩散到 64 位。 */
+  private static long hash(String text, int from, int to) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = from; i < to; i++) {
+      h ^= text.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,90 @@
+package com.universal.qbank.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate 二级缓存：Caffeine 实现的 JCache，每个区域单独设置容量与写入后过期时间。
+ *
+ * <p>缓存对象为很少修改、几乎每个请求都会读取的基础数据（知识点、组织、课程、角色、权限、系统配置）及其常用查询。
+ * 命中率通过 Hibernate 统计导出为 hibernate.second.level.cache.* 与 hibernate.query.cache.* 指标。
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.cache.entity",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class EntityCacheConfig {
+
+  public static final String KNOWLEDGE_POINTS = "knowledge-points";
+
+  public static final String ORGANIZATIONS = "organizations";
+
+  public static final String COURSES = "courses";
+
+  public static final String ROLES = "roles";
+
+  public static final String PERMISSIONS = "permissions";
+
+  public static final String SYSTEM_CONFIG = "system-config";
+
+  /** Hibernate 默认的查询结果区域 */
+  public static final String QUERY_RESULTS = "default-query-results-region";
+
+  /** Hibernate 记录各表最近修改时间的区域，用于判定查询缓存是否失效，不能淘汰或过期 */
+  public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+  private static final List<String> REGIONS =
+      List.of(
+          KNOWLEDGE_POINTS,
+          ORGANIZATIONS,
+          COURSES,
+          ROLES,
+          PERMISSIONS,
+          SYSTEM_CONFIG,
+          QUERY_RESULTS);
+
+  /** 每个应用上下文独立的缓存管理器（测试中多个上下文共存时互不影响） */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(EntityCacheProperties properties) {
+    CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+    CacheManager cacheManager =
+        provider.getCacheManager(
+            URI.create("qbank-entity-cache-" + UUID.randomUUID()),
+            EntityCacheConfig.class.getClassLoader());
+    for (String region : REGIONS) {
+      EntityCacheProperties.Region settings = properties.resolve(region);
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      configuration.setMaximumSize(OptionalLong.of(settings.getMaxSize()));
+      configuration.setExpireAfterWrite(OptionalLong.of(settings.getTtl().toNanos()));
+      cacheManager.createCache(region, configuration);
+    }
+    cacheManager.createCache(UPDATE_TIMESTAMPS, new CaffeineConfiguration<Object, Object>());
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+}
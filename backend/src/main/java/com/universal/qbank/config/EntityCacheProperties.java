@@ -0,0 +1,86 @@
+package com.universal.qbank.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Hibernate 二级缓存（实体缓存与查询缓存）配置。 */
+@Component
+@ConfigurationProperties(prefix = "app.cache.entity")
+public class EntityCacheProperties {
+
+  /** 是否启用二级缓存与查询缓存 */
+  private boolean enabled = true;
+
+  /** 未单独配置的区域使用的默认值 */
+  private Region defaults = new Region(1000L, Duration.ofMinutes(10));
+
+  /** 按区域名覆盖容量与过期时间，如 app.cache.entity.regions.knowledge-points.max-size */
+  private Map<String, Region> regions = new LinkedHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Region getDefaults() {
+    return defaults;
+  }
+
+  public void setDefaults(Region defaults) {
+    this.defaults = defaults;
+  }
+
+  public Map<String, Region> getRegions() {
+    return regions;
+  }
+
+  public void setRegions(Map<String, Region> regions) {
+    this.regions = regions;
+  }
+
+  /** 区域配置，未设置的字段取默认值 */
+  public Region resolve(String region) {
+    Region override = regions.getOrDefault(region, new Region());
+    return new Region(
+        override.getMaxSize() != null ? override.getMaxSize() : defaults.getMaxSize(),
+        override.getTtl() != null ? override.getTtl() : defaults.getTtl());
+  }
+
+  public static class Region {
+
+    /** 最大条目数 */
+    private Long maxSize;
+
+    /** 写入后过期时间（兜底多实例部署时其他节点的修改） */
+    private Duration ttl;
+
+    public Region() {}
+
+    public Region(Long maxSize, Duration ttl) {
+      this.maxSize = maxSize;
+      this.ttl = ttl;
+    }
+
+    public Long getMaxSize() {
+      return maxSize;
+    }
+
+    public void setMaxSize(Long maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+  }
+}
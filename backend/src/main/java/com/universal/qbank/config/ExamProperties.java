@@ -0,0 +1,31 @@
+package com.universal.qbank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 考试作答相关配置。 */
+@Component
+@ConfigurationProperties(prefix = "app.exam")
+public class ExamProperties {
+
+  /** 每题一行存储（exam_records） */
+  public static final String STORAGE_ROWS = "ROWS";
+
+  /** 每场考试一份紧凑答题卡（exam_answer_sheets） */
+  public static final String STORAGE_SHEET = "SHEET";
+
+  /** 新写入作答记录的存储方式：ROWS 或 SHEET；读取时两种格式均支持 */
+  private String answerStorage = STORAGE_ROWS;
+
+  public String getAnswerStorage() {
+    return answerStorage;
+  }
+
+  public void setAnswerStorage(String answerStorage) {
+    this.answerStorage = answerStorage;
+  }
+
+  public boolean isSheetStorage() {
+    return STORAGE_SHEET.equalsIgnoreCase(answerStorage);
+  }
+}
@@ -0,0 +1,65 @@
+package com.universal.qbank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 题库批量导入任务配置。 */
+@Component
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+  /** 上传文件暂存目录，任务完成后删除，失败时保留用于断点续传 */
+  private String workDir = "uploads/import-jobs";
+
+  /** 每个分块写入的题目数（单独事务提交） */
+  private int chunkSize = 200;
+
+  /** 允许的最大分块大小 */
+  private int maxChunkSize = 1000;
+
+  /** 导入任务并发数 */
+  private int workerThreads = 2;
+
+  /** 每个任务最多记录的错误明细条数 */
+  private int maxRecordedErrors = 200;
+
+  public String getWorkDir() {
+    return workDir;
+  }
+
+  public void setWorkDir(String workDir) {
+    this.workDir = workDir;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public int getMaxChunkSize() {
+    return maxChunkSize;
+  }
+
+  public void setMaxChunkSize(int maxChunkSize) {
+    this.maxChunkSize = maxChunkSize;
+  }
+
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  public void setWorkerThreads(int workerThreads) {
+    this.workerThreads = workerThreads;
+  }
+
+  public int getMaxRecordedErrors() {
+    return maxRecordedErrors;
+  }
+
+  public void setMaxRecordedErrors(int maxRecordedErrors) {
+    this.maxRecordedErrors = maxRecordedErrors;
+  }
+}
@@ -15,6 +15,8 @@ public class OllamaProperties {
   private String baseUrl = "http://localhost:11434";
   private String model = "gemma4";
   private long timeoutMs = 60000L;
+  /** 同时在途的模型请求上限，防止批量拍照导入等场景压垮本地模型 */
+  private int maxConcurrentRequests = 2;
   private List<String> modelCandidates =
       new ArrayList<>(
           List.of(
@@ -58,6 +60,14 @@ public class OllamaProperties {
     this.timeoutMs = timeoutMs;
   }
 
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
   public List<String> getModelCandidates() {
     return modelCandidates;
   }
@@ -88,6 +98,10 @@ public class OllamaProperties {
         .collect(Collectors.toList());
   }
 
+  public int effectiveMaxConcurrentRequests() {
+    return Math.max(1, maxConcurrentRequests);
+  }
+
   public long effectiveTimeoutMs() {
     // 避免无效或过小超时导致频繁误判。
     return Math.max(1000L, timeoutMs);
@@ -0,0 +1,70 @@
+package com.universal.qbank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/** 启用只读副本时替换默认数据源：主库取自 spring.datasource，副本取自 app.datasource.read-replica。 */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.datasource.read-replica",
+    name = "enabled",
+    havingValue = "true")
+public class ReadReplicaConfig {
+
+  @Bean
+  public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+      DataSourceProperties dataSourceProperties, ReadReplicaProperties replicaProperties) {
+    List<String> urls =
+        replicaProperties.getUrls().stream().map(String::trim).filter(u -> !u.isEmpty()).toList();
+    if (urls.isEmpty()) {
+      throw new IllegalStateException(
+          "app.datasource.read-replica.urls must not be empty when read replicas are enabled");
+    }
+    HikariDataSource primary =
+        dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+
+    String username =
+        replicaProperties.getUsername() == null || replicaProperties.getUsername().isBlank()
+            ? dataSourceProperties.determineUsername()
+            : replicaProperties.getUsername();
+    String password =
+        replicaProperties.getPassword() == null || replicaProperties.getPassword().isEmpty()
+            ? dataSourceProperties.determinePassword()
+            : replicaProperties.getPassword();
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (int i = 0; i < urls.size(); i++) {
+      HikariDataSource replica =
+          DataSourceBuilder.create()
+              .type(HikariDataSource.class)
+              .url(urls.get(i))
+              .username(username)
+              .password(password)
+              .build();
+      String name = "replica-" + (i + 1);
+      replica.setPoolName(name);
+      replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+      replica.setReadOnly(true);
+      replicas.put(name, replica);
+    }
+    return new ReadReplicaRoutingDataSource(
+        primary, replicas, replicaProperties.getLagQuery(), replicaProperties.getMaxLagMs());
+  }
+
+  /** 延迟获取物理连接，事务的只读标记确定后再路由 */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -0,0 +1,40 @@
+package com.universal.qbank.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** 定时检测副本复制延迟，超限的副本移出读路由，恢复后自动加回。 */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.datasource.read-replica",
+    name = "enabled",
+    havingValue = "true")
+public class ReadReplicaLagMonitor {
+
+  @Autowired private ReadReplicaRoutingDataSource routingDataSource;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @PostConstruct
+  void registerGauges() {
+    for (String replica : routingDataSource.getLagMillis().keySet()) {
+      Gauge.builder(
+              "qbank.db.replica.lag",
+              routingDataSource,
+              ds -> ds.getLagMillis().getOrDefault(replica, -1L))
+          .description("Replication lag of a read replica in ms, -1 when unreachable")
+          .tag("replica", replica)
+          .register(meterRegistry);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.datasource.read-replica.lag-check-interval-ms:5000}")
+  public void checkLag() {
+    routingDataSource.checkReplicaLag();
+  }
+}
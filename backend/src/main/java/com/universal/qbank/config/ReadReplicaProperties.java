@@ -0,0 +1,95 @@
+package com.universal.qbank.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 只读副本路由配置。 */
+@Component
+@ConfigurationProperties(prefix = "app.datasource.read-replica")
+public class ReadReplicaProperties {
+
+  /** PostgreSQL 副本复制延迟（毫秒）；非副本节点或已追平时为 0 */
+  public static final String POSTGRES_LAG_QUERY =
+      "SELECT CASE WHEN NOT pg_is_in_recovery()"
+          + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+          + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)"
+          + " END";
+
+  /** 是否启用副本路由；关闭时所有请求走 spring.datasource 主库 */
+  private boolean enabled = false;
+
+  /** 副本 JDBC URL 列表 */
+  private List<String> urls = new ArrayList<>();
+
+  /** 副本账号，为空时沿用主库账号 */
+  private String username;
+
+  private String password;
+
+  /** 每个副本的连接池大小 */
+  private int maximumPoolSize = 10;
+
+  /** 允许的最大复制延迟，超过后该副本暂停使用，读请求回退主库 */
+  private long maxLagMs = 5000;
+
+  /** 查询复制延迟（毫秒）的 SQL，返回单行单列数值 */
+  private String lagQuery = POSTGRES_LAG_QUERY;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getUrls() {
+    return urls;
+  }
+
+  public void setUrls(List<String> urls) {
+    this.urls = urls;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public void setPassword(String password) {
+    this.password = password;
+  }
+
+  public int getMaximumPoolSize() {
+    return maximumPoolSize;
+  }
+
+  public void setMaximumPoolSize(int maximumPoolSize) {
+    this.maximumPoolSize = maximumPoolSize;
+  }
+
+  public long getMaxLagMs() {
+    return maxLagMs;
+  }
+
+  public void setMaxLagMs(long maxLagMs) {
+    this.maxLagMs = maxLagMs;
+  }
+
+  public String getLagQuery() {
+    return lagQuery;
+  }
+
+  public void setLagQuery(String lagQuery) {
+    this.lagQuery = lagQuery;
+  }
+}
@@ -0,0 +1,134 @@
+package com.universal.qbank.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 主库/只读副本路由数据源。
+ *
+ * <p>应用代码声明的 {@code @Transactional(readOnly = true)} 事务轮询分配到延迟未超限的副本，其余事务、非事务访问以及
+ * Spring Data 仓库方法自带的只读事务（保证写后立即读到）一律走主库。需包在 {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} 中使用，使路由在事务开始后、首条 SQL
+ * 执行时才决定。
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+  static final String PRIMARY = "primary";
+
+  private static final String APP_PACKAGE = "com.universal.qbank.";
+
+  private final DataSource primary;
+
+  private final Map<String, DataSource> replicas;
+
+  private final String lagQuery;
+
+  private final long maxLagMs;
+
+  /** 最近一次检测到的各副本延迟（毫秒），-1 表示不可用 */
+  private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+  private volatile List<String> healthyReplicas = List.of();
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReadReplicaRoutingDataSource(
+      DataSource primary, Map<String, DataSource> replicas, String lagQuery, long maxLagMs) {
+    this.primary = primary;
+    this.replicas = new LinkedHashMap<>(replicas);
+    this.lagQuery = lagQuery;
+    this.maxLagMs = maxLagMs;
+    Map<Object, Object> targets = new HashMap<>(replicas);
+    targets.put(PRIMARY, primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    replicas.keySet().forEach(name -> lagMillis.put(name, -1L));
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+    if (transactionName == null || !transactionName.startsWith(APP_PACKAGE)) {
+      return PRIMARY;
+    }
+    List<String> candidates = healthyReplicas;
+    if (candidates.isEmpty()) {
+      return PRIMARY;
+    }
+    return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+  }
+
+  /** 逐个查询副本延迟并刷新可用列表，查询失败或超过阈值的副本暂停使用 */
+  public void checkReplicaLag() {
+    List<String> healthy =
+        replicas.entrySet().stream()
+            .filter(entry -> isHealthy(entry.getKey(), entry.getValue()))
+            .map(Map.Entry::getKey)
+            .toList();
+    // 仅在可用列表变化时记录日志，避免副本持续落后时刷屏
+    if (!healthy.equals(healthyReplicas)) {
+      log.warn(
+          "Read replicas in rotation: {} (lag ms: {}, limit {} ms)",
+          healthy.isEmpty() ? "none, reading from primary" : healthy,
+          lagMillis,
+          maxLagMs);
+    }
+    healthyReplicas = healthy;
+  }
+
+  private boolean isHealthy(String name, DataSource replica) {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(lagQuery)) {
+      long lag = rs.next() ? Math.round(rs.getDouble(1)) : -1L;
+      lagMillis.put(name, lag);
+      return lag >= 0 && lag <= maxLagMs;
+    } catch (SQLException ex) {
+      lagMillis.put(name, -1L);
+      log.debug("Read replica {} unavailable: {}", name, ex.getMessage());
+      return false;
+    }
+  }
+
+  public Map<String, Long> getLagMillis() {
+    return Map.copyOf(lagMillis);
+  }
+
+  public List<String> getHealthyReplicas() {
+    return healthyReplicas;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (DataSource replica : replicas.values()) {
+      closeIfPossible(replica);
+    }
+    closeIfPossible(primary);
+  }
+
+  private static void closeIfPossible(DataSource dataSource) throws IOException {
+    if (dataSource instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+}
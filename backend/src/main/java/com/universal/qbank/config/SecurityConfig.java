@@ -41,6 +41,8 @@ public class SecurityConfig {
                     .permitAll()
                     .requestMatchers("/api/exam-plans", "/api/exam-plans/**")
                     .permitAll()
+                    .requestMatchers("/api/practice/**")
+                    .permitAll()
                     .requestMatchers("/api/user/**", "/api/files/**", "/uploads/**")
                     .permitAll()
                     .requestMatchers("/api/import/**")
@@ -57,6 +59,8 @@ public class SecurityConfig {
                     .permitAll()
                     .requestMatchers("/api/universities/**")
                     .permitAll()
+                    .requestMatchers("/actuator/health", "/actuator/prometheus")
+                    .permitAll()
                     .anyRequest()
                     .authenticated())
         .headers(headers -> headers.frameOptions(frame -> frame.disable())); // For H2 Console
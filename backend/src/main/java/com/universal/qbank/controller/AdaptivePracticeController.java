@@ -0,0 +1,51 @@
+package com.universal.qbank.controller;
+
+import com.universal.qbank.service.AdaptivePracticeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/** 自适应练习：按学生能力逐题选题，每答一题更新能力估计 */
+@RestController
+@RequestMapping("/api/practice/adaptive")
+public class AdaptivePracticeController {
+
+  @Autowired private AdaptivePracticeService adaptivePracticeService;
+
+  public static class StartPracticeRequest {
+    public String userId;
+    public String subjectId;
+    public String knowledgePointId;
+  }
+
+  public static class PracticeAnswerRequest {
+    public String questionId;
+    public String answer;
+  }
+
+  /** 开始练习并返回第一题 */
+  @PostMapping("/sessions")
+  public ResponseEntity<AdaptivePracticeService.SessionView> start(
+      @RequestBody StartPracticeRequest req) {
+    return ResponseEntity.ok(
+        adaptivePracticeService.start(req.userId, req.subjectId, req.knowledgePointId));
+  }
+
+  @GetMapping("/sessions/{sessionId}")
+  public ResponseEntity<AdaptivePracticeService.SessionView> get(@PathVariable String sessionId) {
+    return ResponseEntity.ok(adaptivePracticeService.get(sessionId));
+  }
+
+  /** 提交当前题目的答案，返回判定结果与下一题 */
+  @PostMapping("/sessions/{sessionId}/answers")
+  public ResponseEntity<AdaptivePracticeService.AnswerResult> answer(
+      @PathVariable String sessionId, @RequestBody PracticeAnswerRequest req) {
+    return ResponseEntity.ok(adaptivePracticeService.answer(sessionId, req.questionId, req.answer));
+  }
+
+  @DeleteMapping("/sessions/{sessionId}")
+  public ResponseEntity<Void> end(@PathVariable String sessionId) {
+    adaptivePracticeService.end(sessionId);
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -6,6 +6,7 @@ import com.universal.qbank.entity.AnnouncementEntity;
 import com.universal.qbank.entity.OperationLogEntity;
 import com.universal.qbank.entity.UserEntity;
 import com.universal.qbank.service.AnnouncementService;
+import com.universal.qbank.service.ExamAnswerStore;
 import com.universal.qbank.service.OllamaAiService;
 import com.universal.qbank.service.OllamaStartupService;
 import com.universal.qbank.service.OperationLogService;
@@ -53,6 +54,8 @@ public class AdminController {
 
   @Autowired private OllamaStartupService ollamaStartupService;
 
+  @Autowired private ExamAnswerStore examAnswerStore;
+
   private final ObjectMapper objectMapper = new ObjectMapper();
 
   private boolean isAdmin(String token) {
@@ -168,6 +171,22 @@ public class AdminController {
     return ResponseEntity.ok(systemConfigService.getAllSettings());
   }
 
+  /** 把逐题行存储的历史作答迁移为答题卡（需 app.exam.answer-storage=SHEET） */
+  @PostMapping("/exam-answer-sheets/migrate")
+  public ResponseEntity<?> migrateExamAnswerSheets(
+      @RequestHeader("Authorization") String token,
+      @RequestParam(defaultValue = "200") int batchSize,
+      HttpServletRequest request) {
+    requireAdmin(token);
+    int migrated = examAnswerStore.migrateRowsToSheets(batchSize);
+
+    String userId = getUserIdFromToken(token);
+    operationLogService.log(
+        userId, "UPDATE", "考试作答", null, "迁移答题卡 " + migrated + " 场", request);
+
+    return ResponseEntity.ok(Map.of("migrated", migrated));
+  }
+
   @GetMapping("/ai/models")
   public ResponseEntity<?> getAiModels(@RequestHeader("Authorization") String token) {
     requireAdmin(token);
@@ -362,6 +381,7 @@ public class AdminController {
     Map<String, Object> monitorData = new HashMap<>();
     monitorData.put("metrics", systemMonitorService.getSystemMetrics());
     monitorData.put("services", systemMonitorService.getServicesStatus());
+    monitorData.put("hotPaths", systemMonitorService.getHotPathMetrics());
     return ResponseEntity.ok(monitorData);
   }
 
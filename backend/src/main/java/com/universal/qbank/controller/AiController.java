@@ -8,11 +8,12 @@ import com.universal.qbank.entity.PaperItemEntity;
 import com.universal.qbank.entity.QuestionEntity;
 import com.universal.qbank.entity.UserEntity;
 import com.universal.qbank.repository.ExamRepository;
-import com.universal.qbank.repository.PaperRepository;
 import com.universal.qbank.repository.QuestionRepository;
 import com.universal.qbank.repository.UserRepository;
 import com.universal.qbank.service.AiAuditLogService;
+import com.universal.qbank.service.ExamAnswerStore;
 import com.universal.qbank.service.OllamaAiService;
+import com.universal.qbank.service.PaperService;
 import com.universal.qbank.service.StudentLearningContextService;
 import com.universal.qbank.service.SystemConfigService;
 import java.util.ArrayList;
@@ -42,7 +43,9 @@ public class AiController {
 
   @Autowired private ExamRepository examRepository;
 
-  @Autowired private PaperRepository paperRepository;
+  @Autowired private ExamAnswerStore examAnswerStore;
+
+  @Autowired private PaperService paperService;
 
   @Autowired private StudentLearningContextService studentLearningContextService;
 
@@ -345,7 +348,7 @@ public class AiController {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "考试不存在"));
     }
 
-    PaperEntity paper = paperRepository.findById(exam.getPaperId()).orElse(null);
+    PaperEntity paper = paperService.findPaperWithContents(exam.getPaperId()).orElse(null);
     if (paper == null) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "试卷不存在"));
     }
@@ -363,13 +366,12 @@ public class AiController {
       }
     }
 
+    List<ExamRecordEntity> records = examAnswerStore.read(exam);
     List<String> questionIds =
-        exam.getRecords() == null
-            ? List.of()
-            : exam.getRecords().stream()
-                .map(ExamRecordEntity::getQuestionId)
-                .filter(id -> id != null && !id.isBlank())
-                .toList();
+        records.stream()
+            .map(ExamRecordEntity::getQuestionId)
+            .filter(id -> id != null && !id.isBlank())
+            .toList();
     Map<String, QuestionEntity> questionMap =
         questionRepository.findAllById(questionIds).stream()
             .collect(java.util.stream.Collectors.toMap(QuestionEntity::getId, q -> q));
@@ -379,8 +381,8 @@ public class AiController {
         request.maxQuestions == null ? 60 : Math.max(1, Math.min(request.maxQuestions, 120));
     List<Map<String, Object>> suggestions = new ArrayList<>();
 
-    if (exam.getRecords() != null) {
-      for (ExamRecordEntity record : exam.getRecords()) {
+    if (!records.isEmpty()) {
+      for (ExamRecordEntity record : records) {
         if (suggestions.size() >= limit) {
           break;
         }
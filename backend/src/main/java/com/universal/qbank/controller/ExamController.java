@@ -4,6 +4,7 @@ import com.universal.qbank.api.generated.model.ExamQuestion;
 import com.universal.qbank.api.generated.model.ExamSessionResponse;
 import com.universal.qbank.api.generated.model.ManualGradeRequest;
 import com.universal.qbank.api.generated.model.QuestionOption;
+import com.universal.qbank.common.util.SeededShuffle;
 import com.universal.qbank.entity.ExamEntity;
 import com.universal.qbank.entity.ExamRecordEntity;
 import com.universal.qbank.entity.PaperEntity;
@@ -11,7 +12,11 @@ import com.universal.qbank.entity.PaperItemEntity;
 import com.universal.qbank.entity.QuestionEntity;
 import com.universal.qbank.repository.PaperRepository;
 import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.service.ExamAnswerStore;
+import com.universal.qbank.service.ExamDraftStore;
+import com.universal.qbank.service.ExamPaperPayloadCache;
 import com.universal.qbank.service.ExamService;
+import com.universal.qbank.service.PaperService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -26,13 +31,19 @@ public class ExamController {
 
   @Autowired private ExamService examService;
 
+  @Autowired private ExamDraftStore examDraftStore;
+
+  @Autowired private ExamAnswerStore examAnswerStore;
+
+  @Autowired private ExamPaperPayloadCache examPaperPayloadCache;
+
   @Autowired private PaperRepository paperRepository;
 
+  @Autowired private PaperService paperService;
+
   @Autowired private QuestionRepository questionRepository;
 
   @Autowired private com.universal.qbank.repository.UserRepository userRepository;
-  private final com.fasterxml.jackson.databind.ObjectMapper objectMapper =
-      new com.fasterxml.jackson.databind.ObjectMapper();
 
   public static class StartExamRequest {
     public Long paperId;
@@ -99,6 +110,26 @@ public class ExamController {
     return ResponseEntity.ok(toExamResponse(exam));
   }
 
+  public static class AutosaveRequest {
+    public String userId;
+    public Map<String, String> answers;
+    public List<String> flaggedQuestions;
+  }
+
+  /** 自动保存作答增量（写入内存，定时批量落库） */
+  @PutMapping("/{id}/autosave")
+  public ResponseEntity<Map<String, Object>> autosave(
+      @PathVariable Long id, @RequestBody AutosaveRequest req) {
+    long version = examDraftStore.autosave(id, req.userId, req.answers, req.flaggedQuestions);
+    return ResponseEntity.ok(Map.of("examId", id, "version", version));
+  }
+
+  /** 读取自动保存的草稿，用于断线或刷新后恢复作答 */
+  @GetMapping("/{id}/draft")
+  public ResponseEntity<ExamDraftStore.DraftSnapshot> getDraft(@PathVariable Long id) {
+    return ResponseEntity.ok(examDraftStore.snapshot(id));
+  }
+
   /** 用于列表显示的简化响应DTO */
   public static class ExamListItem {
     public String sessionId;
@@ -305,16 +336,17 @@ public class ExamController {
     detail.endTime = exam.getEndTime();
 
     // 获取试卷信息
-    PaperEntity paper = paperRepository.findById(exam.getPaperId()).orElse(null);
+    PaperEntity paper = paperService.findPaperWithContents(exam.getPaperId()).orElse(null);
     if (paper != null) {
       detail.paperTitle = paper.getTitle();
     }
 
     // 获取题目得分详情
     detail.questionScores = new ArrayList<>();
-    if (exam.getRecords() != null) {
+    List<ExamRecordEntity> records = examAnswerStore.read(exam);
+    if (!records.isEmpty()) {
       List<String> qIds =
-          exam.getRecords().stream()
+          records.stream()
               .map(ExamRecordEntity::getQuestionId)
               .collect(Collectors.toList());
 
@@ -332,7 +364,7 @@ public class ExamController {
         }
       }
 
-      for (ExamRecordEntity record : exam.getRecords()) {
+      for (ExamRecordEntity record : records) {
         QuestionScoreDetail qDetail = new QuestionScoreDetail();
         qDetail.questionId = record.getQuestionId();
         qDetail.userAnswer = record.getUserAnswer();
@@ -408,7 +440,8 @@ public class ExamController {
       }
     }
 
-    PaperEntity paper = paperRepository.findById(exam.getPaperId()).orElse(null);
+    PaperEntity paper = paperService.findPaperWithContents(exam.getPaperId()).orElse(null);
+    List<ExamRecordEntity> records = examAnswerStore.read(exam);
 
     List<String> qIds = new ArrayList<>();
     Map<String, Double> scoreMap = new java.util.HashMap<>();
@@ -430,9 +463,9 @@ public class ExamController {
     }
 
     // Fallback: get question IDs from exam records if paper has no questions
-    if (qIds.isEmpty() && exam.getRecords() != null && !exam.getRecords().isEmpty()) {
+    if (qIds.isEmpty() && !records.isEmpty()) {
       qIds =
-          exam.getRecords().stream()
+          records.stream()
               .map(ExamRecordEntity::getQuestionId)
               .filter(id -> id != null)
               .distinct()
@@ -448,10 +481,8 @@ public class ExamController {
         questions.stream().collect(Collectors.toMap(QuestionEntity::getId, q -> q));
 
     Map<String, ExamRecordEntity> recordMap = new java.util.HashMap<>();
-    if (exam.getRecords() != null) {
-      for (ExamRecordEntity r : exam.getRecords()) {
-        recordMap.put(r.getQuestionId(), r);
-      }
+    for (ExamRecordEntity r : records) {
+      recordMap.put(r.getQuestionId(), r);
     }
 
     long seed = exam.getRandomSeed() != null ? exam.getRandomSeed() : 0;
@@ -526,8 +557,7 @@ public class ExamController {
   }
 
   private ExamResponse toExamResponse(ExamEntity exam) {
-    PaperEntity paper = paperRepository.findById(exam.getPaperId()).orElseThrow();
-    List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
+    ExamPaperPayloadCache.PaperPayload payload = examPaperPayloadCache.get(exam.getPaperId());
 
     ExamResponse resp = new ExamResponse();
     resp.id = exam.getId();
@@ -535,56 +565,47 @@ public class ExamController {
     resp.score = exam.getScore();
 
     PaperDetail pd = new PaperDetail();
-    pd.id = paper.getId();
-    pd.title = paper.getTitle();
+    pd.id = payload.paperId();
+    pd.title = payload.title();
 
-    // Randomization
+    // Randomization：按种子生成下标排列，随机数消耗顺序与逐题 Collections.shuffle 一致
     long seed = exam.getRandomSeed() != null ? exam.getRandomSeed() : 0;
     java.util.Random rng = new java.util.Random(seed);
 
-    pd.questions =
-        questions.stream()
-            .map(
-                q -> {
-                  QuestionDetail qd = new QuestionDetail();
-                  qd.id = q.getId();
-                  qd.stem = q.getStem();
-                  qd.type = q.getType();
-                  qd.options = new java.util.ArrayList<>();
-                  if (q.getOptionsJson() != null) {
-                    List<QuestionOption> opts = parseOptions(q.getOptionsJson(), rng);
-                    qd.options =
-                        opts.stream().map(QuestionOption::getText).collect(Collectors.toList());
-                  }
-                  return qd;
-                })
-            .collect(Collectors.toList());
+    pd.questions = new ArrayList<>(payload.questions().size());
+    for (ExamPaperPayloadCache.QuestionPayload q : payload.questions()) {
+      QuestionDetail qd = new QuestionDetail();
+      qd.id = q.id();
+      qd.stem = q.stem();
+      qd.type = q.type();
+      qd.options =
+          SeededShuffle.apply(q.options(), SeededShuffle.permutation(q.options().size(), rng));
+      pd.questions.add(qd);
+    }
 
-    // Ensure items are initialized and mapped
-    if (paper.getItems() != null && !paper.getItems().isEmpty()) {
-      pd.items =
-          paper.getItems().stream()
-              .map(
-                  item -> {
-                    PaperItemDTO dto = new PaperItemDTO();
-                    dto.type = item.getItemType();
-                    dto.id = item.getQuestionId();
-                    dto.sectionTitle = item.getSectionTitle();
-                    dto.score = item.getScore();
-                    return dto;
-                  })
-              .collect(Collectors.toList());
+    if (!payload.items().isEmpty()) {
+      pd.items = new ArrayList<>(payload.items().size());
+      for (ExamPaperPayloadCache.ItemPayload item : payload.items()) {
+        PaperItemDTO dto = new PaperItemDTO();
+        dto.type = item.type();
+        dto.id = item.questionId();
+        dto.sectionTitle = item.sectionTitle();
+        dto.score = item.score();
+        pd.items.add(dto);
+      }
     } else {
       pd.items = new java.util.ArrayList<>();
       // Shuffle questions if no items structure
-      java.util.Collections.shuffle(pd.questions, rng);
+      pd.questions =
+          SeededShuffle.apply(pd.questions, SeededShuffle.permutation(pd.questions.size(), rng));
     }
 
     resp.paper = pd;
 
-    if (exam.getRecords() != null) {
+    List<ExamRecordEntity> records = examAnswerStore.read(exam);
+    if (!records.isEmpty()) {
       resp.records =
-          exam.getRecords().stream()
+          records.stream()
               .map(
                   r -> {
                     RecordDetail rd = new RecordDetail();
@@ -601,84 +622,10 @@ public class ExamController {
   }
 
   private List<QuestionOption> parseOptions(String json, java.util.Random rng) {
-    List<QuestionOption> result = new ArrayList<>();
-    if (json == null) return result;
-
-    try {
-      // Try 1: Standard List<QuestionOption>
-      result =
-          objectMapper.readValue(
-              json, new com.fasterxml.jackson.core.type.TypeReference<List<QuestionOption>>() {});
-      for (QuestionOption opt : result) {
-        if (opt != null) {
-          opt.setText(normalizeOptionText(opt.getText()));
-          if (opt.getKey() != null) {
-            opt.setKey(normalizeOptionText(opt.getKey()));
-          }
-        }
-      }
-    } catch (Exception e) {
-      try {
-        // Try 2: List<String>
-        List<String> strings =
-            objectMapper.readValue(
-                json, new com.fasterxml.jackson.core.type.TypeReference<List<String>>() {});
-        for (String s : strings) {
-          QuestionOption opt = new QuestionOption();
-          opt.setText(normalizeOptionText(s));
-          result.add(opt);
-        }
-      } catch (Exception e2) {
-        try {
-          // Try 3: List<Map<String, Object>> - Generic Object
-          List<Map<String, Object>> maps =
-              objectMapper.readValue(
-                  json,
-                  new com.fasterxml.jackson.core.type.TypeReference<
-                      List<Map<String, Object>>>() {});
-          for (Map<String, Object> map : maps) {
-            QuestionOption opt = new QuestionOption();
-            // Try to find text content
-            if (map.containsKey("text"))
-              opt.setText(normalizeOptionText(String.valueOf(map.get("text"))));
-            else if (map.containsKey("content"))
-              opt.setText(normalizeOptionText(String.valueOf(map.get("content"))));
-            else if (map.containsKey("value"))
-              opt.setText(normalizeOptionText(String.valueOf(map.get("value"))));
-            else if (map.containsKey("label"))
-              opt.setText(normalizeOptionText(String.valueOf(map.get("label"))));
-
-            // Try to find key/label
-            if (map.containsKey("key"))
-              opt.setKey(normalizeOptionText(String.valueOf(map.get("key"))));
-
-            // Try to find isCorrect
-            if (map.containsKey("isCorrect"))
-              opt.setIsCorrect(Boolean.valueOf(String.valueOf(map.get("isCorrect"))));
-
-            result.add(opt);
-          }
-        } catch (Exception e3) {
-          System.err.println("Failed to parse optionsJson");
-          e3.printStackTrace();
-        }
-      }
-    }
-
+    List<QuestionOption> result = ExamPaperPayloadCache.parseOptions(json);
     if (rng != null && !result.isEmpty()) {
       java.util.Collections.shuffle(result, rng);
     }
     return result;
   }
-
-  private String normalizeOptionText(String value) {
-    if (value == null) {
-      return null;
-    }
-    String cleaned = value.replaceAll("<[^>]*>", "").replace("&nbsp;", " ").trim();
-    if (cleaned.contains("锟斤拷")) {
-      cleaned = cleaned.replace("锟斤拷", "?");
-    }
-    return cleaned;
-  }
 }
@@ -5,6 +5,7 @@ import com.universal.qbank.entity.ExamPlanEntity;
 import com.universal.qbank.entity.UserEntity;
 import com.universal.qbank.repository.UserRepository;
 import com.universal.qbank.service.ExamPlanService;
+import com.universal.qbank.service.ExportService;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -12,9 +13,12 @@ import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/exam-plans")
@@ -25,6 +29,8 @@ public class ExamPlanController {
 
   @Autowired private UserRepository userRepository;
 
+  @Autowired private ExportService exportService;
+
   /** 报名信息DTO，包含学生详细信息 */
   public static class EnrollmentDTO {
     public String id;
@@ -209,6 +215,20 @@ public class ExamPlanController {
     return ResponseEntity.ok().build();
   }
 
+  /** 导出个性化试卷包：每位已报名考生一份按其种子乱序的试卷，附答案对照表 */
+  @GetMapping("/{id}/export/student-papers")
+  public ResponseEntity<StreamingResponseBody> exportStudentPapers(@PathVariable String id) {
+    // 在请求线程内完成所有数据库读取，流式写出阶段只做渲染和压缩
+    ExportService.StudentPaperBundle bundle = exportService.prepareStudentPaperBundle(id);
+    StreamingResponseBody stream = out -> exportService.writeStudentPaperBundle(bundle, out);
+    return ResponseEntity.ok()
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"exam_plan_" + id + "_student_papers.zip\"")
+        .contentType(MediaType.parseMediaType("application/zip"))
+        .body(stream);
+  }
+
   /** 获取当前进行中的考试 */
   @GetMapping("/active")
   public ResponseEntity<List<ExamPlanEntity>> getActiveExams() {
@@ -1,16 +1,32 @@
 package com.universal.qbank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.entity.ImportJobEntity;
+import com.universal.qbank.service.ImportJobService;
 import com.universal.qbank.service.ImportService;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/import")
@@ -18,6 +34,12 @@ public class ImportController {
 
   @Autowired private ImportService importService;
 
+  @Autowired private ImportJobService importJobService;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  private static final int MAX_PHOTO_PAGES = 50;
+
   @PostMapping("/word")
   public ResponseEntity<List<QuestionCreateRequest>> importWord(
       @RequestParam("file") MultipartFile file) {
@@ -43,9 +65,108 @@ public class ImportController {
     }
   }
 
+  /** 多页拍照导入：各页并发识别，以 NDJSON 流式返回每页结果，最后一行为去重合并后的题目列表 */
+  @PostMapping(value = "/photos", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> importPhotos(
+      @RequestParam("files") List<MultipartFile> files) {
+    if (files == null || files.isEmpty()) {
+      throw new IllegalArgumentException("请至少上传一张图片");
+    }
+    if (files.size() > MAX_PHOTO_PAGES) {
+      throw new IllegalArgumentException("单次最多上传 " + MAX_PHOTO_PAGES + " 张图片");
+    }
+
+    // 在请求线程内读取上传内容，流式响应阶段 multipart 临时文件可能已被清理
+    List<ImportService.PhotoPage> pages = new ArrayList<>();
+    try {
+      for (int i = 0; i < files.size(); i++) {
+        MultipartFile file = files.get(i);
+        pages.add(
+            new ImportService.PhotoPage(i + 1, file.getOriginalFilename(), file.getBytes()));
+      }
+    } catch (IOException e) {
+      return ResponseEntity.internalServerError().build();
+    }
+
+    StreamingResponseBody stream =
+        outputStream -> {
+          BufferedWriter writer =
+              new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+          try {
+            importService.parsePhotoPages(
+                pages,
+                event -> {
+                  try {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                    writer.flush();
+                  } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                  }
+                });
+          } catch (RuntimeException ex) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("type", "error");
+            error.put("message", ex.getMessage());
+            writer.write(objectMapper.writeValueAsString(error));
+            writer.newLine();
+            writer.flush();
+          }
+        };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .body(stream);
+  }
+
   @PostMapping("/save")
   public ResponseEntity<List<com.universal.qbank.entity.QuestionEntity>> saveQuestions(
       @org.springframework.web.bind.annotation.RequestBody List<QuestionCreateRequest> questions) {
     return ResponseEntity.ok(importService.saveQuestions(questions));
   }
+
+  /** 提交异步 Word 导入任务：边解析边分块入库，返回任务以便轮询进度 */
+  @PostMapping("/word/jobs")
+  public ResponseEntity<ImportJobEntity> submitWordImportJob(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam(name = "chunkSize", required = false) Integer chunkSize,
+      @RequestHeader(value = "Authorization", required = false) String token) {
+    ImportJobEntity job =
+        importJobService.submitWordImport(file, chunkSize, getUserIdFromToken(token));
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
+
+  /** 提交异步 Excel 导入任务，表头支持中英文列名，逐行校验，非法行记入任务错误明细 */
+  @PostMapping("/xlsx/jobs")
+  public ResponseEntity<ImportJobEntity> submitXlsxImportJob(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam(name = "chunkSize", required = false) Integer chunkSize,
+      @RequestHeader(value = "Authorization", required = false) String token) {
+    ImportJobEntity job =
+        importJobService.submitXlsxImport(file, chunkSize, getUserIdFromToken(token));
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
+
+  /** 查询导入任务进度与逐题错误 */
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<ImportJobEntity> getImportJob(@PathVariable String id) {
+    return ResponseEntity.ok(importJobService.getJob(id));
+  }
+
+  /** 从断点续传失败的导入任务 */
+  @PostMapping("/jobs/{id}/resume")
+  public ResponseEntity<ImportJobEntity> resumeImportJob(@PathVariable String id) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.resume(id));
+  }
+
+  private String getUserIdFromToken(String token) {
+    if (token == null || !token.startsWith("Bearer ")) {
+      return null;
+    }
+    String tokenValue = token.substring(7);
+    // Parse dummy JWT token format: "dummy-jwt-token-{userId}"
+    if (tokenValue.startsWith("dummy-jwt-token-")) {
+      return tokenValue.substring("dummy-jwt-token-".length());
+    }
+    return null;
+  }
 }
@@ -2,21 +2,25 @@ package com.universal.qbank.controller;
 
 import com.universal.qbank.entity.KnowledgePointEntity;
 import com.universal.qbank.entity.UserEntity;
-import com.universal.qbank.repository.KnowledgePointRepository;
+import com.universal.qbank.service.KnowledgePointService;
+import com.universal.qbank.service.KnowledgePointTree;
 import com.universal.qbank.service.UserService;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/knowledge-points")
 public class KnowledgePointController {
 
-  @Autowired private KnowledgePointRepository repository;
+  @Autowired private KnowledgePointService knowledgePointService;
 
   @Autowired private UserService userService;
 
@@ -67,10 +71,27 @@ public class KnowledgePointController {
 
   @GetMapping
   public List<KnowledgePointEntity> list(@RequestParam(required = false) String subjectId) {
-    if (subjectId != null) {
-      return repository.findBySubjectIdOrderBySortOrderAsc(subjectId);
+    return knowledgePointService.list(subjectId);
+  }
+
+  /** 知识点树；客户端带 If-None-Match 且树未变化时返回 304 */
+  @GetMapping("/tree")
+  public ResponseEntity<List<KnowledgePointTree.Node>> tree(
+      @RequestParam(required = false) String subjectId, WebRequest request) {
+    String etag = knowledgePointService.treeETag(subjectId);
+    if (request.checkNotModified(etag)) {
+      return null;
     }
-    return repository.findAll();
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.maxAge(0, TimeUnit.SECONDS).mustRevalidate())
+        .body(knowledgePointService.getTree(subjectId));
+  }
+
+  /** 自身及全部后代知识点的 id */
+  @GetMapping("/{id}/subtree-ids")
+  public Set<String> subtreeIds(@PathVariable String id) {
+    return knowledgePointService.tree().subtree(id);
   }
 
   @PostMapping
@@ -82,7 +103,7 @@ public class KnowledgePointController {
     }
     ResponseEntity<String> validation = validate(entity);
     if (validation != null) return validation;
-    KnowledgePointEntity saved = repository.save(Objects.requireNonNull(entity));
+    KnowledgePointEntity saved = knowledgePointService.create(entity);
     return ResponseEntity.ok(Objects.requireNonNull(saved));
   }
 
@@ -98,16 +119,9 @@ public class KnowledgePointController {
     if (validation != null) {
       return ResponseEntity.status(validation.getStatusCode()).build();
     }
-    return repository
-        .findById(Objects.requireNonNull(id))
-        .map(
-            existing -> {
-              existing.setName(entity.getName());
-              existing.setParentId(entity.getParentId());
-              existing.setSortOrder(entity.getSortOrder());
-              existing.setLevel(entity.getLevel());
-              return ResponseEntity.ok(repository.save(existing));
-            })
+    return knowledgePointService
+        .update(Objects.requireNonNull(id), entity)
+        .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
@@ -118,7 +132,7 @@ public class KnowledgePointController {
     if (!isTeacherOrAdmin(token)) {
       return ResponseEntity.status(403).build();
     }
-    repository.deleteById(Objects.requireNonNull(id));
+    knowledgePointService.delete(Objects.requireNonNull(id));
     return ResponseEntity.ok().build();
   }
 }
@@ -3,8 +3,10 @@ package com.universal.qbank.controller;
 import com.universal.qbank.entity.OrganizationEntity;
 import com.universal.qbank.service.ExamPlanService;
 import com.universal.qbank.service.OrganizationService;
+import com.universal.qbank.service.OrganizationTreeSnapshot;
 import com.universal.qbank.service.StudentStatsService;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +25,7 @@ public class OrganizationController {
 
   /** 获取组织树 */
   @GetMapping
-  public ResponseEntity<List<OrganizationEntity>> getTree() {
+  public ResponseEntity<List<OrganizationTreeSnapshot.Node>> getTree() {
     return ResponseEntity.ok(organizationService.getOrganizationTree());
   }
 
@@ -48,6 +50,29 @@ public class OrganizationController {
         .orElse(ResponseEntity.notFound().build());
   }
 
+  /** 获取全部下级组织（按层级排列） */
+  @GetMapping("/{id}/descendants")
+  public ResponseEntity<List<OrganizationEntity>> getDescendants(@PathVariable String id) {
+    return ResponseEntity.ok(organizationService.getDescendants(id));
+  }
+
+  /** 获取上级组织路径（从根到直接上级） */
+  @GetMapping("/{id}/ancestors")
+  public ResponseEntity<List<OrganizationEntity>> getAncestors(@PathVariable String id) {
+    return ResponseEntity.ok(organizationService.getAncestors(id));
+  }
+
+  /** 子树统计：下级组织数、成员数与学生数 */
+  @GetMapping("/{id}/subtree-summary")
+  public ResponseEntity<Map<String, Object>> getSubtreeSummary(@PathVariable String id) {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("organizationId", id);
+    summary.put("descendantCount", organizationService.countDescendants(id));
+    summary.put("memberCount", organizationService.countSubtreeMembers(id));
+    summary.put("studentCount", organizationService.getSubtreeStudentIds(id).size());
+    return ResponseEntity.ok(summary);
+  }
+
   /** 创建组织 */
   @PostMapping
   public ResponseEntity<OrganizationEntity> create(
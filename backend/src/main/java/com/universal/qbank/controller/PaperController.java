@@ -26,12 +26,23 @@ public class PaperController {
 
   @Autowired private com.universal.qbank.service.ExportService exportService;
 
+  @Autowired private com.universal.qbank.service.ExamMetadataCache examMetadataCache;
+
+  @Autowired private com.universal.qbank.service.ExamPaperPayloadCache examPaperPayloadCache;
+
   @GetMapping
   public ResponseEntity<List<PaperResponse>> listPapers() {
-    List<PaperEntity> papers = paperRepository.findAll();
+    List<PaperEntity> papers = paperService.findAllWithContents();
+    // 所有试卷的题目一次查询，不再逐份试卷查询
+    Map<String, QuestionEntity> questionMap =
+        loadQuestionPreviews(
+            papers.stream()
+                .filter(p -> p.getQuestionIds() != null)
+                .flatMap(p -> p.getQuestionIds().stream())
+                .distinct()
+                .toList());
     List<PaperResponse> response =
-        papers.stream().map(this::toPaperResponse).collect(Collectors.toList());
-    response.forEach(p -> System.out.println("DEBUG: Returning paper with ID: " + p.id));
+        papers.stream().map(p -> toPaperResponse(p, questionMap)).collect(Collectors.toList());
     return ResponseEntity.ok(response);
   }
 
@@ -286,7 +297,9 @@ public class PaperController {
   @GetMapping("/{id}")
   public ResponseEntity<PaperResponse> getPaper(@PathVariable Long id) {
     PaperEntity paper =
-        paperRepository.findById(id).orElseThrow(() -> new RuntimeException("Paper not found"));
+        paperService
+            .findPaperWithContents(id)
+            .orElseThrow(() -> new RuntimeException("Paper not found"));
     return ResponseEntity.ok(toPaperResponse(paper));
   }
 
@@ -300,7 +313,9 @@ public class PaperController {
   public ResponseEntity<PaperResponse> updatePaper(
       @PathVariable Long id, @RequestBody UpdatePaperRequest req) {
     PaperEntity paper =
-        paperRepository.findById(id).orElseThrow(() -> new RuntimeException("Paper not found"));
+        paperService
+            .findPaperWithContents(id)
+            .orElseThrow(() -> new RuntimeException("Paper not found"));
     if (req.title != null) {
       paper.setTitle(req.title);
     }
@@ -330,6 +345,7 @@ public class PaperController {
       paper.setQuestionIds(req.questionIds);
     }
     paperRepository.save(paper);
+    examPaperPayloadCache.invalidate(id);
     return ResponseEntity.ok(toPaperResponse(paper));
   }
 
@@ -413,11 +429,36 @@ public class PaperController {
   @DeleteMapping
   public ResponseEntity<Void> deleteAllPapers() {
     paperRepository.deleteAll();
+    examMetadataCache.invalidateAllPapers();
+    examPaperPayloadCache.invalidateAll();
     return ResponseEntity.noContent().build();
   }
 
   private PaperResponse toPaperResponse(PaperEntity paper) {
-    List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
+    return toPaperResponse(
+        paper,
+        loadQuestionPreviews(paper.getQuestionIds() == null ? List.of() : paper.getQuestionIds()));
+  }
+
+  /** 预览只需要题目和标签，用实体图一次加载，不触发知识点集合 */
+  private Map<String, QuestionEntity> loadQuestionPreviews(List<String> questionIds) {
+    if (questionIds.isEmpty()) {
+      return Map.of();
+    }
+    return questionRepository.findWithTagsByIdIn(questionIds).stream()
+        .collect(Collectors.toMap(QuestionEntity::getId, q -> q));
+  }
+
+  private PaperResponse toPaperResponse(
+      PaperEntity paper, Map<String, QuestionEntity> questionMap) {
+    List<QuestionEntity> questions =
+        paper.getQuestionIds() == null
+            ? List.of()
+            : paper.getQuestionIds().stream()
+                .distinct()
+                .map(questionMap::get)
+                .filter(q -> q != null)
+                .toList();
 
     PaperResponse resp = new PaperResponse();
     resp.id = paper.getId();
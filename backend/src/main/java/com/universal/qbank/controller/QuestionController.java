@@ -12,18 +12,33 @@ import com.universal.qbank.api.generated.model.QuestionUpdateRequest;
 import com.universal.qbank.entity.QuestionEntity;
 import com.universal.qbank.repository.QuestionRepository;
 import com.universal.qbank.repository.UserRepository;
+import com.universal.qbank.service.KnowledgePointService;
 import com.universal.qbank.service.OrganizationService;
+import com.universal.qbank.service.QuestionChangedEvent;
+import com.universal.qbank.service.QuestionFacetIndex;
+import com.universal.qbank.service.QuestionSimilarityIndex;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -32,7 +47,18 @@ public class QuestionController implements QuestionBankApi {
   @Autowired private QuestionRepository questionRepository;
   @Autowired private UserRepository userRepository;
   @Autowired private OrganizationService organizationService;
+  @Autowired private KnowledgePointService knowledgePointService;
   @Autowired private HttpServletRequest httpRequest;
+  @Autowired private QuestionSimilarityIndex questionSimilarityIndex;
+  @Autowired private QuestionFacetIndex questionFacetIndex;
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  /** 未指定状态时列表与分面筛选默认展示的状态 */
+  private static final List<String> VISIBLE_STATUSES = List.of("APPROVED", "PUBLISHED", "ACTIVE");
+
+  /** 新建题目时返回疑似重复题目ID（逗号分隔） */
+  static final String DUPLICATE_CANDIDATES_HEADER = "X-Duplicate-Candidates";
+
   private final ObjectMapper objectMapper = new ObjectMapper();
 
   @Override
@@ -102,7 +128,28 @@ public class QuestionController implements QuestionBankApi {
     q.setStatus(initialStatus);
 
     QuestionEntity saved = questionRepository.save(q);
-    return ResponseEntity.ok(convertToResponse(saved));
+
+    // 疑似重复只做提示，不阻止创建
+    List<QuestionSimilarityIndex.DuplicateCandidate> duplicates =
+        questionSimilarityIndex.findCandidates(
+            saved.getStem(),
+            req.getOptions() == null
+                ? List.of()
+                : req.getOptions().stream().map(QuestionOption::getText).toList(),
+            saved.getId(),
+            QuestionSimilarityIndex.DEFAULT_MAX_DISTANCE,
+            5);
+    eventPublisher.publishEvent(QuestionChangedEvent.saved(saved));
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (!duplicates.isEmpty()) {
+      response.header(
+          DUPLICATE_CANDIDATES_HEADER,
+          duplicates.stream()
+              .map(QuestionSimilarityIndex.DuplicateCandidate::questionId)
+              .collect(Collectors.joining(",")));
+    }
+    return response.body(convertToResponse(saved));
   }
 
   private QuestionResponse convertToResponse(QuestionEntity entity) {
@@ -137,7 +184,9 @@ public class QuestionController implements QuestionBankApi {
     return resp;
   }
 
+  /** 标签与知识点为延迟加载，需在只读事务内完成转换 */
   @Override
+  @Transactional(readOnly = true)
   public ResponseEntity<QuestionResponse> apiQuestionsQuestionIdGet(String id) {
     return questionRepository
         .findById(id)
@@ -150,13 +199,16 @@ public class QuestionController implements QuestionBankApi {
   public ResponseEntity<Void> apiQuestionsQuestionIdDelete(String id) {
     if (questionRepository.existsById(id)) {
       questionRepository.deleteById(id);
+      eventPublisher.publishEvent(QuestionChangedEvent.deleted(id));
       return ResponseEntity.noContent().build();
     } else {
       return ResponseEntity.notFound().build();
     }
   }
 
+  /** 请求未带标签或知识点时，发布事件需读取延迟加载的原集合，故在事务内完成 */
   @Override
+  @Transactional
   public ResponseEntity<Void> apiQuestionsQuestionIdPut(String id, QuestionUpdateRequest req) {
     return questionRepository
         .findById(id)
@@ -206,12 +258,15 @@ public class QuestionController implements QuestionBankApi {
               }
               // 保持原有状态，不修改
               questionRepository.save(existing);
+              eventPublisher.publishEvent(QuestionChangedEvent.saved(existing));
               return ResponseEntity.noContent().<Void>build();
             })
         .orElse(ResponseEntity.notFound().build());
   }
 
+  /** 分页列表的标签与知识点各按一条批量 SQL 加载 */
   @Override
+  @Transactional(readOnly = true)
   public ResponseEntity<QuestionPage> apiQuestionsGet(
       Integer page,
       Integer size,
@@ -223,6 +278,10 @@ public class QuestionController implements QuestionBankApi {
       String status) {
     int pageNo = (page == null) ? 0 : page;
     int pageSize = (size == null) ? 10 : size;
+    Set<String> kpFilter =
+        knowledgePointIds == null || knowledgePointIds.isEmpty()
+            ? null
+            : knowledgePointService.expandWithDescendants(knowledgePointIds);
 
     Specification<QuestionEntity> spec =
         (root, query, cb) -> {
@@ -242,25 +301,19 @@ public class QuestionController implements QuestionBankApi {
             predicates.add(cb.equal(root.get("status"), status));
           } else {
             // 默认只显示 APPROVED 状态的题目（审核通过的）以及 ACTIVE 状态（教师直接创建）
-            predicates.add(root.get("status").in("APPROVED", "PUBLISHED", "ACTIVE"));
+            predicates.add(root.get("status").in(VISIBLE_STATUSES));
           }
           if (keywords != null && !keywords.isEmpty()) {
             String likePattern = "%" + keywords + "%";
             predicates.add(cb.like(root.get("stem"), likePattern));
           }
-          if (knowledgePointIds != null && !knowledgePointIds.isEmpty()) {
-            // Join or check if list contains any of the IDs
-            // Since knowledgePointIds is ElementCollection, we can use join
-            // predicates.add(root.join("knowledgePointIds").in(knowledgePointIds));
-            // But this might cause duplicates if multiple match. Distinct needed.
-            // Or simpler:
-            // predicates.add(root.join("knowledgePointIds").in(knowledgePointIds));
-            // query.distinct(true);
-
-            // For now, let's assume exact match or contains logic.
-            // JPA Criteria for ElementCollection 'in'
-            predicates.add(root.join("knowledgePointIds").in(knowledgePointIds));
-            query.distinct(true);
+          if (kpFilter != null) {
+            // 章节筛选包含其下全部小节与知识点；用关联 EXISTS 半连接代替 join + distinct，
+            // 分页与计数查询都不会因一题多知识点而重复
+            Subquery<Integer> tagged = query.subquery(Integer.class);
+            Root<QuestionEntity> outer = tagged.correlate(root);
+            tagged.select(cb.literal(1)).where(outer.join("knowledgePointIds").in(kpFilter));
+            predicates.add(cb.exists(tagged));
           }
 
           return cb.and(predicates.toArray(new Predicate[0]));
@@ -281,6 +334,70 @@ public class QuestionController implements QuestionBankApi {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * 组卷分面筛选：条件由内存位图索引求值，只按 id 查询当页题目。同一属性的多个取值为"或"，不同属性之间为"且"；tagMatch=ALL
+   * 时要求同时具有全部标签，知识点条件包含其下级知识点。
+   */
+  @GetMapping("/api/questions/facets")
+  @Transactional(readOnly = true)
+  public ResponseEntity<Map<String, Object>> apiQuestionsFacetsGet(
+      @RequestParam(required = false) List<String> subjectId,
+      @RequestParam(required = false) List<String> type,
+      @RequestParam(required = false) List<String> difficulty,
+      @RequestParam(required = false) List<String> status,
+      @RequestParam(required = false) List<String> organizationId,
+      @RequestParam(required = false) List<String> tags,
+      @RequestParam(defaultValue = "ANY") String tagMatch,
+      @RequestParam(required = false) List<String> knowledgePointIds,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "20") int facetLimit) {
+    if (!questionFacetIndex.isReady()) {
+      throw new IllegalStateException("题目筛选索引尚未就绪，请稍后重试");
+    }
+    Map<QuestionFacetIndex.Facet, QuestionFacetIndex.Filter> filters =
+        new EnumMap<>(QuestionFacetIndex.Facet.class);
+    filters.put(QuestionFacetIndex.Facet.SUBJECT, QuestionFacetIndex.Filter.any(subjectId));
+    filters.put(QuestionFacetIndex.Facet.TYPE, QuestionFacetIndex.Filter.any(type));
+    filters.put(QuestionFacetIndex.Facet.DIFFICULTY, QuestionFacetIndex.Filter.any(difficulty));
+    List<String> statuses = status == null || status.isEmpty() ? VISIBLE_STATUSES : status;
+    filters.put(QuestionFacetIndex.Facet.STATUS, QuestionFacetIndex.Filter.any(statuses));
+    filters.put(
+        QuestionFacetIndex.Facet.ORGANIZATION, QuestionFacetIndex.Filter.any(organizationId));
+    filters.put(
+        QuestionFacetIndex.Facet.TAG,
+        new QuestionFacetIndex.Filter(tags, "ALL".equalsIgnoreCase(tagMatch)));
+    if (knowledgePointIds != null && !knowledgePointIds.isEmpty()) {
+      filters.put(
+          QuestionFacetIndex.Facet.KNOWLEDGE_POINT,
+          QuestionFacetIndex.Filter.any(
+              knowledgePointService.expandWithDescendants(knowledgePointIds)));
+    }
+    int pageNo = Math.max(0, page);
+    int pageSize = Math.max(1, Math.min(size, 200));
+    QuestionFacetIndex.Result result =
+        questionFacetIndex.search(filters, pageNo, pageSize, Math.max(0, facetLimit));
+
+    Map<String, QuestionEntity> loaded =
+        questionRepository.findAllById(result.ids()).stream()
+            .collect(Collectors.toMap(QuestionEntity::getId, Function.identity()));
+    List<QuestionSummary> content =
+        result.ids().stream()
+            .map(loaded::get)
+            .filter(q -> q != null)
+            .map(this::convertToSummary)
+            .toList();
+
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("totalElements", result.total());
+    response.put("totalPages", (result.total() + pageSize - 1) / pageSize);
+    response.put("page", pageNo);
+    response.put("size", pageSize);
+    response.put("content", content);
+    response.put("facets", result.facets());
+    return ResponseEntity.ok(response);
+  }
+
   private QuestionSummary convertToSummary(QuestionEntity entity) {
     QuestionSummary summary = new QuestionSummary();
     summary.setId(entity.getId());
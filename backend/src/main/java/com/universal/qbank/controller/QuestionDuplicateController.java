@@ -0,0 +1,78 @@
+package com.universal.qbank.controller;
+
+import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.api.generated.model.QuestionOption;
+import com.universal.qbank.service.QuestionSimilarityIndex;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** 题目查重接口 */
+@RestController
+@RequestMapping("/api/questions/duplicates")
+public class QuestionDuplicateController {
+
+  private static final int MAX_CHECK_ITEMS = 2000;
+
+  @Autowired private QuestionSimilarityIndex questionSimilarityIndex;
+
+  /** 批量检查待导入/待创建题目是否与题库已有题目近似，返回每道题的疑似重复列表 */
+  @PostMapping("/check")
+  public ResponseEntity<List<Map<String, Object>>> check(
+      @RequestBody List<QuestionCreateRequest> questions,
+      @RequestParam(defaultValue = "7") int maxDistance,
+      @RequestParam(defaultValue = "5") int limit) {
+    if (questions.size() > MAX_CHECK_ITEMS) {
+      throw new IllegalArgumentException("单次最多检查 " + MAX_CHECK_ITEMS + " 道题");
+    }
+    int distance = clampDistance(maxDistance);
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (int i = 0; i < questions.size(); i++) {
+      QuestionCreateRequest question = questions.get(i);
+      List<String> optionTexts =
+          question.getOptions() == null
+              ? List.of()
+              : question.getOptions().stream().map(QuestionOption::getText).toList();
+      List<QuestionSimilarityIndex.DuplicateCandidate> candidates =
+          questionSimilarityIndex.findCandidates(
+              question.getStem(), optionTexts, null, distance, Math.max(1, limit));
+      if (candidates.isEmpty()) {
+        continue;
+      }
+      Map<String, Object> item = new LinkedHashMap<>();
+      item.put("index", i);
+      item.put("candidates", candidates);
+      result.add(item);
+    }
+    return ResponseEntity.ok(result);
+  }
+
+  /** 全库疑似重复分组报告 */
+  @GetMapping("/clusters")
+  public ResponseEntity<Map<String, Object>> clusters(
+      @RequestParam(defaultValue = "7") int maxDistance,
+      @RequestParam(defaultValue = "2") int minSize) {
+    List<Map<String, Object>> clusters =
+        questionSimilarityIndex.findClusters(clampDistance(maxDistance), minSize);
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("indexedQuestions", questionSimilarityIndex.size());
+    result.put("ready", questionSimilarityIndex.isReady());
+    result.put("clusterCount", clusters.size());
+    result.put("clusters", clusters);
+    return ResponseEntity.ok(result);
+  }
+
+  /** 分桶方案只保证距离 ≤7 的召回，更大的阈值会漏召，因此限制在该范围内 */
+  private int clampDistance(int maxDistance) {
+    return Math.max(0, Math.min(maxDistance, QuestionSimilarityIndex.DEFAULT_MAX_DISTANCE));
+  }
+}
@@ -3,11 +3,15 @@ package com.universal.qbank.controller;
 import com.universal.qbank.entity.StudentStatsEntity;
 import com.universal.qbank.entity.UserEntity;
 import com.universal.qbank.repository.UserRepository;
+import com.universal.qbank.service.LeaderboardService;
 import com.universal.qbank.service.OrganizationService;
+import com.universal.qbank.service.StudentMasteryService;
 import com.universal.qbank.service.StudentStatsService;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -19,12 +23,21 @@ public class StudentStatsController {
   @Autowired private StudentStatsService studentStatsService;
   @Autowired private UserRepository userRepository;
   @Autowired private OrganizationService organizationService;
+  @Autowired private LeaderboardService leaderboardService;
+  @Autowired private StudentMasteryService studentMasteryService;
 
   @GetMapping("/me")
   public ResponseEntity<StudentStatsEntity> getMyStats(@RequestParam String userId) {
     return ResponseEntity.ok(studentStatsService.getStatsByUserId(userId));
   }
 
+  /** 我的各知识点掌握度，按近期错误数从高到低排列 */
+  @GetMapping("/mastery")
+  public ResponseEntity<List<StudentMasteryService.Mastery>> getMyMastery(
+      @RequestParam String userId) {
+    return ResponseEntity.ok(studentMasteryService.masteryOrBackfill(userId));
+  }
+
   @GetMapping("/leaderboard")
   public ResponseEntity<List<StudentStatsEntity>> getLeaderboard(
       @RequestParam(defaultValue = "50") int limit,
@@ -60,4 +73,15 @@ public class StudentStatsController {
 
     return ResponseEntity.ok(studentStatsService.getLeaderboardByOrganization(orgId, limit));
   }
+
+  /** 查询我在全局榜或指定班级榜中的名次 */
+  @GetMapping("/rank")
+  public ResponseEntity<Map<String, Object>> getMyRank(
+      @RequestParam String userId, @RequestParam(required = false) String orgId) {
+    if (!leaderboardService.isReady()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(Map.of("error", "排行榜正在加载，请稍后重试"));
+    }
+    return ResponseEntity.ok(leaderboardService.rankOf(userId, orgId));
+  }
 }
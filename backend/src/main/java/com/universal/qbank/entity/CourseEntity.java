@@ -1,12 +1,17 @@
 package com.universal.qbank.entity;
 
+import com.universal.qbank.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** 课程实体 */
 @Entity
 @Table(name = "courses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.COURSES)
 public class CourseEntity {
 
   @Id private String id;
@@ -0,0 +1,71 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/** 按自然日预聚合的统计数据，由定时任务写入，趋势图的长时间范围直接读取 */
+@Entity
+@Table(name = "daily_stats_rollups")
+public class DailyStatsRollupEntity {
+
+  @Id private LocalDate statDate;
+
+  /** 当日有操作记录的去重用户数 */
+  @Column(nullable = false)
+  private Long activeUsers = 0L;
+
+  @Column(nullable = false)
+  private Long newQuestions = 0L;
+
+  @Column(nullable = false)
+  private Long examsStarted = 0L;
+
+  private OffsetDateTime computedAt;
+
+  public DailyStatsRollupEntity() {}
+
+  public DailyStatsRollupEntity(LocalDate statDate) {
+    this.statDate = statDate;
+  }
+
+  public LocalDate getStatDate() {
+    return statDate;
+  }
+
+  public void setStatDate(LocalDate statDate) {
+    this.statDate = statDate;
+  }
+
+  public Long getActiveUsers() {
+    return activeUsers;
+  }
+
+  public void setActiveUsers(Long activeUsers) {
+    this.activeUsers = activeUsers;
+  }
+
+  public Long getNewQuestions() {
+    return newQuestions;
+  }
+
+  public void setNewQuestions(Long newQuestions) {
+    this.newQuestions = newQuestions;
+  }
+
+  public Long getExamsStarted() {
+    return examsStarted;
+  }
+
+  public void setExamsStarted(Long examsStarted) {
+    this.examsStarted = examsStarted;
+  }
+
+  public OffsetDateTime getComputedAt() {
+    return computedAt;
+  }
+
+  public void setComputedAt(OffsetDateTime computedAt) {
+    this.computedAt = computedAt;
+  }
+}
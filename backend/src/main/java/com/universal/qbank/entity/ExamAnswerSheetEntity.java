@@ -0,0 +1,62 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/** 考试答题卡：一场考试的全部作答、得分、标记与评语序列化为一行 */
+@Entity
+@Table(name = "exam_answer_sheets")
+public class ExamAnswerSheetEntity {
+
+  @Id private Long examId;
+
+  /** 序列化格式版本 */
+  private Integer formatVersion = 1;
+
+  private Integer questionCount;
+
+  @Column(columnDefinition = "TEXT")
+  private String sheetJson;
+
+  private OffsetDateTime updatedAt;
+
+  public Long getExamId() {
+    return examId;
+  }
+
+  public void setExamId(Long examId) {
+    this.examId = examId;
+  }
+
+  public Integer getFormatVersion() {
+    return formatVersion;
+  }
+
+  public void setFormatVersion(Integer formatVersion) {
+    this.formatVersion = formatVersion;
+  }
+
+  public Integer getQuestionCount() {
+    return questionCount;
+  }
+
+  public void setQuestionCount(Integer questionCount) {
+    this.questionCount = questionCount;
+  }
+
+  public String getSheetJson() {
+    return sheetJson;
+  }
+
+  public void setSheetJson(String sheetJson) {
+    this.sheetJson = sheetJson;
+  }
+
+  public OffsetDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(OffsetDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
@@ -0,0 +1,75 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/** 考试作答草稿（自动保存），交卷后删除 */
+@Entity
+@Table(
+    name = "exam_drafts",
+    indexes = {@Index(name = "idx_exam_draft_updated", columnList = "updatedAt")})
+public class ExamDraftEntity {
+
+  @Id private Long examId;
+
+  private String userId;
+
+  @Column(columnDefinition = "TEXT")
+  private String answersJson;
+
+  @Column(columnDefinition = "TEXT")
+  private String flaggedJson;
+
+  /** 草稿版本号，每次自动保存递增 */
+  private Long version;
+
+  private OffsetDateTime updatedAt;
+
+  public Long getExamId() {
+    return examId;
+  }
+
+  public void setExamId(Long examId) {
+    this.examId = examId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public String getAnswersJson() {
+    return answersJson;
+  }
+
+  public void setAnswersJson(String answersJson) {
+    this.answersJson = answersJson;
+  }
+
+  public String getFlaggedJson() {
+    return flaggedJson;
+  }
+
+  public void setFlaggedJson(String flaggedJson) {
+    this.flaggedJson = flaggedJson;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public OffsetDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(OffsetDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
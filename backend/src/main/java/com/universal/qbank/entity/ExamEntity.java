@@ -3,6 +3,7 @@ package com.universal.qbank.entity;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(
@@ -11,7 +12,8 @@ import java.util.List;
       @Index(name = "idx_exam_user_end", columnList = "userId, endTime"),
       @Index(name = "idx_exam_user_start", columnList = "userId, startTime"),
       @Index(name = "idx_exam_paper_start", columnList = "paperId, startTime"),
-      @Index(name = "idx_exam_grading_start", columnList = "gradingStatus, startTime")
+      @Index(name = "idx_exam_grading_start", columnList = "gradingStatus, startTime"),
+      @Index(name = "idx_exam_start", columnList = "startTime")
     })
 public class ExamEntity {
 
@@ -29,8 +31,9 @@ public class ExamEntity {
 
   private OffsetDateTime endTime;
 
-  @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @OneToMany(cascade = CascadeType.ALL)
   @JoinColumn(name = "exam_id")
+  @BatchSize(size = 100)
   private List<ExamRecordEntity> records;
 
   private Long randomSeed;
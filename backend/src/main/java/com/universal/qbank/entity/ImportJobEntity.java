@@ -0,0 +1,210 @@
+package com.universal.qbank.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** 题库导入任务实体 */
+@Entity
+@Table(
+    name = "import_jobs",
+    indexes = {
+      @Index(name = "idx_import_job_creator_created", columnList = "createdBy, createdAt"),
+      @Index(name = "idx_import_job_status", columnList = "status")
+    })
+public class ImportJobEntity {
+
+  @Id private String id;
+
+  /** 导入类型: WORD, XLSX */
+  @Column(length = 20)
+  private String type;
+
+  /** 状态: PENDING, RUNNING, COMPLETED, FAILED */
+  @Column(length = 20)
+  private String status = "PENDING";
+
+  /** 原始文件名 */
+  private String fileName;
+
+  /** 暂存文件路径（续传时重新解析） */
+  @JsonIgnore
+  @Column(length = 500)
+  private String storedPath;
+
+  /** 分块大小 */
+  private Integer chunkSize;
+
+  /** 解析出的题目总数（开始处理后写入） */
+  private Integer totalCount;
+
+  /** 断点：已处理（成功或失败）的题目数，续传时从此处开始 */
+  private Integer nextIndex = 0;
+
+  /** 成功写入数 */
+  private Integer successCount = 0;
+
+  /** 失败数 */
+  private Integer failedCount = 0;
+
+  /** 逐题错误明细 JSON 数组：[{index, stem, message}] */
+  @Lob
+  @Column(columnDefinition = "TEXT")
+  private String errorsJson;
+
+  /** 任务级错误信息 */
+  @Column(length = 1000)
+  private String errorMessage;
+
+  /** 创建人 */
+  private String createdBy;
+
+  private OffsetDateTime createdAt;
+
+  private OffsetDateTime updatedAt;
+
+  /** 完成时间 */
+  private OffsetDateTime completedAt;
+
+  @PrePersist
+  public void prePersist() {
+    if (this.id == null) {
+      this.id = UUID.randomUUID().toString();
+    }
+    if (this.createdAt == null) {
+      this.createdAt = OffsetDateTime.now();
+    }
+    this.updatedAt = this.createdAt;
+  }
+
+  // Getters and Setters
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public void setFileName(String fileName) {
+    this.fileName = fileName;
+  }
+
+  public String getStoredPath() {
+    return storedPath;
+  }
+
+  public void setStoredPath(String storedPath) {
+    this.storedPath = storedPath;
+  }
+
+  public Integer getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(Integer chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public Integer getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(Integer totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  public Integer getNextIndex() {
+    return nextIndex;
+  }
+
+  public void setNextIndex(Integer nextIndex) {
+    this.nextIndex = nextIndex;
+  }
+
+  public Integer getSuccessCount() {
+    return successCount;
+  }
+
+  public void setSuccessCount(Integer successCount) {
+    this.successCount = successCount;
+  }
+
+  public Integer getFailedCount() {
+    return failedCount;
+  }
+
+  public void setFailedCount(Integer failedCount) {
+    this.failedCount = failedCount;
+  }
+
+  public String getErrorsJson() {
+    return errorsJson;
+  }
+
+  public void setErrorsJson(String errorsJson) {
+    this.errorsJson = errorsJson;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+
+  public String getCreatedBy() {
+    return createdBy;
+  }
+
+  public void setCreatedBy(String createdBy) {
+    this.createdBy = createdBy;
+  }
+
+  public OffsetDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(OffsetDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public OffsetDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(OffsetDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public OffsetDateTime getCompletedAt() {
+    return completedAt;
+  }
+
+  public void setCompletedAt(OffsetDateTime completedAt) {
+    this.completedAt = completedAt;
+  }
+}
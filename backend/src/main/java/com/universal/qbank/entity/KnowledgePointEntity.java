@@ -1,10 +1,15 @@
 package com.universal.qbank.entity;
 
+import com.universal.qbank.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import java.util.UUID;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "knowledge_points")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.KNOWLEDGE_POINTS)
 public class KnowledgePointEntity {
 
   @Id private String id;
@@ -0,0 +1,87 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/** 组织层级闭包表：每对（祖先, 后代）一行，depth 为层级差，每个组织与自身也有一行（depth = 0） */
+@Entity
+@Table(
+    name = "organization_closure",
+    indexes = {
+      @Index(name = "idx_org_closure_descendant", columnList = "descendantId, depth")
+    })
+@IdClass(OrganizationClosureEntity.Key.class)
+public class OrganizationClosureEntity {
+
+  @Id private String ancestorId;
+
+  @Id private String descendantId;
+
+  @Column(nullable = false)
+  private Integer depth;
+
+  public OrganizationClosureEntity() {}
+
+  public OrganizationClosureEntity(String ancestorId, String descendantId, Integer depth) {
+    this.ancestorId = ancestorId;
+    this.descendantId = descendantId;
+    this.depth = depth;
+  }
+
+  public String getAncestorId() {
+    return ancestorId;
+  }
+
+  public void setAncestorId(String ancestorId) {
+    this.ancestorId = ancestorId;
+  }
+
+  public String getDescendantId() {
+    return descendantId;
+  }
+
+  public void setDescendantId(String descendantId) {
+    this.descendantId = descendantId;
+  }
+
+  public Integer getDepth() {
+    return depth;
+  }
+
+  public void setDepth(Integer depth) {
+    this.depth = depth;
+  }
+
+  /** 复合主键 */
+  public static class Key implements Serializable {
+
+    private String ancestorId;
+
+    private String descendantId;
+
+    public Key() {}
+
+    public Key(String ancestorId, String descendantId) {
+      this.ancestorId = ancestorId;
+      this.descendantId = descendantId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key other)) {
+        return false;
+      }
+      return Objects.equals(ancestorId, other.ancestorId)
+          && Objects.equals(descendantId, other.descendantId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ancestorId, descendantId);
+    }
+  }
+}
@@ -1,10 +1,13 @@
 package com.universal.qbank.entity;
 
+import com.universal.qbank.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** 组织架构实体 - 支持学校/学院/班级等层级结构 */
 @Entity
@@ -15,6 +18,8 @@ import java.util.UUID;
       @Index(name = "idx_org_type_status", columnList = "type, status"),
       @Index(name = "idx_org_created_by", columnList = "createdBy")
     })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ORGANIZATIONS)
 public class OrganizationEntity {
 
   @Id private String id;
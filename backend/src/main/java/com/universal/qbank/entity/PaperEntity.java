@@ -3,6 +3,7 @@ package com.universal.qbank.entity;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "papers")
@@ -16,7 +17,8 @@ public class PaperEntity {
 
   private OffsetDateTime createdAt;
 
-  @ElementCollection(fetch = FetchType.EAGER)
+  @ElementCollection
+  @BatchSize(size = 100)
   @CollectionTable(name = "paper_questions", joinColumns = @JoinColumn(name = "paper_id"))
   @Column(name = "question_id")
   private List<String> questionIds;
@@ -24,9 +26,9 @@ public class PaperEntity {
   @OneToMany(
       mappedBy = "paper",
       cascade = CascadeType.ALL,
-      orphanRemoval = true,
-      fetch = FetchType.EAGER)
+      orphanRemoval = true)
   @OrderBy("sortOrder ASC")
+  @BatchSize(size = 100)
   private List<PaperItemEntity> items;
 
   @PrePersist
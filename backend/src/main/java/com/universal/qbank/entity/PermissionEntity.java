@@ -1,11 +1,16 @@
 package com.universal.qbank.entity;
 
+import com.universal.qbank.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import java.util.UUID;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** 权限点实体 */
 @Entity
 @Table(name = "permissions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.PERMISSIONS)
 public class PermissionEntity {
 
   @Id private String id;
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(
@@ -16,7 +17,8 @@ import java.util.UUID;
       @Index(
           name = "idx_question_org_status_created",
           columnList = "organizationId, status, createdAt"),
-      @Index(name = "idx_question_subject_type_diff", columnList = "subjectId, type, difficulty")
+      @Index(name = "idx_question_subject_type_diff", columnList = "subjectId, type, difficulty"),
+      @Index(name = "idx_question_created", columnList = "createdAt")
     })
 public class QuestionEntity {
 
@@ -51,10 +53,12 @@ public class QuestionEntity {
   /** 所属组织ID (null表示共用题库) */
   private String organizationId;
 
-  @ElementCollection(fetch = FetchType.EAGER)
+  @ElementCollection
+  @BatchSize(size = 100)
   private List<String> tags;
 
-  @ElementCollection(fetch = FetchType.EAGER)
+  @ElementCollection
+  @BatchSize(size = 100)
   @CollectionTable(
       name = "question_knowledge_points",
       indexes = {
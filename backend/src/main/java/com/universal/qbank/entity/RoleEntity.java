@@ -1,12 +1,17 @@
 package com.universal.qbank.entity;
 
+import com.universal.qbank.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** 角色实体 */
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ROLES)
 public class RoleEntity {
 
   @Id private String id;
@@ -0,0 +1,106 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/** 学生在某科目（或全部科目）上的能力估计，自适应练习每答一题在线更新 */
+@Entity
+@Table(name = "student_abilities")
+@IdClass(StudentAbilityEntity.Key.class)
+public class StudentAbilityEntity {
+
+  @Id private String userId;
+
+  /** 科目 id；不限科目的练习为 _all */
+  @Id private String scopeId;
+
+  /** logit 尺度的能力值，与题目难度可直接比较 */
+  @Column(nullable = false)
+  private Double ability = 0.0;
+
+  /** 参与估计的作答数，决定每次更新的步长 */
+  @Column(nullable = false)
+  private Long answered = 0L;
+
+  private OffsetDateTime updatedAt;
+
+  public StudentAbilityEntity() {}
+
+  public StudentAbilityEntity(String userId, String scopeId) {
+    this.userId = userId;
+    this.scopeId = scopeId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public String getScopeId() {
+    return scopeId;
+  }
+
+  public void setScopeId(String scopeId) {
+    this.scopeId = scopeId;
+  }
+
+  public Double getAbility() {
+    return ability;
+  }
+
+  public void setAbility(Double ability) {
+    this.ability = ability;
+  }
+
+  public Long getAnswered() {
+    return answered;
+  }
+
+  public void setAnswered(Long answered) {
+    this.answered = answered;
+  }
+
+  public OffsetDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(OffsetDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /** 复合主键 */
+  public static class Key implements Serializable {
+
+    private String userId;
+
+    private String scopeId;
+
+    public Key() {}
+
+    public Key(String userId, String scopeId) {
+      this.userId = userId;
+      this.scopeId = scopeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key other)) {
+        return false;
+      }
+      return Objects.equals(userId, other.userId) && Objects.equals(scopeId, other.scopeId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, scopeId);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * 学生-知识点掌握度：每个（学生, 知识点）一行，交卷判分后增量累加。
+ *
+ * <p>weightedAttempts / weightedWrong 为按时间加权的累计值，权重相对固定基准时间指数增长，读取时统一乘以当前时刻的衰减系数，
+ * 得到近期作答更重要的衰减计数；累加只需原子 UPDATE，与提交顺序无关。
+ */
+@Entity
+@Table(name = "student_kp_mastery")
+@IdClass(StudentKpMasteryEntity.Key.class)
+public class StudentKpMasteryEntity {
+
+  @Id private String userId;
+
+  /** 知识点 id；未标注知识点的题目记为 UNKNOWN */
+  @Id private String knowledgePointId;
+
+  @Column(nullable = false)
+  private Long attempts = 0L;
+
+  @Column(nullable = false)
+  private Long wrongCount = 0L;
+
+  @Column(nullable = false)
+  private Double weightedAttempts = 0.0;
+
+  @Column(nullable = false)
+  private Double weightedWrong = 0.0;
+
+  private OffsetDateTime lastAttemptAt;
+
+  /** 该知识点下最近一次答错的题目 */
+  private String lastWrongQuestionId;
+
+  public StudentKpMasteryEntity() {}
+
+  public StudentKpMasteryEntity(String userId, String knowledgePointId) {
+    this.userId = userId;
+    this.knowledgePointId = knowledgePointId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public String getKnowledgePointId() {
+    return knowledgePointId;
+  }
+
+  public void setKnowledgePointId(String knowledgePointId) {
+    this.knowledgePointId = knowledgePointId;
+  }
+
+  public Long getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Long attempts) {
+    this.attempts = attempts;
+  }
+
+  public Long getWrongCount() {
+    return wrongCount;
+  }
+
+  public void setWrongCount(Long wrongCount) {
+    this.wrongCount = wrongCount;
+  }
+
+  public Double getWeightedAttempts() {
+    return weightedAttempts;
+  }
+
+  public void setWeightedAttempts(Double weightedAttempts) {
+    this.weightedAttempts = weightedAttempts;
+  }
+
+  public Double getWeightedWrong() {
+    return weightedWrong;
+  }
+
+  public void setWeightedWrong(Double weightedWrong) {
+    this.weightedWrong = weightedWrong;
+  }
+
+  public OffsetDateTime getLastAttemptAt() {
+    return lastAttemptAt;
+  }
+
+  public void setLastAttemptAt(OffsetDateTime lastAttemptAt) {
+    this.lastAttemptAt = lastAttemptAt;
+  }
+
+  public String getLastWrongQuestionId() {
+    return lastWrongQuestionId;
+  }
+
+  public void setLastWrongQuestionId(String lastWrongQuestionId) {
+    this.lastWrongQuestionId = lastWrongQuestionId;
+  }
+
+  /** 复合主键 */
+  public static class Key implements Serializable {
+
+    private String userId;
+
+    private String knowledgePointId;
+
+    public Key() {}
+
+    public Key(String userId, String knowledgePointId) {
+      this.userId = userId;
+      this.knowledgePointId = knowledgePointId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key other)) {
+        return false;
+      }
+      return Objects.equals(userId, other.userId)
+          && Objects.equals(knowledgePointId, other.knowledgePointId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, knowledgePointId);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.universal.qbank.entity;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/** 学生历史考试已回放进掌握度表的标记，每个学生一行，主键保证只回放一次 */
+@Entity
+@Table(name = "student_mastery_backfills")
+public class StudentMasteryBackfillEntity {
+
+  @Id private String userId;
+
+  /** 回放截止时刻，此前结束的考试由回放计入，此后的由交卷增量计入 */
+  @Column(nullable = false)
+  private OffsetDateTime backfilledAt;
+
+  /** 回放的考试场数 */
+  @Column(nullable = false)
+  private Integer exams = 0;
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public OffsetDateTime getBackfilledAt() {
+    return backfilledAt;
+  }
+
+  public void setBackfilledAt(OffsetDateTime backfilledAt) {
+    this.backfilledAt = backfilledAt;
+  }
+
+  public Integer getExams() {
+    return exams;
+  }
+
+  public void setExams(Integer exams) {
+    this.exams = exams;
+  }
+}
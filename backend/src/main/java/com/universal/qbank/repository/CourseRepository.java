@@ -1,15 +1,20 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.CourseEntity;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CourseRepository extends JpaRepository<CourseEntity, String> {
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<CourseEntity> findByDepartmentId(String departmentId);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<CourseEntity> findByStatus(String status);
 
   boolean existsByCode(String code);
@@ -0,0 +1,15 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.DailyStatsRollupEntity;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailyStatsRollupRepository
+    extends JpaRepository<DailyStatsRollupEntity, LocalDate> {
+
+  List<DailyStatsRollupEntity> findByStatDateBetweenOrderByStatDateAsc(
+      LocalDate start, LocalDate end);
+}
@@ -0,0 +1,8 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.ExamAnswerSheetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExamAnswerSheetRepository extends JpaRepository<ExamAnswerSheetEntity, Long> {}
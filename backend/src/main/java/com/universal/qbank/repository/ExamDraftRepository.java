@@ -0,0 +1,8 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.ExamDraftEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExamDraftRepository extends JpaRepository<ExamDraftEntity, Long> {}
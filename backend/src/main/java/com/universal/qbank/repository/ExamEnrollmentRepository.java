@@ -4,7 +4,11 @@ import com.universal.qbank.entity.ExamEnrollmentEntity;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ExamEnrollmentRepository extends JpaRepository<ExamEnrollmentEntity, String> {
@@ -20,4 +24,18 @@ public interface ExamEnrollmentRepository extends JpaRepository<ExamEnrollmentEn
   long countByExamPlanId(String examPlanId);
 
   long countByExamPlanIdAndStatus(String examPlanId, String status);
+
+  boolean existsByExamPlanIdAndStudentId(String examPlanId, String studentId);
+
+  /** 次数未用完时原子地占用一次考试机会，返回 0 表示未报名或已达上限 */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE ExamEnrollmentEntity e SET e.attemptsUsed = COALESCE(e.attemptsUsed, 0) + 1"
+          + " WHERE e.examPlanId = :planId AND e.studentId = :studentId"
+          + " AND COALESCE(e.attemptsUsed, 0) < :maxAttempts")
+  int incrementAttemptsIfBelow(
+      @Param("planId") String planId,
+      @Param("studentId") String studentId,
+      @Param("maxAttempts") int maxAttempts);
 }
@@ -1,14 +1,52 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ExamRepository
     extends JpaRepository<ExamEntity, Long>, JpaSpecificationExecutor<ExamEntity> {
   long countByStartTimeBetween(OffsetDateTime start, OffsetDateTime end);
 
   List<ExamEntity> findTop30ByUserIdAndEndTimeIsNotNullOrderByEndTimeDesc(String userId);
+
+  List<ExamEntity> findTop30ByUserIdAndEndTimeBeforeOrderByEndTimeDesc(
+      String userId, OffsetDateTime endTime);
+
+  List<ExamEntity> findByPaperIdAndScoreIsNotNull(Long paperId);
+
+  /** 仍以逐题行存储作答记录的考试，用于迁移到答题卡 */
+  @Query("SELECT DISTINCT e.id FROM ExamEntity e JOIN e.records r ORDER BY e.id")
+  List<Long> findIdsWithRecordRows(Pageable pageable);
+
+  /** 单场考试的逐题作答行 */
+  @Query("SELECT r FROM ExamEntity e JOIN e.records r WHERE e.id = :examId ORDER BY r.id")
+  List<ExamRecordEntity> findRecordsByExamId(@Param("examId") Long examId);
+
+  /** 多场考试的逐题作答行，返回 [examId, record]，一次查询代替逐场加载 */
+  @Query(
+      "SELECT e.id, r FROM ExamEntity e JOIN e.records r WHERE e.id IN :examIds ORDER BY r.id")
+  List<Object[]> findRecordsByExamIds(@Param("examIds") Collection<Long> examIds);
+
+  /** 按题目汇总已判定对错的逐题作答行，返回 [questionId, 作答数, 答对数] */
+  @Query(
+      "SELECT r.questionId, COUNT(r), SUM(CASE WHEN r.isCorrect = TRUE THEN 1 ELSE 0 END)"
+          + " FROM ExamRecordEntity r WHERE r.isCorrect IS NOT NULL AND r.questionId IS NOT NULL"
+          + " GROUP BY r.questionId")
+  List<Object[]> countResultsByQuestion();
+
+  /** 按天分组的考试开始场次，返回 [日期, 场次] */
+  @Query(
+      "SELECT CAST(e.startTime AS LocalDate), COUNT(e) FROM ExamEntity e"
+          + " WHERE e.startTime >= :start AND e.startTime < :end"
+          + " GROUP BY CAST(e.startTime AS LocalDate)")
+  List<Object[]> countByStartDay(
+      @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
 }
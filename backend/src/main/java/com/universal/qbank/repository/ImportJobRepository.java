@@ -0,0 +1,43 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.ImportJobEntity;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJobEntity, String> {
+
+  /** 只更新状态列，避免覆盖分块事务中写入的进度计数 */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE ImportJobEntity j SET j.status = :status, j.errorMessage = :errorMessage,"
+          + " j.updatedAt = :now, j.completedAt = :completedAt WHERE j.id = :id")
+  int updateStatus(
+      @Param("id") String id,
+      @Param("status") String status,
+      @Param("errorMessage") String errorMessage,
+      @Param("now") OffsetDateTime now,
+      @Param("completedAt") OffsetDateTime completedAt);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE ImportJobEntity j SET j.totalCount = :totalCount WHERE j.id = :id")
+  int updateTotalCount(@Param("id") String id, @Param("totalCount") Integer totalCount);
+
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE ImportJobEntity j SET j.status = 'FAILED', j.errorMessage = :errorMessage,"
+          + " j.updatedAt = :now WHERE j.status IN :statuses")
+  int failByStatusIn(
+      @Param("statuses") Collection<String> statuses,
+      @Param("errorMessage") String errorMessage,
+      @Param("now") OffsetDateTime now);
+}
@@ -1,13 +1,22 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.KnowledgePointEntity;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface KnowledgePointRepository extends JpaRepository<KnowledgePointEntity, String> {
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<KnowledgePointEntity> findBySubjectIdOrderBySortOrderAsc(String subjectId);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<KnowledgePointEntity> findByParentIdOrderBySortOrderAsc(String parentId);
+
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<KnowledgePointEntity> findAll();
 }
@@ -2,6 +2,7 @@ package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.OperationLogEntity;
 import java.time.OffsetDateTime;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -35,4 +36,20 @@ public interface OperationLogRepository extends JpaRepository<OperationLogEntity
   long countByTimestampAfter(OffsetDateTime startTime);
 
   long countByAction(String action);
+
+  /** 按天分组的去重活跃用户数，返回 [日期, 人数]，没有记录的日期不返回 */
+  @Query(
+      "SELECT CAST(o.timestamp AS LocalDate), COUNT(DISTINCT o.userId) FROM OperationLogEntity o"
+          + " WHERE o.timestamp >= :startTime AND o.timestamp < :endTime"
+          + " GROUP BY CAST(o.timestamp AS LocalDate)")
+  List<Object[]> countDistinctUsersByDay(
+      @Param("startTime") OffsetDateTime startTime, @Param("endTime") OffsetDateTime endTime);
+
+  /** 按月分组的去重活跃用户数，返回 [年, 月, 人数]；月活不能由日活相加得到，因此单独查询 */
+  @Query(
+      "SELECT YEAR(o.timestamp), MONTH(o.timestamp), COUNT(DISTINCT o.userId)"
+          + " FROM OperationLogEntity o WHERE o.timestamp >= :startTime AND o.timestamp < :endTime"
+          + " GROUP BY YEAR(o.timestamp), MONTH(o.timestamp)")
+  List<Object[]> countDistinctUsersByMonth(
+      @Param("startTime") OffsetDateTime startTime, @Param("endTime") OffsetDateTime endTime);
 }
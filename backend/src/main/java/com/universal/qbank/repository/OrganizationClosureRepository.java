@@ -0,0 +1,98 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.OrganizationClosureEntity;
+import com.universal.qbank.entity.OrganizationEntity;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrganizationClosureRepository
+    extends JpaRepository<OrganizationClosureEntity, OrganizationClosureEntity.Key> {
+
+  /** 子树内全部组织 ID（含自身） */
+  @Query("SELECT c.descendantId FROM OrganizationClosureEntity c WHERE c.ancestorId = :id")
+  List<String> findSubtreeIds(@Param("id") String id);
+
+  /** 祖先组织，从根到直接上级 */
+  @Query(
+      "SELECT o FROM OrganizationEntity o "
+          + "JOIN OrganizationClosureEntity c ON c.ancestorId = o.id "
+          + "WHERE c.descendantId = :id AND c.depth > 0 ORDER BY c.depth DESC")
+  List<OrganizationEntity> findAncestors(@Param("id") String id);
+
+  /** 全部后代组织（不含自身），按层级再按排序号 */
+  @Query(
+      "SELECT o FROM OrganizationEntity o "
+          + "JOIN OrganizationClosureEntity c ON c.descendantId = o.id "
+          + "WHERE c.ancestorId = :id AND c.depth > 0 ORDER BY c.depth, o.sortOrder")
+  List<OrganizationEntity> findDescendants(@Param("id") String id);
+
+  /** 子树内的成员人数（按用户去重） */
+  @Query(
+      "SELECT COUNT(DISTINCT m.userId) FROM OrganizationClosureEntity c "
+          + "JOIN UserOrganizationEntity m ON m.organizationId = c.descendantId "
+          + "WHERE c.ancestorId = :id")
+  long countSubtreeMembers(@Param("id") String id);
+
+  /** 子树内指定系统角色的成员 ID，如某学院下的全部学生 */
+  @Query(
+      "SELECT DISTINCT m.userId FROM OrganizationClosureEntity c "
+          + "JOIN UserOrganizationEntity m ON m.organizationId = c.descendantId "
+          + "JOIN UserEntity u ON u.id = m.userId "
+          + "WHERE c.ancestorId = :id AND u.role IN :roles")
+  List<String> findSubtreeMemberIds(
+      @Param("id") String id, @Param("roles") Collection<String> roles);
+
+  long countByDepth(Integer depth);
+
+  /** 组织自身行（depth = 0） */
+  @Modifying
+  @Query(
+      "INSERT INTO OrganizationClosureEntity (ancestorId, descendantId, depth) "
+          + "VALUES (:id, :id, 0)")
+  int insertSelf(@Param("id") String id);
+
+  /** 把子树挂到 parentId 下：上级的每个祖先（含上级自身）× 子树的每个节点 */
+  @Modifying
+  @Query(
+      "INSERT INTO OrganizationClosureEntity (ancestorId, descendantId, depth) "
+          + "SELECT a.ancestorId, d.descendantId, a.depth + d.depth + 1 "
+          + "FROM OrganizationClosureEntity a, OrganizationClosureEntity d "
+          + "WHERE a.descendantId = :parentId AND d.ancestorId = :id")
+  int attachSubtree(@Param("id") String id, @Param("parentId") String parentId);
+
+  /** 断开子树与子树外祖先的路径（子树内部路径保留） */
+  @Modifying
+  @Query(
+      "DELETE FROM OrganizationClosureEntity c "
+          + "WHERE c.descendantId IN "
+          + "(SELECT s.descendantId FROM OrganizationClosureEntity s WHERE s.ancestorId = :id) "
+          + "AND c.ancestorId NOT IN "
+          + "(SELECT s.descendantId FROM OrganizationClosureEntity s WHERE s.ancestorId = :id)")
+  int detachSubtree(@Param("id") String id);
+
+  /** 整表重建第一步：每个组织的自身行 */
+  @Modifying
+  @Query(
+      "INSERT INTO OrganizationClosureEntity (ancestorId, descendantId, depth) "
+          + "SELECT o.id, o.id, 0 FROM OrganizationEntity o")
+  int insertAllSelfRows();
+
+  /** 整表重建逐层推进：把层级差为 depth 的路径向下延伸一层到直接子组织 */
+  @Modifying
+  @Query(
+      "INSERT INTO OrganizationClosureEntity (ancestorId, descendantId, depth) "
+          + "SELECT c.ancestorId, o.id, c.depth + 1 "
+          + "FROM OrganizationClosureEntity c, OrganizationEntity o "
+          + "WHERE o.parentId = c.descendantId AND c.depth = :depth")
+  int insertChildPaths(@Param("depth") int depth);
+
+  @Modifying
+  @Query("DELETE FROM OrganizationClosureEntity c WHERE c.descendantId IN :ids")
+  int deleteByDescendantIds(@Param("ids") Collection<String> ids);
+}
@@ -1,26 +1,39 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.OrganizationEntity;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrganizationRepository extends JpaRepository<OrganizationEntity, String> {
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<OrganizationEntity> findByParentIdIsNullOrderBySortOrder();
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<OrganizationEntity> findByParentIdOrderBySortOrder(String parentId);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<OrganizationEntity> findByType(String type);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<OrganizationEntity> findByTypeAndStatus(String type, String status);
 
   boolean existsByCode(String code);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<OrganizationEntity> findByInviteCode(String inviteCode);
 
   /** 获取用户创建的组织 */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<OrganizationEntity> findByCreatedBy(String createdBy);
+
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<OrganizationEntity> findAll();
 }
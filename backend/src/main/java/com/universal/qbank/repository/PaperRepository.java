@@ -2,8 +2,14 @@ package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.PaperEntity;
 import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface PaperRepository extends JpaRepository<PaperEntity, Long> {
   long countByCreatedAtBetween(OffsetDateTime start, OffsetDateTime end);
+
+  /** 试卷及其结构（items）一次 JOIN 加载；questionIds 与 items 同为 bag，不能同时 JOIN */
+  @EntityGraph(attributePaths = "items")
+  Optional<PaperEntity> findWithItemsById(Long id);
 }
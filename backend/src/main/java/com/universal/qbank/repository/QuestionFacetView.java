@@ -0,0 +1,21 @@
+package com.universal.qbank.repository;
+
+import java.time.OffsetDateTime;
+
+/** 题目筛选属性投影，用于启动时构建位图筛选索引 */
+public interface QuestionFacetView {
+
+  String getId();
+
+  String getSubjectId();
+
+  String getType();
+
+  String getDifficulty();
+
+  String getStatus();
+
+  String getOrganizationId();
+
+  OffsetDateTime getCreatedAt();
+}
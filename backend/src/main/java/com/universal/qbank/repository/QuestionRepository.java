@@ -2,9 +2,12 @@ package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.QuestionEntity;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -34,4 +37,39 @@ public interface QuestionRepository
   Page<QuestionEntity> findByOrganizationIdIsNull(Pageable pageable);
 
   long countByCreatedAtBetween(OffsetDateTime start, OffsetDateTime end);
+
+  /** 试卷预览用：题目与标签一次 JOIN 加载，不加载知识点 */
+  @EntityGraph(attributePaths = "tags")
+  List<QuestionEntity> findWithTagsByIdIn(Collection<String> ids);
+
+  /** 分页读取题目文本，用于启动时构建查重索引 */
+  @Query("SELECT q.id AS id, q.stem AS stem, q.optionsJson AS optionsJson FROM QuestionEntity q")
+  Slice<QuestionTextView> findTextViews(Pageable pageable);
+
+  /** 分页读取题目筛选属性，用于启动时构建位图筛选索引 */
+  @Query(
+      "SELECT q.id AS id, q.subjectId AS subjectId, q.type AS type, q.difficulty AS difficulty,"
+          + " q.status AS status, q.organizationId AS organizationId, q.createdAt AS createdAt"
+          + " FROM QuestionEntity q")
+  Slice<QuestionFacetView> findFacetViews(Pageable pageable);
+
+  /** 全部 [题目id, 标签] 对 */
+  @Query("SELECT q.id, t FROM QuestionEntity q JOIN q.tags t")
+  List<Object[]> findTagPairs();
+
+  /** 全部 [题目id, 知识点id] 对 */
+  @Query("SELECT q.id, k FROM QuestionEntity q JOIN q.knowledgePointIds k")
+  List<Object[]> findKnowledgePointPairs();
+
+  /** 指定题目的 [题目id, 知识点id] 对，不加载题目实体 */
+  @Query("SELECT q.id, k FROM QuestionEntity q JOIN q.knowledgePointIds k WHERE q.id IN :ids")
+  List<Object[]> findKnowledgePointPairsByIdIn(@Param("ids") Collection<String> ids);
+
+  /** 按天分组的新增题目数，返回 [日期, 数量] */
+  @Query(
+      "SELECT CAST(q.createdAt AS LocalDate), COUNT(q) FROM QuestionEntity q"
+          + " WHERE q.createdAt >= :start AND q.createdAt < :end"
+          + " GROUP BY CAST(q.createdAt AS LocalDate)")
+  List<Object[]> countByCreatedDay(
+      @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
 }
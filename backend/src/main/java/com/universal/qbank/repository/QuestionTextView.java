@@ -0,0 +1,11 @@
+package com.universal.qbank.repository;
+
+/** 题目文本投影，仅取构建内存索引所需的列，避免加载整个实体及其集合 */
+public interface QuestionTextView {
+
+  String getId();
+
+  String getStem();
+
+  String getOptionsJson();
+}
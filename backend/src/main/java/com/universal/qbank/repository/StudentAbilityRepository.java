@@ -0,0 +1,9 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.StudentAbilityEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudentAbilityRepository
+    extends JpaRepository<StudentAbilityEntity, StudentAbilityEntity.Key> {}
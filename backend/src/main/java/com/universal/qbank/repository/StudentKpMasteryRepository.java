@@ -0,0 +1,61 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.StudentKpMasteryEntity;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StudentKpMasteryRepository
+    extends JpaRepository<StudentKpMasteryEntity, StudentKpMasteryEntity.Key> {
+
+  /** 某学生的全部知识点掌握度，走主键前缀 */
+  List<StudentKpMasteryEntity> findByUserId(String userId);
+
+  /** 插入空的掌握度行；行已存在时违反主键约束 */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO student_kp_mastery (user_id, knowledge_point_id, attempts, wrong_count,"
+              + " weighted_attempts, weighted_wrong)"
+              + " VALUES (:userId, :knowledgePointId, 0, 0, 0, 0)",
+      nativeQuery = true)
+  void insertEmpty(
+      @Param("userId") String userId, @Param("knowledgePointId") String knowledgePointId);
+
+  /**
+   * 原子累加一次交卷在某知识点上的作答结果，并发提交不会丢失更新。
+   *
+   * <p>lastWrongQuestionId 仅在本次有错题时覆盖；lastAttemptAt 不会被较早的提交回拨。
+   *
+   * @return 受影响行数，0 表示该学生在该知识点上尚无记录
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE StudentKpMasteryEntity m SET"
+          + " m.attempts = m.attempts + :attempts,"
+          + " m.wrongCount = m.wrongCount + :wrong,"
+          + " m.weightedAttempts = m.weightedAttempts + :weightedAttempts,"
+          + " m.weightedWrong = m.weightedWrong + :weightedWrong,"
+          + " m.lastAttemptAt = CASE"
+          + "   WHEN m.lastAttemptAt > :at THEN m.lastAttemptAt ELSE :at END,"
+          + " m.lastWrongQuestionId = CASE"
+          + "   WHEN :wrong > 0 THEN :lastWrongQuestionId ELSE m.lastWrongQuestionId END"
+          + " WHERE m.userId = :userId AND m.knowledgePointId = :knowledgePointId")
+  int applyResults(
+      @Param("userId") String userId,
+      @Param("knowledgePointId") String knowledgePointId,
+      @Param("attempts") long attempts,
+      @Param("wrong") long wrong,
+      @Param("weightedAttempts") double weightedAttempts,
+      @Param("weightedWrong") double weightedWrong,
+      @Param("at") OffsetDateTime at,
+      @Param("lastWrongQuestionId") String lastWrongQuestionId);
+}
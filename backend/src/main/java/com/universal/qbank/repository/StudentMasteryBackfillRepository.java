@@ -0,0 +1,30 @@
+package com.universal.qbank.repository;
+
+import com.universal.qbank.entity.StudentMasteryBackfillEntity;
+import java.time.OffsetDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StudentMasteryBackfillRepository
+    extends JpaRepository<StudentMasteryBackfillEntity, String> {
+
+  /** 认领某学生的回放；已被认领时违反主键约束，未提交的认领会阻塞到其提交或回滚 */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO student_mastery_backfills (user_id, backfilled_at, exams)"
+              + " VALUES (:userId, :backfilledAt, 0)",
+      nativeQuery = true)
+  void claim(@Param("userId") String userId, @Param("backfilledAt") OffsetDateTime backfilledAt);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE StudentMasteryBackfillEntity b SET b.exams = :exams WHERE b.userId = :userId")
+  int setExams(@Param("userId") String userId, @Param("exams") int exams);
+}
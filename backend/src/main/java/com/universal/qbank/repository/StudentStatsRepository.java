@@ -1,15 +1,18 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.StudentStatsEntity;
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface StudentStatsRepository extends JpaRepository<StudentStatsEntity, Long> {
@@ -34,4 +37,31 @@ public interface StudentStatsRepository extends JpaRepository<StudentStatsEntity
       @Param("orgId") String orgId, Pageable pageable);
 
   List<StudentStatsEntity> findByUserIdIn(Collection<String> userIds);
+
+  /**
+   * 原子累加答题数并推进连续练习天数，单条 UPDATE 完成，并发提交不会丢失更新。
+   *
+   * <p>同一天重复提交不改变连续天数；上次练习为昨天则 +1，否则重置为 1。跨零点的并发提交不会把日期回拨。
+   *
+   * @return 受影响行数，0 表示该学生尚无统计行
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE StudentStatsEntity s SET"
+          + " s.totalQuestionsAnswered = s.totalQuestionsAnswered + :answered,"
+          + " s.correctAnswers = s.correctAnswers + :correct,"
+          + " s.currentStreak = CASE"
+          + "   WHEN s.lastPracticeDate >= :today THEN COALESCE(s.currentStreak, 1)"
+          + "   WHEN s.lastPracticeDate = :yesterday THEN COALESCE(s.currentStreak, 0) + 1"
+          + "   ELSE 1 END,"
+          + " s.lastPracticeDate = CASE"
+          + "   WHEN s.lastPracticeDate > :today THEN s.lastPracticeDate ELSE :today END"
+          + " WHERE s.userId = :userId")
+  int applyAnswers(
+      @Param("userId") String userId,
+      @Param("answered") long answered,
+      @Param("correct") long correct,
+      @Param("today") LocalDate today,
+      @Param("yesterday") LocalDate yesterday);
 }
@@ -1,8 +1,17 @@
 package com.universal.qbank.repository;
 
 import com.universal.qbank.entity.SystemConfigEntity;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SystemConfigRepository extends JpaRepository<SystemConfigEntity, String> {}
+public interface SystemConfigRepository extends JpaRepository<SystemConfigEntity, String> {
+
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<SystemConfigEntity> findAll();
+}
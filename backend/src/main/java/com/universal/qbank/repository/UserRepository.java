@@ -19,6 +19,8 @@ public interface UserRepository extends JpaRepository<UserEntity, String> {
 
   long countByRoleIn(List<String> roles);
 
+  List<UserEntity> findByRoleIn(List<String> roles);
+
   long countByRoleInAndCreatedAtBetween(
       List<String> roles, OffsetDateTime start, OffsetDateTime end);
 }
@@ -0,0 +1,455 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.repository.QuestionFacetView;
+import com.universal.qbank.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 自适应练习的题目索引。
+ *
+ * <p>只收录已审核通过的客观题。每道题的难度在 logit 尺度上标定：以题目标注的难度为先验，按历史作答的答对率修正，答题越多越接近经验值。
+ * 题目按难度有序存放（全部、按科目及按知识点），选题时从目标难度向两侧查找最近的若干道未做过的题随机取一道，不访问数据库。
+ * 启动时从全部作答记录标定，之后交卷与练习作答在内存中累加计数并重新标定。
+ */
+@Service
+public class AdaptivePracticeIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptivePracticeIndex.class);
+
+  private static final int LOAD_PAGE_SIZE = 1000;
+
+  /** 先验难度折合的作答次数，作答数远大于它时难度由答对率决定 */
+  static final double PRIOR_WEIGHT = 5.0;
+
+  /** 难度上下限，避免全对/全错的题目难度发散 */
+  static final double MAX_DIFFICULTY = 4.0;
+
+  /** 每次选题在目标难度附近取的候选数，在候选中随机以免同一能力总是拿到同一道题 */
+  private static final int CANDIDATES = 4;
+
+  /** 被选中的题目 */
+  public record Pick(String questionId, double difficulty, long attempts) {}
+
+  /** 题目状态；difficulty 变化时需先从有序集合移除再放回 */
+  private static final class Item {
+    private final String questionId;
+    private final int ordinal;
+    private String subjectId;
+    private Set<String> knowledgePointIds;
+    private double prior;
+    private long attempts;
+    private long correct;
+    private double difficulty;
+
+    private Item(String questionId, int ordinal) {
+      this.questionId = questionId;
+      this.ordinal = ordinal;
+    }
+
+    private void calibrate() {
+      difficulty = AdaptivePracticeIndex.calibrate(prior, attempts, correct);
+    }
+  }
+
+  private static final Comparator<Item> BY_DIFFICULTY =
+      Comparator.<Item>comparingDouble(i -> i.difficulty).thenComparingInt(i -> i.ordinal);
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private ExamAnswerStore examAnswerStore;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Item> items = new HashMap<>();
+
+  private final NavigableSet<Item> all = new TreeSet<>(BY_DIFFICULTY);
+
+  private final Map<String, NavigableSet<Item>> bySubject = new HashMap<>();
+
+  /** 限定知识点的练习只遍历这些知识点各自的有序集合，不扫描整个科目 */
+  private final Map<String, NavigableSet<Item>> byKnowledgePoint = new HashMap<>();
+
+  /** 尚未入索引（如待审核）题目的作答计数，题目入索引时并入 */
+  private final Map<String, long[]> pendingTallies = new HashMap<>();
+
+  private int nextOrdinal = 0;
+
+  private volatile boolean ready = false;
+
+  /** 启动时的全量标定在后台执行，不阻塞应用就绪 */
+  private ThreadPoolTaskExecutor rebuildExecutor;
+
+  @PostConstruct
+  void initExecutor() {
+    rebuildExecutor = new ThreadPoolTaskExecutor();
+    rebuildExecutor.setCorePoolSize(1);
+    rebuildExecutor.setMaxPoolSize(1);
+    rebuildExecutor.setThreadNamePrefix("adaptive-index-");
+    rebuildExecutor.initialize();
+  }
+
+  @PreDestroy
+  void shutdownExecutor() {
+    rebuildExecutor.shutdown();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuildExecutor.execute(
+        () -> {
+          try {
+            rebuild();
+          } catch (RuntimeException ex) {
+            // 索引未就绪时开始练习返回 400，不影响其他功能
+            log.warn("Adaptive practice index build failed: {}", ex.getMessage());
+          }
+        });
+  }
+
+  /** 从全部题目与作答记录重建索引；中途失败时索引保持未就绪 */
+  public void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    Map<String, long[]> tallies = examAnswerStore.tallyResultsByQuestion();
+    Map<String, List<String>> knowledgePoints = new HashMap<>();
+    for (Object[] pair : questionRepository.findKnowledgePointPairs()) {
+      knowledgePoints
+          .computeIfAbsent((String) pair[0], k -> new ArrayList<>())
+          .add((String) pair[1]);
+    }
+    int size;
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      items.clear();
+      all.clear();
+      bySubject.clear();
+      byKnowledgePoint.clear();
+      pendingTallies.clear();
+      pendingTallies.putAll(tallies);
+      int page = 0;
+      Slice<QuestionFacetView> slice;
+      do {
+        slice =
+            questionRepository.findFacetViews(
+                PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("id")));
+        for (QuestionFacetView view : slice) {
+          put(
+              view.getId(),
+              view.getSubjectId(),
+              view.getType(),
+              view.getDifficulty(),
+              view.getStatus(),
+              knowledgePoints.getOrDefault(view.getId(), List.of()));
+        }
+      } while (slice.hasNext());
+      size = all.size();
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info(
+        "Adaptive practice index built: {} questions, {} with answer history, in {} ms",
+        size,
+        tallies.size(),
+        System.currentTimeMillis() - startedAt);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuestionChanged(QuestionChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (event.deleted()) {
+        remove(event.questionId());
+        pendingTallies.remove(event.questionId());
+      } else {
+        put(
+            event.questionId(),
+            event.subjectId(),
+            event.type(),
+            event.difficulty(),
+            event.status(),
+            event.knowledgePointIds());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return all.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 累加已判定对错的作答并重新标定对应题目的难度 */
+  public void recordResults(Collection<ExamRecordEntity> records) {
+    lock.writeLock().lock();
+    try {
+      for (ExamRecordEntity record : records) {
+        if (record.getQuestionId() != null && record.getIsCorrect() != null) {
+          record(record.getQuestionId(), record.getIsCorrect());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** 累加一次练习作答并重新标定该题难度 */
+  public void recordResult(String questionId, boolean correct) {
+    lock.writeLock().lock();
+    try {
+      record(questionId, correct);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** 题目当前难度，未收录时为空 */
+  public Optional<Double> difficultyOf(String questionId) {
+    lock.readLock().lock();
+    try {
+      Item item = items.get(questionId);
+      return item == null ? Optional.empty() : Optional.of(item.difficulty);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 选出难度最接近 target 的一道题。
+   *
+   * @param subjectId 为空时不限科目
+   * @param knowledgePointIds 为空时不限知识点，否则题目至少关联其中一个
+   * @param exclude 不再出的题目（本次练习已做过的）
+   */
+  public Optional<Pick> next(
+      String subjectId, Set<String> knowledgePointIds, Set<String> exclude, double target) {
+    lock.readLock().lock();
+    try {
+      List<Item> candidates;
+      if (knowledgePointIds == null || knowledgePointIds.isEmpty()) {
+        NavigableSet<Item> pool = subjectId == null ? all : bySubject.get(subjectId);
+        candidates =
+            pool == null
+                ? List.of()
+                : nearest(pool, target, item -> !exclude.contains(item.questionId));
+      } else {
+        // 各知识点最近的 CANDIDATES 道题的并集中，最近的 CANDIDATES 道即整体最近的
+        Predicate<Item> eligible =
+            item ->
+                !exclude.contains(item.questionId)
+                    && (subjectId == null || subjectId.equals(item.subjectId));
+        Map<String, Item> merged = new HashMap<>();
+        for (String kpId : knowledgePointIds) {
+          NavigableSet<Item> pool = byKnowledgePoint.get(kpId);
+          if (pool != null) {
+            for (Item item : nearest(pool, target, eligible)) {
+              merged.putIfAbsent(item.questionId, item);
+            }
+          }
+        }
+        candidates =
+            merged.values().stream()
+                .sorted(
+                    Comparator.<Item>comparingDouble(i -> Math.abs(i.difficulty - target))
+                        .thenComparingInt(i -> i.ordinal))
+                .limit(CANDIDATES)
+                .toList();
+      }
+      if (candidates.isEmpty()) {
+        return Optional.empty();
+      }
+      Item chosen = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+      return Optional.of(new Pick(chosen.questionId, chosen.difficulty, chosen.attempts));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 从 target 向两侧各取下一道符合条件的题，距离较近的先入选，最多 CANDIDATES 道 */
+  private static List<Item> nearest(
+      NavigableSet<Item> pool, double target, Predicate<Item> eligible) {
+    Item probe = new Item(null, -1);
+    probe.difficulty = target;
+    Iterator<Item> harder = pool.tailSet(probe, false).iterator();
+    Iterator<Item> easier = pool.headSet(probe, false).descendingIterator();
+    Item up = nextEligible(harder, eligible);
+    Item down = nextEligible(easier, eligible);
+    List<Item> candidates = new ArrayList<>(CANDIDATES);
+    while (candidates.size() < CANDIDATES && (up != null || down != null)) {
+      if (down == null || (up != null && up.difficulty - target <= target - down.difficulty)) {
+        candidates.add(up);
+        up = nextEligible(harder, eligible);
+      } else {
+        candidates.add(down);
+        down = nextEligible(easier, eligible);
+      }
+    }
+    return candidates;
+  }
+
+  private static Item nextEligible(Iterator<Item> iterator, Predicate<Item> eligible) {
+    while (iterator.hasNext()) {
+      Item item = iterator.next();
+      if (eligible.test(item)) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  private void record(String questionId, boolean correct) {
+    Item item = items.get(questionId);
+    if (item == null) {
+      long[] tally = pendingTallies.computeIfAbsent(questionId, id -> new long[2]);
+      tally[0]++;
+      tally[1] += correct ? 1 : 0;
+      return;
+    }
+    unlink(item);
+    item.attempts++;
+    item.correct += correct ? 1 : 0;
+    item.calibrate();
+    link(item);
+  }
+
+  private void put(
+      String questionId,
+      String subjectId,
+      String type,
+      String difficulty,
+      String status,
+      Collection<String> knowledgePointIds) {
+    if (questionId == null) {
+      return;
+    }
+    if (!"APPROVED".equals(status) || !isObjective(type)) {
+      remove(questionId);
+      return;
+    }
+    Item item = items.get(questionId);
+    if (item == null) {
+      item = new Item(questionId, nextOrdinal++);
+      long[] tally = pendingTallies.remove(questionId);
+      if (tally != null) {
+        item.attempts = tally[0];
+        item.correct = tally[1];
+      }
+      items.put(questionId, item);
+    } else {
+      unlink(item);
+    }
+    item.subjectId = subjectId;
+    item.knowledgePointIds = knowledgePointIds == null ? Set.of() : Set.copyOf(knowledgePointIds);
+    item.prior = priorDifficulty(difficulty);
+    item.calibrate();
+    link(item);
+  }
+
+  private void remove(String questionId) {
+    Item item = items.remove(questionId);
+    if (item == null) {
+      return;
+    }
+    unlink(item);
+    // 题目可能只是暂时下架，保留计数以便重新上架时沿用
+    pendingTallies.put(questionId, new long[] {item.attempts, item.correct});
+  }
+
+  private void link(Item item) {
+    all.add(item);
+    if (item.subjectId != null) {
+      bySubject.computeIfAbsent(item.subjectId, s -> new TreeSet<>(BY_DIFFICULTY)).add(item);
+    }
+    for (String kpId : item.knowledgePointIds) {
+      byKnowledgePoint.computeIfAbsent(kpId, k -> new TreeSet<>(BY_DIFFICULTY)).add(item);
+    }
+  }
+
+  private void unlink(Item item) {
+    all.remove(item);
+    if (item.subjectId != null) {
+      NavigableSet<Item> pool = bySubject.get(item.subjectId);
+      if (pool != null) {
+        pool.remove(item);
+        if (pool.isEmpty()) {
+          bySubject.remove(item.subjectId);
+        }
+      }
+    }
+    for (String kpId : item.knowledgePointIds) {
+      NavigableSet<Item> pool = byKnowledgePoint.get(kpId);
+      if (pool != null) {
+        pool.remove(item);
+        if (pool.isEmpty()) {
+          byKnowledgePoint.remove(kpId);
+        }
+      }
+    }
+  }
+
+  /** 以先验难度折合 PRIOR_WEIGHT 次作答，与实际答对率合并后换算为 logit 难度 */
+  static double calibrate(double prior, long attempts, long correct) {
+    double priorSuccess = 1.0 / (1.0 + Math.exp(prior));
+    double p = (correct + PRIOR_WEIGHT * priorSuccess) / (attempts + PRIOR_WEIGHT);
+    double b = Math.log((1.0 - p) / p);
+    return Math.max(-MAX_DIFFICULTY, Math.min(MAX_DIFFICULTY, b));
+  }
+
+  /** 题目标注难度对应的先验 logit 难度：EASY 约 73% 答对，HARD 约 27% */
+  static double priorDifficulty(String difficulty) {
+    if ("EASY".equalsIgnoreCase(difficulty)) {
+      return -1.0;
+    }
+    if ("HARD".equalsIgnoreCase(difficulty)) {
+      return 1.0;
+    }
+    return 0.0;
+  }
+
+  static boolean isObjective(String type) {
+    if (type == null) {
+      return false;
+    }
+    String t = type.toUpperCase();
+    return t.equals("SINGLE_CHOICE")
+        || t.equals("MULTIPLE_CHOICE")
+        || t.equals("MULTI_CHOICE")
+        || t.equals("TRUE_FALSE");
+  }
+}
@@ -0,0 +1,335 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.api.generated.model.QuestionOption;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.entity.StudentAbilityEntity;
+import com.universal.qbank.entity.StudentStatsEntity;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.StudentAbilityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 自适应练习。
+ *
+ * <p>学生能力与题目难度在同一 logit 尺度上，按 Elo 方式在线估计：答对概率为 1/(1+e^-(能力-难度))，每答一题能力按
+ * (实际-预期)×K 调整，K 随该学生已答题数减小。下一题从 {@link AdaptivePracticeIndex} 中选预期答对率最接近目标值的题目，
+ * 选题只读内存。练习会话保存在内存中，空闲超时后丢弃；能力估计每题落库，下次练习沿用。
+ */
+@Service
+public class AdaptivePracticeService {
+
+  /** 不限科目时能力估计的 scopeId */
+  public static final String ALL_SUBJECTS = "_all";
+
+  /** 初始步长，新学生的能力估计收敛更快 */
+  static final double K_BASE = 0.8;
+
+  /** 步长随已答题数衰减的速度 */
+  static final double K_DECAY = 0.05;
+
+  /** 步长下限，保证能力变化后估计仍能跟上 */
+  static final double K_MIN = 0.1;
+
+  static final double MAX_ABILITY = 6.0;
+
+  @Autowired private AdaptivePracticeIndex adaptivePracticeIndex;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private StudentAbilityRepository studentAbilityRepository;
+
+  @Autowired private StudentStatsService studentStatsService;
+
+  @Autowired private StudentMasteryService studentMasteryService;
+
+  @Autowired private KnowledgePointService knowledgePointService;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  /** 选题时的目标答对率 */
+  @Value("${app.practice.adaptive.target-success:0.7}")
+  private double targetSuccess;
+
+  /** 会话空闲超过该时长后丢弃 */
+  @Value("${app.practice.adaptive.session-ttl-minutes:120}")
+  private long sessionTtlMinutes;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** 当前题目（不含答案） */
+  public record PracticeQuestion(
+      String id,
+      String stem,
+      String type,
+      List<String> options,
+      double difficulty,
+      double expectedSuccess) {}
+
+  /**
+   * 练习会话状态。
+   *
+   * @param question 为空表示可选题目已全部做过
+   */
+  public record SessionView(
+      String sessionId,
+      String subjectId,
+      double ability,
+      long answered,
+      long correct,
+      PracticeQuestion question) {}
+
+  /** 一次作答的判定结果及下一题 */
+  public record AnswerResult(
+      boolean correct,
+      String correctAnswer,
+      double abilityBefore,
+      double ability,
+      SessionView session) {}
+
+  private static final class Session {
+    private final String id = UUID.randomUUID().toString();
+    private final String userId;
+    private final String subjectId;
+    private final Set<String> knowledgePointIds;
+    private final Set<String> seen = new HashSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private double ability;
+    private long abilityAnswered;
+    private long answered;
+    private long correct;
+    private String currentQuestionId;
+    private double currentDifficulty;
+    private volatile long lastActiveAt = System.currentTimeMillis();
+
+    private Session(String userId, String subjectId, Set<String> knowledgePointIds) {
+      this.userId = userId;
+      this.subjectId = subjectId;
+      this.knowledgePointIds = knowledgePointIds;
+    }
+
+    private String scopeId() {
+      return subjectId == null ? ALL_SUBJECTS : subjectId;
+    }
+  }
+
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+  /**
+   * 开始一次自适应练习并给出第一题。
+   *
+   * @param subjectId 为空时不限科目
+   * @param knowledgePointId 为空时不限知识点，否则包含其下级知识点
+   */
+  public SessionView start(String userId, String subjectId, String knowledgePointId) {
+    if (userId == null || userId.isBlank()) {
+      throw new IllegalArgumentException("userId is required");
+    }
+    if (!adaptivePracticeIndex.isReady()) {
+      throw new IllegalStateException("Adaptive practice index is still loading");
+    }
+    Set<String> knowledgePointIds =
+        knowledgePointId == null || knowledgePointId.isBlank()
+            ? Set.of()
+            : knowledgePointService.expandWithDescendants(List.of(knowledgePointId));
+    Session session =
+        new Session(
+            userId, subjectId == null || subjectId.isBlank() ? null : subjectId, knowledgePointIds);
+    Optional<StudentAbilityEntity> stored =
+        studentAbilityRepository.findById(new StudentAbilityEntity.Key(userId, session.scopeId()));
+    session.ability = stored.map(StudentAbilityEntity::getAbility).orElseGet(() -> prior(userId));
+    session.abilityAnswered = stored.map(StudentAbilityEntity::getAnswered).orElse(0L);
+    sessions.put(session.id, session);
+    session.lock.lock();
+    try {
+      serveNext(session);
+      return view(session);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  public SessionView get(String sessionId) {
+    Session session = session(sessionId);
+    session.lock.lock();
+    try {
+      session.lastActiveAt = System.currentTimeMillis();
+      return view(session);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /** 判定当前题目的作答，更新能力估计与题目标定，并给出下一题 */
+  public AnswerResult answer(String sessionId, String questionId, String answer) {
+    Session session = session(sessionId);
+    session.lock.lock();
+    try {
+      if (session.currentQuestionId == null || !session.currentQuestionId.equals(questionId)) {
+        throw new IllegalStateException("Question is not the current practice question");
+      }
+      QuestionEntity question =
+          questionRepository
+              .findById(questionId)
+              .orElseThrow(() -> new IllegalArgumentException("Question not found"));
+      boolean correct =
+          ExamService.isObjectiveAnswerCorrect(
+              objectMapper, question.getType(), question.getOptionsJson(), answer);
+
+      double before = session.ability;
+      session.ability =
+          updateAbility(before, session.currentDifficulty, session.abilityAnswered, correct);
+      session.abilityAnswered++;
+      session.answered++;
+      session.correct += correct ? 1 : 0;
+      adaptivePracticeIndex.recordResult(questionId, correct);
+      saveAbility(session);
+
+      ExamRecordEntity record = new ExamRecordEntity();
+      record.setQuestionId(questionId);
+      record.setUserAnswer(answer);
+      record.setIsCorrect(correct);
+      studentMasteryService.recordResults(session.userId, List.of(record), OffsetDateTime.now());
+      studentStatsService.recordAnswers(session.userId, 1, correct ? 1 : 0);
+
+      serveNext(session);
+      return new AnswerResult(
+          correct, correctAnswer(question), round(before), round(session.ability), view(session));
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  public void end(String sessionId) {
+    sessions.remove(sessionId);
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.practice.adaptive.sweep-interval-ms:600000}",
+      fixedDelayString = "${app.practice.adaptive.sweep-interval-ms:600000}")
+  public void evictIdleSessions() {
+    long cutoff = System.currentTimeMillis() - sessionTtlMinutes * 60_000L;
+    sessions.values().removeIf(session -> session.lastActiveAt < cutoff);
+  }
+
+  private Session session(String sessionId) {
+    Session session = sessionId == null ? null : sessions.get(sessionId);
+    if (session == null) {
+      throw new IllegalArgumentException("Practice session not found or expired");
+    }
+    return session;
+  }
+
+  private void serveNext(Session session) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Optional<AdaptivePracticeIndex.Pick> pick =
+        adaptivePracticeIndex.next(
+            session.subjectId,
+            session.knowledgePointIds,
+            session.seen,
+            targetDifficulty(session.ability, targetSuccess));
+    sample.stop(
+        Timer.builder("qbank.practice.adaptive.next")
+            .description("Adaptive practice next-question selection latency")
+            .register(meterRegistry));
+    session.currentQuestionId = pick.map(AdaptivePracticeIndex.Pick::questionId).orElse(null);
+    session.currentDifficulty = pick.map(AdaptivePracticeIndex.Pick::difficulty).orElse(0.0);
+    if (session.currentQuestionId != null) {
+      session.seen.add(session.currentQuestionId);
+    }
+    session.lastActiveAt = System.currentTimeMillis();
+  }
+
+  private SessionView view(Session session) {
+    PracticeQuestion question = null;
+    if (session.currentQuestionId != null) {
+      question =
+          questionRepository
+              .findById(session.currentQuestionId)
+              .map(
+                  q ->
+                      new PracticeQuestion(
+                          q.getId(),
+                          q.getStem(),
+                          q.getType(),
+                          ExamPaperPayloadCache.parseOptions(q.getOptionsJson()).stream()
+                              .map(QuestionOption::getText)
+                              .toList(),
+                          round(session.currentDifficulty),
+                          round(expectedSuccess(session.ability, session.currentDifficulty))))
+              .orElse(null);
+    }
+    return new SessionView(
+        session.id,
+        session.subjectId,
+        round(session.ability),
+        session.answered,
+        session.correct,
+        question);
+  }
+
+  private void saveAbility(Session session) {
+    StudentAbilityEntity entity = new StudentAbilityEntity(session.userId, session.scopeId());
+    entity.setAbility(session.ability);
+    entity.setAnswered(session.abilityAnswered);
+    entity.setUpdatedAt(OffsetDateTime.now());
+    studentAbilityRepository.save(entity);
+  }
+
+  /** 首次练习的能力初值：按历史答题正确率（加一平滑）换算，没有记录时为 0 */
+  private double prior(String userId) {
+    StudentStatsEntity stats = studentStatsService.getStatsByUserId(userId);
+    long total = stats.getTotalQuestionsAnswered() == null ? 0 : stats.getTotalQuestionsAnswered();
+    long correct = stats.getCorrectAnswers() == null ? 0 : stats.getCorrectAnswers();
+    double p = (correct + 1.0) / (total + 2.0);
+    return clamp(Math.log(p / (1.0 - p)), 3.0);
+  }
+
+  private static String correctAnswer(QuestionEntity question) {
+    return ExamPaperPayloadCache.parseOptions(question.getOptionsJson()).stream()
+        .filter(o -> Boolean.TRUE.equals(o.getIsCorrect()))
+        .map(QuestionOption::getText)
+        .collect(Collectors.joining(","));
+  }
+
+  /** 预期答对率 */
+  static double expectedSuccess(double ability, double difficulty) {
+    return 1.0 / (1.0 + Math.exp(difficulty - ability));
+  }
+
+  /** 使预期答对率等于 success 的题目难度 */
+  static double targetDifficulty(double ability, double success) {
+    return ability - Math.log(success / (1.0 - success));
+  }
+
+  /** 按一次作答结果更新能力估计 */
+  static double updateAbility(double ability, double difficulty, long answered, boolean correct) {
+    double k = Math.max(K_MIN, K_BASE / (1.0 + K_DECAY * answered));
+    double delta = k * ((correct ? 1.0 : 0.0) - expectedSuccess(ability, difficulty));
+    return clamp(ability + delta, MAX_ABILITY);
+  }
+
+  private static double clamp(double value, double limit) {
+    return Math.max(-limit, Math.min(limit, value));
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 1000.0) / 1000.0;
+  }
+}
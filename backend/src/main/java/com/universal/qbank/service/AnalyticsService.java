@@ -14,6 +14,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AnalyticsService {
@@ -21,13 +22,26 @@ public class AnalyticsService {
   @Autowired private ExamRepository examRepository;
   @Autowired private PaperRepository paperRepository;
   @Autowired private QuestionRepository questionRepository;
+  @Autowired private ExamAnswerStore examAnswerStore;
 
+  /** 试卷集合与题目知识点在事务内按批次加载，作答记录通过 {@link ExamAnswerStore#readAll} 一次查询 */
+  @Transactional(readOnly = true)
   public ExamAnalyticsResponse getPaperAnalytics(Long paperId) {
-    List<ExamEntity> exams =
-        examRepository.findAll().stream()
-            .filter(e -> e.getPaperId().equals(paperId) && e.getScore() != null)
-            .collect(Collectors.toList());
+    List<ExamEntity> exams = examRepository.findByPaperIdAndScoreIsNotNull(paperId);
+    if (exams.isEmpty()) {
+      return aggregate(paperId, exams, List.of(), Map.of());
+    }
+    PaperEntity paper = paperRepository.findById(paperId).orElseThrow();
+    List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
+    return aggregate(paperId, exams, questions, examAnswerStore.readAll(exams));
+  }
 
+  /** 纯内存聚合：成绩分布、知识点掌握度与题目错误率 */
+  static ExamAnalyticsResponse aggregate(
+      Long paperId,
+      List<ExamEntity> exams,
+      List<QuestionEntity> questions,
+      Map<Long, List<ExamRecordEntity>> recordsByExam) {
     ExamAnalyticsResponse response = new ExamAnalyticsResponse();
     response.setPaperVersionId(String.valueOf(paperId));
 
@@ -77,9 +91,6 @@ public class AnalyticsService {
     response.setScoreDistribution(buckets);
 
     // Knowledge Mastery & Error Rates
-    // Need to load questions
-    PaperEntity paper = paperRepository.findById(paperId).orElseThrow();
-    List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
     Map<String, QuestionEntity> questionMap =
         questions.stream().collect(Collectors.toMap(QuestionEntity::getId, q -> q));
 
@@ -95,8 +106,7 @@ public class AnalyticsService {
     }
 
     for (ExamEntity exam : exams) {
-      if (exam.getRecords() == null) continue;
-      for (ExamRecordEntity record : exam.getRecords()) {
+      for (ExamRecordEntity record : recordsByExam.getOrDefault(exam.getId(), List.of())) {
         QuestionEntity q = questionMap.get(record.getQuestionId());
         if (q == null) continue;
 
@@ -1,9 +1,17 @@
 package com.universal.qbank.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.net.SocketTimeoutException;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -18,9 +26,17 @@ public class EmailService {
 
   @Autowired private SystemConfigService systemConfigService;
 
+  @Autowired private MeterRegistry meterRegistry;
+
   @Value("${spring.mail.username:}")
   private String fromEmail;
 
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  // JavaMail 在 synchronized 方法内完成 SMTP 往返，虚拟线程模式下交给少量平台线程发送，避免钉住载体线程
+  private ExecutorService smtpExecutor;
+
   // 验证码存储 (邮箱 -> 验证码信息)
   private static final Map<String, VerificationCode> verificationCodes = new ConcurrentHashMap<>();
   // 发送频控 (邮箱+类型 -> 最近发送时间)
@@ -100,7 +116,7 @@ public class EmailService {
             + siteName);
 
     try {
-      mailSender.send(message);
+      send(message, "registration");
       System.out.println("Registration code sent to: " + toEmail);
     } catch (Exception e) {
       System.err.println("Failed to send email: " + e.getMessage());
@@ -141,7 +157,7 @@ public class EmailService {
             + siteName);
 
     try {
-      mailSender.send(message);
+      send(message, "password_reset");
       System.out.println("Password reset code sent to: " + toEmail);
     } catch (Exception e) {
       System.err.println("Failed to send email: " + e.getMessage());
@@ -173,7 +189,7 @@ public class EmailService {
             + "——"
             + siteName);
     try {
-      mailSender.send(message);
+      send(message, "email_change");
     } catch (Exception e) {
       System.err.println("Failed to send email change code: " + e.getMessage());
       verificationCodes.remove(toEmail);
@@ -301,7 +317,7 @@ public class EmailService {
     message.setText(content.toString());
 
     try {
-      mailSender.send(message);
+      send(message, "score");
       System.out.println("Score notification sent to: " + toEmail);
     } catch (Exception e) {
       System.err.println("Failed to send score notification: " + e.getMessage());
@@ -340,7 +356,7 @@ public class EmailService {
     message.setText(content.toString());
 
     try {
-      mailSender.send(message);
+      send(message, "exam_reminder");
       System.out.println("Exam reminder sent to: " + toEmail);
     } catch (Exception e) {
       System.err.println("Failed to send exam reminder: " + e.getMessage());
@@ -388,7 +404,7 @@ public class EmailService {
             + siteName);
 
     try {
-      mailSender.send(message);
+      send(message, "announcement");
     } catch (Exception e) {
       System.err.println("Failed to send announcement notification: " + e.getMessage());
     }
@@ -423,9 +439,66 @@ public class EmailService {
             + siteName);
 
     try {
-      mailSender.send(message);
+      send(message, "profile_update");
     } catch (Exception e) {
       System.err.println("Failed to send profile update notification: " + e.getMessage());
     }
   }
+
+  @PostConstruct
+  void initSmtpExecutor() {
+    if (virtualThreads) {
+      AtomicInteger counter = new AtomicInteger();
+      smtpExecutor =
+          Executors.newFixedThreadPool(
+              2,
+              task -> {
+                Thread thread = new Thread(task, "smtp-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+  }
+
+  @PreDestroy
+  void shutdownSmtpExecutor() {
+    if (smtpExecutor != null) {
+      smtpExecutor.shutdown();
+    }
+  }
+
+  /** 发送邮件并按类型记录耗时与成败，异常原样抛出由调用方处理 */
+  private void send(SimpleMailMessage message, String kind) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "error";
+    try {
+      if (smtpExecutor == null) {
+        mailSender.send(message);
+      } else {
+        sendOnPlatformThread(message);
+      }
+      outcome = "success";
+    } finally {
+      sample.stop(
+          Timer.builder("qbank.email.send")
+              .description("SMTP send latency")
+              .tag("kind", kind)
+              .tag("outcome", outcome)
+              .register(meterRegistry));
+    }
+  }
+
+  private void sendOnPlatformThread(SimpleMailMessage message) {
+    try {
+      smtpExecutor.submit(() -> mailSender.send(message)).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while sending mail", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
 }
@@ -0,0 +1,261 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.config.ExamProperties;
+import com.universal.qbank.entity.ExamAnswerSheetEntity;
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.repository.ExamAnswerSheetRepository;
+import com.universal.qbank.repository.ExamRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 考试作答记录的存取入口。
+ *
+ * <p>支持两种存储：逐题一行（exam_records，IDENTITY 主键无法批量插入）与每场考试一份紧凑答题卡
+ * （exam_answer_sheets）。写入方式由 app.exam.answer-storage 决定，读取时自动识别，因此切换配置后历史数据仍可读，
+ * 并可通过 {@link #migrateRowsToSheets(int)} 分批把历史行迁移为答题卡。答题卡只在读取作答时单独加载。
+ */
+@Service
+public class ExamAnswerStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ExamAnswerStore.class);
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int SHEET_PAGE_SIZE = 500;
+
+  @Autowired private ExamAnswerSheetRepository examAnswerSheetRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private ExamProperties examProperties;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+  /** 答题卡中的一题，字段名尽量短以压缩体积 */
+  private record SheetEntry(String q, String a, Boolean c, Double s, String n, Boolean f) {}
+
+  /** 读取一场考试的作答记录；逐题行按需单独查询，答题卡解码出的记录没有 id */
+  public List<ExamRecordEntity> read(ExamEntity exam) {
+    List<ExamRecordEntity> loaded = exam.getRecords();
+    if (loaded != null && Hibernate.isInitialized(loaded) && !loaded.isEmpty()) {
+      return loaded;
+    }
+    if (exam.getId() == null) {
+      return new ArrayList<>();
+    }
+    List<ExamRecordEntity> rows = examRepository.findRecordsByExamId(exam.getId());
+    if (!rows.isEmpty()) {
+      return new ArrayList<>(rows);
+    }
+    return examAnswerSheetRepository
+        .findById(exam.getId())
+        .map(this::decode)
+        .orElseGet(ArrayList::new);
+  }
+
+  /** 批量读取多场考试的作答记录：逐题行与答题卡各一次查询 */
+  public Map<Long, List<ExamRecordEntity>> readAll(Collection<ExamEntity> exams) {
+    Map<Long, List<ExamRecordEntity>> result = new HashMap<>();
+    List<Long> examIds = exams.stream().map(ExamEntity::getId).filter(id -> id != null).toList();
+    if (!examIds.isEmpty()) {
+      for (Object[] row : examRepository.findRecordsByExamIds(examIds)) {
+        result
+            .computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+            .add((ExamRecordEntity) row[1]);
+      }
+      List<Long> sheetIds = examIds.stream().filter(id -> !result.containsKey(id)).toList();
+      if (!sheetIds.isEmpty()) {
+        for (ExamAnswerSheetEntity sheet : examAnswerSheetRepository.findAllById(sheetIds)) {
+          result.put(sheet.getExamId(), decode(sheet));
+        }
+      }
+    }
+    for (ExamEntity exam : exams) {
+      result.putIfAbsent(exam.getId(), new ArrayList<>());
+    }
+    return result;
+  }
+
+  /**
+   * 按题目汇总全部已判定对错的作答，返回 questionId -> [作答数, 答对数]。
+   *
+   * <p>逐题行一次分组查询，答题卡分页解码，用于题目难度标定。
+   */
+  @Transactional(readOnly = true)
+  public Map<String, long[]> tallyResultsByQuestion() {
+    Map<String, long[]> tallies = new HashMap<>();
+    for (Object[] row : examRepository.countResultsByQuestion()) {
+      long[] tally = tallies.computeIfAbsent((String) row[0], id -> new long[2]);
+      tally[0] += ((Number) row[1]).longValue();
+      tally[1] += row[2] == null ? 0 : ((Number) row[2]).longValue();
+    }
+    int page = 0;
+    Slice<ExamAnswerSheetEntity> slice;
+    do {
+      slice =
+          examAnswerSheetRepository.findAll(
+              PageRequest.of(page++, SHEET_PAGE_SIZE, Sort.by("examId")));
+      for (ExamAnswerSheetEntity sheet : slice) {
+        for (ExamRecordEntity record : decode(sheet)) {
+          if (record.getQuestionId() != null && record.getIsCorrect() != null) {
+            long[] tally = tallies.computeIfAbsent(record.getQuestionId(), id -> new long[2]);
+            tally[0]++;
+            tally[1] += record.getIsCorrect() ? 1 : 0;
+          }
+        }
+        entityManager.detach(sheet);
+      }
+    } while (slice.hasNext());
+    return tallies;
+  }
+
+  /**
+   * 保存作答记录（随后需保存 exam 本身）。
+   *
+   * <p>按当前配置写入行或答题卡，并清除另一种格式的旧数据，保证一场考试只有一份作答。records 应来自 {@link
+   * #read(ExamEntity)}，带 id 的记录即已有的逐题行。
+   */
+  @Transactional
+  public void write(ExamEntity exam, List<ExamRecordEntity> records) {
+    if (examProperties.isSheetStorage() && exam.getId() != null) {
+      writeSheet(exam.getId(), records);
+      deleteRows(records);
+      exam.setRecords(new ArrayList<>());
+      return;
+    }
+    if (exam.getRecords() != records) {
+      exam.setRecords(new ArrayList<>(records));
+    }
+    if (exam.getId() != null && examAnswerSheetRepository.existsById(exam.getId())) {
+      examAnswerSheetRepository.deleteById(exam.getId());
+    }
+  }
+
+  /**
+   * 把仍以逐题行存储的历史考试分批迁移为答题卡，每批一个事务。
+   *
+   * @return 迁移的考试数
+   */
+  public int migrateRowsToSheets(int batchSize) {
+    if (!examProperties.isSheetStorage()) {
+      throw new IllegalStateException("app.exam.answer-storage is not SHEET");
+    }
+    int size = Math.max(1, Math.min(batchSize, 1000));
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    int migrated = 0;
+    while (true) {
+      Integer count =
+          tx.execute(
+              status -> {
+                List<Long> ids = examRepository.findIdsWithRecordRows(PageRequest.of(0, size));
+                if (ids.isEmpty()) {
+                  return 0;
+                }
+                Map<Long, List<ExamRecordEntity>> rows = new HashMap<>();
+                for (Object[] row : examRepository.findRecordsByExamIds(ids)) {
+                  rows.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                      .add((ExamRecordEntity) row[1]);
+                }
+                for (Map.Entry<Long, List<ExamRecordEntity>> entry : rows.entrySet()) {
+                  writeSheet(entry.getKey(), entry.getValue());
+                  deleteRows(entry.getValue());
+                }
+                return ids.size();
+              });
+      if (count == null || count == 0) {
+        break;
+      }
+      migrated += count;
+      log.info("Migrated {} exam(s) to answer sheets so far", migrated);
+    }
+    return migrated;
+  }
+
+  private void writeSheet(Long examId, List<ExamRecordEntity> records) {
+    List<SheetEntry> entries = new ArrayList<>(records.size());
+    for (ExamRecordEntity r : records) {
+      entries.add(
+          new SheetEntry(
+              r.getQuestionId(),
+              r.getUserAnswer(),
+              r.getIsCorrect(),
+              r.getScore(),
+              r.getNotes(),
+              Boolean.TRUE.equals(r.getIsFlagged()) ? Boolean.TRUE : null));
+    }
+    ExamAnswerSheetEntity sheet =
+        examAnswerSheetRepository.findById(examId).orElseGet(ExamAnswerSheetEntity::new);
+    sheet.setExamId(examId);
+    sheet.setFormatVersion(FORMAT_VERSION);
+    sheet.setQuestionCount(entries.size());
+    try {
+      sheet.setSheetJson(objectMapper.writeValueAsString(entries));
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to serialize answer sheet", e);
+    }
+    sheet.setUpdatedAt(OffsetDateTime.now());
+    examAnswerSheetRepository.save(sheet);
+  }
+
+  /** 按 id 删除已有的逐题行；关联为单向 JoinColumn，只清空集合会留下外键为空的孤儿行 */
+  private void deleteRows(List<ExamRecordEntity> records) {
+    List<Long> ids =
+        records.stream().map(ExamRecordEntity::getId).filter(id -> id != null).toList();
+    if (!ids.isEmpty()) {
+      entityManager
+          .createQuery("DELETE FROM ExamRecordEntity r WHERE r.id IN :ids")
+          .setParameter("ids", ids)
+          .executeUpdate();
+    }
+  }
+
+  private List<ExamRecordEntity> decode(ExamAnswerSheetEntity sheet) {
+    List<SheetEntry> entries;
+    try {
+      entries =
+          objectMapper.readValue(sheet.getSheetJson(), new TypeReference<List<SheetEntry>>() {});
+    } catch (Exception e) {
+      log.warn("Unreadable answer sheet for exam {}: {}", sheet.getExamId(), e.getMessage());
+      return new ArrayList<>();
+    }
+    List<ExamRecordEntity> records = new ArrayList<>(entries.size());
+    for (SheetEntry entry : entries) {
+      ExamRecordEntity record = new ExamRecordEntity();
+      record.setQuestionId(entry.q());
+      record.setUserAnswer(entry.a());
+      record.setIsCorrect(entry.c());
+      record.setScore(entry.s());
+      record.setNotes(entry.n());
+      record.setIsFlagged(Boolean.TRUE.equals(entry.f()));
+      records.add(record);
+    }
+    return records;
+  }
+}
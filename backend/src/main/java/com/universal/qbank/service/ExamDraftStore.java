@@ -0,0 +1,320 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.entity.ExamDraftEntity;
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.repository.ExamDraftRepository;
+import com.universal.qbank.repository.ExamRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 考试作答草稿的写后（write-behind）存储。
+ *
+ * <p>自动保存只更新内存中的会话草稿并标记为脏，定时任务每隔几秒把脏草稿合并为一次 JDBC 批量写入，
+ * 同一场考试在一个刷写周期内无论保存多少次都只落库一次。应用重启后首次保存会先从数据库恢复草稿。
+ */
+@Service
+public class ExamDraftStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ExamDraftStore.class);
+
+  /** 已落库且长时间无保存的草稿从内存移除 */
+  private static final long IDLE_EVICT_MILLIS = 2 * 60 * 60 * 1000L;
+
+  private static final int MAX_ANSWERS_PER_DRAFT = 2000;
+  private static final int MAX_ANSWER_LENGTH = 20000;
+
+  private static final String UPDATE_SQL =
+      "UPDATE exam_drafts SET user_id = ?, answers_json = ?, flagged_json = ?, version = ?,"
+          + " updated_at = ? WHERE exam_id = ?";
+  private static final String INSERT_SQL =
+      "INSERT INTO exam_drafts (user_id, answers_json, flagged_json, version, updated_at,"
+          + " exam_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+  @Autowired private ExamDraftRepository examDraftRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+
+  private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+  /** 刷写与删除互斥，避免已删除的草稿被进行中的刷写重新写回；持锁期间访问数据库，用显式锁以免钉住虚拟线程 */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private static final class Draft {
+    final Long examId;
+    final String userId;
+    final Map<String, String> answers = new LinkedHashMap<>();
+    final Set<String> flagged = new LinkedHashSet<>();
+    long version;
+    long flushedVersion;
+    long lastTouched = System.currentTimeMillis();
+    boolean evicted;
+
+    Draft(Long examId, String userId) {
+      this.examId = examId;
+      this.userId = userId;
+    }
+  }
+
+  /** 草稿快照 */
+  public record DraftSnapshot(
+      Long examId, Map<String, String> answers, List<String> flaggedQuestions, long version) {}
+
+  /**
+   * 合并一次增量保存。
+   *
+   * @param answers 题目 ID → 答案，值为 null 表示清空该题
+   * @param flaggedQuestions 非空时整体替换标记列表
+   * @return 保存后的草稿版本号
+   */
+  public long autosave(
+      Long examId, String userId, Map<String, String> answers, List<String> flaggedQuestions) {
+    if (answers != null) {
+      for (String answer : answers.values()) {
+        if (answer != null && answer.length() > MAX_ANSWER_LENGTH) {
+          throw new IllegalArgumentException("Answer is too long");
+        }
+      }
+    }
+    while (true) {
+      Draft draft = drafts.get(examId);
+      if (draft == null) {
+        // 在 map 之外查询数据库，不持有 ConcurrentHashMap 的桶锁；并发加载时以先放入的为准
+        Draft loaded = load(examId);
+        Draft existing = drafts.putIfAbsent(examId, loaded);
+        draft = existing != null ? existing : loaded;
+      }
+      synchronized (draft) {
+        if (draft.evicted) {
+          continue;
+        }
+        if (userId != null && draft.userId != null && !draft.userId.equals(userId)) {
+          throw new IllegalArgumentException("Exam does not belong to current user");
+        }
+        if (answers != null) {
+          for (Map.Entry<String, String> entry : answers.entrySet()) {
+            String answer = entry.getValue();
+            if (answer == null) {
+              draft.answers.remove(entry.getKey());
+            } else if (draft.answers.size() < MAX_ANSWERS_PER_DRAFT
+                || draft.answers.containsKey(entry.getKey())) {
+              draft.answers.put(entry.getKey(), answer);
+            } else {
+              throw new IllegalArgumentException("Too many answers in draft");
+            }
+          }
+        }
+        if (flaggedQuestions != null) {
+          draft.flagged.clear();
+          draft.flagged.addAll(flaggedQuestions);
+        }
+        draft.version++;
+        draft.lastTouched = System.currentTimeMillis();
+        dirty.add(examId);
+        return draft.version;
+      }
+    }
+  }
+
+  /** 读取草稿：优先内存，其次数据库，均不存在时返回空草稿 */
+  public DraftSnapshot snapshot(Long examId) {
+    Draft draft = drafts.get(examId);
+    if (draft != null) {
+      synchronized (draft) {
+        if (!draft.evicted) {
+          return new DraftSnapshot(
+              examId,
+              new LinkedHashMap<>(draft.answers),
+              new ArrayList<>(draft.flagged),
+              draft.version);
+        }
+      }
+    }
+    return examDraftRepository
+        .findById(examId)
+        .map(
+            entity ->
+                new DraftSnapshot(
+                    examId,
+                    readAnswers(entity.getAnswersJson()),
+                    readFlagged(entity.getFlaggedJson()),
+                    entity.getVersion() == null ? 0L : entity.getVersion()))
+        .orElseGet(() -> new DraftSnapshot(examId, new LinkedHashMap<>(), new ArrayList<>(), 0L));
+  }
+
+  /** 交卷后丢弃草稿（内存与数据库） */
+  public void discard(Long examId) {
+    Draft draft = drafts.remove(examId);
+    if (draft != null) {
+      synchronized (draft) {
+        draft.evicted = true;
+      }
+    }
+    dirty.remove(examId);
+    flushLock.lock();
+    try {
+      examDraftRepository.deleteById(examId);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** 批量落库脏草稿 */
+  @Scheduled(fixedDelayString = "${app.exam.autosave.flush-interval-ms:5000}")
+  public void flush() {
+    flushLock.lock();
+    try {
+      List<Object[]> rows = new ArrayList<>();
+      List<Draft> written = new ArrayList<>();
+      List<Long> versions = new ArrayList<>();
+      OffsetDateTime now = OffsetDateTime.now();
+      for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+        Long examId = it.next();
+        it.remove();
+        Draft draft = drafts.get(examId);
+        if (draft == null) {
+          continue;
+        }
+        synchronized (draft) {
+          if (draft.evicted || draft.version == draft.flushedVersion) {
+            continue;
+          }
+          rows.add(
+              new Object[] {
+                draft.userId,
+                writeJson(draft.answers),
+                writeJson(draft.flagged),
+                draft.version,
+                now,
+                examId
+              });
+          written.add(draft);
+          versions.add(draft.version);
+        }
+      }
+      if (!rows.isEmpty()) {
+        writeRows(rows, written, versions);
+      }
+    } finally {
+      flushLock.unlock();
+    }
+    evictIdle();
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  private void writeRows(List<Object[]> rows, List<Draft> written, List<Long> versions) {
+    try {
+      int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+      List<Object[]> inserts = new ArrayList<>();
+      for (int i = 0; i < updated.length; i++) {
+        if (updated[i] == 0) {
+          inserts.add(rows.get(i));
+        }
+      }
+      if (!inserts.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+      }
+    } catch (DataAccessException ex) {
+      log.warn("Failed to flush {} exam draft(s), will retry: {}", rows.size(), ex.getMessage());
+      written.forEach(draft -> dirty.add(draft.examId));
+      return;
+    }
+    for (int i = 0; i < written.size(); i++) {
+      Draft draft = written.get(i);
+      synchronized (draft) {
+        draft.flushedVersion = Math.max(draft.flushedVersion, versions.get(i));
+      }
+    }
+  }
+
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - IDLE_EVICT_MILLIS;
+    for (Draft draft : drafts.values()) {
+      synchronized (draft) {
+        if (draft.lastTouched < cutoff && draft.version == draft.flushedVersion) {
+          draft.evicted = true;
+          drafts.remove(draft.examId, draft);
+        }
+      }
+    }
+  }
+
+  /** 首次保存时校验考试状态，并从数据库恢复已落库的草稿 */
+  private Draft load(Long examId) {
+    ExamEntity exam =
+        examRepository
+            .findById(examId)
+            .orElseThrow(() -> new IllegalArgumentException("Exam not found"));
+    if (exam.getEndTime() != null) {
+      throw new IllegalStateException("Exam already submitted");
+    }
+    Draft draft = new Draft(examId, exam.getUserId());
+    ExamDraftEntity persisted = examDraftRepository.findById(examId).orElse(null);
+    if (persisted != null) {
+      draft.answers.putAll(readAnswers(persisted.getAnswersJson()));
+      draft.flagged.addAll(readFlagged(persisted.getFlaggedJson()));
+      draft.version = persisted.getVersion() == null ? 0L : persisted.getVersion();
+      draft.flushedVersion = draft.version;
+    }
+    return draft;
+  }
+
+  private String writeJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to serialize exam draft", e);
+    }
+  }
+
+  private Map<String, String> readAnswers(String json) {
+    if (json == null || json.isBlank()) {
+      return new LinkedHashMap<>();
+    }
+    try {
+      return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, String>>() {});
+    } catch (Exception e) {
+      log.warn("Ignoring unreadable exam draft answers: {}", e.getMessage());
+      return new LinkedHashMap<>();
+    }
+  }
+
+  private List<String> readFlagged(String json) {
+    if (json == null || json.isBlank()) {
+      return new ArrayList<>();
+    }
+    try {
+      return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+    } catch (Exception e) {
+      return new ArrayList<>();
+    }
+  }
+}
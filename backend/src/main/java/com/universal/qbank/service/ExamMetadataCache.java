@@ -0,0 +1,169 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.ExamPlanEntity;
+import com.universal.qbank.repository.ExamPlanRepository;
+import com.universal.qbank.repository.PaperRepository;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 开考路径使用的考试计划/试卷元数据缓存。
+ *
+ * <p>整点开考时大量学生同时进入同一场考试，元数据只需查询一次：同一 key 的并发未命中共享同一个加载中的
+ * {@link CompletableFuture}，查询数据库时不持有任何监视器锁（虚拟线程模式下不会钉住载体线程）。条目短时过期，
+ * 计划与试卷变更时主动失效（事务提交后再失效一次，避免旧值被回填）。
+ */
+@Component
+public class ExamMetadataCache {
+
+  private static final long TTL_MILLIS = 30_000L;
+
+  @Autowired private ExamPlanRepository examPlanRepository;
+
+  @Autowired private PaperRepository paperRepository;
+
+  private final Map<String, Cached<PlanMeta>> plans = new ConcurrentHashMap<>();
+
+  private final Map<Long, Cached<Boolean>> papers = new ConcurrentHashMap<>();
+
+  private final Map<String, CompletableFuture<Cached<PlanMeta>>> loadingPlans =
+      new ConcurrentHashMap<>();
+
+  private final Map<Long, CompletableFuture<Cached<Boolean>>> loadingPapers =
+      new ConcurrentHashMap<>();
+
+  /** 开考校验所需的计划字段快照 */
+  public record PlanMeta(
+      String id, Long paperId, String status, int maxAttempts, boolean aiAutoGradingEnabled) {}
+
+  private record Cached<T>(T value, long expiresAt) {
+    boolean isFresh() {
+      return System.currentTimeMillis() < expiresAt;
+    }
+  }
+
+  public Optional<PlanMeta> getPlan(String planId) {
+    Cached<PlanMeta> cached =
+        getOrLoad(
+            plans,
+            loadingPlans,
+            planId,
+            // 不缓存不存在的计划，新建后可立即使用
+            id -> examPlanRepository.findById(id).map(plan -> fresh(toMeta(plan))).orElse(null));
+    return cached == null ? Optional.empty() : Optional.of(cached.value());
+  }
+
+  public boolean paperExists(Long paperId) {
+    Cached<Boolean> cached =
+        getOrLoad(
+            papers,
+            loadingPapers,
+            paperId,
+            id -> paperRepository.existsById(id) ? fresh(Boolean.TRUE) : null);
+    return cached != null;
+  }
+
+  /** 命中未过期条目直接返回；否则由第一个未命中的线程加载，其余线程等待同一结果。加载结果为 null 时不缓存 */
+  private <K, V> Cached<V> getOrLoad(
+      Map<K, Cached<V>> cache,
+      Map<K, CompletableFuture<Cached<V>>> loading,
+      K key,
+      Function<K, Cached<V>> loader) {
+    Cached<V> cached = cache.get(key);
+    if (cached != null && cached.isFresh()) {
+      return cached;
+    }
+    CompletableFuture<Cached<V>> mine = new CompletableFuture<>();
+    CompletableFuture<Cached<V>> inFlight = loading.putIfAbsent(key, mine);
+    if (inFlight != null) {
+      try {
+        return inFlight.join();
+      } catch (CompletionException ex) {
+        throw ex.getCause() instanceof RuntimeException re ? re : ex;
+      }
+    }
+    try {
+      Cached<V> loaded = loader.apply(key);
+      // 加载期间被失效（in-flight 已被移除）时不回填，本次调用仍返回加载结果
+      if (loading.remove(key, mine)) {
+        if (loaded != null) {
+          cache.put(key, loaded);
+        } else {
+          cache.remove(key);
+        }
+      }
+      mine.complete(loaded);
+      return loaded;
+    } catch (RuntimeException ex) {
+      mine.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      loading.remove(key, mine);
+    }
+  }
+
+  public void invalidatePlan(String planId) {
+    Runnable action =
+        () -> {
+          loadingPlans.remove(planId);
+          plans.remove(planId);
+        };
+    action.run();
+    afterCommit(action);
+  }
+
+  public void invalidatePaper(Long paperId) {
+    Runnable action =
+        () -> {
+          loadingPapers.remove(paperId);
+          papers.remove(paperId);
+        };
+    action.run();
+    afterCommit(action);
+  }
+
+  public void invalidateAllPapers() {
+    Runnable action =
+        () -> {
+          loadingPapers.clear();
+          papers.clear();
+        };
+    action.run();
+    afterCommit(action);
+  }
+
+  private PlanMeta toMeta(ExamPlanEntity plan) {
+    int maxAttempts =
+        plan.getMaxAttempts() == null || plan.getMaxAttempts() < 1 ? 1 : plan.getMaxAttempts();
+    return new PlanMeta(
+        plan.getId(),
+        plan.getPaperId(),
+        plan.getStatus(),
+        maxAttempts,
+        Boolean.TRUE.equals(plan.getAiAutoGradingEnabled()));
+  }
+
+  private <T> Cached<T> fresh(T value) {
+    return new Cached<>(value, System.currentTimeMillis() + TTL_MILLIS);
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    }
+  }
+}
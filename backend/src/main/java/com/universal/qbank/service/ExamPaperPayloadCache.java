@@ -0,0 +1,272 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.api.generated.model.QuestionOption;
+import com.universal.qbank.entity.PaperEntity;
+import com.universal.qbank.entity.PaperItemEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.PaperRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 学生作答页的试卷基础数据缓存。
+ *
+ * <p>每份试卷只加载并解析一次题目与选项（不含答案），结果为不可变结构；每个学生的视图只需按其种子生成下标排列，
+ * 不再重复查询数据库和解析 optionsJson。同一试卷的并发未命中共享同一个加载中的 {@link CompletableFuture}；
+ * 试卷修改、删除或题目变更时失效，加载期间发生失效时结果不回填。
+ */
+@Service
+public class ExamPaperPayloadCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ExamPaperPayloadCache.class);
+
+  private static final int MAX_PAPERS = 256;
+
+  /** 条目最长使用时间，兜底多实例部署时其他节点的修改 */
+  private static final long TTL_MILLIS = 600_000L;
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Autowired private PaperRepository paperRepository;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final Map<Long, Cached> cache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+              return size() > MAX_PAPERS;
+            }
+          });
+
+  private final Map<Long, CompletableFuture<PaperPayload>> loading = new ConcurrentHashMap<>();
+
+  /** 每次失效加一，加载期间发生失效时不回填旧数据构建的结果 */
+  private final AtomicLong generation = new AtomicLong();
+
+  private record Cached(PaperPayload payload, long builtAt) {
+    boolean isFresh() {
+      return System.currentTimeMillis() - builtAt <= TTL_MILLIS;
+    }
+  }
+
+  /** 题目基础数据，options 为归一化后的选项文本（原始顺序） */
+  public record QuestionPayload(String id, String stem, String type, List<String> options) {}
+
+  public record ItemPayload(String type, String questionId, String sectionTitle, Double score) {}
+
+  /** 试卷基础数据，questions 保持数据库返回顺序 */
+  public record PaperPayload(
+      Long paperId, String title, List<QuestionPayload> questions, List<ItemPayload> items) {}
+
+  public PaperPayload get(Long paperId) {
+    Cached cached = cache.get(paperId);
+    if (cached != null && cached.isFresh()) {
+      return cached.payload();
+    }
+    CompletableFuture<PaperPayload> mine = new CompletableFuture<>();
+    CompletableFuture<PaperPayload> inFlight = loading.putIfAbsent(paperId, mine);
+    if (inFlight != null) {
+      try {
+        return inFlight.join();
+      } catch (CompletionException ex) {
+        throw ex.getCause() instanceof RuntimeException re ? re : ex;
+      }
+    }
+    try {
+      long building = generation.get();
+      PaperPayload payload = load(paperId);
+      if (generation.get() == building) {
+        cache.put(paperId, new Cached(payload, System.currentTimeMillis()));
+      }
+      mine.complete(payload);
+      return payload;
+    } catch (RuntimeException ex) {
+      mine.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      loading.remove(paperId, mine);
+    }
+  }
+
+  /** 失效单份试卷（立即一次，事务提交后再一次，避免提交前加载的旧数据被回填） */
+  public void invalidate(Long paperId) {
+    Runnable action =
+        () -> {
+          generation.incrementAndGet();
+          loading.remove(paperId);
+          cache.remove(paperId);
+        };
+    action.run();
+    afterCommit(action);
+  }
+
+  public void invalidateAll() {
+    Runnable action =
+        () -> {
+          generation.incrementAndGet();
+          loading.clear();
+          cache.clear();
+        };
+    action.run();
+    afterCommit(action);
+  }
+
+  /** 题目被修改或删除后，移除包含该题的试卷；加载中的试卷尚不知是否包含该题，一律不回填 */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuestionChanged(QuestionChangedEvent event) {
+    generation.incrementAndGet();
+    loading.clear();
+    synchronized (cache) {
+      cache
+          .values()
+          .removeIf(
+              cached ->
+                  cached.payload().questions().stream()
+                      .anyMatch(q -> q.id().equals(event.questionId())));
+    }
+  }
+
+  private PaperPayload load(Long paperId) {
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    tx.setReadOnly(true);
+    return tx.execute(status -> buildPayload(paperId));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    }
+  }
+
+  private PaperPayload buildPayload(Long paperId) {
+    PaperEntity paper =
+        paperRepository
+            .findWithItemsById(paperId)
+            .orElseThrow(() -> new IllegalArgumentException("Paper not found"));
+    List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
+
+    List<QuestionPayload> questionPayloads = new ArrayList<>(questions.size());
+    for (QuestionEntity q : questions) {
+      List<String> options =
+          q.getOptionsJson() == null
+              ? List.of()
+              : parseOptions(q.getOptionsJson()).stream()
+                  .map(QuestionOption::getText)
+                  .toList();
+      questionPayloads.add(new QuestionPayload(q.getId(), q.getStem(), q.getType(), options));
+    }
+
+    List<ItemPayload> items = new ArrayList<>();
+    if (paper.getItems() != null) {
+      for (PaperItemEntity item : paper.getItems()) {
+        items.add(
+            new ItemPayload(
+                item.getItemType(), item.getQuestionId(), item.getSectionTitle(), item.getScore()));
+      }
+    }
+    return new PaperPayload(
+        paper.getId(), paper.getTitle(), List.copyOf(questionPayloads), List.copyOf(items));
+  }
+
+  /**
+   * 解析 optionsJson，兼容 List&lt;QuestionOption&gt;、List&lt;String&gt; 与通用对象数组三种历史格式，文本去除 HTML 标签。
+   */
+  public static List<QuestionOption> parseOptions(String json) {
+    List<QuestionOption> result = new ArrayList<>();
+    if (json == null) return result;
+
+    try {
+      // Try 1: Standard List<QuestionOption>
+      result = OBJECT_MAPPER.readValue(json, new TypeReference<List<QuestionOption>>() {});
+      for (QuestionOption opt : result) {
+        if (opt != null) {
+          opt.setText(normalizeOptionText(opt.getText()));
+          if (opt.getKey() != null) {
+            opt.setKey(normalizeOptionText(opt.getKey()));
+          }
+        }
+      }
+    } catch (Exception e) {
+      try {
+        // Try 2: List<String>
+        List<String> strings = OBJECT_MAPPER.readValue(json, new TypeReference<List<String>>() {});
+        for (String s : strings) {
+          QuestionOption opt = new QuestionOption();
+          opt.setText(normalizeOptionText(s));
+          result.add(opt);
+        }
+      } catch (Exception e2) {
+        try {
+          // Try 3: List<Map<String, Object>> - Generic Object
+          List<Map<String, Object>> maps =
+              OBJECT_MAPPER.readValue(json, new TypeReference<List<Map<String, Object>>>() {});
+          for (Map<String, Object> map : maps) {
+            QuestionOption opt = new QuestionOption();
+            // Try to find text content
+            if (map.containsKey("text"))
+              opt.setText(normalizeOptionText(String.valueOf(map.get("text"))));
+            else if (map.containsKey("content"))
+              opt.setText(normalizeOptionText(String.valueOf(map.get("content"))));
+            else if (map.containsKey("value"))
+              opt.setText(normalizeOptionText(String.valueOf(map.get("value"))));
+            else if (map.containsKey("label"))
+              opt.setText(normalizeOptionText(String.valueOf(map.get("label"))));
+
+            // Try to find key/label
+            if (map.containsKey("key"))
+              opt.setKey(normalizeOptionText(String.valueOf(map.get("key"))));
+
+            // Try to find isCorrect
+            if (map.containsKey("isCorrect"))
+              opt.setIsCorrect(Boolean.valueOf(String.valueOf(map.get("isCorrect"))));
+
+            result.add(opt);
+          }
+        } catch (Exception e3) {
+          log.warn("Failed to parse optionsJson: {}", e3.getMessage());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static String normalizeOptionText(String value) {
+    if (value == null) {
+      return null;
+    }
+    String cleaned = value.replaceAll("<[^>]*>", "").replace("&nbsp;", " ").trim();
+    if (cleaned.contains("锟斤拷")) {
+      cleaned = cleaned.replace("锟斤拷", "?");
+    }
+    return cleaned;
+  }
+}
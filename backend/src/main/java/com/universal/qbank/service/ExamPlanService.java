@@ -23,6 +23,8 @@ public class ExamPlanService {
 
   @Autowired private ExamPlanClassRepository examPlanClassRepository;
 
+  @Autowired private ExamMetadataCache examMetadataCache;
+
   /** 获取考试计划列表 */
   public Page<ExamPlanEntity> getExamPlans(Pageable pageable) {
     return examPlanRepository.findAll(pageable);
@@ -93,6 +95,7 @@ public class ExamPlanService {
     existing.setShuffleOptions(plan.getShuffleOptions());
     existing.setAiAutoGradingEnabled(plan.getAiAutoGradingEnabled());
 
+    examMetadataCache.invalidatePlan(id);
     return examPlanRepository.save(existing);
   }
 
@@ -119,6 +122,7 @@ public class ExamPlanService {
     plan.setStatus("PUBLISHED");
     plan.setPublishedAt(OffsetDateTime.now());
     examPlanRepository.save(plan);
+    examMetadataCache.invalidatePlan(id);
   }
 
   /** 取消考试 */
@@ -133,6 +137,7 @@ public class ExamPlanService {
 
     plan.setStatus("CANCELLED");
     examPlanRepository.save(plan);
+    examMetadataCache.invalidatePlan(id);
   }
 
   /** 按班级批量报名 */
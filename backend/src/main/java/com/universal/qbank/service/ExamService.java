@@ -4,10 +4,9 @@ import com.universal.qbank.api.generated.model.ManualGradeRequest;
 import com.universal.qbank.api.generated.model.ManualGradeRequestGradesInner;
 import com.universal.qbank.entity.*;
 import com.universal.qbank.repository.ExamEnrollmentRepository;
-import com.universal.qbank.repository.ExamPlanRepository;
 import com.universal.qbank.repository.ExamRepository;
-import com.universal.qbank.repository.PaperRepository;
 import com.universal.qbank.repository.QuestionRepository;
+import io.micrometer.core.annotation.Timed;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,9 +23,7 @@ public class ExamService {
 
   @Autowired private ExamRepository examRepository;
 
-  @Autowired private PaperRepository paperRepository;
-
-  @Autowired private ExamPlanRepository examPlanRepository;
+  @Autowired private PaperService paperService;
 
   @Autowired private ExamEnrollmentRepository examEnrollmentRepository;
 
@@ -34,7 +31,17 @@ public class ExamService {
 
   @Autowired private com.universal.qbank.repository.UserRepository userRepository;
 
-  @Autowired private com.universal.qbank.repository.StudentStatsRepository studentStatsRepository;
+  @Autowired private StudentStatsService studentStatsService;
+
+  @Autowired private StudentMasteryService studentMasteryService;
+
+  @Autowired private AdaptivePracticeIndex adaptivePracticeIndex;
+
+  @Autowired private ExamDraftStore examDraftStore;
+
+  @Autowired private ExamMetadataCache examMetadataCache;
+
+  @Autowired private ExamAnswerStore examAnswerStore;
 
   @Autowired private EmailService emailService;
 
@@ -47,45 +54,39 @@ public class ExamService {
   private final com.fasterxml.jackson.databind.ObjectMapper objectMapper =
       new com.fasterxml.jackson.databind.ObjectMapper();
 
+  @Timed(value = "qbank.exam.start", description = "Exam start latency")
   public ExamEntity startExam(Long paperId, String userId, String type, String planId) {
-    PaperEntity paper =
-        paperRepository
-            .findById(paperId)
-            .orElseThrow(() -> new IllegalArgumentException("Paper not found"));
+    if (!examMetadataCache.paperExists(paperId)) {
+      throw new IllegalArgumentException("Paper not found");
+    }
     boolean aiAutoGradingEnabled = false;
 
     if (planId != null && !planId.isBlank()) {
-      ExamPlanEntity plan =
-          examPlanRepository
-              .findById(planId)
+      ExamMetadataCache.PlanMeta plan =
+          examMetadataCache
+              .getPlan(planId)
               .orElseThrow(() -> new IllegalArgumentException("Exam plan not found"));
 
-      if (plan.getPaperId() != null && !plan.getPaperId().equals(paperId)) {
+      if (plan.paperId() != null && !plan.paperId().equals(paperId)) {
         throw new IllegalStateException("Paper does not match exam plan");
       }
 
-      String planStatus = plan.getStatus();
+      String planStatus = plan.status();
       if (!("PUBLISHED".equals(planStatus) || "ONGOING".equals(planStatus))) {
         throw new IllegalStateException("Exam plan is not open for entry");
       }
 
-      int maxAttempts =
-          plan.getMaxAttempts() == null || plan.getMaxAttempts() < 1 ? 1 : plan.getMaxAttempts();
-      ExamEnrollmentEntity enrollment =
-          examEnrollmentRepository
-              .findByExamPlanIdAndStudentId(planId, userId)
-              .orElseThrow(
-                  () -> new IllegalStateException("Student is not enrolled in this exam plan"));
-
-      int used = enrollment.getAttemptsUsed() == null ? 0 : enrollment.getAttemptsUsed();
-      if (used >= maxAttempts) {
+      // 条件更新一次完成"检查 + 占用次数"，并发开考不会超出最大次数
+      int updated =
+          examEnrollmentRepository.incrementAttemptsIfBelow(planId, userId, plan.maxAttempts());
+      if (updated == 0) {
+        if (!examEnrollmentRepository.existsByExamPlanIdAndStudentId(planId, userId)) {
+          throw new IllegalStateException("Student is not enrolled in this exam plan");
+        }
         throw new IllegalStateException("Max attempts reached for this exam");
       }
 
-      enrollment.setAttemptsUsed(used + 1);
-      examEnrollmentRepository.save(enrollment);
-
-      aiAutoGradingEnabled = Boolean.TRUE.equals(plan.getAiAutoGradingEnabled());
+      aiAutoGradingEnabled = plan.aiAutoGradingEnabled();
     }
 
     ExamEntity exam = new ExamEntity();
@@ -93,7 +94,8 @@ public class ExamService {
     exam.setUserId(userId);
     exam.setType(type != null ? type : "EXAM");
     exam.setStartTime(OffsetDateTime.now());
-    exam.setRandomSeed(System.currentTimeMillis());
+    // 同一毫秒内开考的学生不应共享乱序种子
+    exam.setRandomSeed(java.util.concurrent.ThreadLocalRandom.current().nextLong());
     exam.setAiAutoGradingEnabled(aiAutoGradingEnabled);
 
     return examRepository.save(exam);
@@ -109,6 +111,7 @@ public class ExamService {
         || t.equals("TRUE_FALSE");
   }
 
+  @Timed(value = "qbank.exam.submit", description = "Exam submit and auto-grade latency")
   public ExamEntity submitExam(
       Long examId, Map<String, String> answers, List<String> flaggedQuestions) {
     ExamEntity exam =
@@ -120,9 +123,20 @@ public class ExamService {
       throw new IllegalStateException("Exam already submitted");
     }
 
+    // 合并服务端自动保存的草稿，本次提交的内容优先
+    ExamDraftStore.DraftSnapshot draft = examDraftStore.snapshot(examId);
+    Map<String, String> mergedAnswers = new java.util.LinkedHashMap<>(draft.answers());
+    if (answers != null) {
+      mergedAnswers.putAll(answers);
+    }
+    answers = mergedAnswers;
+    if (flaggedQuestions == null) {
+      flaggedQuestions = draft.flaggedQuestions();
+    }
+
     PaperEntity paper =
-        paperRepository
-            .findById(exam.getPaperId())
+        paperService
+            .findPaperWithContents(exam.getPaperId())
             .orElseThrow(() -> new IllegalStateException("Paper not found"));
 
     List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
@@ -160,49 +174,8 @@ public class ExamService {
       }
 
       objectiveAnsweredCount++;
-      boolean isCorrect = false;
-      if (q.getOptionsJson() != null) {
-        try {
-          List<com.universal.qbank.api.generated.model.QuestionOption> opts =
-              objectMapper.readValue(
-                  q.getOptionsJson(),
-                  new com.fasterxml.jackson.core.type.TypeReference<
-                      List<com.universal.qbank.api.generated.model.QuestionOption>>() {});
-
-          if ("MULTIPLE_CHOICE".equalsIgnoreCase(q.getType())
-              || "MULTI_CHOICE".equalsIgnoreCase(q.getType())) {
-            // Set based comparison
-            Set<String> correctSet =
-                opts.stream()
-                    .filter(o -> Boolean.TRUE.equals(o.getIsCorrect()))
-                    .map(o -> o.getText().trim())
-                    .collect(Collectors.toSet());
-
-            if (userAnswer != null) {
-              Set<String> userSet =
-                  Arrays.stream(userAnswer.split(","))
-                      .map(String::trim)
-                      .collect(Collectors.toSet());
-              isCorrect = userSet.equals(correctSet);
-            }
-          } else {
-            // Standard string comparison (SINGLE_CHOICE, TRUE_FALSE)
-            String correctAnswer =
-                opts.stream()
-                    .filter(o -> Boolean.TRUE.equals(o.getIsCorrect()))
-                    .map(com.universal.qbank.api.generated.model.QuestionOption::getText)
-                    .collect(Collectors.joining(","));
-
-            if (userAnswer != null) {
-              String normalizedUser = userAnswer.trim();
-              String normalizedCorrect = correctAnswer.trim();
-              isCorrect = normalizedUser.equalsIgnoreCase(normalizedCorrect);
-            }
-          }
-        } catch (Exception e) {
-          e.printStackTrace();
-        }
-      }
+      boolean isCorrect =
+          isObjectiveAnswerCorrect(objectMapper, q.getType(), q.getOptionsJson(), userAnswer);
 
       record.setIsCorrect(isCorrect);
       if (isCorrect) {
@@ -216,7 +189,10 @@ public class ExamService {
       records.add(record);
     }
 
-    exam.setRecords(records);
+    // 历史考试须在本次考试有结束时间之前回放进掌握度，否则本次作答会被重复计入
+    if (exam.getUserId() != null) {
+      studentMasteryService.ensureBackfilled(exam.getUserId());
+    }
     exam.setEndTime(OffsetDateTime.now());
 
     // 如果有主观题，设置为待阅卷状态，暂不计算总分
@@ -243,46 +219,77 @@ public class ExamService {
       exam.setGradingStatus("GRADED");
     }
 
+    examAnswerStore.write(exam, records);
     ExamEntity savedExam = examRepository.save(exam);
+    examDraftStore.discard(examId);
 
     // Update Student Stats (只统计客观题，主观题待阅卷后再统计)
     if (exam.getUserId() != null && objectiveAnsweredCount > 0) {
-      StudentStatsEntity stats =
-          studentStatsRepository.findByUserId(exam.getUserId()).orElse(new StudentStatsEntity());
-      stats.setUserId(exam.getUserId());
-
-      // Try to fetch nickname
-      userRepository
-          .findById(exam.getUserId())
-          .ifPresent(
-              u -> {
-                stats.setNickname(u.getNickname() != null ? u.getNickname() : u.getUsername());
-              });
-
       int objectiveCorrectCount =
           (int) records.stream().filter(r -> r.getIsCorrect() != null && r.getIsCorrect()).count();
-      stats.setTotalQuestionsAnswered(stats.getTotalQuestionsAnswered() + objectiveAnsweredCount);
-      stats.setCorrectAnswers(stats.getCorrectAnswers() + objectiveCorrectCount);
-
-      java.time.LocalDate today = java.time.LocalDate.now();
-      java.time.LocalDate lastDate = stats.getLastPracticeDate();
-
-      if (lastDate == null) {
-        stats.setCurrentStreak(1);
-      } else if (!lastDate.isEqual(today)) {
-        if (lastDate.plusDays(1).isEqual(today)) {
-          stats.setCurrentStreak(stats.getCurrentStreak() + 1);
-        } else {
-          stats.setCurrentStreak(1);
-        }
-      }
-      stats.setLastPracticeDate(today);
-      studentStatsRepository.save(stats);
+      studentStatsService.recordAnswers(
+          exam.getUserId(), objectiveAnsweredCount, objectiveCorrectCount);
     }
+    // 知识点掌握度只累加已判定对错的题目，主观题待阅卷不计入
+    if (exam.getUserId() != null) {
+      studentMasteryService.recordResults(exam.getUserId(), records, exam.getEndTime());
+    }
+    // 客观题作答同时用于自适应练习的题目难度标定
+    adaptivePracticeIndex.recordResults(records);
 
     return savedExam;
   }
 
+  /** 客观题判分：多选按选项集合比较，单选/判断按正确选项文本忽略大小写比较 */
+  static boolean isObjectiveAnswerCorrect(
+      com.fasterxml.jackson.databind.ObjectMapper mapper,
+      String type,
+      String optionsJson,
+      String userAnswer) {
+    if (optionsJson == null) {
+      return false;
+    }
+    boolean isCorrect = false;
+    try {
+      List<com.universal.qbank.api.generated.model.QuestionOption> opts =
+          mapper.readValue(
+              optionsJson,
+              new com.fasterxml.jackson.core.type.TypeReference<
+                  List<com.universal.qbank.api.generated.model.QuestionOption>>() {});
+
+      if ("MULTIPLE_CHOICE".equalsIgnoreCase(type) || "MULTI_CHOICE".equalsIgnoreCase(type)) {
+        // Set based comparison
+        Set<String> correctSet =
+            opts.stream()
+                .filter(o -> Boolean.TRUE.equals(o.getIsCorrect()))
+                .map(o -> o.getText().trim())
+                .collect(Collectors.toSet());
+
+        if (userAnswer != null) {
+          Set<String> userSet =
+              Arrays.stream(userAnswer.split(",")).map(String::trim).collect(Collectors.toSet());
+          isCorrect = userSet.equals(correctSet);
+        }
+      } else {
+        // Standard string comparison (SINGLE_CHOICE, TRUE_FALSE)
+        String correctAnswer =
+            opts.stream()
+                .filter(o -> Boolean.TRUE.equals(o.getIsCorrect()))
+                .map(com.universal.qbank.api.generated.model.QuestionOption::getText)
+                .collect(Collectors.joining(","));
+
+        if (userAnswer != null) {
+          String normalizedUser = userAnswer.trim();
+          String normalizedCorrect = correctAnswer.trim();
+          isCorrect = normalizedUser.equalsIgnoreCase(normalizedCorrect);
+        }
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return isCorrect;
+  }
+
   private Map<String, Double> buildMaxScoreMap(PaperEntity paper) {
     Map<String, Double> maxScoreMap = new java.util.HashMap<>();
     if (paper.getItems() != null && !paper.getItems().isEmpty()) {
@@ -398,23 +405,20 @@ public class ExamService {
     return examRepository.findAll(spec, pageable);
   }
 
+  @Timed(value = "qbank.exam.grade", description = "Manual grading latency")
   public ExamEntity gradeExam(Long examId, ManualGradeRequest request) {
     ExamEntity exam =
         examRepository
             .findById(examId)
             .orElseThrow(() -> new IllegalArgumentException("Exam not found"));
 
-    PaperEntity paper = paperRepository.findById(exam.getPaperId()).orElseThrow();
+    PaperEntity paper = paperService.findPaperWithContents(exam.getPaperId()).orElseThrow();
 
-    // Ensure records list is initialized
-    if (exam.getRecords() == null) {
-      exam.setRecords(new java.util.ArrayList<>());
-    }
+    List<ExamRecordEntity> records = examAnswerStore.read(exam);
 
     // Build recordMap, creating records if they don't exist
     Map<String, ExamRecordEntity> recordMap =
-        exam.getRecords().stream()
-            .collect(Collectors.toMap(ExamRecordEntity::getQuestionId, r -> r));
+        records.stream().collect(Collectors.toMap(ExamRecordEntity::getQuestionId, r -> r));
 
     // Ensure all questions from paper have records
     if (paper.getItems() != null && !paper.getItems().isEmpty()) {
@@ -422,7 +426,7 @@ public class ExamService {
         if ("QUESTION".equals(item.getItemType()) && !recordMap.containsKey(item.getQuestionId())) {
           ExamRecordEntity record = new ExamRecordEntity();
           record.setQuestionId(item.getQuestionId());
-          exam.getRecords().add(record);
+          records.add(record);
           recordMap.put(item.getQuestionId(), record);
         }
       }
@@ -431,7 +435,7 @@ public class ExamService {
         if (!recordMap.containsKey(qId)) {
           ExamRecordEntity record = new ExamRecordEntity();
           record.setQuestionId(qId);
-          exam.getRecords().add(record);
+          records.add(record);
           recordMap.put(qId, record);
         }
       }
@@ -465,7 +469,7 @@ public class ExamService {
       }
     }
 
-    for (ExamRecordEntity record : exam.getRecords()) {
+    for (ExamRecordEntity record : records) {
       if (record.getScore() != null) {
         totalUserScore += record.getScore();
       } else if (Boolean.TRUE.equals(record.getIsCorrect())) {
@@ -479,6 +483,7 @@ public class ExamService {
     exam.setScore(percentage);
     exam.setGradingStatus("GRADED");
 
+    examAnswerStore.write(exam, records);
     ExamEntity savedExam = examRepository.save(exam);
 
     // 发送成绩通知邮件
@@ -509,11 +514,9 @@ public class ExamService {
 
                 // 收集教师评语
                 StringBuilder comments = new StringBuilder();
-                if (exam.getRecords() != null) {
-                  for (ExamRecordEntity record : exam.getRecords()) {
-                    if (record.getNotes() != null && !record.getNotes().isEmpty()) {
-                      comments.append("- ").append(record.getNotes()).append("\n");
-                    }
+                for (ExamRecordEntity record : examAnswerStore.read(exam)) {
+                  if (record.getNotes() != null && !record.getNotes().isEmpty()) {
+                    comments.append("- ").append(record.getNotes()).append("\n");
                   }
                 }
 
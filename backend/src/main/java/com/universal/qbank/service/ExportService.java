@@ -3,16 +3,35 @@ package com.universal.qbank.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.universal.qbank.api.generated.model.QuestionOption;
+import com.universal.qbank.common.util.SeededShuffle;
+import com.universal.qbank.entity.ExamEnrollmentEntity;
+import com.universal.qbank.entity.ExamPlanEntity;
 import com.universal.qbank.entity.PaperEntity;
 import com.universal.qbank.entity.PaperItemEntity;
 import com.universal.qbank.entity.QuestionEntity;
-import com.universal.qbank.repository.PaperRepository;
+import com.universal.qbank.entity.UserEntity;
+import com.universal.qbank.repository.ExamEnrollmentRepository;
+import com.universal.qbank.repository.ExamPlanRepository;
 import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.apache.poi.xwpf.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,142 +39,462 @@ import org.springframework.stereotype.Service;
 @Service
 public class ExportService {
 
-  @Autowired private PaperRepository paperRepository;
+  @Autowired private PaperService paperService;
   @Autowired private QuestionRepository questionRepository;
+  @Autowired private ExamPlanRepository examPlanRepository;
+  @Autowired private ExamEnrollmentRepository examEnrollmentRepository;
+  @Autowired private UserRepository userRepository;
   private final ObjectMapper objectMapper = new ObjectMapper();
 
+  @Timed(value = "qbank.export", extraTags = {"kind", "paper_word"})
   public byte[] exportPaperToWord(Long paperId, boolean isTeacherVersion) throws IOException {
     PaperEntity paper =
-        paperRepository
-            .findById(paperId)
+        paperService
+            .findPaperWithContents(paperId)
             .orElseThrow(() -> new RuntimeException("Paper not found"));
 
     List<QuestionEntity> questions = questionRepository.findAllById(paper.getQuestionIds());
     Map<String, QuestionEntity> questionMap =
         questions.stream().collect(Collectors.toMap(QuestionEntity::getId, q -> q));
 
+    List<RenderItem> items = new ArrayList<>();
+    for (PaperItemEntity item : paper.getItems()) {
+      if ("SECTION".equals(item.getItemType())) {
+        items.add(RenderItem.section(item.getSectionTitle()));
+      } else if ("QUESTION".equals(item.getItemType())) {
+        QuestionEntity q = questionMap.get(item.getQuestionId());
+        if (q == null) continue;
+        items.add(RenderItem.question(q, item.getScore(), parseOptions(q)));
+      }
+    }
+
+    String infoLine =
+        isTeacherVersion
+            ? null
+            : "Name: ______________  Class: ______________  Score: ______________";
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    renderPaper(paper.getTitle(), infoLine, items, isTeacherVersion, out);
+    return out.toByteArray();
+  }
+
+  /**
+   * 预加载考试计划的个性化试卷包数据：试卷结构、题目、选项与已报名考生。
+   *
+   * <p>需在请求线程内调用，返回的数据与持久化上下文无关，可安全地交给并行渲染线程使用。
+   */
+  @Timed(value = "qbank.export", extraTags = {"kind", "bundle_prepare"})
+  public StudentPaperBundle prepareStudentPaperBundle(String planId) {
+    ExamPlanEntity plan =
+        examPlanRepository
+            .findById(planId)
+            .orElseThrow(() -> new IllegalArgumentException("Exam plan not found"));
+    if (plan.getPaperId() == null) {
+      throw new IllegalStateException("Exam plan has no paper");
+    }
+    PaperEntity paper =
+        paperService
+            .findPaperWithContents(plan.getPaperId())
+            .orElseThrow(() -> new IllegalArgumentException("Paper not found"));
+
+    List<QuestionEntity> questions =
+        questionRepository.findAllById(
+            paper.getQuestionIds() == null ? List.of() : paper.getQuestionIds());
+    Map<String, QuestionEntity> questionMap =
+        questions.stream().collect(Collectors.toMap(QuestionEntity::getId, q -> q));
+
+    List<RenderItem> items = new ArrayList<>();
+    if (paper.getItems() != null && !paper.getItems().isEmpty()) {
+      for (PaperItemEntity item : paper.getItems()) {
+        if ("SECTION".equals(item.getItemType())) {
+          items.add(RenderItem.section(item.getSectionTitle()));
+        } else if ("QUESTION".equals(item.getItemType())) {
+          QuestionEntity q = questionMap.get(item.getQuestionId());
+          if (q != null) {
+            items.add(RenderItem.question(q, item.getScore(), parseOptions(q)));
+          }
+        }
+      }
+    } else if (paper.getQuestionIds() != null) {
+      // 自动组卷的试卷只有题目ID列表，没有分节结构
+      for (String qId : paper.getQuestionIds()) {
+        QuestionEntity q = questionMap.get(qId);
+        if (q != null) {
+          items.add(RenderItem.question(q, 1.0, parseOptions(q)));
+        }
+      }
+    }
+
+    List<ExamEnrollmentEntity> enrollments =
+        examEnrollmentRepository.findByExamPlanIdAndStatus(planId, "ENROLLED");
+    Map<String, UserEntity> userMap =
+        userRepository
+            .findAllById(
+                enrollments.stream()
+                    .map(ExamEnrollmentEntity::getStudentId)
+                    .collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(UserEntity::getId, u -> u));
+
+    List<BundleStudent> students = new ArrayList<>();
+    for (ExamEnrollmentEntity enrollment : enrollments) {
+      UserEntity user = userMap.get(enrollment.getStudentId());
+      String name =
+          user == null
+              ? enrollment.getStudentId()
+              : (user.getNickname() != null ? user.getNickname() : user.getUsername());
+      students.add(
+          new BundleStudent(enrollment.getStudentId(), name, enrollment.getSeatNumber()));
+    }
+    // 按座位号、学号排序，保证压缩包与答案表的顺序稳定
+    students.sort(
+        Comparator.comparing(
+                (BundleStudent s) -> s.seatNumber() == null ? "" : s.seatNumber(),
+                Comparator.comparing((String seat) -> seat.isEmpty())
+                    .thenComparing(Comparator.naturalOrder()))
+            .thenComparing(BundleStudent::studentId));
+
+    return new StudentPaperBundle(
+        plan.getId(),
+        paper.getTitle(),
+        Boolean.TRUE.equals(plan.getShuffleQuestions()),
+        Boolean.TRUE.equals(plan.getShuffleOptions()),
+        List.copyOf(items),
+        List.copyOf(students));
+  }
+
+  /**
+   * 并行渲染每位考生的试卷，并按完成顺序流式写入 ZIP。
+   *
+   * <p>同时在途的文档数量受渲染窗口限制，内存占用与考生人数无关；压缩包末尾附带
+   * answer_keys.csv，列出每位考生乱序后的客观题答案。
+   */
+  @Timed(value = "qbank.export", extraTags = {"kind", "bundle_write"})
+  public void writeStudentPaperBundle(StudentPaperBundle bundle, OutputStream out)
+      throws IOException {
+    List<BundleStudent> students = bundle.students();
+    int workers =
+        Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), students.size()));
+    int window = workers * 2;
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    CompletionService<RenderedStudentPaper> completion = new ExecutorCompletionService<>(pool);
+    String[] answerKeyLines = new String[students.size()];
+
+    ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+    try {
+      int submitted = 0;
+      int completed = 0;
+      while (submitted < students.size() && submitted < window) {
+        submitStudentPaper(completion, bundle, submitted++);
+      }
+      while (completed < submitted) {
+        RenderedStudentPaper rendered = completion.take().get();
+        completed++;
+        zip.putNextEntry(new ZipEntry(rendered.fileName()));
+        zip.write(rendered.content());
+        zip.closeEntry();
+        answerKeyLines[rendered.index()] = rendered.answerKeyLine();
+        if (submitted < students.size()) {
+          submitStudentPaper(completion, bundle, submitted++);
+        }
+      }
+
+      zip.putNextEntry(new ZipEntry("answer_keys.csv"));
+      zip.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+      zip.write(buildAnswerKeyHeader(bundle).getBytes(StandardCharsets.UTF_8));
+      for (String line : answerKeyLines) {
+        zip.write(line.getBytes(StandardCharsets.UTF_8));
+      }
+      zip.closeEntry();
+      zip.finish();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Student paper export interrupted", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+      throw new IOException("Failed to render student paper: " + cause.getMessage(), cause);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void submitStudentPaper(
+      CompletionService<RenderedStudentPaper> completion, StudentPaperBundle bundle, int index) {
+    completion.submit(() -> renderStudentPaper(bundle, index));
+  }
+
+  private RenderedStudentPaper renderStudentPaper(StudentPaperBundle bundle, int index)
+      throws IOException {
+    BundleStudent student = bundle.students().get(index);
+    long seed = SeededShuffle.seedFor(bundle.planId(), student.studentId());
+    List<RenderItem> items =
+        personalize(
+            bundle.items(), new Random(seed), bundle.shuffleQuestions(), bundle.shuffleOptions());
+
+    String version = Long.toHexString(seed & 0xFFFFFFL).toUpperCase();
+    String infoLine =
+        "Name: "
+            + student.name()
+            + "  Seat: "
+            + (student.seatNumber() == null ? "____" : student.seatNumber())
+            + "  ID: "
+            + student.studentId()
+            + "  Version: "
+            + version
+            + "  Score: ______________";
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    renderPaper(bundle.title(), infoLine, items, false, out);
+
+    StringBuilder keyLine = new StringBuilder();
+    keyLine
+        .append(csvField(student.studentId()))
+        .append(',')
+        .append(csvField(student.name()))
+        .append(',')
+        .append(csvField(student.seatNumber()))
+        .append(',')
+        .append(csvField(version));
+    for (RenderItem item : items) {
+      if (item.question() != null) {
+        keyLine.append(',').append(csvField(correctLabels(item.options())));
+      }
+    }
+    keyLine.append('\n');
+
+    String fileName =
+        String.format(
+            "%04d_%s_%s.docx",
+            index + 1, sanitizeFileName(student.name()), sanitizeFileName(student.studentId()));
+    return new RenderedStudentPaper(index, fileName, out.toByteArray(), keyLine.toString());
+  }
+
+  /** 应用考生的确定性乱序：题目在各自分节内乱序，选项在题目内乱序。 */
+  private List<RenderItem> personalize(
+      List<RenderItem> items, Random rng, boolean shuffleQuestions, boolean shuffleOptions) {
+    List<RenderItem> result = new ArrayList<>(items.size());
+    List<RenderItem> run = new ArrayList<>();
+    for (RenderItem item : items) {
+      if (item.question() == null) {
+        flushRun(run, result, rng, shuffleQuestions);
+        result.add(item);
+      } else {
+        run.add(item);
+      }
+    }
+    flushRun(run, result, rng, shuffleQuestions);
+
+    if (!shuffleOptions) {
+      return result;
+    }
+    List<RenderItem> shuffled = new ArrayList<>(result.size());
+    for (RenderItem item : result) {
+      if (item.options() == null || item.options().size() < 2) {
+        shuffled.add(item);
+      } else {
+        int[] order = SeededShuffle.permutation(item.options().size(), rng);
+        shuffled.add(
+            RenderItem.question(
+                item.question(), item.score(), SeededShuffle.apply(item.options(), order)));
+      }
+    }
+    return shuffled;
+  }
+
+  private void flushRun(
+      List<RenderItem> run, List<RenderItem> result, Random rng, boolean shuffleQuestions) {
+    if (run.isEmpty()) {
+      return;
+    }
+    if (shuffleQuestions) {
+      result.addAll(SeededShuffle.apply(run, SeededShuffle.permutation(run.size(), rng)));
+    } else {
+      result.addAll(run);
+    }
+    run.clear();
+  }
+
+  private String buildAnswerKeyHeader(StudentPaperBundle bundle) {
+    StringBuilder header = new StringBuilder("StudentId,Name,Seat,Version");
+    int number = 1;
+    for (RenderItem item : bundle.items()) {
+      if (item.question() != null) {
+        header.append(",Q").append(number++);
+      }
+    }
+    return header.append('\n').toString();
+  }
+
+  private void renderPaper(
+      String title,
+      String infoLine,
+      List<RenderItem> items,
+      boolean isTeacherVersion,
+      OutputStream out)
+      throws IOException {
     try (XWPFDocument document = new XWPFDocument()) {
       // Title
       XWPFParagraph titleParagraph = document.createParagraph();
       titleParagraph.setAlignment(ParagraphAlignment.CENTER);
       XWPFRun titleRun = titleParagraph.createRun();
-      titleRun.setText(paper.getTitle());
+      titleRun.setText(title);
       titleRun.setBold(true);
       titleRun.setFontSize(16);
       titleRun.addBreak();
 
       // Subtitle (Student Info Area)
-      if (!isTeacherVersion) {
+      if (infoLine != null) {
         XWPFParagraph infoParagraph = document.createParagraph();
         infoParagraph.setAlignment(ParagraphAlignment.CENTER);
         XWPFRun infoRun = infoParagraph.createRun();
-        infoRun.setText("Name: ______________  Class: ______________  Score: ______________");
+        infoRun.setText(infoLine);
         infoRun.addBreak();
         infoRun.addBreak();
       }
 
       int questionIndex = 1;
-      for (PaperItemEntity item : paper.getItems()) {
-        if ("SECTION".equals(item.getItemType())) {
+      for (RenderItem item : items) {
+        if (item.question() == null) {
           XWPFParagraph sectionParagraph = document.createParagraph();
           XWPFRun sectionRun = sectionParagraph.createRun();
-          sectionRun.setText(item.getSectionTitle());
+          sectionRun.setText(item.sectionTitle());
           sectionRun.setBold(true);
           sectionRun.setFontSize(14);
           sectionRun.addBreak();
-        } else if ("QUESTION".equals(item.getItemType())) {
-          QuestionEntity q = questionMap.get(item.getQuestionId());
-          if (q == null) continue;
-
-          // Question Stem
-          XWPFParagraph qParagraph = document.createParagraph();
-          XWPFRun qRun = qParagraph.createRun();
-          qRun.setText(questionIndex + ". " + q.getStem() + " (" + item.getScore() + " pts)");
-          qRun.addBreak();
-
-          // Options
-          if (q.getOptionsJson() != null) {
-            try {
-              List<QuestionOption> options =
-                  objectMapper.readValue(
-                      q.getOptionsJson(), new TypeReference<List<QuestionOption>>() {});
-              for (int i = 0; i < options.size(); i++) {
-                QuestionOption opt = options.get(i);
-                XWPFParagraph optParagraph = document.createParagraph();
-                optParagraph.setIndentationLeft(400); // Indent options
-                XWPFRun optRun = optParagraph.createRun();
-                char label = (char) ('A' + i);
-                optRun.setText(label + ". " + opt.getText());
-              }
-            } catch (Exception e) {
-              // Ignore parsing error
-            }
-          }
+          continue;
+        }
 
-          // Space for answer (Student Version)
-          if (!isTeacherVersion) {
-            XWPFParagraph spaceParagraph = document.createParagraph();
-            // Add some empty lines for subjective questions
-            if (!"SINGLE_CHOICE".equals(q.getType())
-                && !"MULTIPLE_CHOICE".equals(q.getType())
-                && !"TRUE_FALSE".equals(q.getType())) {
-              for (int k = 0; k < 3; k++) spaceParagraph.createRun().addBreak();
-            } else {
-              spaceParagraph.createRun().addBreak();
-            }
+        QuestionEntity q = item.question();
+
+        // Question Stem
+        XWPFParagraph qParagraph = document.createParagraph();
+        XWPFRun qRun = qParagraph.createRun();
+        qRun.setText(questionIndex + ". " + q.getStem() + " (" + item.score() + " pts)");
+        qRun.addBreak();
+
+        // Options
+        if (item.options() != null) {
+          for (int i = 0; i < item.options().size(); i++) {
+            QuestionOption opt = item.options().get(i);
+            XWPFParagraph optParagraph = document.createParagraph();
+            optParagraph.setIndentationLeft(400); // Indent options
+            XWPFRun optRun = optParagraph.createRun();
+            char label = (char) ('A' + i);
+            optRun.setText(label + ". " + opt.getText());
           }
+        }
 
-          // Answer and Analysis (Teacher Version)
-          if (isTeacherVersion) {
-            XWPFParagraph ansParagraph = document.createParagraph();
-            ansParagraph.setIndentationLeft(400);
-            XWPFRun ansRun = ansParagraph.createRun();
-            ansRun.setColor("FF0000"); // Red color
-            ansRun.setBold(true);
-
-            // Calculate correct answer string
-            String correctAns = "";
-            if (q.getOptionsJson() != null) {
-              try {
-                List<QuestionOption> options =
-                    objectMapper.readValue(
-                        q.getOptionsJson(), new TypeReference<List<QuestionOption>>() {});
-                StringBuilder sb = new StringBuilder();
-                for (int i = 0; i < options.size(); i++) {
-                  if (Boolean.TRUE.equals(options.get(i).getIsCorrect())) {
-                    sb.append((char) ('A' + i));
-                  }
-                }
-                correctAns = sb.toString();
-              } catch (Exception e) {
-              }
-            }
-
-            ansRun.setText("Answer: " + correctAns);
-            ansRun.addBreak();
-
-            if (q.getAnalysis() != null && !q.getAnalysis().isEmpty()) {
-              XWPFRun analysisRun = ansParagraph.createRun();
-              analysisRun.setText("Analysis: " + q.getAnalysis());
-              analysisRun.setColor("0000FF"); // Blue
-            }
-            document.createParagraph().createRun().addBreak(); // Separator
+        // Space for answer (Student Version)
+        if (!isTeacherVersion) {
+          XWPFParagraph spaceParagraph = document.createParagraph();
+          // Add some empty lines for subjective questions
+          if (!"SINGLE_CHOICE".equals(q.getType())
+              && !"MULTIPLE_CHOICE".equals(q.getType())
+              && !"TRUE_FALSE".equals(q.getType())) {
+            for (int k = 0; k < 3; k++) spaceParagraph.createRun().addBreak();
+          } else {
+            spaceParagraph.createRun().addBreak();
           }
+        }
 
-          questionIndex++;
+        // Answer and Analysis (Teacher Version)
+        if (isTeacherVersion) {
+          XWPFParagraph ansParagraph = document.createParagraph();
+          ansParagraph.setIndentationLeft(400);
+          XWPFRun ansRun = ansParagraph.createRun();
+          ansRun.setColor("FF0000"); // Red color
+          ansRun.setBold(true);
+          ansRun.setText("Answer: " + correctLabels(item.options()));
+          ansRun.addBreak();
+
+          if (q.getAnalysis() != null && !q.getAnalysis().isEmpty()) {
+            XWPFRun analysisRun = ansParagraph.createRun();
+            analysisRun.setText("Analysis: " + q.getAnalysis());
+            analysisRun.setColor("0000FF"); // Blue
+          }
+          document.createParagraph().createRun().addBreak(); // Separator
         }
+
+        questionIndex++;
       }
 
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
       document.write(out);
-      return out.toByteArray();
     }
   }
 
+  private List<QuestionOption> parseOptions(QuestionEntity q) {
+    if (q.getOptionsJson() == null) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(
+          q.getOptionsJson(), new TypeReference<List<QuestionOption>>() {});
+    } catch (Exception e) {
+      // Ignore parsing error
+      return null;
+    }
+  }
+
+  private String correctLabels(List<QuestionOption> options) {
+    if (options == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < options.size(); i++) {
+      if (Boolean.TRUE.equals(options.get(i).getIsCorrect())) {
+        sb.append((char) ('A' + i));
+      }
+    }
+    return sb.toString();
+  }
+
+  private String csvField(String value) {
+    if (value == null) {
+      return "\"\"";
+    }
+    String escaped = value.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ");
+    return "\"" + escaped + "\"";
+  }
+
+  private String sanitizeFileName(String value) {
+    if (value == null || value.isBlank()) {
+      return "unknown";
+    }
+    return value.trim().replaceAll("[\\\\/:*?\"<>|\\s]+", "_");
+  }
+
+  /** 渲染用的试卷条目：question 为 null 时表示分节标题。 */
+  public record RenderItem(
+      String sectionTitle, QuestionEntity question, Double score, List<QuestionOption> options) {
+
+    static RenderItem section(String title) {
+      return new RenderItem(title, null, null, null);
+    }
+
+    static RenderItem question(QuestionEntity question, Double score, List<QuestionOption> options) {
+      return new RenderItem(null, question, score, options);
+    }
+  }
+
+  /** 个性化试卷包的考生信息。 */
+  public record BundleStudent(String studentId, String name, String seatNumber) {}
+
+  /** 个性化试卷包的渲染输入，由 {@link #prepareStudentPaperBundle(String)} 生成。 */
+  public record StudentPaperBundle(
+      String planId,
+      String title,
+      boolean shuffleQuestions,
+      boolean shuffleOptions,
+      List<RenderItem> items,
+      List<BundleStudent> students) {}
+
+  private record RenderedStudentPaper(
+      int index, String fileName, byte[] content, String answerKeyLine) {}
+
+  @Timed(value = "qbank.export", extraTags = {"kind", "answer_sheet"})
   public byte[] exportAnswerSheet(Long paperId) throws IOException {
     PaperEntity paper =
-        paperRepository
-            .findById(paperId)
+        paperService
+            .findPaperWithContents(paperId)
             .orElseThrow(() -> new RuntimeException("Paper not found"));
 
     try (XWPFDocument document = new XWPFDocument()) {
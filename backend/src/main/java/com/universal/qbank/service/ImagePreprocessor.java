@@ -0,0 +1,95 @@
+package com.universal.qbank.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 拍照导入前的图片预处理。
+ *
+ * <p>手机扫描件通常在 4000px 以上，直接 base64 发给视觉模型既拖慢传输也不提升识别效果。这里统一缩放到长边不超过
+ * {@link #MAX_EDGE}，转为 RGB 并重新编码为 JPEG。
+ */
+@Component
+public class ImagePreprocessor {
+
+  private static final Logger log = LoggerFactory.getLogger(ImagePreprocessor.class);
+
+  /** 缩放后长边上限（像素），兼顾文字清晰度与模型输入大小 */
+  static final int MAX_EDGE = 1600;
+
+  private static final float JPEG_QUALITY = 0.85f;
+
+  /** 归一化图片；无法解码的格式（如 HEIC）原样返回，交由模型自行处理。 */
+  public byte[] normalize(byte[] raw) {
+    if (raw == null || raw.length == 0) {
+      return raw;
+    }
+    try {
+      BufferedImage source = ImageIO.read(new ByteArrayInputStream(raw));
+      if (source == null) {
+        return raw;
+      }
+
+      int width = source.getWidth();
+      int height = source.getHeight();
+      double scale = Math.min(1.0, (double) MAX_EDGE / Math.max(width, height));
+      int targetWidth = Math.max(1, (int) Math.round(width * scale));
+      int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+      BufferedImage target =
+          new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g = target.createGraphics();
+      try {
+        // 透明背景（PNG 截图）填白，避免转 JPEG 后变黑
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, targetWidth, targetHeight);
+        g.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+      } finally {
+        g.dispose();
+      }
+
+      byte[] encoded = encodeJpeg(target);
+      // 小图重新编码可能反而变大，此时保留原图
+      return encoded.length < raw.length || scale < 1.0 ? encoded : raw;
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Image preprocessing failed, sending original bytes: {}", ex.getMessage());
+      return raw;
+    }
+  }
+
+  private byte[] encodeJpeg(BufferedImage image) throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+    if (!writers.hasNext()) {
+      throw new IOException("No JPEG writer available");
+    }
+    ImageWriter writer = writers.next();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+      writer.setOutput(ios);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,312 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.config.ImportProperties;
+import com.universal.qbank.entity.ImportJobEntity;
+import com.universal.qbank.repository.ImportJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 异步题库导入任务。
+ *
+ * <p>上传文件先落盘并创建任务记录，随后在导入线程池中边解析边分块写入；任务失败后保留文件，可从断点续传。
+ */
+@Service
+public class ImportJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+  public static final String STATUS_PENDING = "PENDING";
+  public static final String STATUS_RUNNING = "RUNNING";
+  public static final String STATUS_COMPLETED = "COMPLETED";
+  public static final String STATUS_FAILED = "FAILED";
+
+  public static final String TYPE_WORD = "WORD";
+  public static final String TYPE_XLSX = "XLSX";
+
+  /** Excel 未填写科目列时使用的默认科目，与 Word 导入一致 */
+  private static final String DEFAULT_SUBJECT_ID = "general";
+
+  @Autowired private ImportJobRepository importJobRepository;
+
+  @Autowired private ImportService importService;
+
+  @Autowired private WordQuestionParser wordQuestionParser;
+
+  @Autowired private XlsxQuestionReader xlsxQuestionReader;
+
+  @Autowired private QuestionBatchWriter questionBatchWriter;
+
+  @Autowired private ImportProperties importProperties;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  /** 导入专用线程池，与请求线程及 Spring 默认任务线程池隔离，避免大文件导入占满线程 */
+  private ThreadPoolTaskExecutor importExecutor;
+
+  @PostConstruct
+  public void initExecutor() {
+    int threads = Math.max(1, importProperties.getWorkerThreads());
+    importExecutor = new ThreadPoolTaskExecutor();
+    importExecutor.setCorePoolSize(threads);
+    importExecutor.setMaxPoolSize(threads);
+    importExecutor.setQueueCapacity(100);
+    importExecutor.setThreadNamePrefix("import-");
+    importExecutor.initialize();
+  }
+
+  @PreDestroy
+  public void shutdownExecutor() {
+    if (importExecutor != null) {
+      importExecutor.shutdown();
+    }
+  }
+
+  /** 提交 Word 导入任务 */
+  public ImportJobEntity submitWordImport(MultipartFile file, Integer chunkSize, String userId) {
+    return submit(file, TYPE_WORD, ".docx", chunkSize, userId);
+  }
+
+  /** 提交 Excel 导入任务 */
+  public ImportJobEntity submitXlsxImport(MultipartFile file, Integer chunkSize, String userId) {
+    return submit(file, TYPE_XLSX, ".xlsx", chunkSize, userId);
+  }
+
+  private ImportJobEntity submit(
+      MultipartFile file, String type, String extension, Integer chunkSize, String userId) {
+    if (file == null || file.isEmpty()) {
+      throw new IllegalArgumentException("File is empty");
+    }
+    String originalName = file.getOriginalFilename();
+    if (originalName == null || !originalName.toLowerCase().endsWith(extension)) {
+      throw new IllegalArgumentException("Only " + extension + " files are supported");
+    }
+
+    String jobId = UUID.randomUUID().toString();
+    Path target = resolveWorkDir().resolve(jobId + extension);
+    try (InputStream in = file.getInputStream()) {
+      Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException ex) {
+      throw new RuntimeException("Could not store import file: " + ex.getMessage(), ex);
+    }
+
+    ImportJobEntity job = new ImportJobEntity();
+    job.setId(jobId);
+    job.setType(type);
+    job.setStatus(STATUS_PENDING);
+    job.setFileName(originalName);
+    job.setStoredPath(target.toString());
+    job.setChunkSize(normalizeChunkSize(chunkSize));
+    job.setCreatedBy(userId);
+    ImportJobEntity saved = importJobRepository.save(job);
+    dispatch(saved.getId());
+    return saved;
+  }
+
+  public ImportJobEntity getJob(String jobId) {
+    return importJobRepository
+        .findById(jobId)
+        .orElseThrow(() -> new IllegalArgumentException("Import job not found"));
+  }
+
+  /** 从断点续传失败的任务 */
+  public ImportJobEntity resume(String jobId) {
+    ImportJobEntity job = getJob(jobId);
+    if (!STATUS_FAILED.equals(job.getStatus())) {
+      throw new IllegalStateException("Only failed import jobs can be resumed");
+    }
+    if (job.getStoredPath() == null || !Files.exists(Paths.get(job.getStoredPath()))) {
+      throw new IllegalStateException("Import file is no longer available, please upload again");
+    }
+    importJobRepository.updateStatus(jobId, STATUS_PENDING, null, OffsetDateTime.now(), null);
+    dispatch(jobId);
+    return getJob(jobId);
+  }
+
+  /** 应用重启时仍处于运行中的任务已被中断，标记为失败以便续传 */
+  @EventListener(ApplicationReadyEvent.class)
+  public void failInterruptedJobs() {
+    int affected =
+        importJobRepository.failByStatusIn(
+            List.of(STATUS_PENDING, STATUS_RUNNING),
+            "Interrupted by application restart",
+            OffsetDateTime.now());
+    if (affected > 0) {
+      log.info("Marked {} interrupted import job(s) as FAILED", affected);
+    }
+  }
+
+  private void dispatch(String jobId) {
+    importExecutor.execute(() -> runJob(jobId));
+  }
+
+  void runJob(String jobId) {
+    ImportJobEntity job = importJobRepository.findById(jobId).orElse(null);
+    if (job == null) {
+      return;
+    }
+    importJobRepository.updateStatus(jobId, STATUS_RUNNING, null, OffsetDateTime.now(), null);
+
+    int chunkSize = normalizeChunkSize(job.getChunkSize());
+    int resumeFrom = job.getNextIndex() == null ? 0 : job.getNextIndex();
+    Path file = Paths.get(job.getStoredPath());
+    long startedAt = System.currentTimeMillis();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "failed";
+
+    try {
+      if (TYPE_XLSX.equals(job.getType())) {
+        runXlsx(jobId, file, chunkSize, resumeFrom);
+      } else {
+        runWord(jobId, file, chunkSize, resumeFrom);
+      }
+      OffsetDateTime now = OffsetDateTime.now();
+      importJobRepository.updateStatus(jobId, STATUS_COMPLETED, null, now, now);
+      outcome = "completed";
+      Files.deleteIfExists(file);
+      log.info("Import job {} completed in {} ms", jobId, System.currentTimeMillis() - startedAt);
+    } catch (Exception ex) {
+      log.error("Import job {} failed", jobId, ex);
+      String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+      if (message.length() > 1000) {
+        message = message.substring(0, 1000);
+      }
+      importJobRepository.updateStatus(jobId, STATUS_FAILED, message, OffsetDateTime.now(), null);
+    } finally {
+      sample.stop(
+          Timer.builder("qbank.import.job")
+              .description("Background import job duration")
+              .tag("type", job.getType() == null ? TYPE_WORD : job.getType())
+              .tag("outcome", outcome)
+              .register(meterRegistry));
+    }
+  }
+
+  private void runWord(String jobId, Path file, int chunkSize, int resumeFrom) throws IOException {
+    try (InputStream in = Files.newInputStream(file);
+        XWPFDocument document = new XWPFDocument(in)) {
+      importJobRepository.updateTotalCount(jobId, wordQuestionParser.countQuestions(document));
+
+      List<QuestionBatchWriter.IndexedQuestion> buffer = new ArrayList<>(chunkSize);
+      int[] cursor = {0};
+      wordQuestionParser.parse(
+          document,
+          question -> {
+            int index = cursor[0]++;
+            if (index < resumeFrom) {
+              return;
+            }
+            buffer.add(new QuestionBatchWriter.IndexedQuestion(index, question));
+            if (buffer.size() >= chunkSize) {
+              questionBatchWriter.writeChunk(
+                  jobId, List.copyOf(buffer), importService::toQuestionEntity);
+              buffer.clear();
+            }
+          });
+      if (!buffer.isEmpty()) {
+        questionBatchWriter.writeChunk(jobId, List.copyOf(buffer), importService::toQuestionEntity);
+      }
+    }
+  }
+
+  /** Excel 行流式读入，每满一块并行校验转换，合法行批量写入，非法行记入错误明细 */
+  private void runXlsx(String jobId, Path file, int chunkSize, int resumeFrom) throws IOException {
+    List<RawRow> buffer = new ArrayList<>(chunkSize);
+    int[] cursor = {0};
+    int total =
+        xlsxQuestionReader.read(
+            file,
+            row -> {
+              int index = cursor[0]++;
+              if (index < resumeFrom) {
+                return;
+              }
+              buffer.add(new RawRow(index, row));
+              if (buffer.size() >= chunkSize) {
+                writeXlsxChunk(jobId, buffer);
+                buffer.clear();
+              }
+            });
+    if (!buffer.isEmpty()) {
+      writeXlsxChunk(jobId, buffer);
+    }
+    importJobRepository.updateTotalCount(jobId, total);
+  }
+
+  private record RawRow(int index, Map<String, String> cells) {}
+
+  private record ValidatedRow(
+      int index, QuestionCreateRequest request, Map<String, Object> error) {}
+
+  private void writeXlsxChunk(String jobId, List<RawRow> rows) {
+    List<ValidatedRow> validated =
+        rows.parallelStream()
+            .map(
+                row -> {
+                  try {
+                    return new ValidatedRow(
+                        row.index(),
+                        xlsxQuestionReader.toRequest(row.cells(), DEFAULT_SUBJECT_ID),
+                        null);
+                  } catch (RuntimeException ex) {
+                    return new ValidatedRow(
+                        row.index(),
+                        null,
+                        QuestionBatchWriter.error(
+                            row.index(), row.cells().get("stem"), ex.getMessage()));
+                  }
+                })
+            .toList();
+
+    List<QuestionBatchWriter.IndexedQuestion> valid = new ArrayList<>(validated.size());
+    List<Map<String, Object>> rejected = new ArrayList<>();
+    for (ValidatedRow row : validated) {
+      if (row.error() == null) {
+        valid.add(new QuestionBatchWriter.IndexedQuestion(row.index(), row.request()));
+      } else {
+        rejected.add(row.error());
+      }
+    }
+    int nextIndex = rows.get(rows.size() - 1).index() + 1;
+    questionBatchWriter.writeChunk(
+        jobId, valid, rejected, nextIndex, importService::toQuestionEntity);
+  }
+
+  private int normalizeChunkSize(Integer requested) {
+    int size = requested == null || requested <= 0 ? importProperties.getChunkSize() : requested;
+    return Math.max(1, Math.min(size, importProperties.getMaxChunkSize()));
+  }
+
+  private Path resolveWorkDir() {
+    Path dir = Paths.get(importProperties.getWorkDir()).toAbsolutePath().normalize();
+    try {
+      Files.createDirectories(dir);
+    } catch (IOException ex) {
+      throw new RuntimeException("Could not create import work directory", ex);
+    }
+    return dir;
+  }
+}
@@ -5,18 +5,27 @@ import com.universal.qbank.api.generated.model.QuestionCreateRequest;
 import com.universal.qbank.api.generated.model.QuestionOption;
 import com.universal.qbank.entity.QuestionEntity;
 import com.universal.qbank.repository.QuestionRepository;
+import io.micrometer.core.annotation.Timed;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,139 +36,129 @@ public class ImportService {
 
   @Autowired private OllamaAiService ollamaAiService;
 
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  @Autowired private WordQuestionParser wordQuestionParser;
+
+  @Autowired private ImagePreprocessor imagePreprocessor;
 
-  private static final Pattern QUESTION_START_PATTERN = Pattern.compile("^(\\d+)\\s*[.、．]\\s*(.*)");
-  // Matches "A. Content" or "a. Content" or "1. Content" or "(A) Content"
-  // Group 1: Label from "A." or "A)" or "A、" (supports A-Z, a-z, 0-9)
-  // Group 2: Label from "(A)"
-  // Group 3: Content
-  private static final Pattern OPTION_PATTERN =
-      Pattern.compile(
-          "(?:^|\\s+)(?:([A-Za-z0-9])\\s*[.、．\\)]|\\(([A-Za-z0-9])\\))\\s*(.*?)(?=\\s+(?:[A-Za-z0-9]\\s*[.、．\\)]|\\([A-Za-z0-9]\\))|$)",
-          Pattern.DOTALL);
-  private static final Pattern ANSWER_PATTERN = Pattern.compile("^(Answer|答案)[:：]\\s*(.*)");
-  private static final Pattern ANALYSIS_PATTERN = Pattern.compile("^(Analysis|解析)[:：]\\s*(.*)");
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
 
+  @Timed(value = "qbank.import", extraTags = {"kind", "word_parse"})
   public List<QuestionCreateRequest> parseWordDocument(InputStream inputStream) throws IOException {
     List<QuestionCreateRequest> questions = new ArrayList<>();
     try (XWPFDocument document = new XWPFDocument(inputStream)) {
-      QuestionCreateRequest currentQuestion = null;
-      List<QuestionOption> currentOptions = new ArrayList<>();
-      boolean optionsStarted = false;
+      wordQuestionParser.parse(document, questions::add);
+    }
+    return questions;
+  }
 
-      for (XWPFParagraph paragraph : document.getParagraphs()) {
-        String text = paragraph.getText().trim();
-        if (text.isEmpty()) {
-          continue;
-        }
-        System.out.println("Processing paragraph: " + text);
-
-        Matcher questionMatcher = QUESTION_START_PATTERN.matcher(text);
-        if (questionMatcher.find()) {
-          System.out.println("Found question: " + questionMatcher.group(2));
-          // Save previous question
-          if (currentQuestion != null) {
-            finalizeQuestion(currentQuestion, currentOptions);
-            questions.add(currentQuestion);
-          }
+  @Timed(value = "qbank.import", extraTags = {"kind", "photo"})
+  public List<QuestionCreateRequest> parsePhotoByAi(InputStream inputStream, String parseMode)
+      throws IOException {
+    byte[] imageBytes = inputStream.readAllBytes();
+    if (imageBytes.length == 0) {
+      return List.of();
+    }
+    return parsePhotoPage(imagePreprocessor.normalize(imageBytes), parseMode);
+  }
 
-          // Start new question
-          currentQuestion = new QuestionCreateRequest();
-          currentQuestion.setStem(questionMatcher.group(2)); // Group 2 is the content
-          currentQuestion.setType(QuestionCreateRequest.TypeEnum.SINGLE_CHOICE); // Default
-          currentQuestion.setDifficulty(QuestionCreateRequest.DifficultyEnum.MEDIUM); // Default
-          currentQuestion.setSubjectId("general"); // Default
-          currentQuestion.setScore(5.0f);
-          currentOptions = new ArrayList<>();
-          optionsStarted = false;
-          continue;
-        }
+  /** 待识别的单页图片 */
+  public record PhotoPage(int page, String fileName, byte[] content) {}
+
+  /**
+   * 多页拍照导入：各页并发预处理与识别（受 AI 全局并发上限约束），每完成一页回调一次，最后回调按题干去重后的合并结果。
+   *
+   * <p>事件类型：page（单页结果）、page_error（单页失败，不影响其他页）、done（合并结果）。
+   */
+  @Timed(value = "qbank.import", extraTags = {"kind", "photo_pages"})
+  public void parsePhotoPages(List<PhotoPage> pages, Consumer<Map<String, Object>> onEvent) {
+    if (pages.isEmpty()) {
+      onEvent.accept(Map.of("type", "done", "pages", 0, "questions", List.of()));
+      return;
+    }
 
-        if (currentQuestion != null) {
-          // Check for Answer
-          Matcher answerMatcher = ANSWER_PATTERN.matcher(text);
-          if (answerMatcher.find()) {
-            String answerKey = answerMatcher.group(2).trim().toUpperCase();
-            System.out.println("Found answer: " + answerKey);
-            // Mark correct option
-            for (int i = 0; i < currentOptions.size(); i++) {
-              char optionLabel = (char) ('A' + i);
-              if (answerKey.indexOf(optionLabel) != -1) {
-                currentOptions.get(i).setIsCorrect(true);
+    int workers = Math.min(pages.size(), ollamaAiService.maxConcurrentChats());
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    CompletionService<PageResult> completion = new ExecutorCompletionService<>(pool);
+    try {
+      for (PhotoPage page : pages) {
+        completion.submit(
+            () -> {
+              try {
+                byte[] normalized = imagePreprocessor.normalize(page.content());
+                return new PageResult(page, parsePhotoPage(normalized, "PAGE"), null);
+              } catch (RuntimeException ex) {
+                return new PageResult(page, List.of(), ex.getMessage());
               }
-            }
-            continue;
-          }
-
-          // Check for Analysis
-          Matcher analysisMatcher = ANALYSIS_PATTERN.matcher(text);
-          if (analysisMatcher.find()) {
-            currentQuestion.setAnalysis(analysisMatcher.group(2));
-            continue;
-          }
-
-          // Check for Options (Inline or Single line)
-          Matcher optionMatcher = OPTION_PATTERN.matcher(text);
-          if (optionMatcher.find()) {
-            System.out.println("Found options in line: " + text);
-            optionsStarted = true;
-            // Reset matcher to find all
-            optionMatcher.reset();
-            while (optionMatcher.find()) {
-              String label =
-                  optionMatcher.group(1) != null ? optionMatcher.group(1) : optionMatcher.group(2);
-              String content = optionMatcher.group(3).trim();
-              System.out.println("  Option " + label + ": " + content);
-
-              QuestionOption option = new QuestionOption();
-              option.setKey(label.toUpperCase()); // Set key (A, B, C...)
-              option.setText(content);
-              option.setIsCorrect(false);
-              currentOptions.add(option);
-            }
-            continue;
-          }
+            });
+      }
 
-          // Handle auto-numbered lists as options
-          if (paragraph.getNumID() != null) {
-            System.out.println("Found auto-numbered option: " + text);
-            optionsStarted = true;
-            QuestionOption option = new QuestionOption();
-            option.setText(text);
-            option.setIsCorrect(false);
-            currentOptions.add(option);
-            continue;
-          }
+      PageResult[] results = new PageResult[pages.size()];
+      for (int i = 0; i < pages.size(); i++) {
+        PageResult result = completion.take().get();
+        results[i] = result;
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", result.error() == null ? "page" : "page_error");
+        event.put("page", result.page().page());
+        event.put("fileName", result.page().fileName());
+        event.put("completed", i + 1);
+        event.put("total", pages.size());
+        if (result.error() == null) {
+          event.put("questions", result.questions());
+        } else {
+          event.put("message", result.error());
+        }
+        onEvent.accept(event);
+      }
 
-          // If not a new question, not an answer, not an option line:
-          // Append to Stem or Last Option
-          if (!optionsStarted) {
-            currentQuestion.setStem(currentQuestion.getStem() + "\n" + text);
-          } else if (!currentOptions.isEmpty()) {
-            // Append to the last option
-            QuestionOption lastOption = currentOptions.get(currentOptions.size() - 1);
-            lastOption.setText(lastOption.getText() + "\n" + text);
+      // 按页码顺序合并，题干归一化后去重（相邻页拍摄重叠时同一题会被识别两次）
+      Arrays.sort(results, Comparator.comparingInt(r -> r.page().page()));
+      Set<String> seenStems = new HashSet<>();
+      List<QuestionCreateRequest> merged = new ArrayList<>();
+      int failedPages = 0;
+      int duplicates = 0;
+      for (PageResult result : results) {
+        if (result.error() != null) {
+          failedPages++;
+          continue;
+        }
+        for (QuestionCreateRequest question : result.questions()) {
+          if (seenStems.add(normalizeStem(question.getStem()))) {
+            merged.add(question);
+          } else {
+            duplicates++;
           }
         }
       }
 
-      // Add last question
-      if (currentQuestion != null) {
-        finalizeQuestion(currentQuestion, currentOptions);
-        questions.add(currentQuestion);
-      }
+      Map<String, Object> done = new LinkedHashMap<>();
+      done.put("type", "done");
+      done.put("pages", pages.size());
+      done.put("failedPages", failedPages);
+      done.put("duplicatesRemoved", duplicates);
+      done.put("questions", merged);
+      onEvent.accept(done);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("图片解析被中断", ex);
+    } catch (ExecutionException ex) {
+      throw new RuntimeException("图片解析失败：" + ex.getMessage(), ex);
+    } finally {
+      pool.shutdownNow();
     }
-    return questions;
   }
 
-  public List<QuestionCreateRequest> parsePhotoByAi(InputStream inputStream, String parseMode)
-      throws IOException {
-    byte[] imageBytes = inputStream.readAllBytes();
-    if (imageBytes.length == 0) {
-      return List.of();
+  private record PageResult(PhotoPage page, List<QuestionCreateRequest> questions, String error) {}
+
+  private String normalizeStem(String stem) {
+    if (stem == null) {
+      return "";
     }
+    return stem.toLowerCase().replaceAll("[\\s\\p{Punct}\\p{IsPunctuation}]+", "");
+  }
 
+  private List<QuestionCreateRequest> parsePhotoPage(byte[] imageBytes, String parseMode) {
     String normalizedMode = "SINGLE".equalsIgnoreCase(parseMode) ? "SINGLE" : "PAGE";
     String modeGuide =
         "SINGLE".equals(normalizedMode) ? "当前为单题导入：仅输出 1 道题。" : "当前为整页导入：请尽可能完整识别所有题目。";
@@ -308,40 +307,49 @@ public class ImportService {
     }
   }
 
-  private void finalizeQuestion(QuestionCreateRequest question, List<QuestionOption> options) {
-    question.setOptions(options);
-    // Basic type inference
-    long correctCount = options.stream().filter(QuestionOption::getIsCorrect).count();
-    if (correctCount > 1) {
-      question.setType(QuestionCreateRequest.TypeEnum.MULTI_CHOICE);
-    } else if (options.isEmpty()) {
-      // Maybe fill blank or short answer?
-      // For now default to SINGLE_CHOICE or leave as is
-    }
-  }
-
+  @Timed(value = "qbank.import", extraTags = {"kind", "save"})
   @Transactional
   public List<QuestionEntity> saveQuestions(List<QuestionCreateRequest> requests) {
     List<QuestionEntity> entities = new ArrayList<>();
     for (QuestionCreateRequest req : requests) {
-      QuestionEntity q = new QuestionEntity();
-      q.setSubjectId(req.getSubjectId());
-      q.setType(req.getType().getValue());
-      q.setDifficulty(req.getDifficulty().getValue());
-      q.setStem(req.getStem());
-      q.setAnalysis(req.getAnalysis());
-      q.setStatus("APPROVED"); // 导入的题目直接设为已通过状态
-
-      try {
-        if (req.getOptions() != null) {
-          q.setOptionsJson(objectMapper.writeValueAsString(req.getOptions()));
-        }
-      } catch (Exception e) {
-        throw new RuntimeException("Failed to serialize options", e);
-      }
+      entities.add(toQuestionEntity(req));
+    }
+    List<QuestionEntity> saved = questionRepository.saveAll(entities);
+    saved.forEach(q -> eventPublisher.publishEvent(QuestionChangedEvent.saved(q)));
+    return saved;
+  }
 
-      entities.add(q);
+  /** 将导入请求转换为待持久化的题目实体，导入的题目直接设为已通过状态。 */
+  public QuestionEntity toQuestionEntity(QuestionCreateRequest req) {
+    if (req.getType() == null || req.getDifficulty() == null) {
+      throw new IllegalArgumentException("Question type and difficulty are required");
+    }
+    QuestionEntity q = new QuestionEntity();
+    q.setSubjectId(req.getSubjectId());
+    q.setType(req.getType().getValue());
+    q.setDifficulty(req.getDifficulty().getValue());
+    q.setStem(req.getStem());
+    q.setAnalysis(req.getAnalysis());
+    q.setStatus("APPROVED"); // 导入的题目直接设为已通过状态
+
+    try {
+      if (req.getOptions() != null) {
+        q.setOptionsJson(objectMapper.writeValueAsString(req.getOptions()));
+      }
+      if (req.getAnswerSchema() != null) {
+        Object answer = req.getAnswerSchema();
+        q.setAnswerSchema(
+            answer instanceof String ? (String) answer : objectMapper.writeValueAsString(answer));
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to serialize options", e);
+    }
+    if (req.getTags() != null && !req.getTags().isEmpty()) {
+      q.setTags(new ArrayList<>(req.getTags()));
+    }
+    if (req.getKnowledgePointIds() != null && !req.getKnowledgePointIds().isEmpty()) {
+      q.setKnowledgePointIds(new ArrayList<>(req.getKnowledgePointIds()));
     }
-    return questionRepository.saveAll(entities);
+    return q;
   }
 }
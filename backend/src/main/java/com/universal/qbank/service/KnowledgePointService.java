@@ -0,0 +1,92 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.KnowledgePointEntity;
+import com.universal.qbank.repository.KnowledgePointRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 知识点服务。
+ *
+ * <p>列表、树和子树展开都读自内存中的 {@link KnowledgePointTree} 快照，写操作提交后作废并在下次读取时重建。
+ */
+@Service
+public class KnowledgePointService {
+
+  /** 区分进程的 ETag 前缀，重启后旧 ETag 不会误命中 */
+  private static final String ETAG_PREFIX = UUID.randomUUID().toString().substring(0, 8);
+
+  @Autowired private KnowledgePointRepository repository;
+
+  private final SnapshotHolder<KnowledgePointTree> snapshot =
+      new SnapshotHolder<>(
+          generation -> KnowledgePointTree.build(repository.findAll(), generation));
+
+  public List<KnowledgePointEntity> list(String subjectId) {
+    KnowledgePointTree tree = tree();
+    return subjectId != null ? tree.bySubject(subjectId) : tree.all();
+  }
+
+  public List<KnowledgePointTree.Node> getTree(String subjectId) {
+    return tree().roots(subjectId);
+  }
+
+  /** 把筛选条件中的章节/小节展开为自身及全部后代知识点 */
+  public Set<String> expandWithDescendants(Collection<String> ids) {
+    return tree().expand(ids);
+  }
+
+  /** 树接口的 ETag，知识点变化后改变 */
+  public String treeETag(String subjectId) {
+    return "\"kp-" + ETAG_PREFIX + "-" + tree().version() + "-" + subjectId + "\"";
+  }
+
+  /** 当前知识点树快照，过期或已作废时重建 */
+  public KnowledgePointTree tree() {
+    return snapshot.get();
+  }
+
+  @Transactional
+  public KnowledgePointEntity create(KnowledgePointEntity entity) {
+    KnowledgePointEntity saved = repository.save(Objects.requireNonNull(entity));
+    invalidateTree();
+    return saved;
+  }
+
+  @Transactional
+  public Optional<KnowledgePointEntity> update(String id, KnowledgePointEntity entity) {
+    return repository
+        .findById(Objects.requireNonNull(id))
+        .map(
+            existing -> {
+              String parentId = entity.getParentId();
+              if (parentId != null && tree().subtree(id).contains(parentId)) {
+                throw new IllegalArgumentException("不能将知识点移动到自身或其下级知识点下");
+              }
+              existing.setName(entity.getName());
+              existing.setParentId(parentId);
+              existing.setSortOrder(entity.getSortOrder());
+              existing.setLevel(entity.getLevel());
+              KnowledgePointEntity saved = repository.save(existing);
+              invalidateTree();
+              return saved;
+            });
+  }
+
+  @Transactional
+  public void delete(String id) {
+    repository.deleteById(Objects.requireNonNull(id));
+    invalidateTree();
+  }
+
+  private void invalidateTree() {
+    snapshot.invalidate();
+  }
+}
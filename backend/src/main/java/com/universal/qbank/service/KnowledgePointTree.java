@@ -0,0 +1,150 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.KnowledgePointEntity;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 知识点树的不可变快照。
+ *
+ * <p>构建时为每个节点预先算好子树（自身 + 全部后代）的 id 集合，按章节筛选题目时直接查表展开，不再逐层查询。由 {@link
+ * KnowledgePointService} 在知识点写操作提交后作废、下次读取时整体重建。
+ */
+public final class KnowledgePointTree {
+
+  /** 树节点 */
+  public record Node(
+      String id,
+      String name,
+      String parentId,
+      String subjectId,
+      String level,
+      Integer sortOrder,
+      List<Node> children) {}
+
+  private static final Comparator<KnowledgePointEntity> BY_SORT_ORDER =
+      Comparator.comparingInt(k -> k.getSortOrder() != null ? k.getSortOrder() : 0);
+
+  private final List<KnowledgePointEntity> all;
+
+  private final Map<String, List<KnowledgePointEntity>> bySubject;
+
+  private final List<Node> roots;
+
+  private final Map<String, Set<String>> subtreeIds;
+
+  private final long version;
+
+  private KnowledgePointTree(
+      List<KnowledgePointEntity> all,
+      Map<String, List<KnowledgePointEntity>> bySubject,
+      List<Node> roots,
+      Map<String, Set<String>> subtreeIds,
+      long version) {
+    this.all = all;
+    this.bySubject = bySubject;
+    this.roots = roots;
+    this.subtreeIds = subtreeIds;
+    this.version = version;
+  }
+
+  /** 由全部知识点构建；父节点不存在的知识点作为根节点 */
+  static KnowledgePointTree build(List<KnowledgePointEntity> entities, long version) {
+    List<KnowledgePointEntity> sorted = entities.stream().sorted(BY_SORT_ORDER).toList();
+    Set<String> ids = sorted.stream().map(KnowledgePointEntity::getId).collect(Collectors.toSet());
+    Map<String, List<KnowledgePointEntity>> byParent =
+        sorted.stream()
+            .filter(k -> k.getParentId() != null && ids.contains(k.getParentId()))
+            .collect(Collectors.groupingBy(KnowledgePointEntity::getParentId));
+    Map<String, Set<String>> subtreeIds = new HashMap<>();
+    Set<String> visited = new HashSet<>();
+    List<Node> roots = new ArrayList<>();
+    for (KnowledgePointEntity kp : sorted) {
+      if (kp.getParentId() == null || !ids.contains(kp.getParentId())) {
+        roots.add(toNode(kp, byParent, subtreeIds, visited));
+      }
+    }
+    Map<String, List<KnowledgePointEntity>> bySubject =
+        sorted.stream()
+            .filter(k -> k.getSubjectId() != null)
+            .collect(Collectors.groupingBy(KnowledgePointEntity::getSubjectId));
+    bySubject.replaceAll((subject, list) -> List.copyOf(list));
+    return new KnowledgePointTree(
+        sorted, Map.copyOf(bySubject), List.copyOf(roots), Map.copyOf(subtreeIds), version);
+  }
+
+  private static Node toNode(
+      KnowledgePointEntity kp,
+      Map<String, List<KnowledgePointEntity>> byParent,
+      Map<String, Set<String>> subtreeIds,
+      Set<String> visited) {
+    visited.add(kp.getId());
+    Set<String> subtree = new LinkedHashSet<>();
+    subtree.add(kp.getId());
+    List<Node> children = new ArrayList<>();
+    for (KnowledgePointEntity child : byParent.getOrDefault(kp.getId(), List.of())) {
+      // 数据中存在环时跳过，避免无限递归
+      if (!visited.contains(child.getId())) {
+        children.add(toNode(child, byParent, subtreeIds, visited));
+        subtree.addAll(subtreeIds.get(child.getId()));
+      }
+    }
+    subtreeIds.put(kp.getId(), Set.copyOf(subtree));
+    return new Node(
+        kp.getId(),
+        kp.getName(),
+        kp.getParentId(),
+        kp.getSubjectId(),
+        kp.getLevel(),
+        kp.getSortOrder(),
+        List.copyOf(children));
+  }
+
+  /** 全部知识点，按 sortOrder 排序 */
+  public List<KnowledgePointEntity> all() {
+    return all;
+  }
+
+  public List<KnowledgePointEntity> bySubject(String subjectId) {
+    return bySubject.getOrDefault(subjectId, List.of());
+  }
+
+  /** 树的根节点；指定科目时只返回该科目的根 */
+  public List<Node> roots(String subjectId) {
+    if (subjectId == null) {
+      return roots;
+    }
+    return roots.stream().filter(n -> subjectId.equals(n.subjectId())).toList();
+  }
+
+  /** 自身及全部后代的 id；未知 id 原样返回 */
+  public Set<String> subtree(String id) {
+    return subtreeIds.getOrDefault(id, Set.of(id));
+  }
+
+  /** 把一组知识点展开为它们的子树并集 */
+  public Set<String> expand(Collection<String> ids) {
+    Set<String> expanded = new LinkedHashSet<>();
+    for (String id : ids) {
+      expanded.addAll(subtree(id));
+    }
+    return expanded;
+  }
+
+  public boolean contains(String id) {
+    return subtreeIds.containsKey(id);
+  }
+
+  /** 快照版本号，写操作后递增，用作树接口的 ETag */
+  public long version() {
+    return version;
+  }
+}
@@ -0,0 +1,313 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.common.util.RankedSkipList;
+import com.universal.qbank.entity.StudentStatsEntity;
+import com.universal.qbank.entity.UserEntity;
+import com.universal.qbank.entity.UserOrganizationEntity;
+import com.universal.qbank.repository.StudentStatsRepository;
+import com.universal.qbank.repository.UserOrganizationRepository;
+import com.universal.qbank.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 内存排行榜。
+ *
+ * <p>全局榜与每个班级榜各维护一个 {@link RankedSkipList}，按正确题数、答题总数降序排列（与原 SQL 排序一致），
+ * 查询前 N 名与个人排名均为 O(log n)，不访问数据库。统计变化与班级成员变化通过事件增量维护；
+ * 角色变更、昵称修改等低频变化由定时全量重建兜底。
+ */
+@Service
+public class LeaderboardService {
+
+  private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+  private static final List<String> STUDENT_ROLES = List.of("USER", "STUDENT");
+
+  private static final Comparator<Entry> ORDER =
+      Comparator.comparingLong(Entry::correct)
+          .reversed()
+          .thenComparing(Comparator.comparingLong(Entry::answered).reversed())
+          .thenComparing(Entry::userId);
+
+  @Autowired private StudentStatsRepository studentStatsRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private UserOrganizationRepository userOrganizationRepository;
+
+  private Board board = new Board();
+
+  /** 重建期间到达的事件，重建完成后重放（事件携带绝对值，重放是幂等的） */
+  private List<Object> pendingDuringRebuild = null;
+
+  private volatile boolean ready = false;
+
+  private record Entry(
+      String userId,
+      String nickname,
+      long correct,
+      long answered,
+      int streak,
+      LocalDate lastPracticeDate) {
+
+    Entry withStats(StudentStatsChangedEvent e) {
+      return new Entry(
+          userId,
+          nickname,
+          e.correctAnswers(),
+          e.totalQuestionsAnswered(),
+          e.currentStreak(),
+          e.lastPracticeDate());
+    }
+  }
+
+  /** 一份完整的榜单状态，重建时整体替换 */
+  private static final class Board {
+    final Map<String, Entry> entries = new HashMap<>();
+    final RankedSkipList<Entry> global = new RankedSkipList<>(ORDER);
+    final Map<String, RankedSkipList<Entry>> byOrg = new HashMap<>();
+    final Map<String, Set<String>> orgsByUser = new HashMap<>();
+
+    /** 统计只增不减；同一学生并发交卷的事件可能逆序到达，较旧（作答数更少）的不覆盖较新的 */
+    void put(Entry entry) {
+      Entry current = entries.get(entry.userId());
+      if (current != null && entry.answered() < current.answered()) {
+        return;
+      }
+      Entry old = entries.put(entry.userId(), entry);
+      Set<String> orgs = orgsByUser.getOrDefault(entry.userId(), Set.of());
+      if (old != null) {
+        if (old.answered() > 0) {
+          global.remove(old);
+        }
+        for (String orgId : orgs) {
+          byOrg.get(orgId).remove(old);
+        }
+      }
+      // 全局榜只包含有答题记录的学生，班级榜包含全部成员
+      if (entry.answered() > 0) {
+        global.insert(entry);
+      }
+      for (String orgId : orgs) {
+        byOrg.get(orgId).insert(entry);
+      }
+    }
+
+    void join(String userId, String orgId) {
+      if (!orgsByUser.computeIfAbsent(userId, k -> new HashSet<>()).add(orgId)) {
+        return;
+      }
+      RankedSkipList<Entry> list = byOrg.computeIfAbsent(orgId, k -> new RankedSkipList<>(ORDER));
+      Entry entry = entries.get(userId);
+      if (entry != null) {
+        list.insert(entry);
+      }
+    }
+
+    void leave(String userId, String orgId) {
+      Set<String> orgs = orgsByUser.get(userId);
+      if (orgs == null || !orgs.remove(orgId)) {
+        return;
+      }
+      Entry entry = entries.get(userId);
+      RankedSkipList<Entry> list = byOrg.get(orgId);
+      if (entry != null && list != null) {
+        list.remove(entry);
+      }
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.leaderboard.rebuild-interval-ms:600000}",
+      fixedDelayString = "${app.leaderboard.rebuild-interval-ms:600000}")
+  public void scheduledRebuild() {
+    rebuild();
+  }
+
+  /** 从数据库全量重建榜单 */
+  public void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    synchronized (this) {
+      pendingDuringRebuild = new ArrayList<>();
+    }
+    Board fresh = new Board();
+    try {
+      Map<String, StudentStatsEntity> statsByUser = new HashMap<>();
+      for (StudentStatsEntity stats : studentStatsRepository.findAll()) {
+        statsByUser.put(stats.getUserId(), stats);
+      }
+      for (UserEntity user : userRepository.findByRoleIn(STUDENT_ROLES)) {
+        StudentStatsEntity stats = statsByUser.get(user.getId());
+        fresh.entries.put(user.getId(), toEntry(user, stats));
+      }
+      for (UserOrganizationEntity membership : userOrganizationRepository.findAll()) {
+        fresh.join(membership.getUserId(), membership.getOrganizationId());
+      }
+      for (Entry entry : fresh.entries.values()) {
+        if (entry.answered() > 0) {
+          fresh.global.insert(entry);
+        }
+      }
+    } catch (RuntimeException ex) {
+      synchronized (this) {
+        pendingDuringRebuild = null;
+      }
+      log.warn("Leaderboard rebuild failed, keeping previous state", ex);
+      return;
+    }
+
+    synchronized (this) {
+      List<Object> pending = pendingDuringRebuild;
+      pendingDuringRebuild = null;
+      board = fresh;
+      for (Object event : pending) {
+        apply(event);
+      }
+      ready = true;
+    }
+    log.info(
+        "Leaderboard rebuilt: {} students, {} organizations in {} ms",
+        fresh.entries.size(),
+        fresh.byOrg.size(),
+        System.currentTimeMillis() - startedAt);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStatsChanged(StudentStatsChangedEvent event) {
+    accept(event);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(OrganizationMembershipChangedEvent event) {
+    accept(event);
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * 前 N 名。
+   *
+   * @param orgId 为空时返回全局榜
+   */
+  public synchronized List<StudentStatsEntity> top(String orgId, int limit) {
+    RankedSkipList<Entry> list = listFor(orgId);
+    if (list == null) {
+      return new ArrayList<>();
+    }
+    return list.range(0, limit).stream().map(LeaderboardService::toStats).toList();
+  }
+
+  /**
+   * 查询学生在榜单中的名次。
+   *
+   * @param orgId 为空时查询全局榜
+   * @return rank 从 1 开始，未上榜时为 null
+   */
+  public synchronized Map<String, Object> rankOf(String userId, String orgId) {
+    RankedSkipList<Entry> list = listFor(orgId);
+    Entry entry = board.entries.get(userId);
+    Map<String, Object> result = new LinkedHashMap<>();
+    int rank = list == null || entry == null ? 0 : list.rank(entry);
+    result.put("userId", userId);
+    result.put("orgId", orgId);
+    result.put("rank", rank == 0 ? null : rank);
+    result.put("total", list == null ? 0 : list.size());
+    result.put("stats", entry == null ? null : toStats(entry));
+    return result;
+  }
+
+  private RankedSkipList<Entry> listFor(String orgId) {
+    return orgId == null || orgId.isEmpty() ? board.global : board.byOrg.get(orgId);
+  }
+
+  private synchronized void accept(Object event) {
+    if (pendingDuringRebuild != null) {
+      pendingDuringRebuild.add(event);
+    }
+    apply(event);
+  }
+
+  private void apply(Object event) {
+    if (event instanceof StudentStatsChangedEvent stats) {
+      Entry current = board.entries.get(stats.userId());
+      if (current == null) {
+        current = lookupStudent(stats.userId());
+        if (current == null) {
+          return;
+        }
+      }
+      board.put(current.withStats(stats));
+    } else if (event instanceof OrganizationMembershipChangedEvent membership) {
+      if (membership.joined()) {
+        if (!board.entries.containsKey(membership.userId())) {
+          Entry entry = lookupStudent(membership.userId());
+          if (entry == null) {
+            return;
+          }
+          board.entries.put(entry.userId(), entry);
+          if (entry.answered() > 0) {
+            board.global.insert(entry);
+          }
+        }
+        board.join(membership.userId(), membership.organizationId());
+      } else {
+        board.leave(membership.userId(), membership.organizationId());
+      }
+    }
+  }
+
+  /** 上次重建之后新注册的学生：读取一次用户与统计行，非学生角色返回 null */
+  private Entry lookupStudent(String userId) {
+    UserEntity user = userRepository.findById(userId).orElse(null);
+    if (user == null || !STUDENT_ROLES.contains(user.getRole())) {
+      return null;
+    }
+    return toEntry(user, studentStatsRepository.findByUserId(userId).orElse(null));
+  }
+
+  private static Entry toEntry(UserEntity user, StudentStatsEntity stats) {
+    String nickname = user.getNickname() != null ? user.getNickname() : user.getUsername();
+    if (stats == null) {
+      return new Entry(user.getId(), nickname, 0L, 0L, 0, null);
+    }
+    return new Entry(
+        user.getId(),
+        nickname,
+        stats.getCorrectAnswers() == null ? 0L : stats.getCorrectAnswers(),
+        stats.getTotalQuestionsAnswered() == null ? 0L : stats.getTotalQuestionsAnswered(),
+        stats.getCurrentStreak() == null ? 0 : stats.getCurrentStreak(),
+        stats.getLastPracticeDate());
+  }
+
+  private static StudentStatsEntity toStats(Entry entry) {
+    StudentStatsEntity stats = new StudentStatsEntity();
+    stats.setUserId(entry.userId());
+    stats.setNickname(entry.nickname() != null ? entry.nickname() : entry.userId());
+    stats.setCorrectAnswers(entry.correct());
+    stats.setTotalQuestionsAnswered(entry.answered());
+    stats.setCurrentStreak(entry.streak());
+    stats.setLastPracticeDate(entry.lastPracticeDate());
+    return stats;
+  }
+}
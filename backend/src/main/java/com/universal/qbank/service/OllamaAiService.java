@@ -4,6 +4,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.universal.qbank.config.OllamaProperties;
 import com.universal.qbank.entity.QuestionEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -20,8 +23,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -32,11 +39,35 @@ public class OllamaAiService {
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final SystemConfigService systemConfigService;
   private final OllamaProperties ollamaProperties;
+  private final Semaphore chatPermits;
+  private final MeterRegistry meterRegistry;
+  private final HttpClient httpClient;
 
   public OllamaAiService(
-      SystemConfigService systemConfigService, OllamaProperties ollamaProperties) {
+      SystemConfigService systemConfigService,
+      OllamaProperties ollamaProperties,
+      MeterRegistry meterRegistry,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
     this.systemConfigService = systemConfigService;
     this.ollamaProperties = ollamaProperties;
+    this.meterRegistry = meterRegistry;
+    this.httpClient = buildHttpClient(ollamaProperties.effectiveTimeoutMs(), virtualThreads);
+    this.chatPermits = new Semaphore(ollamaProperties.effectiveMaxConcurrentRequests(), true);
+  }
+
+  /** 所有模型请求共用一个连接池；虚拟线程模式下异步回调也运行在虚拟线程上 */
+  private static HttpClient buildHttpClient(long timeoutMs, boolean virtualThreads) {
+    HttpClient.Builder builder =
+        HttpClient.newBuilder().connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)));
+    if (virtualThreads) {
+      builder.executor(new VirtualThreadTaskExecutor("ollama-http-"));
+    }
+    return builder.build();
+  }
+
+  /** 模型请求的全局并发上限 */
+  public int maxConcurrentChats() {
+    return ollamaProperties.effectiveMaxConcurrentRequests();
   }
 
   private String getEffectiveModel() {
@@ -59,10 +90,6 @@ public class OllamaAiService {
   public List<String> listAvailableModels() {
     try {
       long timeoutMs = ollamaProperties.effectiveTimeoutMs();
-      HttpClient httpClient =
-          HttpClient.newBuilder()
-              .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
-              .build();
       HttpRequest request =
           HttpRequest.newBuilder()
               .uri(URI.create(ollamaProperties.normalizedBaseUrl() + "/api/tags"))
@@ -166,12 +193,6 @@ public class OllamaAiService {
     }
 
     try {
-      long timeoutMs = ollamaProperties.effectiveTimeoutMs();
-      HttpClient httpClient =
-          HttpClient.newBuilder()
-              .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
-              .build();
-
       Map<String, Object> body = new LinkedHashMap<>();
       body.put("name", target);
       body.put("stream", false);
@@ -214,12 +235,6 @@ public class OllamaAiService {
     }
 
     try {
-      long timeoutMs = ollamaProperties.effectiveTimeoutMs();
-      HttpClient httpClient =
-          HttpClient.newBuilder()
-              .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
-              .build();
-
       Map<String, Object> body = new LinkedHashMap<>();
       body.put("name", target);
       body.put("stream", true);
@@ -402,11 +417,23 @@ public class OllamaAiService {
       throw new RuntimeException("AI 功能未开启，请设置 AI_OLLAMA_ENABLED=true");
     }
 
+    long timeoutMs = ollamaProperties.effectiveTimeoutMs();
+    String effectiveModel = getEffectiveModel();
+    String modelTag = effectiveModel == null ? "unknown" : effectiveModel;
+    Timer.Sample sample = Timer.start(meterRegistry);
     try {
-      long timeoutMs = ollamaProperties.effectiveTimeoutMs();
-      HttpClient httpClient =
-          HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeoutMs)).build();
+      if (!chatPermits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        recordChat(sample, modelTag, "rejected");
+        throw new RuntimeException("AI 服务繁忙，请稍后重试");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      recordChat(sample, modelTag, "rejected");
+      throw new RuntimeException("AI 调用失败：" + ex.getMessage(), ex);
+    }
 
+    String outcome = "error";
+    try {
       List<Map<String, Object>> messages = new ArrayList<>();
       messages.add(Map.of("role", "system", "content", safe(systemPrompt)));
 
@@ -419,7 +446,6 @@ public class OllamaAiService {
       messages.add(userMessage);
 
       Map<String, Object> body = new LinkedHashMap<>();
-      String effectiveModel = getEffectiveModel();
       body.put("model", effectiveModel);
       body.put("stream", false);
       body.put("messages", messages);
@@ -450,16 +476,44 @@ public class OllamaAiService {
       }
 
       JsonNode root = objectMapper.readTree(response.body());
+      recordTokens(modelTag, "prompt", root.path("prompt_eval_count").asLong(0));
+      recordTokens(modelTag, "completion", root.path("eval_count").asLong(0));
       String content = root.path("message").path("content").asText("").trim();
       if (content.isBlank()) {
+        outcome = "empty";
         throw new RuntimeException(DEFAULT_FALLBACK_MESSAGE);
       }
+      outcome = "success";
       return content;
     } catch (IOException | InterruptedException ex) {
       if (ex instanceof InterruptedException) {
         Thread.currentThread().interrupt();
       }
       throw new RuntimeException("AI 调用失败：" + ex.getMessage(), ex);
+    } finally {
+      chatPermits.release();
+      recordChat(sample, modelTag, outcome);
+    }
+  }
+
+  /** 模型调用耗时（含排队），按模型与结果区分 */
+  private void recordChat(Timer.Sample sample, String model, String outcome) {
+    sample.stop(
+        Timer.builder("qbank.ai.chat")
+            .description("Ollama chat latency including permit wait")
+            .tag("model", model)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+  }
+
+  private void recordTokens(String model, String type, long tokens) {
+    if (tokens > 0) {
+      Counter.builder("qbank.ai.tokens")
+          .description("Tokens reported by Ollama")
+          .tag("model", model)
+          .tag("type", type)
+          .register(meterRegistry)
+          .increment(tokens);
     }
   }
 
@@ -12,6 +12,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class OperationLogService {
@@ -55,6 +56,7 @@ public class OperationLogService {
   }
 
   /** 搜索日志 */
+  @Transactional(readOnly = true)
   public Page<OperationLogEntity> searchLogs(String keyword, String action, int page, int size) {
     Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
 
@@ -65,12 +67,14 @@ public class OperationLogService {
   }
 
   /** 获取所有日志 */
+  @Transactional(readOnly = true)
   public Page<OperationLogEntity> getAllLogs(int page, int size) {
     Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
     return operationLogRepository.findAll(pageable);
   }
 
   /** 统计今日日志数量 */
+  @Transactional(readOnly = true)
   public long countTodayLogs() {
     OffsetDateTime startOfDay =
         OffsetDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
@@ -78,6 +82,7 @@ public class OperationLogService {
   }
 
   /** 统计指定操作类型的数量 */
+  @Transactional(readOnly = true)
   public long countByAction(String action) {
     return operationLogRepository.countByAction(action);
   }
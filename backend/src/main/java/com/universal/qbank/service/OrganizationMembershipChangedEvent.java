@@ -0,0 +1,9 @@
+package com.universal.qbank.service;
+
+/**
+ * 用户加入或退出班级后发布的事件。
+ *
+ * @param joined true 为加入，false 为退出
+ */
+public record OrganizationMembershipChangedEvent(
+    String userId, String organizationId, boolean joined) {}
@@ -2,53 +2,107 @@ package com.universal.qbank.service;
 
 import com.universal.qbank.entity.OrganizationEntity;
 import com.universal.qbank.entity.UserOrganizationEntity;
+import com.universal.qbank.repository.OrganizationClosureRepository;
 import com.universal.qbank.repository.OrganizationRepository;
 import com.universal.qbank.repository.UserOrganizationRepository;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * 组织架构服务。
+ *
+ * <p>层级关系同时保存在 organizations.parentId 与闭包表 organization_closure 中，子树/祖先/成员统计各用一条走索引的
+ * 查询完成；整棵组织树以不可变快照缓存，组织写操作提交后作废并在下次读取时重建。
+ */
 @Service
 public class OrganizationService {
 
+  private static final Logger log = LoggerFactory.getLogger(OrganizationService.class);
+
   @Autowired private OrganizationRepository organizationRepository;
+  @Autowired private OrganizationClosureRepository organizationClosureRepository;
   @Autowired private UserOrganizationRepository userOrganizationRepository;
+  @Autowired private ApplicationEventPublisher eventPublisher;
 
   private static final String INVITE_CODE_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
   private static final int INVITE_CODE_LENGTH = 6;
 
+  private static final List<String> STUDENT_ROLES = List.of("USER", "STUDENT");
+
+  /** 闭包表回填时的最大层级，防止脏数据中的环导致死循环 */
+  private static final int MAX_DEPTH = 32;
+
+  private final SnapshotHolder<OrganizationTreeSnapshot> snapshot =
+      new SnapshotHolder<>(
+          generation -> OrganizationTreeSnapshot.build(organizationRepository.findAll()));
+
+  /** 启动时校验闭包表与组织表一致（未执行迁移或绕过服务写入时），不一致则整表重建 */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void ensureClosureTable() {
+    long organizations = organizationRepository.count();
+    if (organizationClosureRepository.countByDepth(0) == organizations) {
+      return;
+    }
+    organizationClosureRepository.deleteAllInBatch();
+    organizationClosureRepository.insertAllSelfRows();
+    int depth = 0;
+    while (depth < MAX_DEPTH && organizationClosureRepository.insertChildPaths(depth) > 0) {
+      depth++;
+    }
+    log.info(
+        "Rebuilt organization closure table: {} organizations, max depth {}", organizations, depth);
+  }
+
   /** 获取组织树 */
-  public List<OrganizationEntity> getOrganizationTree() {
-    List<OrganizationEntity> all = organizationRepository.findAll();
-    Map<String, List<OrganizationEntity>> byParent =
-        all.stream()
-            .filter(o -> o.getParentId() != null)
-            .collect(Collectors.groupingBy(OrganizationEntity::getParentId));
-
-    List<OrganizationEntity> roots =
-        all.stream().filter(o -> o.getParentId() == null).collect(Collectors.toList());
-
-    roots.forEach(root -> buildChildren(root, byParent));
-    return roots;
+  public List<OrganizationTreeSnapshot.Node> getOrganizationTree() {
+    return treeSnapshot().roots();
+  }
+
+  /** 当前组织树快照，过期或已作废时重建 */
+  public OrganizationTreeSnapshot treeSnapshot() {
+    return snapshot.get();
+  }
+
+  private void invalidateTree() {
+    snapshot.invalidate();
+  }
+
+  /** 全部后代组织（不含自身），按层级排列 */
+  public List<OrganizationEntity> getDescendants(String id) {
+    return organizationClosureRepository.findDescendants(id);
   }
 
-  private void buildChildren(
-      OrganizationEntity parent, Map<String, List<OrganizationEntity>> byParent) {
-    List<OrganizationEntity> children = byParent.getOrDefault(parent.getId(), new ArrayList<>());
-    children.sort(
-        (a, b) -> {
-          int sa = a.getSortOrder() != null ? a.getSortOrder() : 0;
-          int sb = b.getSortOrder() != null ? b.getSortOrder() : 0;
-          return Integer.compare(sa, sb);
-        });
-    parent.setChildren(children);
-    children.forEach(child -> buildChildren(child, byParent));
+  /** 祖先组织，从根到直接上级 */
+  public List<OrganizationEntity> getAncestors(String id) {
+    return organizationClosureRepository.findAncestors(id);
+  }
+
+  /** 下级组织数量（不含自身） */
+  public int countDescendants(String id) {
+    return Math.max(0, organizationClosureRepository.findSubtreeIds(id).size() - 1);
+  }
+
+  /** 子树内的成员人数（按用户去重） */
+  public long countSubtreeMembers(String id) {
+    return organizationClosureRepository.countSubtreeMembers(id);
+  }
+
+  /** 子树内全部学生 ID，如某学院下所有班级的学生 */
+  public List<String> getSubtreeStudentIds(String id) {
+    return organizationClosureRepository.findSubtreeMemberIds(id, STUDENT_ROLES);
   }
 
   /** 获取单个组织 */
@@ -63,7 +117,13 @@ public class OrganizationService {
     if ("CLASS".equals(org.getType())) {
       org.setInviteCode(generateInviteCode());
     }
-    return organizationRepository.save(org);
+    OrganizationEntity saved = organizationRepository.save(org);
+    organizationClosureRepository.insertSelf(saved.getId());
+    if (saved.getParentId() != null) {
+      organizationClosureRepository.attachSubtree(saved.getId(), saved.getParentId());
+    }
+    invalidateTree();
+    return saved;
   }
 
   /** 更新组织 */
@@ -71,6 +131,7 @@ public class OrganizationService {
   public OrganizationEntity update(String id, OrganizationEntity org) {
     OrganizationEntity existing =
         organizationRepository.findById(id).orElseThrow(() -> new RuntimeException("Not found"));
+    String previousParentId = existing.getParentId();
     existing.setName(org.getName());
     existing.setCode(org.getCode());
     existing.setType(org.getType());
@@ -81,26 +142,36 @@ public class OrganizationService {
     if (existing.getCreatedBy() == null && org.getCreatedBy() != null) {
       existing.setCreatedBy(org.getCreatedBy());
     }
+    if (!Objects.equals(previousParentId, org.getParentId())) {
+      moveSubtree(id, org.getParentId());
+    }
+    invalidateTree();
     return organizationRepository.save(existing);
   }
 
+  /** 把以 id 为根的子树移到 newParentId 下（为 null 时成为根节点） */
+  private void moveSubtree(String id, String newParentId) {
+    if (newParentId != null
+        && organizationClosureRepository.findSubtreeIds(id).contains(newParentId)) {
+      throw new IllegalArgumentException("不能将组织移动到其自身或下级组织下");
+    }
+    organizationClosureRepository.detachSubtree(id);
+    if (newParentId != null) {
+      organizationClosureRepository.attachSubtree(id, newParentId);
+    }
+  }
+
   /** 删除组织（级联删除所有子组织） */
   @Transactional
   public void delete(String id) {
-    // 递归删除所有子组织
-    deleteRecursively(id);
-  }
-
-  /** 递归删除组织及其所有子组织 */
-  private void deleteRecursively(String id) {
-    // 先获取所有直接子组织
-    List<OrganizationEntity> children = organizationRepository.findByParentIdOrderBySortOrder(id);
-    // 递归删除每个子组织
-    for (OrganizationEntity child : children) {
-      deleteRecursively(child.getId());
+    // 闭包表一次查出整棵子树
+    List<String> subtreeIds = organizationClosureRepository.findSubtreeIds(id);
+    if (subtreeIds.isEmpty()) {
+      subtreeIds = List.of(id);
     }
-    // 删除当前组织
-    organizationRepository.deleteById(id);
+    organizationRepository.deleteAllByIdInBatch(subtreeIds);
+    organizationClosureRepository.deleteByDescendantIds(subtreeIds);
+    invalidateTree();
   }
 
   /** 按类型获取组织列表 */
@@ -140,6 +211,7 @@ public class OrganizationService {
     String newCode = generateInviteCode();
     org.setInviteCode(newCode);
     organizationRepository.save(org);
+    invalidateTree();
     return newCode;
   }
 
@@ -166,6 +238,7 @@ public class OrganizationService {
     uo.setOrganizationId(org.getId());
     uo.setRoleInOrg("MEMBER");
     userOrganizationRepository.save(uo);
+    eventPublisher.publishEvent(new OrganizationMembershipChangedEvent(userId, org.getId(), true));
 
     return org;
   }
@@ -199,6 +272,7 @@ public class OrganizationService {
     allOrgIds.addAll(createdOrgIds);
 
     List<OrganizationEntity> orgs = organizationRepository.findAllById(allOrgIds);
+    OrganizationTreeSnapshot tree = treeSnapshot();
 
     // 创建用户角色映射（加入的组织）
     Map<String, String> roleMap =
@@ -241,28 +315,22 @@ public class OrganizationService {
               }
               result.put("isCreator", isCreator);
 
-              // 获取父级组织信息（学院、学校）
-              if (org.getParentId() != null) {
-                organizationRepository
-                    .findById(org.getParentId())
-                    .ifPresent(
-                        parent -> {
-                          result.put("parentName", parent.getName());
-                          result.put("parentType", parent.getType());
-
-                          // 如果父级是学院，继续获取学校
-                          if (parent.getParentId() != null) {
-                            organizationRepository
-                                .findById(parent.getParentId())
-                                .ifPresent(
-                                    grandParent -> {
-                                      result.put("schoolName", grandParent.getName());
-                                    });
-                          } else if ("SCHOOL".equals(parent.getType())) {
-                            result.put("schoolName", parent.getName());
-                          }
-                        });
-              }
+              // 获取父级组织信息（学院、学校），从组织树快照中读取
+              tree.find(org.getParentId())
+                  .ifPresent(
+                      parent -> {
+                        result.put("parentName", parent.name());
+                        result.put("parentType", parent.type());
+
+                        // 如果父级是学院，继续获取学校
+                        if (parent.parentId() != null) {
+                          tree.find(parent.parentId())
+                              .ifPresent(
+                                  grandParent -> result.put("schoolName", grandParent.name()));
+                        } else if ("SCHOOL".equals(parent.type())) {
+                          result.put("schoolName", parent.name());
+                        }
+                      });
 
               // 获取班级成员数量
               long memberCount = userOrganizationRepository.countByOrganizationId(org.getId());
@@ -277,5 +345,6 @@ public class OrganizationService {
   @Transactional
   public void leaveOrganization(String userId, String orgId) {
     userOrganizationRepository.deleteByUserIdAndOrganizationId(userId, orgId);
+    eventPublisher.publishEvent(new OrganizationMembershipChangedEvent(userId, orgId, false));
   }
 }
@@ -0,0 +1,110 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.OrganizationEntity;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 组织树的不可变快照。
+ *
+ * <p>由 {@link OrganizationService} 在组织写操作提交后作废、下次读取时整体重建，读请求之间共享同一份对象，
+ * 不需要加锁。节点字段与 {@link OrganizationEntity} 的 JSON 输出保持一致。
+ */
+public final class OrganizationTreeSnapshot {
+
+  /** 树节点 */
+  public record Node(
+      String id,
+      String name,
+      String code,
+      String type,
+      String parentId,
+      Integer sortOrder,
+      String status,
+      String inviteCode,
+      String createdBy,
+      OffsetDateTime createdAt,
+      OffsetDateTime updatedAt,
+      List<Node> children) {}
+
+  private static final Comparator<OrganizationEntity> BY_SORT_ORDER =
+      Comparator.comparingInt(o -> o.getSortOrder() != null ? o.getSortOrder() : 0);
+
+  private final List<Node> roots;
+
+  private final Map<String, Node> byId;
+
+  private OrganizationTreeSnapshot(List<Node> roots, Map<String, Node> byId) {
+    this.roots = roots;
+    this.byId = byId;
+  }
+
+  /** 由全部组织构建；父组织不存在的节点与原实现一样不出现在树中 */
+  static OrganizationTreeSnapshot build(List<OrganizationEntity> all) {
+    Map<String, List<OrganizationEntity>> byParent =
+        all.stream()
+            .filter(o -> o.getParentId() != null)
+            .collect(Collectors.groupingBy(OrganizationEntity::getParentId));
+    Map<String, Node> byId = new HashMap<>();
+    Set<String> visited = new HashSet<>();
+    List<Node> roots =
+        all.stream()
+            .filter(o -> o.getParentId() == null)
+            .sorted(BY_SORT_ORDER)
+            .map(root -> toNode(root, byParent, byId, visited))
+            .toList();
+    return new OrganizationTreeSnapshot(roots, Map.copyOf(byId));
+  }
+
+  private static Node toNode(
+      OrganizationEntity org,
+      Map<String, List<OrganizationEntity>> byParent,
+      Map<String, Node> byId,
+      Set<String> visited) {
+    visited.add(org.getId());
+    List<Node> children = new ArrayList<>();
+    for (OrganizationEntity child :
+        byParent.getOrDefault(org.getId(), List.of()).stream().sorted(BY_SORT_ORDER).toList()) {
+      // 数据中存在环时跳过，避免无限递归
+      if (!visited.contains(child.getId())) {
+        children.add(toNode(child, byParent, byId, visited));
+      }
+    }
+    Node node =
+        new Node(
+            org.getId(),
+            org.getName(),
+            org.getCode(),
+            org.getType(),
+            org.getParentId(),
+            org.getSortOrder(),
+            org.getStatus(),
+            org.getInviteCode(),
+            org.getCreatedBy(),
+            org.getCreatedAt(),
+            org.getUpdatedAt(),
+            List.copyOf(children));
+    byId.put(node.id(), node);
+    return node;
+  }
+
+  public List<Node> roots() {
+    return roots;
+  }
+
+  public Optional<Node> find(String id) {
+    return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+  }
+
+  public int size() {
+    return byId.size();
+  }
+}
@@ -0,0 +1,208 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.repository.ExamRepository;
+import com.universal.qbank.repository.OperationLogRepository;
+import com.universal.qbank.repository.PaperRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 管理后台概览统计快照（stale-while-revalidate）。
+ *
+ * <p>每个时间范围缓存一份概览数据：新鲜期内直接返回；过了新鲜期但未超过最长陈旧时间时先返回旧快照，同时在后台重算；
+ * 没有快照或快照过旧时才同步计算。同一范围同一时刻只有一次计算，计算时各项计数并发执行。定时任务持续刷新近期被访问过的范围，
+ * 正常情况下请求总能命中快照。
+ */
+@Service
+public class OverviewStatsCache {
+
+  private static final Logger log = LoggerFactory.getLogger(OverviewStatsCache.class);
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private PaperRepository paperRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private OperationLogRepository operationLogRepository;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  /** 快照在该时长内视为新鲜，直接返回 */
+  @Value("${app.stats.overview.fresh-ms:30000}")
+  private long freshMillis;
+
+  /** 超过该时长的快照不再返回，请求同步等待重算 */
+  @Value("${app.stats.overview.max-stale-ms:600000}")
+  private long maxStaleMillis;
+
+  /** 并发计数线程数 */
+  @Value("${app.stats.overview.threads:4}")
+  private int threads;
+
+  private record Snapshot(Map<String, Object> stats, long computedAt) {}
+
+  private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  private final Map<String, CompletableFuture<Snapshot>> inFlight = new ConcurrentHashMap<>();
+
+  /** 各范围最近一次被请求的时间，定时刷新只覆盖近期访问过的范围 */
+  private final Map<String, Long> lastAccessed = new ConcurrentHashMap<>();
+
+  /** 执行各项计数，与请求线程及其他任务线程池隔离 */
+  private ThreadPoolTaskExecutor countExecutor;
+
+  /** 执行整次重算（等待计数结果），与计数线程池分开，避免互相占满线程 */
+  private ThreadPoolTaskExecutor refreshExecutor;
+
+  @PostConstruct
+  void initExecutors() {
+    countExecutor = executor("stats-count-", Math.max(1, threads));
+    refreshExecutor = executor("stats-refresh-", 1);
+  }
+
+  @PreDestroy
+  void shutdownExecutors() {
+    refreshExecutor.shutdown();
+    countExecutor.shutdown();
+  }
+
+  /** 指定范围的概览数据，附带 snapshotAt（计算时刻） */
+  public Map<String, Object> get(String range) {
+    String key = StatisticsService.normalizeRange(range);
+    long now = System.currentTimeMillis();
+    lastAccessed.put(key, now);
+    Snapshot snapshot = snapshots.get(key);
+    long age = snapshot == null ? Long.MAX_VALUE : now - snapshot.computedAt();
+    if (age <= freshMillis) {
+      return snapshot.stats();
+    }
+    if (age <= maxStaleMillis) {
+      revalidate(key);
+      return snapshot.stats();
+    }
+    try {
+      return revalidate(key).join().stats();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  /** 定时刷新近期访问过的范围，长时间无人访问的范围丢弃快照 */
+  @Scheduled(
+      initialDelayString = "${app.stats.overview.refresh-interval-ms:30000}",
+      fixedDelayString = "${app.stats.overview.refresh-interval-ms:30000}")
+  public void scheduledRefresh() {
+    long now = System.currentTimeMillis();
+    lastAccessed.forEach(
+        (key, accessedAt) -> {
+          if (now - accessedAt > maxStaleMillis) {
+            lastAccessed.remove(key);
+            snapshots.remove(key);
+          } else {
+            revalidate(key);
+          }
+        });
+  }
+
+  /** 发起一次后台重算；已有进行中的重算时复用它 */
+  private CompletableFuture<Snapshot> revalidate(String key) {
+    return inFlight.computeIfAbsent(
+        key,
+        k ->
+            CompletableFuture.supplyAsync(() -> compute(k), refreshExecutor)
+                .whenComplete(
+                    (snapshot, ex) -> {
+                      inFlight.remove(k);
+                      if (snapshot != null) {
+                        snapshots.put(k, snapshot);
+                      } else {
+                        log.warn("Overview stats refresh for {} failed: {}", k, ex.getMessage());
+                      }
+                    }));
+  }
+
+  private Snapshot compute(String range) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    OffsetDateTime end = OffsetDateTime.now();
+    OffsetDateTime start = end.minusDays(StatisticsService.rangeDays(range));
+
+    // 用户统计（不包含管理员）
+    CompletableFuture<Long> teachers =
+        count(() -> userRepository.countByRoleIn(List.of("TEACHER")));
+    CompletableFuture<Long> students = count(() -> userRepository.countByRoleIn(List.of("USER")));
+    CompletableFuture<Long> questions = count(questionRepository::count);
+    CompletableFuture<Long> papers = count(paperRepository::count);
+    CompletableFuture<Long> exams = count(examRepository::count);
+    // 活跃用户（按选择时间范围统计，去重）
+    CompletableFuture<Long> activeUsers =
+        count(() -> operationLogRepository.countDistinctUsersByTimestampBetween(start, end));
+    // 新增用户（按选择时间范围）
+    CompletableFuture<Long> newUsers =
+        count(
+            () ->
+                userRepository.countByRoleInAndCreatedAtBetween(
+                    StatisticsService.USER_ROLES, start, end));
+    CompletableFuture.allOf(teachers, students, questions, papers, exams, activeUsers, newUsers)
+        .join();
+
+    long totalTeachers = teachers.join();
+    long totalStudents = students.join();
+    long totalUsers = totalTeachers + totalStudents; // 总用户数 = 教师 + 学生
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("totalUsers", totalUsers);
+    stats.put("totalTeachers", totalTeachers);
+    stats.put("totalStudents", totalStudents);
+    stats.put("totalQuestions", questions.join());
+    stats.put("totalPapers", papers.join());
+    stats.put("totalExams", exams.join());
+    stats.put("activeUsersToday", Math.min(activeUsers.join(), totalUsers));
+    stats.put("newUsersThisWeek", newUsers.join());
+    stats.put("snapshotAt", Instant.now().toString());
+    sample.stop(
+        Timer.builder("qbank.stats.overview.refresh")
+            .description("Time to recompute the admin overview statistics snapshot")
+            .tag("range", range)
+            .register(meterRegistry));
+    return new Snapshot(Map.copyOf(stats), System.currentTimeMillis());
+  }
+
+  private CompletableFuture<Long> count(Supplier<Long> query) {
+    return CompletableFuture.supplyAsync(query, countExecutor);
+  }
+
+  private static ThreadPoolTaskExecutor executor(String prefix, int size) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(size);
+    executor.setMaxPoolSize(size);
+    executor.setQueueCapacity(64);
+    executor.setThreadNamePrefix(prefix);
+    executor.initialize();
+    return executor;
+  }
+}
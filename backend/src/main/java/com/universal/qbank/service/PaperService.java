@@ -5,10 +5,13 @@ import com.universal.qbank.entity.PaperItemEntity;
 import com.universal.qbank.entity.QuestionEntity;
 import com.universal.qbank.repository.PaperRepository;
 import com.universal.qbank.repository.QuestionRepository;
+import io.micrometer.core.annotation.Timed;
 import java.util.*;
 import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PaperService {
@@ -17,14 +20,34 @@ public class PaperService {
 
   @Autowired private PaperRepository paperRepository;
 
+  @Autowired private ExamMetadataCache examMetadataCache;
+
+  @Autowired private ExamPaperPayloadCache examPaperPayloadCache;
+
   /**
    * Generate a paper with given total count. If typeCounts is provided, try to pick per-type
    * counts.
    */
+  @Timed(value = "qbank.paper.generate", description = "Random paper generation latency")
   public PaperEntity generatePaper(
       String title, int total, Map<String, Integer> typeCounts, String difficulty) {
     List<QuestionEntity> pool = questionRepository.findAll();
+    List<String> selectedIds = selectQuestionIds(pool, total, typeCounts, difficulty, new Random());
+
+    PaperEntity paper = new PaperEntity();
+    paper.setTitle(title == null ? "Generated Paper" : title);
+    paper.setQuestionIds(selectedIds);
 
+    return paperRepository.save(paper);
+  }
+
+  /** 从题目池中按难度过滤、先按题型配额再随机补足，返回至多 total 个题目 id */
+  static List<String> selectQuestionIds(
+      List<QuestionEntity> pool,
+      int total,
+      Map<String, Integer> typeCounts,
+      String difficulty,
+      Random rnd) {
     // filter by difficulty if provided
     if (difficulty != null && !difficulty.isEmpty()) {
       pool =
@@ -38,7 +61,6 @@ public class PaperService {
     }
 
     List<String> selectedIds = new ArrayList<>();
-    Random rnd = new Random();
 
     if (typeCounts != null && !typeCounts.isEmpty()) {
       // group by type
@@ -62,11 +84,7 @@ public class PaperService {
       if (!selectedIds.contains(q.getId())) selectedIds.add(q.getId());
     }
 
-    PaperEntity paper = new PaperEntity();
-    paper.setTitle(title == null ? "Generated Paper" : title);
-    paper.setQuestionIds(selectedIds.stream().limit(total).collect(Collectors.toList()));
-
-    return paperRepository.save(paper);
+    return selectedIds.stream().limit(total).collect(Collectors.toList());
   }
 
   public PaperEntity createManualPaper(String title, List<String> questionIds) {
@@ -101,7 +119,28 @@ public class PaperService {
     return paperRepository.save(paper);
   }
 
+  /** 加载试卷及其题目列表与结构（两条 SQL），返回的实体可在事务外读取，用于作答、阅卷、导出与详情 */
+  @Transactional(readOnly = true)
+  public Optional<PaperEntity> findPaperWithContents(Long id) {
+    Optional<PaperEntity> paper = paperRepository.findWithItemsById(id);
+    paper.ifPresent(p -> Hibernate.initialize(p.getQuestionIds()));
+    return paper;
+  }
+
+  /** 加载全部试卷及其题目列表与结构，集合按批次加载 */
+  @Transactional(readOnly = true)
+  public List<PaperEntity> findAllWithContents() {
+    List<PaperEntity> papers = paperRepository.findAll();
+    for (PaperEntity paper : papers) {
+      Hibernate.initialize(paper.getQuestionIds());
+      Hibernate.initialize(paper.getItems());
+    }
+    return papers;
+  }
+
   public void deletePaper(Long id) {
     paperRepository.deleteById(id);
+    examMetadataCache.invalidatePaper(id);
+    examPaperPayloadCache.invalidate(id);
   }
 }
@@ -0,0 +1,184 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.config.ImportProperties;
+import com.universal.qbank.entity.ImportJobEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 导入任务的分块写入器。
+ *
+ * <p>每个分块在独立事务中 persist + flush，借助 hibernate.jdbc.batch_size 合并为 JDBC 批量插入，并在同一事务内推进任务断点，
+ * 保证"已入库题目"与"断点位置"一致。分块失败时回滚并逐条重试，只有坏数据本身被记为失败。
+ */
+@Component
+public class QuestionBatchWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(QuestionBatchWriter.class);
+
+  private static final int MAX_STEM_PREVIEW = 80;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+  private final ImportProperties importProperties;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public QuestionBatchWriter(
+      PlatformTransactionManager transactionManager,
+      ImportProperties importProperties,
+      ApplicationEventPublisher eventPublisher) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.importProperties = importProperties;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /** 解析出的题目及其在文档中的序号（从 0 开始）。 */
+  public record IndexedQuestion(int index, QuestionCreateRequest request) {}
+
+  /** 写入一个分块，并把任务断点推进到分块最后一题之后。 */
+  public void writeChunk(
+      String jobId,
+      List<IndexedQuestion> chunk,
+      Function<QuestionCreateRequest, QuestionEntity> converter) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    writeChunk(jobId, chunk, List.of(), chunk.get(chunk.size() - 1).index() + 1, converter);
+  }
+
+  /**
+   * 写入一个分块，同时记录该分块中预校验未通过的行，并把任务断点推进到 nextIndex。
+   *
+   * @param rejected 预校验失败的行，由 {@link #error(int, String, String)} 构造
+   */
+  public void writeChunk(
+      String jobId,
+      List<IndexedQuestion> chunk,
+      List<Map<String, Object>> rejected,
+      int nextIndex,
+      Function<QuestionCreateRequest, QuestionEntity> converter) {
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            List<QuestionEntity> persisted = new ArrayList<>(chunk.size());
+            for (IndexedQuestion row : chunk) {
+              QuestionEntity entity = converter.apply(row.request());
+              entityManager.persist(entity);
+              persisted.add(entity);
+            }
+            entityManager.flush();
+            persisted.forEach(q -> eventPublisher.publishEvent(QuestionChangedEvent.saved(q)));
+            entityManager.clear();
+            advanceJob(jobId, nextIndex, chunk.size(), rejected);
+          });
+      return;
+    } catch (RuntimeException ex) {
+      log.warn(
+          "Import job {} chunk ending at {} failed, retrying row by row: {}",
+          jobId,
+          nextIndex,
+          ex.getMessage());
+    }
+
+    for (IndexedQuestion row : chunk) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              QuestionEntity entity = converter.apply(row.request());
+              entityManager.persist(entity);
+              entityManager.flush();
+              eventPublisher.publishEvent(QuestionChangedEvent.saved(entity));
+              entityManager.clear();
+              advanceJob(jobId, row.index() + 1, 1, List.of());
+            });
+      } catch (RuntimeException ex) {
+        Map<String, Object> error = error(row.index(), row.request().getStem(), rootMessage(ex));
+        transactionTemplate.executeWithoutResult(
+            status -> advanceJob(jobId, row.index() + 1, 0, List.of(error)));
+      }
+    }
+    transactionTemplate.executeWithoutResult(status -> advanceJob(jobId, nextIndex, 0, rejected));
+  }
+
+  /** 构造逐题错误明细 */
+  public static Map<String, Object> error(int index, String stem, String message) {
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("index", index);
+    error.put("stem", preview(stem));
+    error.put("message", message);
+    return error;
+  }
+
+  private void advanceJob(
+      String jobId, int nextIndex, int succeeded, List<Map<String, Object>> errors) {
+    ImportJobEntity job = entityManager.find(ImportJobEntity.class, jobId);
+    if (job == null) {
+      throw new IllegalStateException("Import job not found: " + jobId);
+    }
+    job.setNextIndex(nextIndex);
+    job.setSuccessCount(job.getSuccessCount() + succeeded);
+    job.setFailedCount(job.getFailedCount() + errors.size());
+    if (!errors.isEmpty()) {
+      List<Map<String, Object>> recorded = readErrors(job.getErrorsJson());
+      for (Map<String, Object> error : errors) {
+        if (recorded.size() >= importProperties.getMaxRecordedErrors()) {
+          break;
+        }
+        recorded.add(error);
+      }
+      try {
+        job.setErrorsJson(objectMapper.writeValueAsString(recorded));
+      } catch (Exception e) {
+        log.warn("Failed to serialize import errors for job {}", jobId, e);
+      }
+    }
+    job.setUpdatedAt(OffsetDateTime.now());
+  }
+
+  private List<Map<String, Object>> readErrors(String json) {
+    if (json == null || json.isBlank()) {
+      return new ArrayList<>();
+    }
+    try {
+      return objectMapper.readValue(json, new TypeReference<List<Map<String, Object>>>() {});
+    } catch (Exception e) {
+      return new ArrayList<>();
+    }
+  }
+
+  private static String preview(String stem) {
+    if (stem == null) {
+      return "";
+    }
+    return stem.length() <= MAX_STEM_PREVIEW ? stem : stem.substring(0, MAX_STEM_PREVIEW) + "...";
+  }
+
+  private String rootMessage(Throwable ex) {
+    Throwable current = ex;
+    while (current.getCause() != null && current.getCause() != current) {
+      current = current.getCause();
+    }
+    return current.getMessage() == null ? current.getClass().getSimpleName() : current.getMessage();
+  }
+}
@@ -0,0 +1,51 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.QuestionEntity;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * 题目新增、修改或删除后发布的事件，携带变更时刻的快照，供内存索引在事务提交后增量更新。
+ *
+ * @param deleted 为 true 时仅 questionId 有意义
+ */
+public record QuestionChangedEvent(
+    String questionId,
+    String stem,
+    String optionsJson,
+    String subjectId,
+    String type,
+    String difficulty,
+    String status,
+    String organizationId,
+    List<String> tags,
+    List<String> knowledgePointIds,
+    OffsetDateTime createdAt,
+    boolean deleted) {
+
+  public static QuestionChangedEvent saved(QuestionEntity question) {
+    return new QuestionChangedEvent(
+        question.getId(),
+        question.getStem(),
+        question.getOptionsJson(),
+        question.getSubjectId(),
+        question.getType(),
+        question.getDifficulty(),
+        question.getStatus(),
+        question.getOrganizationId(),
+        copy(question.getTags()),
+        copy(question.getKnowledgePointIds()),
+        question.getCreatedAt(),
+        false);
+  }
+
+  public static QuestionChangedEvent deleted(String questionId) {
+    return new QuestionChangedEvent(
+        questionId, null, null, null, null, null, null, null, List.of(), List.of(), null, true);
+  }
+
+  /** 事件在事务提交后才被消费，集合需在发布时复制，避免读到之后的修改或触发懒加载 */
+  private static List<String> copy(List<String> values) {
+    return values == null ? List.of() : List.copyOf(values);
+  }
+}
@@ -0,0 +1,363 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.repository.QuestionFacetView;
+import com.universal.qbank.repository.QuestionRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 题目属性位图筛选索引。
+ *
+ * <p>每道题分配一个按创建时间递增的整数序号，每个属性值对应一个 Roaring 位图。筛选时同一属性内多个取值取并集、不同属性之间取交集，
+ * 分面计数用位图交集基数计算，结果按序号倒序即为按创建时间倒序的分页，只需再按 id 取回当页题目。索引在启动时全量构建，之后通过 {@link
+ * QuestionChangedEvent} 增量维护。
+ */
+@Service
+public class QuestionFacetIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(QuestionFacetIndex.class);
+
+  private static final int LOAD_PAGE_SIZE = 1000;
+
+  /** 空属性值（如共用题库的 organizationId）在索引中的取值 */
+  public static final String NONE = "_none";
+
+  /** 可筛选的属性，name 为查询参数名 */
+  public enum Facet {
+    SUBJECT("subjectId"),
+    TYPE("type"),
+    DIFFICULTY("difficulty"),
+    STATUS("status"),
+    ORGANIZATION("organizationId"),
+    TAG("tags"),
+    KNOWLEDGE_POINT("knowledgePointIds");
+
+    private final String paramName;
+
+    Facet(String paramName) {
+      this.paramName = paramName;
+    }
+
+    public String paramName() {
+      return paramName;
+    }
+  }
+
+  /**
+   * 单个属性的筛选条件。
+   *
+   * @param matchAll 为 true 时要求同时具有全部取值（仅对标签、知识点等多值属性有意义）
+   */
+  public record Filter(Collection<String> values, boolean matchAll) {
+
+    public static Filter any(Collection<String> values) {
+      return new Filter(values, false);
+    }
+  }
+
+  /** 筛选结果：命中总数、当页题目 id（按创建时间倒序）及各属性取值计数 */
+  public record Result(int total, List<String> ids, Map<String, Map<String, Integer>> facets) {}
+
+  @Autowired private QuestionRepository questionRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Integer> ordinals = new HashMap<>();
+
+  /** 序号 -> 题目 id，删除后置 null，序号不复用 */
+  private final List<String> ids = new ArrayList<>();
+
+  /** 序号 -> 当前已索引的属性值，更新/删除时据此从旧位图中移除 */
+  private final Map<Integer, Map<Facet, Set<String>>> indexed = new HashMap<>();
+
+  private final RoaringBitmap live = new RoaringBitmap();
+
+  private final Map<Facet, Map<String, RoaringBitmap>> postings = new EnumMap<>(Facet.class);
+
+  private volatile boolean ready = false;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    Map<String, List<String>> tags = groupPairs(questionRepository.findTagPairs());
+    Map<String, List<String>> knowledgePoints =
+        groupPairs(questionRepository.findKnowledgePointPairs());
+    lock.writeLock().lock();
+    try {
+      ordinals.clear();
+      ids.clear();
+      indexed.clear();
+      live.clear();
+      postings.clear();
+      int page = 0;
+      Slice<QuestionFacetView> slice;
+      do {
+        // 按创建时间升序分配序号，序号倒序即创建时间倒序
+        slice =
+            questionRepository.findFacetViews(
+                PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("createdAt", "id")));
+        for (QuestionFacetView view : slice) {
+          put(
+              view.getId(),
+              attributes(
+                  view.getSubjectId(),
+                  view.getType(),
+                  view.getDifficulty(),
+                  view.getStatus(),
+                  view.getOrganizationId(),
+                  tags.getOrDefault(view.getId(), List.of()),
+                  knowledgePoints.getOrDefault(view.getId(), List.of())));
+        }
+      } while (slice.hasNext());
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info(
+        "Question facet index built: {} questions, {} bytes in {} ms",
+        live.getCardinality(),
+        sizeInBytes(),
+        System.currentTimeMillis() - startedAt);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuestionChanged(QuestionChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (event.deleted()) {
+        remove(event.questionId());
+      } else {
+        put(
+            event.questionId(),
+            attributes(
+                event.subjectId(),
+                event.type(),
+                event.difficulty(),
+                event.status(),
+                event.organizationId(),
+                event.tags(),
+                event.knowledgePointIds()));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return live.getCardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 按条件筛选并分页。
+   *
+   * @param facetLimit 每个属性最多返回的取值计数条数，0 表示不计算分面
+   */
+  public Result search(Map<Facet, Filter> filters, int page, int size, int facetLimit) {
+    lock.readLock().lock();
+    try {
+      Map<Facet, RoaringBitmap> matched = new EnumMap<>(Facet.class);
+      filters.forEach(
+          (facet, filter) -> {
+            if (filter != null && filter.values() != null && !filter.values().isEmpty()) {
+              matched.put(facet, match(facet, filter));
+            }
+          });
+      RoaringBitmap result = intersect(matched, null);
+      int total = result.getCardinality();
+      List<String> pageIds = new ArrayList<>();
+      long from = (long) page * size;
+      for (long rank = from; rank < Math.min(total, from + size); rank++) {
+        // 序号越大越新，第 rank 新的题目即第 total-1-rank 小的序号
+        pageIds.add(ids.get(result.select((int) (total - 1 - rank))));
+      }
+      Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+      if (facetLimit > 0) {
+        for (Facet facet : Facet.values()) {
+          // 计算某属性的取值计数时不应用该属性自身的条件，便于在同一属性内切换或多选
+          facets.put(facet.paramName(), counts(facet, intersect(matched, facet), facetLimit));
+        }
+      }
+      return new Result(total, pageIds, facets);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private RoaringBitmap match(Facet facet, Filter filter) {
+    Map<String, RoaringBitmap> values = postings.getOrDefault(facet, Map.of());
+    RoaringBitmap combined = null;
+    for (String value : filter.values()) {
+      RoaringBitmap bitmap = values.getOrDefault(normalize(value), new RoaringBitmap());
+      if (combined == null) {
+        combined = bitmap.clone();
+      } else if (filter.matchAll()) {
+        combined.and(bitmap);
+      } else {
+        combined.or(bitmap);
+      }
+    }
+    return combined == null ? new RoaringBitmap() : combined;
+  }
+
+  private RoaringBitmap intersect(Map<Facet, RoaringBitmap> matched, Facet skip) {
+    RoaringBitmap result = live.clone();
+    matched.forEach(
+        (facet, bitmap) -> {
+          if (facet != skip) {
+            result.and(bitmap);
+          }
+        });
+    return result;
+  }
+
+  private Map<String, Integer> counts(Facet facet, RoaringBitmap base, int limit) {
+    List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+    postings
+        .getOrDefault(facet, Map.of())
+        .forEach(
+            (value, bitmap) -> {
+              int count = RoaringBitmap.andCardinality(base, bitmap);
+              if (count > 0) {
+                entries.add(Map.entry(value, count));
+              }
+            });
+    entries.sort(
+        Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+    Map<String, Integer> result = new LinkedHashMap<>();
+    entries.stream().limit(limit).forEach(e -> result.put(e.getKey(), e.getValue()));
+    return result;
+  }
+
+  private void put(String id, Map<Facet, Set<String>> attributes) {
+    if (id == null) {
+      return;
+    }
+    Integer ordinal = ordinals.get(id);
+    if (ordinal == null) {
+      ordinal = ids.size();
+      ids.add(id);
+      ordinals.put(id, ordinal);
+    } else {
+      unindex(ordinal);
+    }
+    int value = ordinal;
+    attributes.forEach(
+        (facet, values) ->
+            values.forEach(
+                v ->
+                    postings
+                        .computeIfAbsent(facet, f -> new HashMap<>())
+                        .computeIfAbsent(v, k -> new RoaringBitmap())
+                        .add(value)));
+    indexed.put(ordinal, attributes);
+    live.add(ordinal);
+  }
+
+  private void remove(String id) {
+    Integer ordinal = ordinals.remove(id);
+    if (ordinal == null) {
+      return;
+    }
+    unindex(ordinal);
+    ids.set(ordinal, null);
+    live.remove(ordinal);
+  }
+
+  private void unindex(int ordinal) {
+    Map<Facet, Set<String>> previous = indexed.remove(ordinal);
+    if (previous == null) {
+      return;
+    }
+    previous.forEach(
+        (facet, values) -> {
+          Map<String, RoaringBitmap> byValue = postings.get(facet);
+          for (String value : values) {
+            RoaringBitmap bitmap = byValue.get(value);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+              byValue.remove(value);
+            }
+          }
+        });
+  }
+
+  private long sizeInBytes() {
+    long bytes = live.getLongSizeInBytes();
+    for (Map<String, RoaringBitmap> byValue : postings.values()) {
+      for (RoaringBitmap bitmap : byValue.values()) {
+        bytes += bitmap.getLongSizeInBytes();
+      }
+    }
+    return bytes;
+  }
+
+  private static Map<Facet, Set<String>> attributes(
+      String subjectId,
+      String type,
+      String difficulty,
+      String status,
+      String organizationId,
+      Collection<String> tags,
+      Collection<String> knowledgePointIds) {
+    Map<Facet, Set<String>> attributes = new EnumMap<>(Facet.class);
+    attributes.put(Facet.SUBJECT, Set.of(normalize(subjectId)));
+    attributes.put(Facet.TYPE, Set.of(normalize(type)));
+    attributes.put(Facet.DIFFICULTY, Set.of(normalize(difficulty)));
+    attributes.put(Facet.STATUS, Set.of(normalize(status)));
+    attributes.put(Facet.ORGANIZATION, Set.of(normalize(organizationId)));
+    attributes.put(Facet.TAG, normalizeAll(tags));
+    attributes.put(Facet.KNOWLEDGE_POINT, normalizeAll(knowledgePointIds));
+    return attributes;
+  }
+
+  private static String normalize(String value) {
+    return value == null || value.isBlank() ? NONE : value;
+  }
+
+  private static Set<String> normalizeAll(Collection<String> values) {
+    if (values == null) {
+      return Set.of();
+    }
+    return values.stream()
+        .filter(v -> v != null && !v.isBlank())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private static Map<String, List<String>> groupPairs(List<Object[]> pairs) {
+    Map<String, List<String>> grouped = new HashMap<>();
+    for (Object[] pair : pairs) {
+      grouped.computeIfAbsent((String) pair[0], k -> new ArrayList<>()).add((String) pair[1]);
+    }
+    return grouped;
+  }
+}
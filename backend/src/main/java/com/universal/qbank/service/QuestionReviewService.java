@@ -4,7 +4,9 @@ import com.universal.qbank.entity.*;
 import com.universal.qbank.repository.*;
 import java.time.OffsetDateTime;
 import java.util.List;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,8 @@ public class QuestionReviewService {
 
   @Autowired private QuestionReviewRepository questionReviewRepository;
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   /** 提交审核 */
   @Transactional
   public void submitForReview(String questionId, String submitterId) {
@@ -37,6 +41,7 @@ public class QuestionReviewService {
     // 更新状态
     question.setStatus("PENDING_REVIEW");
     questionRepository.save(question);
+    eventPublisher.publishEvent(QuestionChangedEvent.saved(question));
 
     // 记录审核日志
     QuestionReviewEntity review = new QuestionReviewEntity();
@@ -67,6 +72,7 @@ public class QuestionReviewService {
     question.setReviewedAt(OffsetDateTime.now());
     question.setReviewNotes(notes);
     questionRepository.save(question);
+    eventPublisher.publishEvent(QuestionChangedEvent.saved(question));
 
     // 记录审核日志
     QuestionReviewEntity review = new QuestionReviewEntity();
@@ -97,6 +103,7 @@ public class QuestionReviewService {
     question.setReviewedAt(OffsetDateTime.now());
     question.setReviewNotes(notes);
     questionRepository.save(question);
+    eventPublisher.publishEvent(QuestionChangedEvent.saved(question));
 
     // 记录审核日志
     QuestionReviewEntity review = new QuestionReviewEntity();
@@ -108,9 +115,15 @@ public class QuestionReviewService {
     questionReviewRepository.save(review);
   }
 
-  /** 获取待审核题目列表 */
+  /** 获取待审核题目列表（实体直接序列化返回，标签与知识点在事务内按批加载） */
+  @Transactional(readOnly = true)
   public Page<QuestionEntity> getPendingReviewQuestions(Pageable pageable) {
-    return questionRepository.findByStatus("PENDING_REVIEW", pageable);
+    Page<QuestionEntity> page = questionRepository.findByStatus("PENDING_REVIEW", pageable);
+    for (QuestionEntity question : page.getContent()) {
+      Hibernate.initialize(question.getTags());
+      Hibernate.initialize(question.getKnowledgePointIds());
+    }
+    return page;
   }
 
   /** 获取题目版本历史 */
@@ -0,0 +1,340 @@
+package com.universal.qbank.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universal.qbank.common.util.SimHash;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.QuestionTextView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 题目近似重复索引。
+ *
+ * <p>对"题干 + 选项"的归一化文本计算 64 位 SimHash，并按 8 段 8 位分桶：汉明距离不超过 7 的两条指纹至少有一段完全相同，
+ * 因此查重只需比较同桶候选，而不必扫描全库。索引在启动时全量构建，之后通过 {@link QuestionChangedEvent} 增量维护。
+ */
+@Service
+public class QuestionSimilarityIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(QuestionSimilarityIndex.class);
+
+  /** 默认判定为疑似重复的最大汉明距离（分桶方案保证 ≤7 不漏召） */
+  public static final int DEFAULT_MAX_DISTANCE = 7;
+
+  private static final int BANDS = 8;
+  private static final int BAND_BITS = 8;
+  private static final int LOAD_PAGE_SIZE = 1000;
+  private static final int PREVIEW_LENGTH = 60;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** key = band 序号（高位）| band 值（低 8 位） */
+  private final Map<Integer, Set<String>> buckets = new ConcurrentHashMap<>();
+
+  private volatile boolean ready = false;
+
+  /** 每次写入加一，分组报告按版本缓存，索引未变化时不重复计算 */
+  private final AtomicLong version = new AtomicLong();
+
+  private final ReentrantLock clusterLock = new ReentrantLock();
+
+  private volatile ClusterReport clusterReport;
+
+  private record Entry(long fingerprint, String preview) {}
+
+  /** 最近一次分组报告（不可变，可在请求间共享） */
+  private record ClusterReport(
+      long version, int maxDistance, int minSize, List<Map<String, Object>> clusters) {
+
+    boolean matches(long currentVersion, int distance, int size) {
+      return version == currentVersion && maxDistance == distance && minSize == size;
+    }
+  }
+
+  /** 疑似重复的题目 */
+  public record DuplicateCandidate(
+      String questionId, int distance, double similarity, String stem) {}
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    entries.clear();
+    buckets.clear();
+    version.incrementAndGet();
+    int page = 0;
+    Slice<QuestionTextView> slice;
+    do {
+      slice =
+          questionRepository.findTextViews(
+              PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("id")));
+      for (QuestionTextView view : slice) {
+        put(view.getId(), view.getStem(), view.getOptionsJson());
+      }
+    } while (slice.hasNext());
+    ready = true;
+    log.info(
+        "Question similarity index built: {} questions in {} ms",
+        entries.size(),
+        System.currentTimeMillis() - startedAt);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuestionChanged(QuestionChangedEvent event) {
+    if (event.deleted()) {
+      remove(event.questionId());
+    } else {
+      put(event.questionId(), event.stem(), event.optionsJson());
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /** 查找与给定题干/选项近似的已有题目，按距离升序，excludeId 用于排除题目自身。 */
+  public List<DuplicateCandidate> findCandidates(
+      String stem, List<String> optionTexts, String excludeId, int maxDistance, int limit) {
+    long fingerprint = SimHash.fingerprint(normalizedText(stem, optionTexts));
+    if (fingerprint == 0L) {
+      return List.of();
+    }
+    Map<String, Integer> matched = new HashMap<>();
+    for (int band = 0; band < BANDS; band++) {
+      Set<String> bucket = buckets.get(bucketKey(band, fingerprint));
+      if (bucket == null) {
+        continue;
+      }
+      for (String id : bucket) {
+        if (id.equals(excludeId) || matched.containsKey(id)) {
+          continue;
+        }
+        Entry entry = entries.get(id);
+        if (entry == null) {
+          continue;
+        }
+        int distance = SimHash.distance(fingerprint, entry.fingerprint());
+        if (distance <= maxDistance) {
+          matched.put(id, distance);
+        }
+      }
+    }
+    return matched.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry::getKey))
+        .limit(limit)
+        .map(
+            e ->
+                new DuplicateCandidate(
+                    e.getKey(),
+                    e.getValue(),
+                    1.0 - e.getValue() / 64.0,
+                    entries.containsKey(e.getKey()) ? entries.get(e.getKey()).preview() : null))
+        .toList();
+  }
+
+  /** 全库疑似重复分组：同桶且距离在阈值内的题目用并查集合并，返回成员数不少于 minSize 的组。 */
+  public List<Map<String, Object>> findClusters(int maxDistance, int minSize) {
+    ClusterReport report = clusterReport;
+    if (report != null && report.matches(version.get(), maxDistance, minSize)) {
+      return report.clusters();
+    }
+    // 同一时刻只有一个线程计算，其余请求等待后直接复用结果
+    clusterLock.lock();
+    try {
+      long building = version.get();
+      report = clusterReport;
+      if (report != null && report.matches(building, maxDistance, minSize)) {
+        return report.clusters();
+      }
+      List<Map<String, Object>> clusters = computeClusters(maxDistance, minSize);
+      clusterReport = new ClusterReport(building, maxDistance, minSize, clusters);
+      return clusters;
+    } finally {
+      clusterLock.unlock();
+    }
+  }
+
+  private List<Map<String, Object>> computeClusters(int maxDistance, int minSize) {
+    Map<String, String> parent = new HashMap<>();
+    for (Set<String> bucket : buckets.values()) {
+      if (bucket.size() < 2) {
+        continue;
+      }
+      // 每个桶先一次性取出指纹，内层循环只做位运算
+      String[] ids = new String[bucket.size()];
+      long[] fingerprints = new long[ids.length];
+      int count = 0;
+      for (String id : bucket) {
+        Entry entry = entries.get(id);
+        if (entry != null && count < ids.length) {
+          ids[count] = id;
+          fingerprints[count++] = entry.fingerprint();
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        long a = fingerprints[i];
+        for (int j = i + 1; j < count; j++) {
+          if (SimHash.distance(a, fingerprints[j]) <= maxDistance) {
+            union(parent, ids[i], ids[j]);
+          }
+        }
+      }
+    }
+
+    Map<String, List<String>> groups = new HashMap<>();
+    for (String id : parent.keySet()) {
+      groups.computeIfAbsent(find(parent, id), k -> new ArrayList<>()).add(id);
+    }
+
+    List<Map<String, Object>> clusters = new ArrayList<>();
+    for (List<String> members : groups.values()) {
+      if (members.size() < Math.max(2, minSize)) {
+        continue;
+      }
+      members.sort(Comparator.naturalOrder());
+      Map<String, Object> cluster = new LinkedHashMap<>();
+      cluster.put("size", members.size());
+      cluster.put("questionIds", List.copyOf(members));
+      Entry first = entries.get(members.get(0));
+      cluster.put("sampleStem", first == null ? null : first.preview());
+      clusters.add(Collections.unmodifiableMap(cluster));
+    }
+    clusters.sort(
+        Comparator.comparing((Map<String, Object> c) -> (Integer) c.get("size")).reversed());
+    return List.copyOf(clusters);
+  }
+
+  /** 写操作串行化（写远少于读），读路径无锁 */
+  private synchronized void put(String id, String stem, String optionsJson) {
+    if (id == null) {
+      return;
+    }
+    remove(id);
+    long fingerprint = SimHash.fingerprint(normalizedText(stem, optionTexts(optionsJson)));
+    if (fingerprint == 0L) {
+      return;
+    }
+    entries.put(id, new Entry(fingerprint, preview(stem)));
+    for (int band = 0; band < BANDS; band++) {
+      buckets
+          .computeIfAbsent(bucketKey(band, fingerprint), k -> ConcurrentHashMap.newKeySet())
+          .add(id);
+    }
+    version.incrementAndGet();
+  }
+
+  private synchronized void remove(String id) {
+    Entry previous = entries.remove(id);
+    if (previous == null) {
+      return;
+    }
+    for (int band = 0; band < BANDS; band++) {
+      int key = bucketKey(band, previous.fingerprint());
+      buckets.computeIfPresent(
+          key,
+          (k, bucket) -> {
+            bucket.remove(id);
+            return bucket.isEmpty() ? null : bucket;
+          });
+    }
+    version.incrementAndGet();
+  }
+
+  private static int bucketKey(int band, long fingerprint) {
+    int value = (int) ((fingerprint >>> (band * BAND_BITS)) & ((1L << BAND_BITS) - 1));
+    return (band << BAND_BITS) | value;
+  }
+
+  /** 选项按文本排序后拼接，选项顺序不同的同一道题仍视为重复 */
+  private static String normalizedText(String stem, List<String> optionTexts) {
+    StringBuilder sb = new StringBuilder(SimHash.normalize(stem));
+    if (optionTexts != null && !optionTexts.isEmpty()) {
+      optionTexts.stream().map(SimHash::normalize).sorted().forEach(sb::append);
+    }
+    return sb.toString();
+  }
+
+  private List<String> optionTexts(String optionsJson) {
+    if (optionsJson == null || optionsJson.isBlank()) {
+      return List.of();
+    }
+    try {
+      JsonNode root = objectMapper.readTree(optionsJson);
+      if (!root.isArray()) {
+        return List.of();
+      }
+      List<String> texts = new ArrayList<>();
+      for (JsonNode option : root) {
+        String text = option.path("text").asText("");
+        if (!text.isBlank()) {
+          texts.add(text);
+        }
+      }
+      return texts;
+    } catch (Exception e) {
+      return List.of();
+    }
+  }
+
+  private static String preview(String stem) {
+    if (stem == null) {
+      return null;
+    }
+    String compact = stem.replaceAll("\\s+", " ").trim();
+    return compact.length() <= PREVIEW_LENGTH
+        ? compact
+        : compact.substring(0, PREVIEW_LENGTH) + "...";
+  }
+
+  private static String find(Map<String, String> parent, String id) {
+    String root = id;
+    while (!root.equals(parent.getOrDefault(root, root))) {
+      root = parent.get(root);
+    }
+    // 路径压缩
+    String current = id;
+    while (!current.equals(root)) {
+      String next = parent.get(current);
+      parent.put(current, root);
+      current = next;
+    }
+    return root;
+  }
+
+  private static void union(Map<String, String> parent, String a, String b) {
+    parent.putIfAbsent(a, a);
+    parent.putIfAbsent(b, b);
+    String rootA = find(parent, a);
+    String rootB = find(parent, b);
+    if (!rootA.equals(rootB)) {
+      parent.put(rootB, rootA);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.universal.qbank.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 从数据库整体构建的只读快照（组织树、知识点树等）。
+ *
+ * <p>读取时快照过期或已作废则重建，同一时刻只有一个线程查询数据库；写操作调用 {@link #invalidate()}。
+ */
+final class SnapshotHolder<T> {
+
+  private record Entry<T>(T value, long builtAt) {}
+
+  /** 快照最长使用时间，兜底多实例部署时其他节点的修改 */
+  static final long TTL_MILLIS = 300_000L;
+
+  /** 参数为构建时的代数，可用作快照版本号 */
+  private final LongFunction<T> loader;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** 每次作废加一，重建期间发生写入时不保留旧数据构建的快照 */
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile Entry<T> current;
+
+  SnapshotHolder(LongFunction<T> loader) {
+    this.loader = loader;
+  }
+
+  T get() {
+    Entry<T> entry = current;
+    if (isFresh(entry)) {
+      return entry.value();
+    }
+    lock.lock();
+    try {
+      entry = current;
+      if (isFresh(entry)) {
+        return entry.value();
+      }
+      long building = generation.get();
+      T built = loader.apply(building);
+      if (generation.get() == building) {
+        current = new Entry<>(built, System.currentTimeMillis());
+      }
+      return built;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** 作废快照（立即一次，事务提交后再一次，避免提交前重建的旧快照被保留） */
+  void invalidate() {
+    Runnable action =
+        () -> {
+          generation.incrementAndGet();
+          current = null;
+        };
+    action.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    }
+  }
+
+  private boolean isFresh(Entry<T> entry) {
+    return entry != null && System.currentTimeMillis() - entry.builtAt() <= TTL_MILLIS;
+  }
+}
@@ -1,5 +1,6 @@
 package com.universal.qbank.service;
 
+import com.universal.qbank.entity.DailyStatsRollupEntity;
 import com.universal.qbank.repository.*;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -10,151 +11,161 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StatisticsService {
 
-  private static final List<String> USER_ROLES = Arrays.asList("TEACHER", "USER");
-
-  @Autowired private UserRepository userRepository;
+  static final List<String> USER_ROLES = Arrays.asList("TEACHER", "USER");
 
   @Autowired private QuestionRepository questionRepository;
 
-  @Autowired private PaperRepository paperRepository;
-
   @Autowired private ExamRepository examRepository;
 
   @Autowired private OperationLogRepository operationLogRepository;
 
-  /** 获取系统概览统计 */
-  public Map<String, Object> getOverviewStats(String range) {
-    Map<String, Object> stats = new HashMap<>();
-    TimeRange timeRange = resolveTimeRange(range);
-
-    // 用户统计（不包含管理员）
-    long totalTeachers = userRepository.countByRoleIn(List.of("TEACHER"));
-    long totalStudents = userRepository.countByRoleIn(List.of("USER"));
-    long totalUsers = totalTeachers + totalStudents; // 总用户数 = 教师 + 学生
-
-    stats.put("totalUsers", totalUsers);
-    stats.put("totalTeachers", totalTeachers);
-    stats.put("totalStudents", totalStudents);
-
-    // 题目统计
-    long totalQuestions = questionRepository.count();
-    stats.put("totalQuestions", totalQuestions);
+  @Autowired private DailyStatsRollupRepository dailyStatsRollupRepository;
 
-    // 试卷统计
-    long totalPapers = paperRepository.count();
-    stats.put("totalPapers", totalPapers);
+  @Autowired private OverviewStatsCache overviewStatsCache;
 
-    // 考试统计
-    long totalExams = examRepository.count();
-    stats.put("totalExams", totalExams);
-
-    // 活跃用户（按选择时间范围统计，去重）
-    long activeUsersInRange =
-        operationLogRepository.countDistinctUsersByTimestampBetween(
-            timeRange.start(), timeRange.end());
-    stats.put("activeUsersToday", Math.min(activeUsersInRange, totalUsers));
-
-    // 新增用户（按选择时间范围）
-    long newUsersInRange =
-        userRepository.countByRoleInAndCreatedAtBetween(
-            USER_ROLES, timeRange.start(), timeRange.end());
-    stats.put("newUsersThisWeek", newUsersInRange);
-
-    return stats;
+  /** 获取系统概览统计，读自定期刷新的快照，见 {@link OverviewStatsCache} */
+  public Map<String, Object> getOverviewStats(String range) {
+    return overviewStatsCache.get(range);
   }
 
-  /** 获取用户活跃趋势（最近7天） */
+  /** 获取用户活跃趋势：31 天以内按天，更长范围按月 */
+  @Transactional(readOnly = true)
   public List<Map<String, Object>> getUserActivityTrend(String range) {
     TimeRange timeRange = resolveTimeRange(range);
-    List<TimeBucket> buckets = buildBuckets(timeRange);
-    List<Map<String, Object>> trend = new ArrayList<>();
-
-    for (TimeBucket bucket : buckets) {
-      long value =
-          operationLogRepository.countDistinctUsersByTimestampBetween(bucket.start(), bucket.end());
-      trend.add(toTrendItem(bucket.label(), value));
+    if (timeRange.daily()) {
+      return dailyTrend(
+          timeRange,
+          dailyValues(
+              timeRange,
+              DailyStatsRollupEntity::getActiveUsers,
+              operationLogRepository::countDistinctUsersByDay));
     }
-    return trend;
+    // 月活需要跨天去重，不能由日汇总相加，直接对明细按月分组查询一次
+    Map<YearMonth, Long> values = new HashMap<>();
+    for (Object[] row :
+        operationLogRepository.countDistinctUsersByMonth(
+            StatsRollupService.startOfDay(timeRange.firstDay()),
+            StatsRollupService.startOfDay(timeRange.lastDay().plusDays(1)))) {
+      values.put(
+          YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()),
+          ((Number) row[2]).longValue());
+    }
+    return monthlyTrend(timeRange, values);
   }
 
-  /** 获取题目增长趋势（最近6个月） */
+  /** 获取题目增长趋势：31 天以内按天，更长范围按月 */
+  @Transactional(readOnly = true)
   public List<Map<String, Object>> getQuestionGrowthTrend(String range) {
     TimeRange timeRange = resolveTimeRange(range);
-    List<TimeBucket> buckets = buildBuckets(timeRange);
-    List<Map<String, Object>> trend = new ArrayList<>();
-
-    for (TimeBucket bucket : buckets) {
-      long value = questionRepository.countByCreatedAtBetween(bucket.start(), bucket.end());
-      trend.add(toTrendItem(bucket.label(), value));
-    }
-    return trend;
+    Map<LocalDate, Long> daily =
+        dailyValues(
+            timeRange,
+            DailyStatsRollupEntity::getNewQuestions,
+            questionRepository::countByCreatedDay);
+    return timeRange.daily()
+        ? dailyTrend(timeRange, daily)
+        : monthlyTrend(timeRange, sumByMonth(daily));
   }
 
-  /** 获取考试场次趋势（最近6个月） */
+  /** 获取考试场次趋势：31 天以内按天，更长范围按月 */
+  @Transactional(readOnly = true)
   public List<Map<String, Object>> getExamTrend(String range) {
     TimeRange timeRange = resolveTimeRange(range);
-    List<TimeBucket> buckets = buildBuckets(timeRange);
-    List<Map<String, Object>> trend = new ArrayList<>();
-
-    for (TimeBucket bucket : buckets) {
-      long value = examRepository.countByStartTimeBetween(bucket.start(), bucket.end());
-      trend.add(toTrendItem(bucket.label(), value));
-    }
-    return trend;
+    Map<LocalDate, Long> daily =
+        dailyValues(
+            timeRange, DailyStatsRollupEntity::getExamsStarted, examRepository::countByStartDay);
+    return timeRange.daily()
+        ? dailyTrend(timeRange, daily)
+        : monthlyTrend(timeRange, sumByMonth(daily));
   }
 
-  private TimeRange resolveTimeRange(String range) {
-    OffsetDateTime end = OffsetDateTime.now();
-    int days =
-        switch (range == null ? "30d" : range.toLowerCase()) {
-          case "7d" -> 7;
-          case "90d" -> 90;
-          case "180d" -> 180;
-          default -> 30;
-        };
-    return new TimeRange(end.minusDays(days), end, days);
+  /**
+   * 区间内每天的取值：已汇总的日期读 daily_stats_rollups，今天以及汇总缺失的日期按连续区段对明细表做按天分组查询补齐。
+   * 汇总完整时只查询今天一段，个别日期缺失不会让其后的整段回退到明细表。
+   */
+  private Map<LocalDate, Long> dailyValues(
+      TimeRange range,
+      Function<DailyStatsRollupEntity, Long> metric,
+      BiFunction<OffsetDateTime, OffsetDateTime, List<Object[]>> groupedQuery) {
+    LocalDate today = LocalDate.now();
+    Map<LocalDate, Long> values = new HashMap<>();
+    for (DailyStatsRollupEntity rollup :
+        dailyStatsRollupRepository.findByStatDateBetweenOrderByStatDateAsc(
+            range.firstDay(), today.minusDays(1))) {
+      values.put(rollup.getStatDate(), metric.apply(rollup));
+    }
+    LocalDate day = range.firstDay();
+    while (!day.isAfter(range.lastDay())) {
+      if (values.containsKey(day)) {
+        day = day.plusDays(1);
+        continue;
+      }
+      LocalDate gapStart = day;
+      while (!day.isAfter(range.lastDay()) && !values.containsKey(day)) {
+        day = day.plusDays(1);
+      }
+      StatsRollupService.byDay(
+              groupedQuery.apply(
+                  StatsRollupService.startOfDay(gapStart), StatsRollupService.startOfDay(day)))
+          .forEach(values::putIfAbsent);
+    }
+    return values;
   }
 
-  private List<TimeBucket> buildBuckets(TimeRange range) {
-    if (range.days() <= 31) {
-      return buildDailyBuckets(range.start(), range.end());
-    }
-    return buildMonthlyBuckets(range.start(), range.end());
+  private static Map<YearMonth, Long> sumByMonth(Map<LocalDate, Long> daily) {
+    Map<YearMonth, Long> monthly = new HashMap<>();
+    daily.forEach((date, value) -> monthly.merge(YearMonth.from(date), value, Long::sum));
+    return monthly;
   }
 
-  private List<TimeBucket> buildDailyBuckets(OffsetDateTime start, OffsetDateTime end) {
-    List<TimeBucket> buckets = new ArrayList<>();
+  private List<Map<String, Object>> dailyTrend(TimeRange range, Map<LocalDate, Long> values) {
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("M/d");
-    LocalDate cursor = start.toLocalDate();
-    LocalDate endDate = end.toLocalDate();
-
-    while (!cursor.isAfter(endDate)) {
-      OffsetDateTime bucketStart = cursor.atStartOfDay().atOffset(start.getOffset());
-      OffsetDateTime bucketEnd = bucketStart.plusDays(1);
-      buckets.add(new TimeBucket(bucketStart, bucketEnd, cursor.format(formatter)));
-      cursor = cursor.plusDays(1);
+    List<Map<String, Object>> trend = new ArrayList<>();
+    for (LocalDate d = range.firstDay(); !d.isAfter(range.lastDay()); d = d.plusDays(1)) {
+      trend.add(toTrendItem(d.format(formatter), values.getOrDefault(d, 0L)));
     }
-    return buckets;
+    return trend;
   }
 
-  private List<TimeBucket> buildMonthlyBuckets(OffsetDateTime start, OffsetDateTime end) {
-    List<TimeBucket> buckets = new ArrayList<>();
-    YearMonth cursor = YearMonth.from(start);
-    YearMonth endMonth = YearMonth.from(end);
-
+  private List<Map<String, Object>> monthlyTrend(TimeRange range, Map<YearMonth, Long> values) {
+    List<Map<String, Object>> trend = new ArrayList<>();
+    YearMonth endMonth = YearMonth.from(range.lastDay());
+    YearMonth cursor = YearMonth.from(range.firstDay());
     while (!cursor.isAfter(endMonth)) {
-      OffsetDateTime bucketStart = cursor.atDay(1).atStartOfDay().atOffset(start.getOffset());
-      OffsetDateTime bucketEnd = bucketStart.plusMonths(1);
-      buckets.add(new TimeBucket(bucketStart, bucketEnd, cursor.getMonthValue() + "月"));
+      trend.add(toTrendItem(cursor.getMonthValue() + "月", values.getOrDefault(cursor, 0L)));
       cursor = cursor.plusMonths(1);
     }
-    return buckets;
+    return trend;
+  }
+
+  private TimeRange resolveTimeRange(String range) {
+    OffsetDateTime end = OffsetDateTime.now();
+    int days = rangeDays(range);
+    return new TimeRange(end.minusDays(days), end, days);
+  }
+
+  /** 时间范围参数对应的天数，无法识别时按 30 天 */
+  static int rangeDays(String range) {
+    return switch (range == null ? "30d" : range.toLowerCase()) {
+      case "7d" -> 7;
+      case "90d" -> 90;
+      case "180d" -> 180;
+      default -> 30;
+    };
+  }
+
+  /** 规范化的时间范围参数，用作快照缓存的键 */
+  static String normalizeRange(String range) {
+    return rangeDays(range) + "d";
   }
 
   private Map<String, Object> toTrendItem(String label, long value) {
@@ -164,7 +175,20 @@ public class StatisticsService {
     return item;
   }
 
-  private record TimeRange(OffsetDateTime start, OffsetDateTime end, int days) {}
+  private record TimeRange(OffsetDateTime start, OffsetDateTime end, int days) {
 
-  private record TimeBucket(OffsetDateTime start, OffsetDateTime end, String label) {}
+    /** 31 天以内按天分桶，否则按月 */
+    boolean daily() {
+      return days <= 31;
+    }
+
+    /** 第一个分桶的首日：按月分桶时为起始月的 1 日 */
+    LocalDate firstDay() {
+      return daily() ? start.toLocalDate() : YearMonth.from(start).atDay(1);
+    }
+
+    LocalDate lastDay() {
+      return end.toLocalDate();
+    }
+  }
 }
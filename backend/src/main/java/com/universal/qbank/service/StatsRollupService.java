@@ -0,0 +1,142 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.DailyStatsRollupEntity;
+import com.universal.qbank.repository.DailyStatsRollupRepository;
+import com.universal.qbank.repository.ExamRepository;
+import com.universal.qbank.repository.OperationLogRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 每日统计汇总任务。
+ *
+ * <p>把已结束自然日的活跃用户、新增题目、开始考试场次写入 daily_stats_rollups，每项指标对整个待计算区间只做一次按天分组的查询。
+ * 启动时补齐回溯窗口内缺失的日期，之后每天凌晨重算最近几天，覆盖跨零点提交等迟到的数据。
+ */
+@Service
+public class StatsRollupService {
+
+  private static final Logger log = LoggerFactory.getLogger(StatsRollupService.class);
+
+  @Autowired private DailyStatsRollupRepository dailyStatsRollupRepository;
+
+  @Autowired private OperationLogRepository operationLogRepository;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  /** 启动时补齐的回溯天数；180 天范围按月分桶，从起始月 1 日算起最多约 211 天 */
+  @Value("${app.stats.rollup.backfill-days:212}")
+  private int backfillDays;
+
+  /** 每次定时任务重算的最近天数 */
+  @Value("${app.stats.rollup.recompute-days:3}")
+  private int recomputeDays;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    try {
+      refresh(false);
+    } catch (RuntimeException ex) {
+      // 汇总缺失时趋势查询会回退到明细表，不影响启动
+      log.warn("Daily stats rollup backfill failed: {}", ex.getMessage());
+    }
+  }
+
+  @Scheduled(cron = "${app.stats.rollup.cron:0 10 0 * * *}")
+  public void scheduledRefresh() {
+    refresh(true);
+  }
+
+  /**
+   * 计算缺失的日期（以及 recomputeRecent 时最近 recomputeDays 天）并写入汇总表。
+   *
+   * @return 写入的天数
+   */
+  public int refresh(boolean recomputeRecent) {
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    LocalDate earliest = yesterday.minusDays(Math.max(backfillDays, 1) - 1L);
+    Integer written =
+        new TransactionTemplate(transactionManager)
+            .execute(status -> rollUp(earliest, yesterday, recomputeRecent));
+    int count = written == null ? 0 : written;
+    if (count > 0) {
+      log.info("Daily stats rollup refreshed {} day(s) up to {}", count, yesterday);
+    }
+    return count;
+  }
+
+  private int rollUp(LocalDate earliest, LocalDate yesterday, boolean recomputeRecent) {
+    Map<LocalDate, DailyStatsRollupEntity> existing =
+        dailyStatsRollupRepository
+            .findByStatDateBetweenOrderByStatDateAsc(earliest, yesterday)
+            .stream()
+            .collect(Collectors.toMap(DailyStatsRollupEntity::getStatDate, r -> r));
+    TreeSet<LocalDate> dates = new TreeSet<>();
+    for (LocalDate d = earliest; !d.isAfter(yesterday); d = d.plusDays(1)) {
+      boolean recent = recomputeRecent && d.isAfter(yesterday.minusDays(recomputeDays));
+      if (recent || !existing.containsKey(d)) {
+        dates.add(d);
+      }
+    }
+    if (dates.isEmpty()) {
+      return 0;
+    }
+    OffsetDateTime from = startOfDay(dates.first());
+    OffsetDateTime to = startOfDay(yesterday.plusDays(1));
+    Map<LocalDate, Long> active = byDay(operationLogRepository.countDistinctUsersByDay(from, to));
+    Map<LocalDate, Long> questions = byDay(questionRepository.countByCreatedDay(from, to));
+    Map<LocalDate, Long> exams = byDay(examRepository.countByStartDay(from, to));
+    OffsetDateTime now = OffsetDateTime.now();
+    List<DailyStatsRollupEntity> rows = new ArrayList<>();
+    for (LocalDate date : dates) {
+      DailyStatsRollupEntity row = existing.getOrDefault(date, new DailyStatsRollupEntity(date));
+      row.setActiveUsers(active.getOrDefault(date, 0L));
+      row.setNewQuestions(questions.getOrDefault(date, 0L));
+      row.setExamsStarted(exams.getOrDefault(date, 0L));
+      row.setComputedAt(now);
+      rows.add(row);
+    }
+    dailyStatsRollupRepository.saveAll(rows);
+    return rows.size();
+  }
+
+  static OffsetDateTime startOfDay(LocalDate date) {
+    return date.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+  }
+
+  /** 把 [日期, 数量] 分组结果转为 Map */
+  static Map<LocalDate, Long> byDay(List<Object[]> rows) {
+    Map<LocalDate, Long> result = new HashMap<>();
+    for (Object[] row : rows) {
+      result.put(toLocalDate(row[0]), ((Number) row[1]).longValue());
+    }
+    return result;
+  }
+
+  /** 按天分组的日期列：Hibernate 通常返回 LocalDate，部分驱动/方言下为 java.sql.Date */
+  static LocalDate toLocalDate(Object value) {
+    return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+  }
+}
@@ -0,0 +1,264 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.entity.StudentKpMasteryEntity;
+import com.universal.qbank.repository.ExamRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.StudentKpMasteryRepository;
+import com.universal.qbank.repository.StudentMasteryBackfillRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 学生知识点掌握度。
+ *
+ * <p>交卷判分后按知识点原子累加作答数、错误数及时间加权值，读取时换算为按 {@link #HALF_LIFE_DAYS} 天半衰的近期计数。
+ * 构建学习上下文、学情看板都只需按学生读一次掌握度表，不再回放历史考试。上线前已有作答的学生在首次累加或读取前回放一次最近
+ * 的考试，是否已回放记录在 student_mastery_backfills 中。
+ */
+@Service
+public class StudentMasteryService {
+
+  /** 未标注知识点的题目计入的知识点 id */
+  public static final String UNKNOWN = "UNKNOWN";
+
+  /** 衰减半衰期（天）：一次作答的权重每过这么多天减半 */
+  static final double HALF_LIFE_DAYS = 30.0;
+
+  /** 加权值的基准时间；已写入的加权值依赖它，不能修改 */
+  static final Instant WEIGHT_EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+  @Autowired private StudentKpMasteryRepository masteryRepository;
+
+  @Autowired private StudentMasteryBackfillRepository backfillRepository;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private ExamAnswerStore examAnswerStore;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  /** 本节点已确认回放过的学生，避免每次累加都查询标记 */
+  private final Set<String> backfilled = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 某知识点的掌握度。
+   *
+   * @param recentAttempts 衰减后的作答数
+   * @param recentWrong 衰减后的错误数
+   * @param wrongRate 近期错误率（百分比），按衰减后的计数计算
+   */
+  public record Mastery(
+      String knowledgePointId,
+      long attempts,
+      long wrongCount,
+      double recentAttempts,
+      double recentWrong,
+      double wrongRate,
+      OffsetDateTime lastAttemptAt,
+      String lastWrongQuestionId) {}
+
+  /** 单个知识点在一次交卷中的作答汇总 */
+  private static final class Tally {
+    private long attempts;
+    private long wrong;
+    private String lastWrongQuestionId;
+  }
+
+  /** 记录一次交卷中已判定对错的作答，未判定（待阅卷）的题目不计入 */
+  public void recordResults(String userId, List<ExamRecordEntity> records, OffsetDateTime at) {
+    if (userId == null || records == null) {
+      return;
+    }
+    ensureBackfilled(userId);
+    accumulate(userId, records, at, false);
+  }
+
+  /**
+   * 按知识点累加一组作答。
+   *
+   * @param claimed 为 true 时在回放的认领事务内执行，该学生的写入已由标记主键串行化
+   */
+  private void accumulate(
+      String userId, List<ExamRecordEntity> records, OffsetDateTime at, boolean claimed) {
+    if (records == null) {
+      return;
+    }
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    for (ExamRecordEntity record : records) {
+      if (record.getQuestionId() != null && record.getIsCorrect() != null) {
+        results.put(record.getQuestionId(), record.getIsCorrect());
+      }
+    }
+    if (results.isEmpty()) {
+      return;
+    }
+    Map<String, List<String>> knowledgePoints = knowledgePoints(results.keySet());
+    Map<String, Tally> tallies = new LinkedHashMap<>();
+    results.forEach(
+        (questionId, correct) -> {
+          for (String kpId : knowledgePoints.getOrDefault(questionId, List.of(UNKNOWN))) {
+            Tally tally = tallies.computeIfAbsent(kpId, k -> new Tally());
+            tally.attempts++;
+            if (!correct) {
+              tally.wrong++;
+              tally.lastWrongQuestionId = questionId;
+            }
+          }
+        });
+    OffsetDateTime time = at != null ? at : OffsetDateTime.now();
+    double weight = weightAt(time);
+    tallies.forEach((kpId, tally) -> apply(userId, kpId, tally, weight, time, claimed));
+  }
+
+  /** 某学生各知识点的掌握度，按近期错误数、错误率从高到低排列 */
+  public List<Mastery> masteryOf(String userId) {
+    double decay = 1.0 / weightAt(OffsetDateTime.now());
+    return masteryRepository.findByUserId(userId).stream()
+        .map(row -> toMastery(row, decay))
+        .sorted(
+            Comparator.comparingDouble(Mastery::recentWrong)
+                .thenComparingDouble(Mastery::wrongRate)
+                .reversed())
+        .toList();
+  }
+
+  /** 同 {@link #masteryOf}，学生的历史考试尚未回放时先回放 */
+  public List<Mastery> masteryOrBackfill(String userId) {
+    ensureBackfilled(userId);
+    return masteryOf(userId);
+  }
+
+  /**
+   * 确保学生在此之前结束的考试已计入掌握度，每个学生只回放一次。
+   *
+   * <p>交卷须在设置结束时间之前调用，本次考试才不会既被回放又被增量累加。认领标记与回放在同一事务中，并发的认领在主键上等待，
+   * 回放提交后因主键冲突放弃；回放失败则标记一并回滚，下次重试。
+   */
+  public void ensureBackfilled(String userId) {
+    if (userId == null || backfilled.contains(userId)) {
+      return;
+    }
+    if (!backfillRepository.existsById(userId)) {
+      OffsetDateTime cutoff = OffsetDateTime.now();
+      TransactionTemplate backfillTx = new TransactionTemplate(transactionManager);
+      backfillTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+      try {
+        backfillTx.executeWithoutResult(
+            status -> {
+              backfillRepository.claim(userId, cutoff);
+              backfillRepository.setExams(userId, backfill(userId, cutoff));
+            });
+      } catch (DataIntegrityViolationException ex) {
+        // 其他请求已完成回放
+      }
+    }
+    backfilled.add(userId);
+  }
+
+  /**
+   * 按时间顺序回放 cutoff 之前结束的最近 30 场考试。
+   *
+   * @return 回放的考试场数
+   */
+  private int backfill(String userId, OffsetDateTime cutoff) {
+    List<ExamEntity> exams =
+        examRepository.findTop30ByUserIdAndEndTimeBeforeOrderByEndTimeDesc(userId, cutoff);
+    Map<Long, List<ExamRecordEntity>> recordsByExam = examAnswerStore.readAll(exams);
+    for (int i = exams.size() - 1; i >= 0; i--) {
+      ExamEntity exam = exams.get(i);
+      accumulate(userId, recordsByExam.get(exam.getId()), exam.getEndTime(), true);
+    }
+    return exams.size();
+  }
+
+  private void apply(
+      String userId,
+      String kpId,
+      Tally tally,
+      double weight,
+      OffsetDateTime at,
+      boolean claimed) {
+    if (update(userId, kpId, tally, weight, at) > 0) {
+      return;
+    }
+    if (claimed) {
+      // 不能另开事务：回放已占用一个连接，嵌套的 REQUIRES_NEW 会让每次回放同时占用两个连接
+      masteryRepository.insertEmpty(userId, kpId);
+      update(userId, kpId, tally, weight, at);
+      return;
+    }
+    TransactionTemplate insertTx = new TransactionTemplate(transactionManager);
+    insertTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    try {
+      insertTx.executeWithoutResult(status -> masteryRepository.insertEmpty(userId, kpId));
+    } catch (DataIntegrityViolationException ex) {
+      // 并发的交卷已插入该行
+    }
+    update(userId, kpId, tally, weight, at);
+  }
+
+  private int update(String userId, String kpId, Tally tally, double weight, OffsetDateTime at) {
+    return masteryRepository.applyResults(
+        userId,
+        kpId,
+        tally.attempts,
+        tally.wrong,
+        tally.attempts * weight,
+        tally.wrong * weight,
+        at,
+        tally.lastWrongQuestionId != null ? tally.lastWrongQuestionId : "");
+  }
+
+  private Map<String, List<String>> knowledgePoints(Collection<String> questionIds) {
+    Map<String, List<String>> result = new HashMap<>();
+    for (Object[] pair : questionRepository.findKnowledgePointPairsByIdIn(questionIds)) {
+      result.computeIfAbsent((String) pair[0], k -> new ArrayList<>()).add((String) pair[1]);
+    }
+    return result;
+  }
+
+  private static Mastery toMastery(StudentKpMasteryEntity row, double decay) {
+    double recentAttempts = row.getWeightedAttempts() * decay;
+    double recentWrong = row.getWeightedWrong() * decay;
+    double rate = recentAttempts <= 0 ? 0.0 : recentWrong * 100.0 / recentAttempts;
+    return new Mastery(
+        row.getKnowledgePointId(),
+        row.getAttempts(),
+        row.getWrongCount(),
+        round(recentAttempts),
+        round(recentWrong),
+        round(rate),
+        row.getLastAttemptAt(),
+        row.getLastWrongQuestionId());
+  }
+
+  /** 时刻 at 的作答权重：相对基准时间每过一个半衰期翻倍，读取时再整体除以当前权重 */
+  static double weightAt(OffsetDateTime at) {
+    double days = Duration.between(WEIGHT_EPOCH, at.toInstant()).toMillis() / 86_400_000.0;
+    return Math.pow(2.0, days / HALF_LIFE_DAYS);
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100.0) / 100.0;
+  }
+}
@@ -0,0 +1,22 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.entity.StudentStatsEntity;
+import java.time.LocalDate;
+
+/** 学生统计行更新后发布的事件，携带更新后的绝对值，重复投递也是幂等的。 */
+public record StudentStatsChangedEvent(
+    String userId,
+    long totalQuestionsAnswered,
+    long correctAnswers,
+    int currentStreak,
+    LocalDate lastPracticeDate) {
+
+  public static StudentStatsChangedEvent of(StudentStatsEntity stats) {
+    return new StudentStatsChangedEvent(
+        stats.getUserId(),
+        stats.getTotalQuestionsAnswered() == null ? 0L : stats.getTotalQuestionsAnswered(),
+        stats.getCorrectAnswers() == null ? 0L : stats.getCorrectAnswers(),
+        stats.getCurrentStreak() == null ? 0 : stats.getCurrentStreak(),
+        stats.getLastPracticeDate());
+  }
+}
@@ -6,6 +6,7 @@ import com.universal.qbank.entity.UserOrganizationEntity;
 import com.universal.qbank.repository.StudentStatsRepository;
 import com.universal.qbank.repository.UserOrganizationRepository;
 import com.universal.qbank.repository.UserRepository;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,8 +14,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class StudentStatsService {
@@ -22,6 +28,9 @@ public class StudentStatsService {
   @Autowired private StudentStatsRepository studentStatsRepository;
   @Autowired private UserRepository userRepository;
   @Autowired private UserOrganizationRepository userOrganizationRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private ApplicationEventPublisher eventPublisher;
+  @Autowired private LeaderboardService leaderboardService;
 
   public StudentStatsEntity getStatsByUserId(String userId) {
     if (userId == null || userId.trim().isEmpty()) {
@@ -38,8 +47,53 @@ public class StudentStatsService {
             });
   }
 
-  /** 获取学生排行榜（只包含学生角色），并填充昵称 */
+  /**
+   * 记录一次交卷的客观题作答结果。
+   *
+   * <p>统计行通过原子 UPDATE 累加，不做读-改-写；首次交卷时先在独立事务中插入空行，
+   * 唯一约束冲突说明并发请求已建好，直接重试累加即可。
+   * 昵称不再随交卷写入，排行榜查询时统一填充。
+   */
+  public void recordAnswers(String userId, int answered, int correct) {
+    if (userId == null || answered <= 0) {
+      return;
+    }
+    LocalDate today = LocalDate.now();
+    LocalDate yesterday = today.minusDays(1);
+    if (studentStatsRepository.applyAnswers(userId, answered, correct, today, yesterday) > 0) {
+      publishChanged(userId);
+      return;
+    }
+    TransactionTemplate insertTx = new TransactionTemplate(transactionManager);
+    insertTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    try {
+      insertTx.executeWithoutResult(
+          status -> {
+            StudentStatsEntity newStats = new StudentStatsEntity();
+            newStats.setUserId(userId);
+            newStats.setTotalQuestionsAnswered(0L);
+            newStats.setCorrectAnswers(0L);
+            newStats.setCurrentStreak(0);
+            studentStatsRepository.saveAndFlush(newStats);
+          });
+    } catch (DataIntegrityViolationException ex) {
+      // 并发的首次交卷已插入统计行
+    }
+    studentStatsRepository.applyAnswers(userId, answered, correct, today, yesterday);
+    publishChanged(userId);
+  }
+
+  private void publishChanged(String userId) {
+    studentStatsRepository
+        .findByUserId(userId)
+        .ifPresent(stats -> eventPublisher.publishEvent(StudentStatsChangedEvent.of(stats)));
+  }
+
+  /** 获取学生排行榜（只包含学生角色），并填充昵称；内存榜单就绪后直接读取内存 */
   public List<StudentStatsEntity> getLeaderboard(int limit) {
+    if (leaderboardService.isReady()) {
+      return leaderboardService.top(null, limit);
+    }
     List<StudentStatsEntity> stats =
         studentStatsRepository.findStudentLeaderboard(PageRequest.of(0, limit));
     fillNicknames(stats);
@@ -48,6 +102,9 @@ public class StudentStatsService {
 
   /** 获取指定班级的学生排行榜，并填充昵称（仅在班级成员范围内统计） */
   public List<StudentStatsEntity> getLeaderboardByOrganization(String orgId, int limit) {
+    if (leaderboardService.isReady()) {
+      return leaderboardService.top(orgId, limit);
+    }
     // 获取班级所有成员
     List<UserOrganizationEntity> members = userOrganizationRepository.findByOrganizationId(orgId);
     List<String> memberUserIds =
@@ -1,6 +1,11 @@
 package com.universal.qbank.service;
 
 import com.universal.qbank.repository.OperationLogRepository;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -10,9 +15,13 @@ import java.lang.management.RuntimeMXBean;
 import java.sql.Connection;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -24,6 +33,7 @@ public class SystemMonitorService {
   private final DataSource dataSource;
   private final JdbcTemplate jdbcTemplate;
   private final OperationLogRepository operationLogRepository;
+  private final MeterRegistry meterRegistry;
 
   @Value("${spring.mail.host:}")
   private String mailHost;
@@ -31,10 +41,12 @@ public class SystemMonitorService {
   public SystemMonitorService(
       DataSource dataSource,
       JdbcTemplate jdbcTemplate,
-      OperationLogRepository operationLogRepository) {
+      OperationLogRepository operationLogRepository,
+      MeterRegistry meterRegistry) {
     this.dataSource = dataSource;
     this.jdbcTemplate = jdbcTemplate;
     this.operationLogRepository = operationLogRepository;
+    this.meterRegistry = meterRegistry;
   }
 
   /** 获取系统资源指标 */
@@ -105,6 +117,40 @@ public class SystemMonitorService {
     return services;
   }
 
+  /** 获取业务热点路径（qbank.* 计时器）的调用次数与耗时分位，单位毫秒 */
+  public List<Map<String, Object>> getHotPathMetrics() {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (Meter meter : meterRegistry.getMeters()) {
+      if (!(meter instanceof Timer timer) || !timer.getId().getName().startsWith("qbank.")) {
+        continue;
+      }
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      Map<String, Object> item = new LinkedHashMap<>();
+      item.put("name", timer.getId().getName());
+      item.put(
+          "tags",
+          timer.getId().getTags().stream()
+              .map(tag -> tag.getKey() + "=" + tag.getValue())
+              .collect(Collectors.joining(",")));
+      item.put("count", snapshot.count());
+      item.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+      item.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+      for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+        String key = "p" + Math.round(percentile.percentile() * 100) + "Ms";
+        item.put(key, round(percentile.value(TimeUnit.MILLISECONDS)));
+      }
+      result.add(item);
+    }
+    result.sort(
+        Comparator.comparing((Map<String, Object> m) -> (String) m.get("name"))
+            .thenComparing(m -> (String) m.get("tags")));
+    return result;
+  }
+
+  private double round(double value) {
+    return Math.round(value * 10) / 10.0;
+  }
+
   private Map<String, Object> createServiceStatus(
       String name, String status, int responseTime, String uptime) {
     Map<String, Object> service = new HashMap<>();
@@ -0,0 +1,130 @@
+package com.universal.qbank.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 虚拟线程钉住诊断。
+ *
+ * <p>仅在虚拟线程模式下启用：通过 JFR 事件流订阅 jdk.VirtualThreadPinned（虚拟线程在 synchronized 块或本地调用中阻塞，
+ * 占住载体线程），超过阈值的事件按首个应用栈帧记入 qbank.vthreads.pinned 计时器，每个栈帧首次出现时打印调用栈。
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private static final String APP_PACKAGE = "com.universal.qbank.";
+
+  private static final int LOGGED_FRAMES = 12;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Value("${app.threads.pinned-threshold-ms:20}")
+  private long thresholdMs;
+
+  private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+  private RecordingStream stream;
+
+  @PostConstruct
+  void start() {
+    try {
+      stream = new RecordingStream();
+      stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+      stream.onEvent(PINNED_EVENT, this::onPinned);
+      stream.startAsync();
+      log.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+    } catch (RuntimeException ex) {
+      // JFR 不可用（如被 JVM 参数禁用）时不影响应用启动
+      log.warn("Virtual thread pinning monitor unavailable: {}", ex.getMessage());
+      stream = null;
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+
+  private void onPinned(RecordedEvent event) {
+    List<RecordedFrame> frames =
+        event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+    String site = pinnedSite(frames);
+    Timer.builder("qbank.vthreads.pinned")
+        .description("Time virtual threads spent pinned to their carrier")
+        .tag("site", site)
+        .register(meterRegistry)
+        .record(event.getDuration());
+    if (reportedSites.add(site)) {
+      log.warn(
+          "Virtual thread pinned for {} ms at {}:\n{}",
+          event.getDuration().toMillis(),
+          site,
+          format(event.getStackTrace()));
+    }
+  }
+
+  /** 首个应用自身的栈帧，找不到时退回栈顶 */
+  private static String pinnedSite(List<RecordedFrame> frames) {
+    RecordedFrame chosen = null;
+    for (RecordedFrame frame : frames) {
+      if (frame.getMethod() == null) {
+        continue;
+      }
+      if (chosen == null) {
+        chosen = frame;
+      }
+      if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+        chosen = frame;
+        break;
+      }
+    }
+    if (chosen == null) {
+      return "unknown";
+    }
+    String type = chosen.getMethod().getType().getName();
+    return type.substring(type.lastIndexOf('.') + 1) + "." + chosen.getMethod().getName();
+  }
+
+  private static String format(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return "  (no stack trace)";
+    }
+    return stackTrace.getFrames().stream()
+        .limit(LOGGED_FRAMES)
+        .filter(frame -> frame.getMethod() != null)
+        .map(
+            frame ->
+                "  at "
+                    + frame.getMethod().getType().getName()
+                    + "."
+                    + frame.getMethod().getName()
+                    + "(line "
+                    + frame.getLineNumber()
+                    + ")")
+        .collect(Collectors.joining("\n"));
+  }
+}
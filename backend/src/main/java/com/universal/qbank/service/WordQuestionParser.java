@@ -0,0 +1,168 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.api.generated.model.QuestionOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Word 题目解析器。
+ *
+ * <p>逐段落推进状态机，每解析完一道题立即回调，调用方无需持有整份题目列表即可边解析边入库。
+ */
+@Component
+public class WordQuestionParser {
+
+  private static final Logger log = LoggerFactory.getLogger(WordQuestionParser.class);
+
+  static final Pattern QUESTION_START_PATTERN = Pattern.compile("^(\\d+)\\s*[.、．]\\s*(.*)");
+  // Matches "A. Content" or "a. Content" or "1. Content" or "(A) Content"
+  // Group 1: Label from "A." or "A)" or "A、" (supports A-Z, a-z, 0-9)
+  // Group 2: Label from "(A)"
+  // Group 3: Content
+  static final Pattern OPTION_PATTERN =
+      Pattern.compile(
+          "(?:^|\\s+)(?:([A-Za-z0-9])\\s*[.、．\\)]|\\(([A-Za-z0-9])\\))\\s*(.*?)(?=\\s+(?:[A-Za-z0-9]\\s*[.、．\\)]|\\([A-Za-z0-9]\\))|$)",
+          Pattern.DOTALL);
+  private static final Pattern ANSWER_PATTERN = Pattern.compile("^(Answer|答案)[:：]\\s*(.*)");
+  private static final Pattern ANALYSIS_PATTERN = Pattern.compile("^(Analysis|解析)[:：]\\s*(.*)");
+
+  /** 预扫描题目数量，用于任务进度展示。 */
+  public int countQuestions(XWPFDocument document) {
+    int count = 0;
+    for (XWPFParagraph paragraph : document.getParagraphs()) {
+      if (QUESTION_START_PATTERN.matcher(paragraph.getText().trim()).find()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** 解析文档，每完成一道题回调一次，返回解析出的题目数。 */
+  public int parse(XWPFDocument document, Consumer<QuestionCreateRequest> sink) {
+    int emitted = 0;
+    QuestionCreateRequest currentQuestion = null;
+    List<QuestionOption> currentOptions = new ArrayList<>();
+    boolean optionsStarted = false;
+
+    for (XWPFParagraph paragraph : document.getParagraphs()) {
+      String text = paragraph.getText().trim();
+      if (text.isEmpty()) {
+        continue;
+      }
+      log.trace("Processing paragraph: {}", text);
+
+      Matcher questionMatcher = QUESTION_START_PATTERN.matcher(text);
+      if (questionMatcher.find()) {
+        // Emit previous question
+        if (currentQuestion != null) {
+          finalizeQuestion(currentQuestion, currentOptions);
+          sink.accept(currentQuestion);
+          emitted++;
+        }
+
+        // Start new question
+        currentQuestion = new QuestionCreateRequest();
+        currentQuestion.setStem(questionMatcher.group(2)); // Group 2 is the content
+        currentQuestion.setType(QuestionCreateRequest.TypeEnum.SINGLE_CHOICE); // Default
+        currentQuestion.setDifficulty(QuestionCreateRequest.DifficultyEnum.MEDIUM); // Default
+        currentQuestion.setSubjectId("general"); // Default
+        currentQuestion.setScore(5.0f);
+        currentOptions = new ArrayList<>();
+        optionsStarted = false;
+        continue;
+      }
+
+      if (currentQuestion == null) {
+        continue;
+      }
+
+      // Check for Answer
+      Matcher answerMatcher = ANSWER_PATTERN.matcher(text);
+      if (answerMatcher.find()) {
+        String answerKey = answerMatcher.group(2).trim().toUpperCase();
+        // Mark correct option
+        for (int i = 0; i < currentOptions.size(); i++) {
+          char optionLabel = (char) ('A' + i);
+          if (answerKey.indexOf(optionLabel) != -1) {
+            currentOptions.get(i).setIsCorrect(true);
+          }
+        }
+        continue;
+      }
+
+      // Check for Analysis
+      Matcher analysisMatcher = ANALYSIS_PATTERN.matcher(text);
+      if (analysisMatcher.find()) {
+        currentQuestion.setAnalysis(analysisMatcher.group(2));
+        continue;
+      }
+
+      // Check for Options (Inline or Single line)
+      Matcher optionMatcher = OPTION_PATTERN.matcher(text);
+      if (optionMatcher.find()) {
+        optionsStarted = true;
+        // Reset matcher to find all
+        optionMatcher.reset();
+        while (optionMatcher.find()) {
+          String label =
+              optionMatcher.group(1) != null ? optionMatcher.group(1) : optionMatcher.group(2);
+          String content = optionMatcher.group(3).trim();
+
+          QuestionOption option = new QuestionOption();
+          option.setKey(label.toUpperCase()); // Set key (A, B, C...)
+          option.setText(content);
+          option.setIsCorrect(false);
+          currentOptions.add(option);
+        }
+        continue;
+      }
+
+      // Handle auto-numbered lists as options
+      if (paragraph.getNumID() != null) {
+        optionsStarted = true;
+        QuestionOption option = new QuestionOption();
+        option.setText(text);
+        option.setIsCorrect(false);
+        currentOptions.add(option);
+        continue;
+      }
+
+      // If not a new question, not an answer, not an option line:
+      // Append to Stem or Last Option
+      if (!optionsStarted) {
+        currentQuestion.setStem(currentQuestion.getStem() + "\n" + text);
+      } else if (!currentOptions.isEmpty()) {
+        // Append to the last option
+        QuestionOption lastOption = currentOptions.get(currentOptions.size() - 1);
+        lastOption.setText(lastOption.getText() + "\n" + text);
+      }
+    }
+
+    // Emit last question
+    if (currentQuestion != null) {
+      finalizeQuestion(currentQuestion, currentOptions);
+      sink.accept(currentQuestion);
+      emitted++;
+    }
+    log.debug("Parsed {} questions from Word document", emitted);
+    return emitted;
+  }
+
+  private void finalizeQuestion(QuestionCreateRequest question, List<QuestionOption> options) {
+    question.setOptions(options);
+    // Basic type inference
+    long correctCount = options.stream().filter(QuestionOption::getIsCorrect).count();
+    if (correctCount > 1) {
+      question.setType(QuestionCreateRequest.TypeEnum.MULTI_CHOICE);
+    }
+  }
+}
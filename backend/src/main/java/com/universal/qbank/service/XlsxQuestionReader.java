@@ -0,0 +1,319 @@
+package com.universal.qbank.service;
+
+import com.universal.qbank.api.generated.model.QuestionCreateRequest;
+import com.universal.qbank.api.generated.model.QuestionOption;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Excel 题库读取器。
+ *
+ * <p>基于 POI 事件模型（XSSFReader + SAX）逐行读取第一个工作表，内存占用与行数无关。首个非空行作为表头，按列名映射到
+ * {@link QuestionCreateRequest} 字段，支持中英文列名。
+ */
+@Component
+public class XlsxQuestionReader {
+
+  /** 表头别名 → 字段名 */
+  private static final Map<String, String> HEADER_ALIASES = new HashMap<>();
+
+  private static final int MAX_OPTIONS = 8;
+
+  static {
+    alias("stem", "stem", "question", "题干", "题目", "题目内容");
+    alias("type", "type", "题型", "类型");
+    alias("difficulty", "difficulty", "难度");
+    alias("score", "score", "分值", "分数");
+    alias("answer", "answer", "答案", "正确答案");
+    alias("analysis", "analysis", "解析", "答案解析");
+    alias("subjectId", "subject", "subjectid", "科目", "学科");
+    alias("tags", "tags", "标签");
+    alias("knowledgePointIds", "knowledgepoints", "knowledgepointids", "知识点");
+    for (int i = 0; i < MAX_OPTIONS; i++) {
+      char label = (char) ('A' + i);
+      String lower = String.valueOf(Character.toLowerCase(label));
+      alias(
+          "option" + label, String.valueOf(label), "option" + lower, "选项" + label, "选项" + lower);
+    }
+  }
+
+  private static final Map<String, QuestionCreateRequest.TypeEnum> TYPE_ALIASES =
+      Map.of(
+          "单选", QuestionCreateRequest.TypeEnum.SINGLE_CHOICE,
+          "单选题", QuestionCreateRequest.TypeEnum.SINGLE_CHOICE,
+          "多选", QuestionCreateRequest.TypeEnum.MULTI_CHOICE,
+          "多选题", QuestionCreateRequest.TypeEnum.MULTI_CHOICE,
+          "判断", QuestionCreateRequest.TypeEnum.TRUE_FALSE,
+          "判断题", QuestionCreateRequest.TypeEnum.TRUE_FALSE,
+          "填空", QuestionCreateRequest.TypeEnum.FILL_BLANK,
+          "填空题", QuestionCreateRequest.TypeEnum.FILL_BLANK,
+          "简答", QuestionCreateRequest.TypeEnum.SHORT_ANSWER,
+          "简答题", QuestionCreateRequest.TypeEnum.SHORT_ANSWER);
+
+  private static final Map<String, QuestionCreateRequest.DifficultyEnum> DIFFICULTY_ALIASES =
+      Map.of(
+          "简单", QuestionCreateRequest.DifficultyEnum.EASY,
+          "易", QuestionCreateRequest.DifficultyEnum.EASY,
+          "中等", QuestionCreateRequest.DifficultyEnum.MEDIUM,
+          "中", QuestionCreateRequest.DifficultyEnum.MEDIUM,
+          "困难", QuestionCreateRequest.DifficultyEnum.HARD,
+          "难", QuestionCreateRequest.DifficultyEnum.HARD);
+
+  private static void alias(String field, String... names) {
+    for (String name : names) {
+      HEADER_ALIASES.put(normalizeHeader(name), field);
+    }
+  }
+
+  private static String normalizeHeader(String header) {
+    return header == null ? "" : header.replaceAll("[\\s_\\-()（）]", "").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * 逐行读取数据行（不含表头），每行以"字段名 → 单元格文本"回调，返回数据行数。
+   *
+   * @throws IllegalArgumentException 表头缺少题干列
+   */
+  public int read(Path file, Consumer<Map<String, String>> sink) throws IOException {
+    try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+      XSSFReader reader = new XSSFReader(pkg);
+      ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+      StylesTable styles = reader.getStylesTable();
+      Iterator<InputStream> sheets = reader.getSheetsData();
+      if (!sheets.hasNext()) {
+        return 0;
+      }
+      RowCollector collector = new RowCollector(sink);
+      try (InputStream sheet = sheets.next()) {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(
+            new XSSFSheetXMLHandler(styles, strings, collector, new DataFormatter(), false));
+        parser.parse(new InputSource(sheet));
+      }
+      return collector.dataRows;
+    } catch (IOException | IllegalArgumentException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new IOException("Failed to read xlsx: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * 将一行数据转换为题目请求。无状态且线程安全，可在并行流中调用。
+   *
+   * @throws IllegalArgumentException 数据不合法，消息用于逐行错误报告
+   */
+  public QuestionCreateRequest toRequest(Map<String, String> row, String defaultSubjectId) {
+    String stem = value(row, "stem");
+    if (stem == null) {
+      throw new IllegalArgumentException("题干为空");
+    }
+
+    QuestionCreateRequest req = new QuestionCreateRequest();
+    req.setStem(stem);
+    String subjectId = value(row, "subjectId");
+    req.setSubjectId(subjectId != null ? subjectId : defaultSubjectId);
+    req.setDifficulty(parseDifficulty(value(row, "difficulty")));
+    req.setAnalysis(value(row, "analysis"));
+
+    String score = value(row, "score");
+    try {
+      req.setScore(score == null ? 5.0f : Float.parseFloat(score));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("分值不是数字：" + score);
+    }
+
+    List<QuestionOption> options = new ArrayList<>();
+    for (int i = 0; i < MAX_OPTIONS; i++) {
+      char label = (char) ('A' + i);
+      String text = value(row, "option" + label);
+      if (text == null) {
+        continue;
+      }
+      QuestionOption option = new QuestionOption();
+      option.setKey(String.valueOf(label));
+      option.setText(text);
+      option.setIsCorrect(false);
+      options.add(option);
+    }
+
+    String answer = value(row, "answer");
+    QuestionCreateRequest.TypeEnum type = parseType(value(row, "type"), options, answer);
+    req.setType(type);
+
+    if (!options.isEmpty()) {
+      if (answer == null) {
+        throw new IllegalArgumentException("选择题缺少答案");
+      }
+      String keys = answer.toUpperCase(Locale.ROOT);
+      int correct = 0;
+      for (QuestionOption option : options) {
+        if (keys.indexOf(option.getKey().charAt(0)) >= 0) {
+          option.setIsCorrect(true);
+          correct++;
+        }
+      }
+      if (correct == 0) {
+        throw new IllegalArgumentException("答案 " + answer + " 与选项不匹配");
+      }
+      if (type == QuestionCreateRequest.TypeEnum.SINGLE_CHOICE && correct > 1) {
+        req.setType(QuestionCreateRequest.TypeEnum.MULTI_CHOICE);
+      }
+      req.setOptions(options);
+    } else if (answer != null) {
+      Map<String, Object> answerSchema = new LinkedHashMap<>();
+      answerSchema.put("correctAnswer", answer);
+      req.setAnswerSchema(answerSchema);
+    }
+
+    String tags = value(row, "tags");
+    if (tags != null) {
+      req.setTags(splitList(tags));
+    }
+    String knowledgePoints = value(row, "knowledgePointIds");
+    if (knowledgePoints != null) {
+      req.setKnowledgePointIds(splitList(knowledgePoints));
+    }
+    return req;
+  }
+
+  private static String value(Map<String, String> row, String field) {
+    String value = row.get(field);
+    if (value == null) {
+      return null;
+    }
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  private static List<String> splitList(String raw) {
+    return Arrays.stream(raw.split("[,，;；、]"))
+        .map(String::trim)
+        .filter(s -> !s.isEmpty())
+        .distinct()
+        .toList();
+  }
+
+  private static QuestionCreateRequest.TypeEnum parseType(
+      String raw, List<QuestionOption> options, String answer) {
+    if (raw == null) {
+      if (options.isEmpty()) {
+        return QuestionCreateRequest.TypeEnum.SHORT_ANSWER;
+      }
+      return answer != null && answer.replaceAll("[^A-Za-z]", "").length() > 1
+          ? QuestionCreateRequest.TypeEnum.MULTI_CHOICE
+          : QuestionCreateRequest.TypeEnum.SINGLE_CHOICE;
+    }
+    QuestionCreateRequest.TypeEnum mapped = TYPE_ALIASES.get(raw);
+    if (mapped != null) {
+      return mapped;
+    }
+    try {
+      return QuestionCreateRequest.TypeEnum.fromValue(raw.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("未知题型：" + raw);
+    }
+  }
+
+  private static QuestionCreateRequest.DifficultyEnum parseDifficulty(String raw) {
+    if (raw == null) {
+      return QuestionCreateRequest.DifficultyEnum.MEDIUM;
+    }
+    QuestionCreateRequest.DifficultyEnum mapped = DIFFICULTY_ALIASES.get(raw);
+    if (mapped != null) {
+      return mapped;
+    }
+    try {
+      return QuestionCreateRequest.DifficultyEnum.fromValue(raw.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("未知难度：" + raw);
+    }
+  }
+
+  /** SAX 行回调：首个非空行解析为表头，其余行按列号映射到字段名 */
+  private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+    private final Consumer<Map<String, String>> sink;
+    private Map<Integer, String> columns;
+    private final Map<Integer, String> headerCells = new HashMap<>();
+    private Map<String, String> current;
+    private int dataRows = 0;
+
+    RowCollector(Consumer<Map<String, String>> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+      current = new HashMap<>();
+      headerCells.clear();
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+      if (columns == null) {
+        if (headerCells.isEmpty()) {
+          return;
+        }
+        columns = new HashMap<>();
+        headerCells.forEach(
+            (col, header) -> {
+              String field = HEADER_ALIASES.get(normalizeHeader(header));
+              if (field != null) {
+                columns.put(col, field);
+              }
+            });
+        if (!columns.containsValue("stem")) {
+          throw new IllegalArgumentException("表头缺少题干列（题干/stem）");
+        }
+        return;
+      }
+      if (current.isEmpty()) {
+        return;
+      }
+      dataRows++;
+      sink.accept(current);
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+      if (cellReference == null || formattedValue == null) {
+        return;
+      }
+      int col = new CellReference(cellReference).getCol();
+      if (columns == null) {
+        if (!formattedValue.isBlank()) {
+          headerCells.put(col, formattedValue);
+        }
+        return;
+      }
+      String field = columns.get(col);
+      if (field != null && !formattedValue.isBlank()) {
+        current.put(field, formattedValue);
+      }
+    }
+  }
+}
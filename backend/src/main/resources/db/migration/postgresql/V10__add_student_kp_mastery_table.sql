@@ -0,0 +1,23 @@
+-- PostgreSQL migration V10
+-- Add student_kp_mastery: per (student, knowledge point) attempt and wrong counters plus
+-- time-weighted sums, accumulated when exams are graded. Existing students are backfilled
+-- lazily from their recent exams on first read.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.student_kp_mastery') IS NULL THEN
+    CREATE TABLE public.student_kp_mastery (
+      user_id VARCHAR(255) NOT NULL,
+      knowledge_point_id VARCHAR(255) NOT NULL,
+      attempts BIGINT NOT NULL DEFAULT 0,
+      wrong_count BIGINT NOT NULL DEFAULT 0,
+      weighted_attempts DOUBLE PRECISION NOT NULL DEFAULT 0,
+      weighted_wrong DOUBLE PRECISION NOT NULL DEFAULT 0,
+      last_attempt_at TIMESTAMP WITH TIME ZONE,
+      last_wrong_question_id VARCHAR(255),
+      PRIMARY KEY (user_id, knowledge_point_id)
+    );
+  END IF;
+END
+$$;
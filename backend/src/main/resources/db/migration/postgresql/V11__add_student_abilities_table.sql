@@ -0,0 +1,19 @@
+-- PostgreSQL migration V11
+-- Add student_abilities: per (student, subject) ability estimate on the same logit scale as
+-- calibrated question difficulty, updated after every adaptive practice answer.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.student_abilities') IS NULL THEN
+    CREATE TABLE public.student_abilities (
+      user_id VARCHAR(255) NOT NULL,
+      scope_id VARCHAR(255) NOT NULL,
+      ability DOUBLE PRECISION NOT NULL DEFAULT 0,
+      answered BIGINT NOT NULL DEFAULT 0,
+      updated_at TIMESTAMP WITH TIME ZONE,
+      PRIMARY KEY (user_id, scope_id)
+    );
+  END IF;
+END
+$$;
@@ -0,0 +1,16 @@
+-- PostgreSQL migration V12
+-- Add student_mastery_backfills: one row per student whose recent exam history has been
+-- replayed into student_kp_mastery. The primary key lets exactly one request claim the replay.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.student_mastery_backfills') IS NULL THEN
+    CREATE TABLE public.student_mastery_backfills (
+      user_id VARCHAR(255) PRIMARY KEY,
+      backfilled_at TIMESTAMP WITH TIME ZONE NOT NULL,
+      exams INTEGER NOT NULL DEFAULT 0
+    );
+  END IF;
+END
+$$;
@@ -0,0 +1,41 @@
+-- PostgreSQL migration V5
+-- Add import_jobs for asynchronous, resumable question bank imports.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.import_jobs') IS NULL THEN
+    CREATE TABLE public.import_jobs (
+      id VARCHAR(255) PRIMARY KEY,
+      type VARCHAR(20),
+      status VARCHAR(20),
+      file_name VARCHAR(255),
+      stored_path VARCHAR(500),
+      chunk_size INTEGER,
+      total_count INTEGER,
+      next_index INTEGER,
+      success_count INTEGER,
+      failed_count INTEGER,
+      errors_json TEXT,
+      error_message VARCHAR(1000),
+      created_by VARCHAR(255),
+      created_at TIMESTAMP WITH TIME ZONE,
+      updated_at TIMESTAMP WITH TIME ZONE,
+      completed_at TIMESTAMP WITH TIME ZONE
+    );
+  END IF;
+END
+$$;
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.import_jobs') IS NOT NULL THEN
+    CREATE INDEX IF NOT EXISTS idx_import_job_creator_created
+      ON public.import_jobs (created_by, created_at);
+
+    CREATE INDEX IF NOT EXISTS idx_import_job_status
+      ON public.import_jobs (status);
+  END IF;
+END
+$$;
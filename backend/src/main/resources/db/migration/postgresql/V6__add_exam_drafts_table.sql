@@ -0,0 +1,28 @@
+-- PostgreSQL migration V6
+-- Add exam_drafts for server-side autosave of in-progress exam answers.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.exam_drafts') IS NULL THEN
+    CREATE TABLE public.exam_drafts (
+      exam_id BIGINT PRIMARY KEY,
+      user_id VARCHAR(255),
+      answers_json TEXT,
+      flagged_json TEXT,
+      version BIGINT,
+      updated_at TIMESTAMP WITH TIME ZONE
+    );
+  END IF;
+END
+$$;
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.exam_drafts') IS NOT NULL THEN
+    CREATE INDEX IF NOT EXISTS idx_exam_draft_updated
+      ON public.exam_drafts (updated_at);
+  END IF;
+END
+$$;
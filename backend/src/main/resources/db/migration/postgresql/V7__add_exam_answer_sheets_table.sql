@@ -0,0 +1,17 @@
+-- PostgreSQL migration V7
+-- Add exam_answer_sheets: one compact serialized answer sheet per exam.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.exam_answer_sheets') IS NULL THEN
+    CREATE TABLE public.exam_answer_sheets (
+      exam_id BIGINT PRIMARY KEY,
+      format_version INTEGER,
+      question_count INTEGER,
+      sheet_json TEXT,
+      updated_at TIMESTAMP WITH TIME ZONE
+    );
+  END IF;
+END
+$$;
@@ -0,0 +1,34 @@
+-- PostgreSQL migration V8
+-- Add organization_closure: one row per (ancestor, descendant) pair of the organization tree,
+-- including a depth-0 row per organization, backfilled from organizations.parent_id.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.organization_closure') IS NULL THEN
+    CREATE TABLE public.organization_closure (
+      ancestor_id VARCHAR(255) NOT NULL,
+      descendant_id VARCHAR(255) NOT NULL,
+      depth INTEGER NOT NULL,
+      PRIMARY KEY (ancestor_id, descendant_id)
+    );
+    CREATE INDEX idx_org_closure_descendant
+      ON public.organization_closure (descendant_id, depth);
+
+    IF to_regclass('public.organizations') IS NOT NULL THEN
+      INSERT INTO public.organization_closure (ancestor_id, descendant_id, depth)
+      WITH RECURSIVE paths (ancestor_id, descendant_id, depth) AS (
+        SELECT id, id, 0 FROM public.organizations
+        UNION ALL
+        SELECT p.ancestor_id, o.id, p.depth + 1
+        FROM paths p
+        JOIN public.organizations o ON o.parent_id = p.descendant_id
+        WHERE p.depth < 32
+      )
+      SELECT ancestor_id, descendant_id, MIN(depth)
+      FROM paths
+      GROUP BY ancestor_id, descendant_id;
+    END IF;
+  END IF;
+END
+$$;
@@ -0,0 +1,26 @@
+-- PostgreSQL migration V9
+-- Add daily_stats_rollups: per-day active users, new questions and started exams written by the
+-- nightly rollup job, plus plain time indexes for the grouped trend queries over today's rows.
+
+DO
+$$
+BEGIN
+  IF to_regclass('public.daily_stats_rollups') IS NULL THEN
+    CREATE TABLE public.daily_stats_rollups (
+      stat_date DATE PRIMARY KEY,
+      active_users BIGINT NOT NULL DEFAULT 0,
+      new_questions BIGINT NOT NULL DEFAULT 0,
+      exams_started BIGINT NOT NULL DEFAULT 0,
+      computed_at TIMESTAMP WITH TIME ZONE
+    );
+  END IF;
+
+  IF to_regclass('public.questions') IS NOT NULL THEN
+    CREATE INDEX IF NOT EXISTS idx_question_created ON public.questions (created_at);
+  END IF;
+
+  IF to_regclass('public.exams') IS NOT NULL THEN
+    CREATE INDEX IF NOT EXISTS idx_exam_start ON public.exams (start_time);
+  END IF;
+END
+$$;
@@ -0,0 +1,52 @@
+package com.universal.qbank.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class RankedSkipListTest {
+
+  @Test
+  void shouldMatchSortedSetUnderRandomInsertAndRemove() {
+    Random random = new Random(42);
+    RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.naturalOrder());
+    TreeSet<Integer> reference = new TreeSet<>();
+    for (int i = 0; i < 5000; i++) {
+      int value = random.nextInt(800);
+      if (reference.remove(value)) {
+        assertTrue(list.remove(value));
+      } else {
+        reference.add(value);
+        list.insert(value);
+      }
+    }
+
+    List<Integer> expected = new ArrayList<>(reference);
+    assertEquals(expected.size(), list.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(i + 1, list.rank(expected.get(i)));
+    }
+    assertEquals(expected.subList(0, 10), list.range(0, 10));
+    assertEquals(expected.subList(100, 120), list.range(100, 20));
+  }
+
+  @Test
+  void shouldHandleMissingValuesAndOutOfRangeOffsets() {
+    RankedSkipList<String> list = new RankedSkipList<>(Comparator.reverseOrder());
+    list.insert("a");
+    list.insert("c");
+    list.insert("b");
+
+    assertEquals(List.of("c", "b", "a"), list.range(0, 10));
+    assertEquals(0, list.rank("z"));
+    assertFalse(list.remove("z"));
+    assertTrue(list.range(3, 5).isEmpty());
+  }
+}
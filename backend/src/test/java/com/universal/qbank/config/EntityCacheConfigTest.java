@@ -0,0 +1,72 @@
+package com.universal.qbank.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.universal.qbank.entity.KnowledgePointEntity;
+import com.universal.qbank.repository.KnowledgePointRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 基础数据走二级缓存：重复读取不再访问数据库，写入后查询缓存失效。 */
+@SpringBootTest
+class EntityCacheConfigTest {
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private KnowledgePointRepository knowledgePointRepository;
+
+  private Statistics statistics;
+
+  private String subjectId;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    subjectId = "CACHE-" + UUID.randomUUID();
+  }
+
+  @Test
+  void findByIdIsServedFromEntityCache() {
+    String id = knowledgePointRepository.save(knowledgePoint("二叉树")).getId();
+
+    statistics.clear();
+    knowledgePointRepository.findById(id);
+    knowledgePointRepository.findById(id);
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+    assertThat(
+            statistics
+                .getDomainDataRegionStatistics(EntityCacheConfig.KNOWLEDGE_POINTS)
+                .getHitCount())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void cacheableFinderIsInvalidatedByWrites() {
+    knowledgePointRepository.save(knowledgePoint("链表"));
+    knowledgePointRepository.findBySubjectIdOrderBySortOrderAsc(subjectId);
+
+    statistics.clear();
+    assertThat(knowledgePointRepository.findBySubjectIdOrderBySortOrderAsc(subjectId)).hasSize(1);
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+
+    knowledgePointRepository.save(knowledgePoint("栈"));
+    assertThat(knowledgePointRepository.findBySubjectIdOrderBySortOrderAsc(subjectId)).hasSize(2);
+  }
+
+  private KnowledgePointEntity knowledgePoint(String name) {
+    KnowledgePointEntity kp = new KnowledgePointEntity();
+    kp.setName(name);
+    kp.setSubjectId(subjectId);
+    kp.setLevel("POINT");
+    kp.setSortOrder(0);
+    return kp;
+  }
+}
@@ -0,0 +1,82 @@
+package com.universal.qbank.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** 用两个内存 H2 库分别充当主库与副本，验证只读事务的路由与延迟回退。 */
+class ReadReplicaRoutingDataSourceTest {
+
+  private static final String APP_TRANSACTION = "com.universal.qbank.service.StatisticsService.x";
+
+  private DataSource primary;
+
+  private DataSource replica;
+
+  @BeforeEach
+  void createDatabases() {
+    primary = h2("rr-primary", "primary");
+    replica = h2("rr-replica", "replica");
+  }
+
+  @Test
+  void readOnlyApplicationTransactionUsesReplica() {
+    assertEquals("replica", currentNode(routing("SELECT 0"), true, APP_TRANSACTION));
+  }
+
+  @Test
+  void writeTransactionUsesPrimary() {
+    assertEquals("primary", currentNode(routing("SELECT 0"), false, APP_TRANSACTION));
+  }
+
+  @Test
+  void repositoryDefaultReadOnlyTransactionStaysOnPrimary() {
+    String repositoryTransaction =
+        "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById";
+    assertEquals("primary", currentNode(routing("SELECT 0"), true, repositoryTransaction));
+  }
+
+  @Test
+  void laggingReplicaFallsBackToPrimary() {
+    ReadReplicaRoutingDataSource routing = routing("SELECT 60000");
+    assertEquals("primary", currentNode(routing, true, APP_TRANSACTION));
+    assertEquals(60000L, routing.getLagMillis().get("replica-1"));
+  }
+
+  private ReadReplicaRoutingDataSource routing(String lagQuery) {
+    ReadReplicaRoutingDataSource routing =
+        new ReadReplicaRoutingDataSource(primary, Map.of("replica-1", replica), lagQuery, 5000);
+    routing.afterPropertiesSet();
+    routing.checkReplicaLag();
+    return routing;
+  }
+
+  private static String currentNode(
+      ReadReplicaRoutingDataSource routing, boolean readOnly, String transactionName) {
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+    TransactionTemplate template =
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    template.setReadOnly(readOnly);
+    template.setName(transactionName);
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    return template.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+  }
+
+  private static DataSource h2(String database, String node) {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+    jdbc.update("DELETE FROM node");
+    jdbc.update("INSERT INTO node (name) VALUES (?)", node);
+    return dataSource;
+  }
+}
@@ -9,6 +9,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.universal.qbank.common.exception.ApiErrorResponseBodyAdvice;
 import com.universal.qbank.common.exception.GlobalExceptionHandler;
 import com.universal.qbank.service.AnnouncementService;
+import com.universal.qbank.service.ExamAnswerStore;
 import com.universal.qbank.service.OllamaAiService;
 import com.universal.qbank.service.OllamaStartupService;
 import com.universal.qbank.service.OperationLogService;
@@ -41,6 +42,7 @@ class AdminControllerMockMvcTest {
   @MockBean private SystemMonitorService systemMonitorService;
   @MockBean private OllamaAiService ollamaAiService;
   @MockBean private OllamaStartupService ollamaStartupService;
+  @MockBean private ExamAnswerStore examAnswerStore;
   @MockBean private JdbcTemplate jdbcTemplate;
 
   @Test
@@ -0,0 +1,158 @@
+package com.universal.qbank.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.entity.PaperEntity;
+import com.universal.qbank.entity.PaperItemEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.ExamRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.service.PaperService;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/** 主要读接口的 SQL 语句预算：数据量增加时语句数不应随之增长（N+1 回归时失败）。 */
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      // 统计是全局的，测量期间不让定时任务执行查询
+      "app.exam.autosave.flush-interval-ms=3600000",
+      "app.stats.overview.refresh-interval-ms=3600000",
+      "app.datasource.read-replica.lag-check-interval-ms=3600000"
+    })
+@AutoConfigureMockMvc(addFilters = false)
+class FetchPlanStatementBudgetTest {
+
+  private static final int QUESTIONS = 20;
+
+  private static final int EXAMS = 8;
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private PaperService paperService;
+
+  private Statistics statistics;
+
+  private String subjectId;
+
+  private PaperEntity paper;
+
+  private List<QuestionEntity> questions;
+
+  private final List<ExamEntity> exams = new ArrayList<>();
+
+  @BeforeEach
+  void seed() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    subjectId = "BUDGET-" + UUID.randomUUID();
+
+    questions = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      QuestionEntity q = new QuestionEntity();
+      q.setSubjectId(subjectId);
+      q.setType("SINGLE_CHOICE");
+      q.setDifficulty("EASY");
+      q.setStatus("APPROVED");
+      q.setStem("Budget question " + i);
+      q.setOptionsJson(
+          "[{\"text\":\"A\",\"isCorrect\":true},{\"text\":\"B\",\"isCorrect\":false}]");
+      q.setTags(new ArrayList<>(List.of("tag-a", "tag-b")));
+      q.setKnowledgePointIds(new ArrayList<>(List.of("kp-" + (i % 3), "kp-x")));
+      questions.add(q);
+    }
+    questions = questionRepository.saveAll(questions);
+
+    List<PaperItemEntity> items = new ArrayList<>();
+    for (QuestionEntity q : questions) {
+      PaperItemEntity item = new PaperItemEntity();
+      item.setItemType("QUESTION");
+      item.setQuestionId(q.getId());
+      item.setScore(5.0);
+      items.add(item);
+    }
+    paper = paperService.createComplexPaper("Budget paper", items);
+
+    for (int e = 0; e < EXAMS; e++) {
+      ExamEntity exam = new ExamEntity();
+      exam.setPaperId(paper.getId());
+      exam.setUserId("budget-student-" + e);
+      exam.setStartTime(OffsetDateTime.now());
+      exam.setEndTime(OffsetDateTime.now());
+      exam.setScore(60 + e);
+      List<ExamRecordEntity> records = new ArrayList<>();
+      for (QuestionEntity q : questions) {
+        ExamRecordEntity record = new ExamRecordEntity();
+        record.setQuestionId(q.getId());
+        record.setUserAnswer("A");
+        record.setIsCorrect(true);
+        record.setScore(5.0);
+        records.add(record);
+      }
+      exam.setRecords(records);
+      exams.add(examRepository.save(exam));
+    }
+  }
+
+  @AfterEach
+  void cleanUp() {
+    examRepository.deleteAll(exams);
+    paperService.deletePaper(paper.getId());
+    questionRepository.deleteAll(questions);
+  }
+
+  @Test
+  void questionPageLoadsTagsAndKnowledgePointsInBatches() throws Exception {
+    // 分页查询 + count + 标签批量 + 知识点批量
+    assertStatementBudget(
+        get("/api/questions").param("subjectId", subjectId).param("size", "10"), 4);
+  }
+
+  @Test
+  void paperListDoesNotQueryPerPaper() throws Exception {
+    // 试卷 + 题目列表批量 + 结构批量 + 题目预览
+    assertStatementBudget(get("/api/papers"), 4);
+  }
+
+  @Test
+  void paperDetailUsesEntityGraph() throws Exception {
+    // 试卷与结构 JOIN + 题目列表 + 题目预览
+    assertStatementBudget(get("/api/papers/" + paper.getId()), 3);
+  }
+
+  @Test
+  void paperAnalyticsLoadsRecordsOnce() throws Exception {
+    // 考试 + 试卷 + 题目列表 + 题目 + 作答记录 + 知识点批量
+    assertStatementBudget(get("/api/analytics/exams/" + paper.getId() + "/summary"), 6);
+  }
+
+  private void assertStatementBudget(RequestBuilder request, long budget) throws Exception {
+    statistics.clear();
+    mockMvc.perform(request).andExpect(status().isOk());
+    assertThat(statistics.getPrepareStatementCount())
+        .as("SQL statements executed")
+        .isLessThanOrEqualTo(budget);
+  }
+}
@@ -0,0 +1,74 @@
+package com.universal.qbank.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.service.QuestionFacetIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class QuestionControllerMockMvcTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private QuestionFacetIndex questionFacetIndex;
+
+  private QuestionEntity question;
+
+  @AfterEach
+  void cleanUp() {
+    if (question != null) {
+      questionRepository.deleteById(question.getId());
+    }
+  }
+
+  @Test
+  void updateWithoutTagsOrKnowledgePointsKeepsLazyCollections() throws Exception {
+    String tag = "put-lazy-" + UUID.randomUUID();
+    QuestionEntity q = new QuestionEntity();
+    q.setSubjectId("PUT-LAZY");
+    q.setType("SINGLE_CHOICE");
+    q.setDifficulty("EASY");
+    q.setStatus("DRAFT");
+    q.setStem("Original stem");
+    q.setTags(new ArrayList<>(List.of(tag)));
+    q.setKnowledgePointIds(new ArrayList<>(List.of("kp-put-lazy")));
+    question = questionRepository.save(q);
+
+    // 请求体不带 tags / knowledgePointIds，发布事件时需读取未初始化的延迟集合
+    mockMvc
+        .perform(
+            put("/api/questions/" + question.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stem\":\"Updated stem\"}"))
+        .andExpect(status().is2xxSuccessful());
+
+    assertThat(questionRepository.findById(question.getId()))
+        .get()
+        .extracting(QuestionEntity::getStem)
+        .isEqualTo("Updated stem");
+    QuestionFacetIndex.Result result =
+        questionFacetIndex.search(
+            Map.of(QuestionFacetIndex.Facet.TAG, QuestionFacetIndex.Filter.any(List.of(tag))),
+            0,
+            10,
+            0);
+    assertThat(result.ids()).containsExactly(question.getId());
+  }
+}
@@ -0,0 +1,96 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.universal.qbank.entity.QuestionEntity;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** 题目难度标定、按目标难度选题及能力在线更新。 */
+class AdaptivePracticeIndexTest {
+
+  private final AdaptivePracticeIndex index = new AdaptivePracticeIndex();
+
+  private static QuestionEntity question(String id, String difficulty, String status) {
+    QuestionEntity q = new QuestionEntity();
+    q.setId(id);
+    q.setSubjectId("math");
+    q.setType("SINGLE_CHOICE");
+    q.setDifficulty(difficulty);
+    q.setStatus(status);
+    q.setTags(List.of());
+    q.setKnowledgePointIds(List.of("kp-" + id));
+    return q;
+  }
+
+  @BeforeEach
+  void seed() {
+    index.onQuestionChanged(QuestionChangedEvent.saved(question("easy", "EASY", "APPROVED")));
+    index.onQuestionChanged(QuestionChangedEvent.saved(question("medium", "MEDIUM", "APPROVED")));
+    index.onQuestionChanged(QuestionChangedEvent.saved(question("hard", "HARD", "APPROVED")));
+    index.onQuestionChanged(QuestionChangedEvent.saved(question("draft", "MEDIUM", "DRAFT")));
+  }
+
+  @Test
+  void picksUnseenQuestionsNearestToTarget() {
+    assertThat(index.size()).isEqualTo(3);
+    Set<String> seen = Set.of("medium");
+    // 候选不足时按距离依次纳入，排除 medium 后只剩两道
+    assertThat(index.next("math", Set.of(), seen, 0.0))
+        .hasValueSatisfying(pick -> assertThat(pick.questionId()).isIn("easy", "hard"));
+    assertThat(index.next("math", Set.of("kp-hard"), Set.of(), -3.0))
+        .hasValueSatisfying(pick -> assertThat(pick.questionId()).isEqualTo("hard"));
+    assertThat(index.next("math", Set.of(), Set.of("easy", "medium", "hard"), 0.0)).isEmpty();
+    assertThat(index.next("physics", Set.of(), Set.of(), 0.0)).isEmpty();
+  }
+
+  @Test
+  void narrowKnowledgePointFilterOverLargePool() {
+    for (int i = 0; i < 20_000; i++) {
+      QuestionEntity q = question("bulk-" + i, i % 2 == 0 ? "EASY" : "MEDIUM", "APPROVED");
+      q.setKnowledgePointIds(List.of("kp-bulk"));
+      index.onQuestionChanged(QuestionChangedEvent.saved(q));
+    }
+    QuestionEntity narrow = question("narrow", "HARD", "APPROVED");
+    narrow.setKnowledgePointIds(List.of("kp-narrow", "kp-bulk"));
+    index.onQuestionChanged(QuestionChangedEvent.saved(narrow));
+
+    // 目标难度落在大量题目之间，限定知识点后仍只会选中该知识点下的题
+    for (int i = 0; i < 100; i++) {
+      assertThat(index.next("math", Set.of("kp-narrow", "kp-hard"), Set.of(), -1.0))
+          .hasValueSatisfying(pick -> assertThat(pick.questionId()).isIn("narrow", "hard"));
+    }
+    assertThat(index.next("math", Set.of("kp-narrow"), Set.of("narrow"), -1.0)).isEmpty();
+    assertThat(index.next("physics", Set.of("kp-narrow"), Set.of(), 1.0)).isEmpty();
+
+    // 题目移出知识点后不再被选中
+    narrow.setKnowledgePointIds(List.of("kp-bulk"));
+    index.onQuestionChanged(QuestionChangedEvent.saved(narrow));
+    assertThat(index.next("math", Set.of("kp-narrow"), Set.of(), 1.0)).isEmpty();
+  }
+
+  @Test
+  void answersRecalibrateDifficulty() {
+    double before = index.difficultyOf("easy").orElseThrow();
+    for (int i = 0; i < 20; i++) {
+      index.recordResult("easy", false);
+    }
+    assertThat(index.difficultyOf("easy").orElseThrow()).isGreaterThan(1.0).isGreaterThan(before);
+    assertThat(AdaptivePracticeIndex.calibrate(0.0, 1000, 0))
+        .isEqualTo(AdaptivePracticeIndex.MAX_DIFFICULTY);
+  }
+
+  @Test
+  void abilityMovesTowardObservedResults() {
+    assertThat(AdaptivePracticeService.updateAbility(0.0, 0.0, 0, true)).isGreaterThan(0.0);
+    assertThat(AdaptivePracticeService.updateAbility(0.0, 0.0, 0, false)).isLessThan(0.0);
+    // 答过的题越多步长越小
+    assertThat(AdaptivePracticeService.updateAbility(0.0, 0.0, 100, true))
+        .isLessThan(AdaptivePracticeService.updateAbility(0.0, 0.0, 0, true));
+    double target = AdaptivePracticeService.targetDifficulty(1.0, 0.7);
+    assertThat(AdaptivePracticeService.expectedSuccess(1.0, target)).isCloseTo(0.7, within(1e-9));
+  }
+}
@@ -0,0 +1,92 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.entity.StudentAbilityEntity;
+import com.universal.qbank.entity.StudentStatsEntity;
+import com.universal.qbank.repository.QuestionRepository;
+import com.universal.qbank.repository.StudentAbilityRepository;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 开始练习、作答、给出下一题的完整流程：能力估计落库，并计入知识点掌握度与学生统计。 */
+@SpringBootTest
+class AdaptivePracticeServiceTest {
+
+  private static final String OPTIONS =
+      "[{\"text\":\"right\",\"isCorrect\":true},{\"text\":\"wrong\",\"isCorrect\":false}]";
+
+  @Autowired private AdaptivePracticeService adaptivePracticeService;
+
+  @Autowired private AdaptivePracticeIndex adaptivePracticeIndex;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private StudentAbilityRepository studentAbilityRepository;
+
+  @Autowired private StudentMasteryService studentMasteryService;
+
+  @Autowired private StudentStatsService studentStatsService;
+
+  private void question(String subjectId, String difficulty) {
+    QuestionEntity q = new QuestionEntity();
+    q.setSubjectId(subjectId);
+    q.setType("SINGLE_CHOICE");
+    q.setDifficulty(difficulty);
+    q.setStatus("APPROVED");
+    q.setStem("Adaptive " + difficulty);
+    q.setOptionsJson(OPTIONS);
+    q.setKnowledgePointIds(List.of("kp-adaptive"));
+    questionRepository.save(q);
+  }
+
+  @Test
+  void answerUpdatesAbilityMasteryAndStatsThenServesNextQuestion() {
+    String subjectId = "ADAPTIVE-" + UUID.randomUUID();
+    String userId = "adaptive-user-" + UUID.randomUUID();
+    question(subjectId, "EASY");
+    question(subjectId, "MEDIUM");
+    question(subjectId, "HARD");
+    adaptivePracticeIndex.rebuild();
+
+    AdaptivePracticeService.SessionView started =
+        adaptivePracticeService.start(userId, subjectId, null);
+    assertThat(started.question()).isNotNull();
+    String first = started.question().id();
+
+    AdaptivePracticeService.AnswerResult result =
+        adaptivePracticeService.answer(started.sessionId(), first, "right");
+
+    assertThat(result.correct()).isTrue();
+    assertThat(result.correctAnswer()).isEqualTo("right");
+    assertThat(result.ability()).isGreaterThan(result.abilityBefore());
+    assertThat(result.session().answered()).isEqualTo(1);
+    assertThat(result.session().question()).isNotNull();
+    assertThat(result.session().question().id()).isNotEqualTo(first);
+
+    StudentAbilityEntity ability =
+        studentAbilityRepository
+            .findById(new StudentAbilityEntity.Key(userId, subjectId))
+            .orElseThrow();
+    assertThat(ability.getAnswered()).isEqualTo(1);
+    assertThat(ability.getAbility()).isCloseTo(result.ability(), within(0.001));
+
+    assertThat(studentMasteryService.masteryOf(userId))
+        .singleElement()
+        .satisfies(
+            m -> {
+              assertThat(m.knowledgePointId()).isEqualTo("kp-adaptive");
+              assertThat(m.attempts()).isEqualTo(1);
+              assertThat(m.wrongCount()).isZero();
+            });
+
+    StudentStatsEntity stats = studentStatsService.getStatsByUserId(userId);
+    assertThat(stats.getTotalQuestionsAnswered()).isEqualTo(1);
+    assertThat(stats.getCorrectAnswers()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,133 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import com.universal.qbank.config.ExamProperties;
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.repository.ExamAnswerSheetRepository;
+import com.universal.qbank.repository.ExamRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 答题卡编解码、逐题行与答题卡之间的读取回退、SHEET 模式写入清理旧行及历史行迁移。 */
+@SpringBootTest
+class ExamAnswerStoreTest {
+
+  @Autowired private ExamAnswerStore examAnswerStore;
+
+  @Autowired private ExamProperties examProperties;
+
+  @Autowired private ExamRepository examRepository;
+
+  @Autowired private ExamAnswerSheetRepository examAnswerSheetRepository;
+
+  @AfterEach
+  void restoreStorage() {
+    examProperties.setAnswerStorage(ExamProperties.STORAGE_ROWS);
+  }
+
+  private static ExamRecordEntity record(
+      String questionId, String answer, Boolean correct, Double score, String notes, boolean flag) {
+    ExamRecordEntity record = new ExamRecordEntity();
+    record.setQuestionId(questionId);
+    record.setUserAnswer(answer);
+    record.setIsCorrect(correct);
+    record.setScore(score);
+    record.setNotes(notes);
+    record.setIsFlagged(flag);
+    return record;
+  }
+
+  private static List<ExamRecordEntity> sampleRecords() {
+    return List.of(
+        record("q1", "A", true, 2.0, null, false),
+        record("q2", "B,C", false, 0.0, null, true),
+        record("q3", "主观作答", null, null, "待阅卷", false));
+  }
+
+  /** 按当前存储方式写入一场新考试的作答 */
+  private ExamEntity saveExam(List<ExamRecordEntity> records) {
+    ExamEntity exam = new ExamEntity();
+    exam.setUserId("answer-store-user");
+    exam = examRepository.save(exam);
+    examAnswerStore.write(exam, records);
+    return examRepository.save(exam);
+  }
+
+  private ExamEntity reload(ExamEntity exam) {
+    return examRepository.findById(exam.getId()).orElseThrow();
+  }
+
+  private static void assertSample(List<ExamRecordEntity> records) {
+    assertThat(records)
+        .extracting(
+            ExamRecordEntity::getQuestionId,
+            ExamRecordEntity::getUserAnswer,
+            ExamRecordEntity::getIsCorrect,
+            ExamRecordEntity::getScore,
+            ExamRecordEntity::getNotes,
+            ExamRecordEntity::getIsFlagged)
+        .containsExactly(
+            tuple("q1", "A", true, 2.0, null, false),
+            tuple("q2", "B,C", false, 0.0, null, true),
+            tuple("q3", "主观作答", null, null, "待阅卷", false));
+  }
+
+  @Test
+  void sheetRoundTripKeepsEveryField() {
+    examProperties.setAnswerStorage(ExamProperties.STORAGE_SHEET);
+    ExamEntity exam = saveExam(sampleRecords());
+
+    assertThat(examRepository.findRecordsByExamId(exam.getId())).isEmpty();
+    assertThat(examAnswerSheetRepository.existsById(exam.getId())).isTrue();
+    assertSample(examAnswerStore.read(reload(exam)));
+  }
+
+  @Test
+  void readAllFallsBackBetweenRowsAndSheets() {
+    ExamEntity rowsExam = saveExam(sampleRecords());
+    examProperties.setAnswerStorage(ExamProperties.STORAGE_SHEET);
+    ExamEntity sheetExam = saveExam(sampleRecords());
+    ExamEntity emptyExam = examRepository.save(new ExamEntity());
+
+    assertSample(examAnswerStore.read(reload(rowsExam)));
+    Map<Long, List<ExamRecordEntity>> all =
+        examAnswerStore.readAll(List.of(reload(rowsExam), reload(sheetExam), emptyExam));
+    assertSample(all.get(rowsExam.getId()));
+    assertSample(all.get(sheetExam.getId()));
+    assertThat(all.get(emptyExam.getId())).isEmpty();
+  }
+
+  @Test
+  void sheetWriteDeletesExistingRows() {
+    ExamEntity exam = saveExam(sampleRecords());
+    assertThat(examRepository.findRecordsByExamId(exam.getId())).hasSize(3);
+
+    examProperties.setAnswerStorage(ExamProperties.STORAGE_SHEET);
+    ExamEntity loaded = reload(exam);
+    List<ExamRecordEntity> records = examAnswerStore.read(loaded);
+    examAnswerStore.write(loaded, records);
+    examRepository.save(loaded);
+
+    assertThat(examRepository.findRecordsByExamId(exam.getId())).isEmpty();
+    assertSample(examAnswerStore.read(reload(exam)));
+  }
+
+  @Test
+  void migrateRowsToSheetsConvertsHistoricalRows() {
+    ExamEntity exam = saveExam(sampleRecords());
+
+    examProperties.setAnswerStorage(ExamProperties.STORAGE_SHEET);
+    assertThat(examAnswerStore.migrateRowsToSheets(10)).isGreaterThanOrEqualTo(1);
+
+    assertThat(examRepository.findRecordsByExamId(exam.getId())).isEmpty();
+    assertThat(examAnswerSheetRepository.existsById(exam.getId())).isTrue();
+    assertSample(examAnswerStore.read(reload(exam)));
+  }
+}
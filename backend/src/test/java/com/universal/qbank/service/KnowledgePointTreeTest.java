@@ -0,0 +1,53 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.universal.qbank.entity.KnowledgePointEntity;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** 知识点树按章节展开子树，父节点缺失的知识点作为根节点。 */
+class KnowledgePointTreeTest {
+
+  private static KnowledgePointEntity kp(String id, String parentId, String level, int sort) {
+    KnowledgePointEntity entity = new KnowledgePointEntity();
+    entity.setId(id);
+    entity.setName(id);
+    entity.setParentId(parentId);
+    entity.setSubjectId("math");
+    entity.setLevel(level);
+    entity.setSortOrder(sort);
+    return entity;
+  }
+
+  private final KnowledgePointTree tree =
+      KnowledgePointTree.build(
+          List.of(
+              kp("ch2", null, "CHAPTER", 2),
+              kp("ch1", null, "CHAPTER", 1),
+              kp("s1", "ch1", "SECTION", 1),
+              kp("p1", "s1", "POINT", 1),
+              kp("p2", "s1", "POINT", 2),
+              kp("s2", "ch2", "SECTION", 1),
+              kp("orphan", "missing", "POINT", 0)),
+          1L);
+
+  @Test
+  void chapterExpandsToAllDescendants() {
+    assertThat(tree.subtree("ch1")).containsExactlyInAnyOrder("ch1", "s1", "p1", "p2");
+    assertThat(tree.expand(List.of("s1", "ch2")))
+        .containsExactlyInAnyOrder("s1", "p1", "p2", "ch2", "s2");
+    assertThat(tree.subtree("unknown")).containsExactly("unknown");
+  }
+
+  @Test
+  void rootsAreSortedAndIncludeOrphans() {
+    assertThat(tree.roots(null))
+        .extracting(KnowledgePointTree.Node::id)
+        .containsExactly("orphan", "ch1", "ch2");
+    assertThat(tree.roots("math").get(1).children().get(0).children())
+        .extracting(KnowledgePointTree.Node::id)
+        .containsExactly("p1", "p2");
+    assertThat(tree.roots("physics")).isEmpty();
+  }
+}
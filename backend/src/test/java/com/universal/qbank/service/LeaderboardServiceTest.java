@@ -0,0 +1,41 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.universal.qbank.entity.StudentStatsEntity;
+import com.universal.qbank.entity.UserEntity;
+import com.universal.qbank.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 统计事件逆序到达时，榜单保留作答数更多的较新值。 */
+@SpringBootTest
+class LeaderboardServiceTest {
+
+  @Autowired private LeaderboardService leaderboardService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Test
+  void olderStatsEventArrivingLateIsIgnored() {
+    UserEntity user = new UserEntity();
+    user.setUsername("leaderboard-" + UUID.randomUUID());
+    user.setPassword("password");
+    user.setRole("STUDENT");
+    String userId = userRepository.save(user).getId();
+    LocalDate today = LocalDate.now();
+
+    leaderboardService.onStatsChanged(new StudentStatsChangedEvent(userId, 20, 15, 1, today));
+    leaderboardService.onStatsChanged(new StudentStatsChangedEvent(userId, 10, 8, 1, today));
+
+    Map<String, Object> rank = leaderboardService.rankOf(userId, null);
+    StudentStatsEntity stats = (StudentStatsEntity) rank.get("stats");
+    assertThat(stats.getTotalQuestionsAnswered()).isEqualTo(20L);
+    assertThat(stats.getCorrectAnswers()).isEqualTo(15L);
+    assertThat(rank.get("rank")).isNotNull();
+  }
+}
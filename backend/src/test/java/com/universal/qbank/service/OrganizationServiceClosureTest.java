@@ -0,0 +1,107 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.universal.qbank.entity.OrganizationEntity;
+import com.universal.qbank.entity.UserEntity;
+import com.universal.qbank.entity.UserOrganizationEntity;
+import com.universal.qbank.repository.UserOrganizationRepository;
+import com.universal.qbank.repository.UserRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 组织闭包表随创建、移动、删除同步维护，子树查询结果与层级一致。 */
+@SpringBootTest
+class OrganizationServiceClosureTest {
+
+  @Autowired private OrganizationService organizationService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private UserOrganizationRepository userOrganizationRepository;
+
+  private OrganizationEntity school;
+
+  private OrganizationEntity college;
+
+  private OrganizationEntity otherCollege;
+
+  private OrganizationEntity classA;
+
+  @BeforeEach
+  void createHierarchy() {
+    school = create("学校", "SCHOOL", null);
+    college = create("计算机学院", "COLLEGE", school.getId());
+    otherCollege = create("数学学院", "COLLEGE", school.getId());
+    classA = create("计科 1 班", "CLASS", college.getId());
+    join(student(), classA);
+    join(student(), classA);
+  }
+
+  @Test
+  void subtreeQueriesFollowHierarchy() {
+    assertThat(organizationService.getAncestors(classA.getId()))
+        .extracting(OrganizationEntity::getId)
+        .containsExactly(school.getId(), college.getId());
+    assertThat(organizationService.countDescendants(school.getId())).isEqualTo(3);
+    assertThat(organizationService.countSubtreeMembers(college.getId())).isEqualTo(2);
+    assertThat(organizationService.getSubtreeStudentIds(school.getId())).hasSize(2);
+    assertThat(organizationService.countSubtreeMembers(otherCollege.getId())).isZero();
+  }
+
+  @Test
+  void movingSubtreeRewiresPathsAndRebuildsTree() {
+    college.setParentId(otherCollege.getId());
+    organizationService.update(college.getId(), college);
+
+    assertThat(organizationService.getAncestors(classA.getId()))
+        .extracting(OrganizationEntity::getId)
+        .containsExactly(school.getId(), otherCollege.getId(), college.getId());
+    assertThat(organizationService.countSubtreeMembers(otherCollege.getId())).isEqualTo(2);
+    assertThat(organizationService.treeSnapshot().find(college.getId()))
+        .hasValueSatisfying(node -> assertThat(node.parentId()).isEqualTo(otherCollege.getId()));
+
+    OrganizationEntity underOwnClass = new OrganizationEntity();
+    underOwnClass.setName(college.getName());
+    underOwnClass.setType("COLLEGE");
+    underOwnClass.setParentId(classA.getId());
+    assertThatThrownBy(() -> organizationService.update(college.getId(), underOwnClass))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void deleteRemovesWholeSubtree() {
+    organizationService.delete(college.getId());
+
+    assertThat(organizationService.getById(classA.getId())).isEmpty();
+    assertThat(organizationService.countDescendants(school.getId())).isEqualTo(1);
+    assertThat(organizationService.treeSnapshot().find(classA.getId())).isEmpty();
+  }
+
+  private OrganizationEntity create(String name, String type, String parentId) {
+    OrganizationEntity org = new OrganizationEntity();
+    org.setName(name + "-" + UUID.randomUUID());
+    org.setType(type);
+    org.setParentId(parentId);
+    return organizationService.create(org);
+  }
+
+  private UserEntity student() {
+    UserEntity user = new UserEntity();
+    user.setUsername("closure-" + UUID.randomUUID());
+    user.setPassword("password");
+    user.setRole("STUDENT");
+    return userRepository.save(user);
+  }
+
+  private void join(UserEntity user, OrganizationEntity org) {
+    UserOrganizationEntity membership = new UserOrganizationEntity();
+    membership.setUserId(user.getId());
+    membership.setOrganizationId(org.getId());
+    userOrganizationRepository.save(membership);
+  }
+}
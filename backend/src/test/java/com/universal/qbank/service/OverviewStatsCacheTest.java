@@ -0,0 +1,33 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.QuestionRepository;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 新鲜期内概览统计直接返回同一份快照，不随写入立即变化。 */
+@SpringBootTest
+class OverviewStatsCacheTest {
+
+  @Autowired private StatisticsService statisticsService;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Test
+  void freshSnapshotIsServedWithoutRecomputing() {
+    Map<String, Object> first = statisticsService.getOverviewStats("90d");
+    assertThat(first).containsKeys("totalUsers", "totalQuestions", "snapshotAt");
+
+    QuestionEntity question = new QuestionEntity();
+    question.setStem("overview snapshot question");
+    questionRepository.save(question);
+
+    Map<String, Object> second = statisticsService.getOverviewStats("90D");
+    assertThat(second).isSameAs(first);
+    assertThat(second.get("totalQuestions")).isEqualTo(first.get("totalQuestions"));
+  }
+}
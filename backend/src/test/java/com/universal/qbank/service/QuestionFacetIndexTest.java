@@ -0,0 +1,82 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.service.QuestionFacetIndex.Facet;
+import com.universal.qbank.service.QuestionFacetIndex.Filter;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** 位图索引的组合筛选、分面计数、按创建顺序倒序分页及增量更新。 */
+class QuestionFacetIndexTest {
+
+  private final QuestionFacetIndex index = new QuestionFacetIndex();
+
+  private static QuestionEntity question(
+      String id, String subject, String difficulty, List<String> tags) {
+    QuestionEntity q = new QuestionEntity();
+    q.setId(id);
+    q.setSubjectId(subject);
+    q.setType("SINGLE_CHOICE");
+    q.setDifficulty(difficulty);
+    q.setStatus("APPROVED");
+    q.setTags(tags);
+    q.setKnowledgePointIds(List.of());
+    return q;
+  }
+
+  @BeforeEach
+  void seed() {
+    index.onQuestionChanged(
+        QuestionChangedEvent.saved(question("q1", "math", "EASY", List.of("algebra"))));
+    index.onQuestionChanged(
+        QuestionChangedEvent.saved(question("q2", "math", "HARD", List.of("algebra", "proof"))));
+    index.onQuestionChanged(
+        QuestionChangedEvent.saved(question("q3", "physics", "EASY", List.of("proof"))));
+  }
+
+  @Test
+  void combinesFiltersAndPagesNewestFirst() {
+    QuestionFacetIndex.Result result =
+        index.search(
+            Map.of(
+                Facet.SUBJECT, Filter.any(List.of("math", "physics")),
+                Facet.TAG, Filter.any(List.of("proof"))),
+            0,
+            10,
+            0);
+    assertThat(result.total()).isEqualTo(2);
+    assertThat(result.ids()).containsExactly("q3", "q2");
+
+    QuestionFacetIndex.Result allTags =
+        index.search(Map.of(Facet.TAG, new Filter(List.of("algebra", "proof"), true)), 0, 10, 0);
+    assertThat(allTags.ids()).containsExactly("q2");
+  }
+
+  @Test
+  void facetCountsIgnoreOwnFilter() {
+    QuestionFacetIndex.Result result =
+        index.search(Map.of(Facet.SUBJECT, Filter.any(List.of("math"))), 0, 1, 10);
+    assertThat(result.ids()).containsExactly("q2");
+    assertThat(result.facets().get("subjectId"))
+        .containsEntry("math", 2)
+        .containsEntry("physics", 1);
+    assertThat(result.facets().get("difficulty")).containsEntry("EASY", 1).containsEntry("HARD", 1);
+  }
+
+  @Test
+  void updatesAndDeletesAreApplied() {
+    index.onQuestionChanged(
+        QuestionChangedEvent.saved(question("q1", "physics", "EASY", List.of())));
+    index.onQuestionChanged(QuestionChangedEvent.deleted("q3"));
+
+    QuestionFacetIndex.Result physics =
+        index.search(Map.of(Facet.SUBJECT, Filter.any(List.of("physics"))), 0, 10, 10);
+    assertThat(physics.ids()).containsExactly("q1");
+    assertThat(physics.facets().get("tags")).isEmpty();
+    assertThat(index.size()).isEqualTo(2);
+  }
+}
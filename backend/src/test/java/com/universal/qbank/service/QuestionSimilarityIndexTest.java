@@ -0,0 +1,89 @@
+package com.universal.qbank.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.universal.qbank.entity.QuestionEntity;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class QuestionSimilarityIndexTest {
+
+  private static final String OPTIONS =
+      "[{\"key\":\"A\",\"text\":\"HashMap\"},{\"key\":\"B\",\"text\":\"TreeMap\"},"
+          + "{\"key\":\"C\",\"text\":\"LinkedList\"}]";
+
+  private static QuestionChangedEvent saved(String id, String stem, String optionsJson) {
+    QuestionEntity q = new QuestionEntity();
+    q.setId(id);
+    q.setStem(stem);
+    q.setOptionsJson(optionsJson);
+    return QuestionChangedEvent.saved(q);
+  }
+
+  @Test
+  void shouldFlagRewordedQuestionWithShuffledOptions() {
+    QuestionSimilarityIndex index = new QuestionSimilarityIndex();
+    index.onQuestionChanged(saved("q1", "下列哪个集合类基于红黑树实现，并且能够保持键的有序性？", OPTIONS));
+    index.onQuestionChanged(saved("q2", "简述 TCP 三次握手的过程以及每一步的作用。", null));
+
+    List<QuestionSimilarityIndex.DuplicateCandidate> candidates =
+        index.findCandidates(
+            "下列哪个集合类是基于红黑树实现的，并且能够保持键的有序性？",
+            List.of("TreeMap", "HashMap", "LinkedList"),
+            null,
+            QuestionSimilarityIndex.DEFAULT_MAX_DISTANCE,
+            5);
+
+    assertEquals(1, candidates.size());
+    assertEquals("q1", candidates.get(0).questionId());
+  }
+
+  @Test
+  void shouldExcludeSelfAndDeleted() {
+    QuestionSimilarityIndex index = new QuestionSimilarityIndex();
+    String stem = "Java 中 final 关键字的作用是什么";
+    index.onQuestionChanged(saved("q1", stem, null));
+
+    assertTrue(index.findCandidates(stem, List.of(), "q1", 7, 5).isEmpty());
+    assertEquals(1, index.findCandidates(stem, List.of(), null, 7, 5).size());
+
+    index.onQuestionChanged(QuestionChangedEvent.deleted("q1"));
+    assertTrue(index.findCandidates(stem, List.of(), null, 7, 5).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void shouldGroupDuplicatesIntoClusters() {
+    QuestionSimilarityIndex index = new QuestionSimilarityIndex();
+    index.onQuestionChanged(saved("a", "什么是数据库事务的隔离级别", null));
+    index.onQuestionChanged(saved("b", "什么是数据库事务的隔离级别？", null));
+    index.onQuestionChanged(saved("c", "请解释操作系统中的虚拟内存机制", null));
+
+    List<Map<String, Object>> clusters = index.findClusters(7, 2);
+
+    assertEquals(1, clusters.size());
+    assertEquals(List.of("a", "b"), clusters.get(0).get("questionIds"));
+  }
+
+  @Test
+  void shouldReuseClusterReportUntilIndexChanges() {
+    QuestionSimilarityIndex index = new QuestionSimilarityIndex();
+    index.onQuestionChanged(saved("a", "什么是数据库事务的隔离级别", null));
+    index.onQuestionChanged(saved("b", "什么是数据库事务的隔离级别？", null));
+
+    List<Map<String, Object>> first = index.findClusters(7, 2);
+    assertSame(first, index.findClusters(7, 2));
+
+    index.onQuestionChanged(saved("c", "什么是数据库事务的隔离级别。", null));
+    List<Map<String, Object>> updated = index.findClusters(7, 2);
+
+    assertEquals(1, updated.size());
+    assertEquals(List.of("a", "b", "c"), updated.get(0).get("questionIds"));
+
+    index.onQuestionChanged(QuestionChangedEvent.deleted("a"));
+    assertEquals(List.of("b", "c"), index.findClusters(7, 2).get(0).get("questionIds"));
+  }
+}
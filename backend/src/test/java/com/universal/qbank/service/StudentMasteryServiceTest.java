@@ -0,0 +1,140 @@
+package com.universal.qbank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.universal.qbank.entity.ExamEntity;
+import com.universal.qbank.entity.ExamRecordEntity;
+import com.universal.qbank.entity.QuestionEntity;
+import com.universal.qbank.repository.ExamRepository;
+import com.universal.qbank.repository.QuestionRepository;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/** 交卷结果按知识点增量累加，近期计数按半衰期衰减，未判定的作答不计入，历史考试只回放一次。 */
+@SpringBootTest
+class StudentMasteryServiceTest {
+
+  @Autowired private StudentMasteryService studentMasteryService;
+
+  @Autowired private QuestionRepository questionRepository;
+
+  @Autowired private ExamRepository examRepository;
+
+  private static ExamRecordEntity record(String questionId, Boolean correct) {
+    ExamRecordEntity record = new ExamRecordEntity();
+    record.setQuestionId(questionId);
+    record.setIsCorrect(correct);
+    return record;
+  }
+
+  private String question(List<String> knowledgePointIds) {
+    QuestionEntity question = new QuestionEntity();
+    question.setStem("mastery question");
+    question.setKnowledgePointIds(knowledgePointIds);
+    return questionRepository.save(question).getId();
+  }
+
+  /** 上线前已交卷的考试 */
+  private void finishedExam(String userId, OffsetDateTime endTime, ExamRecordEntity... records) {
+    ExamEntity exam = new ExamEntity();
+    exam.setUserId(userId);
+    exam.setStartTime(endTime.minusHours(1));
+    exam.setEndTime(endTime);
+    exam.setRecords(new ArrayList<>(List.of(records)));
+    examRepository.save(exam);
+  }
+
+  private StudentMasteryService.Mastery only(String userId) {
+    List<StudentMasteryService.Mastery> mastery = studentMasteryService.masteryOf(userId);
+    assertThat(mastery).hasSize(1);
+    return mastery.get(0);
+  }
+
+  @Test
+  void accumulatesResultsPerKnowledgePoint() {
+    String userId = "mastery-user";
+    String q1 = question(List.of("kp-a", "kp-b"));
+    String q2 = question(List.of("kp-a"));
+    String q3 = question(List.of());
+    OffsetDateTime now = OffsetDateTime.now();
+
+    studentMasteryService.recordResults(
+        userId, List.of(record(q1, false), record(q2, true), record(q3, null)), now);
+    studentMasteryService.recordResults(userId, List.of(record(q2, false)), now);
+
+    List<StudentMasteryService.Mastery> mastery = studentMasteryService.masteryOf(userId);
+    assertThat(mastery)
+        .extracting(StudentMasteryService.Mastery::knowledgePointId)
+        .containsExactly("kp-a", "kp-b");
+    StudentMasteryService.Mastery kpA = mastery.get(0);
+    assertThat(kpA.attempts()).isEqualTo(3);
+    assertThat(kpA.wrongCount()).isEqualTo(2);
+    assertThat(kpA.wrongRate()).isCloseTo(66.67, within(0.01));
+    assertThat(kpA.lastWrongQuestionId()).isEqualTo(q2);
+  }
+
+  @Test
+  void firstIncrementalApplyIncludesExistingHistory() {
+    String userId = "mastery-history-user";
+    String q = question(List.of("kp-history"));
+    finishedExam(userId, OffsetDateTime.now().minusDays(1), record(q, false));
+
+    studentMasteryService.recordResults(userId, List.of(record(q, true)), OffsetDateTime.now());
+
+    StudentMasteryService.Mastery kp = only(userId);
+    assertThat(kp.attempts()).isEqualTo(2);
+    assertThat(kp.wrongCount()).isEqualTo(1);
+    assertThat(kp.lastWrongQuestionId()).isEqualTo(q);
+  }
+
+  @Test
+  void concurrentBackfillsReplayHistoryOnce() throws Exception {
+    String userId = "mastery-concurrent-user";
+    String q = question(List.of("kp-concurrent"));
+    OffsetDateTime now = OffsetDateTime.now();
+    finishedExam(userId, now.minusDays(2), record(q, false));
+    finishedExam(userId, now.minusDays(1), record(q, true));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> reads = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        reads.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return studentMasteryService.masteryOrBackfill(userId);
+                }));
+      }
+      start.countDown();
+      for (Future<?> read : reads) {
+        read.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    studentMasteryService.ensureBackfilled(userId);
+
+    StudentMasteryService.Mastery kp = only(userId);
+    assertThat(kp.attempts()).isEqualTo(2);
+    assertThat(kp.wrongCount()).isEqualTo(1);
+  }
+
+  @Test
+  void olderAttemptsWeighLess() {
+    OffsetDateTime now = OffsetDateTime.now();
+    double ratio =
+        StudentMasteryService.weightAt(now.minusDays(30)) / StudentMasteryService.weightAt(now);
+    assertThat(ratio).isCloseTo(0.5, within(1e-9));
+  }
+}